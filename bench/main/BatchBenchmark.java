@@ -0,0 +1,56 @@
+package main;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.lang.invoke.MethodHandles.lookup;
+
+/**
+ * Measures {@link Splitter#splitAll(List, Splitter.Execution)} on a batch of command lines
+ * with each execution strategy.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchBenchmark {
+  record Job(boolean verbose, Optional<Integer> priority, List<String> tags, String name, Path... files) {}
+
+  @Param({"100000"})
+  private int size;
+
+  @Param({"SEQUENTIAL", "PARALLEL", "VIRTUAL_THREADS"})
+  private Splitter.Execution execution;
+
+  private Splitter<Job> splitter;
+  private List<String[]> commandLines;
+
+  @Setup
+  public void setup() {
+    splitter = Splitter.of(lookup(), Job.class);
+    commandLines = IntStream.range(0, size)
+        .mapToObj(i -> new String[] { "verbose", "priority", "" + (i % 10), "tags", "a", "tags", "b", "job" + i, "a.txt", "b.txt" })
+        .toList();
+  }
+
+  @Benchmark
+  public Splitter.Batch<Job> splitAll() {
+    return splitter.splitAll(commandLines, execution);
+  }
+}
@@ -0,0 +1,82 @@
+package main;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the name lookup of {@link NameMatcher} with the previous {@code HashMap} based lookup
+ * that requires a substring for the {@code name=value} form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameMatcherBenchmark {
+  private static final int TOKENS = 64;
+
+  @Param({"10", "1000", "10000"})
+  int size;
+
+  private String[] tokens;
+  private HashMap<String, Integer> hashMap;
+  private NameMatcher nameMatcher;
+
+  @Setup
+  public void setup() {
+    var indexByName = new LinkedHashMap<String, Integer>();
+    for (var i = 0; i < size; i++) {
+      indexByName.put("-XX:+UseOption" + i, i);
+    }
+    hashMap = new HashMap<>(indexByName);
+    nameMatcher = new NameMatcher(indexByName);
+
+    // a mix of --name, --name=value and unknown arguments
+    var random = new Random(42);
+    tokens = new String[TOKENS];
+    for (var i = 0; i < TOKENS; i++) {
+      var name = "-XX:+UseOption" + random.nextInt(size);
+      tokens[i] = switch (i % 4) {
+        case 0, 1 -> name;
+        case 2 -> name + "=value" + i;
+        default -> "file" + i + ".txt";
+      };
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOKENS)
+  public void hashMap(Blackhole blackhole) {
+    for (var token : tokens) {
+      var separator = token.indexOf('=');
+      var name = separator == -1 ? token : token.substring(0, separator);
+      var index = hashMap.get(name);
+      blackhole.consume(index == null ? -1 : (int) index);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOKENS)
+  public void nameMatcher(Blackhole blackhole) {
+    for (var token : tokens) {
+      var separator = token.indexOf('=');
+      blackhole.consume(nameMatcher.match(token, 0, separator == -1 ? token.length() : separator));
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package main;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.lang.invoke.MethodHandles.lookup;
+
+/**
+ * Compares the cost of accepting a valid command line with the cost of rejecting an invalid one,
+ * with the default exceptions and with {@link Splitter#withLightweightErrors() lightweight exceptions}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RejectionBenchmark {
+  record Job(boolean verbose, Optional<Integer> priority, List<String> tags, String name) {}
+
+  @Param({"10", "10000"})
+  private int extra;
+
+  private Splitter<Job> splitter;
+  private Splitter<Job> lightweightSplitter;
+  private String[] valid;
+  private String[] invalid;
+
+  @Setup
+  public void setup() {
+    splitter = Splitter.of(lookup(), Job.class);
+    lightweightSplitter = splitter.withLightweightErrors();
+    valid = new String[] { "verbose", "priority", "1", "tags", "a", "job" };
+    // the job name followed by unhandled arguments
+    invalid = IntStream.range(0, extra + 1).mapToObj(i -> "job" + i).toArray(String[]::new);
+  }
+
+  @Benchmark
+  public Job accept() {
+    return splitter.split(valid);
+  }
+
+  @Benchmark
+  public Object reject() {
+    try {
+      return splitter.split(invalid);
+    } catch (SplittingException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object rejectLightweight() {
+    try {
+      return lightweightSplitter.split(invalid);
+    } catch (SplittingException e) {
+      return e;
+    }
+  }
+}
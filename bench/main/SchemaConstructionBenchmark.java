@@ -0,0 +1,79 @@
+package main;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.lang.invoke.MethodHandles.lookup;
+
+/**
+ * Measures {@link Splitter#of(java.lang.invoke.MethodHandles.Lookup, Class, ConverterResolver)}
+ * for a record of 50 components of mixed types.
+ * <p>
+ * With {@code resolver=uncached}, the converters are resolved again for each splitter,
+ * this is the cost of the factory discovery of {@link ConverterResolver#reflected}.
+ * With {@code resolver=cached}, the converters are resolved by the default resolver.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchemaConstructionBenchmark {
+  enum Level { debug, info, warning, error }
+
+  record Wide(
+      boolean flag0, boolean flag1, boolean flag2, boolean flag3, boolean flag4,
+      Optional<Integer> int0, Optional<Integer> int1, Optional<Integer> int2, Optional<Integer> int3, Optional<Integer> int4,
+      Optional<Long> long0, Optional<Long> long1, Optional<Long> long2, Optional<Long> long3, Optional<Long> long4,
+      Optional<Path> path0, Optional<Path> path1, Optional<Path> path2, Optional<Path> path3, Optional<Path> path4,
+      Optional<LocalDate> date0, Optional<LocalDate> date1, Optional<LocalTime> time0, Optional<LocalTime> time1, Optional<Instant> instant,
+      Optional<Duration> duration0, Optional<Duration> duration1, Optional<Level> level0, Optional<Level> level1, Optional<Level> level2,
+      Optional<File> file0, Optional<File> file1, Optional<BigDecimal> decimal0, Optional<BigDecimal> decimal1, Optional<URI> uri,
+      Optional<BigInteger> integer0, Optional<BigInteger> integer1, Optional<Double> double0, Optional<Double> double1, Optional<Short> shortValue,
+      List<String> strings0, List<String> strings1, List<Integer> ints, List<Path> paths, List<Level> levels,
+      Optional<String> string0, Optional<String> string1, Optional<String> string2, String required, Path... rest) {}
+
+  @Param({"uncached", "cached"})
+  private String resolver;
+
+  private ConverterResolver converterResolver;
+
+  @Setup
+  public void setup() {
+    converterResolver = switch (resolver) {
+      case "uncached" -> ConverterResolver.of(ConverterResolver::basic)
+          .or(ConverterResolver::enumerated)
+          .or(ConverterResolver::reflected)
+          .unwrap();
+      case "cached" -> ConverterResolver.defaultResolver();
+      default -> throw new AssertionError(resolver);
+    };
+  }
+
+  @Benchmark
+  public Splitter<Wide> splitterOf() {
+    return Splitter.of(lookup(), Wide.class, converterResolver);
+  }
+}
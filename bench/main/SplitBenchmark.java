@@ -0,0 +1,126 @@
+package main;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.lang.invoke.MethodHandles.lookup;
+
+/**
+ * Measures the throughput of {@link Splitter#split(String...)} for each kind of option,
+ * with a schema created from options (the result is an {@link ArgumentMap}) and with the
+ * equivalent record schema, from one occurrence of the option to 10^5 occurrences.
+ * <p>
+ * The allocation rate is reported by the JMH GC profiler:
+ * <pre>
+ *   java build/bench.java SplitBenchmark -prof gc
+ *   java build/bench.java SplitBenchmark -p shape=REPEATABLE -p count=1,100000 -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SplitBenchmark {
+  record Flags(boolean verbose) {}
+  record Clusters(@Name("-a") boolean a, @Name("-b") boolean b, @Name("-c") boolean c) {}
+  record Singles(Optional<String> level) {}
+  record Repeatables(List<String> include) {}
+  record Nested(List<String> include) {}
+  record Branches(Nested sub) {}
+  record Varargs(String... files) {}
+
+  public enum Shape {
+    /** {@code verbose verbose ...} */
+    FLAG,
+    /** {@code -abc -abc ...} */
+    CLUSTER,
+    /** {@code level v level v ...} */
+    SINGLE,
+    /** {@code include v0 include v1 ...} */
+    REPEATABLE,
+    /** {@code sub include v0 include v1 ...} */
+    BRANCH,
+    /** {@code f0 f1 ...} */
+    VARARGS
+  }
+
+  @Param
+  private Shape shape;
+
+  @Param({"1", "10", "100", "1000", "10000", "100000"})
+  private int count;
+
+  private Splitter<ArgumentMap> optionSplitter;
+  private Splitter<?> recordSplitter;
+  private String[] arguments;
+
+  @Setup
+  public void setup() {
+    var lookup = lookup();
+    switch (shape) {
+      case FLAG -> {
+        optionSplitter = Splitter.of(Option.flag("verbose"));
+        recordSplitter = Splitter.of(lookup, Flags.class);
+        arguments = repeat(i -> Stream.of("verbose"));
+      }
+      case CLUSTER -> {
+        optionSplitter = Splitter.of(Option.flag("-a"), Option.flag("-b"), Option.flag("-c"));
+        recordSplitter = Splitter.of(lookup, Clusters.class);
+        arguments = repeat(i -> Stream.of("-abc"));
+      }
+      case SINGLE -> {
+        optionSplitter = Splitter.of(Option.single("level"));
+        recordSplitter = Splitter.of(lookup, Singles.class);
+        arguments = repeat(i -> Stream.of("level", "v"));
+      }
+      case REPEATABLE -> {
+        optionSplitter = Splitter.of(Option.repeatable("include"));
+        recordSplitter = Splitter.of(lookup, Repeatables.class);
+        arguments = repeat(i -> Stream.of("include", "v" + i));
+      }
+      case BRANCH -> {
+        var nested = new Schema<Object>(List.of(Option.repeatable("include")), list -> list.get(0));
+        optionSplitter = Splitter.of(new Option.Branch<>(List.of("sub"), value -> value, nested));
+        recordSplitter = Splitter.of(lookup, Branches.class);
+        arguments = Stream.concat(Stream.of("sub"), Stream.of(repeat(i -> Stream.of("include", "v" + i))))
+            .toArray(String[]::new);
+      }
+      case VARARGS -> {
+        optionSplitter = Splitter.of(Option.varargs("files"));
+        recordSplitter = Splitter.of(lookup, Varargs.class);
+        arguments = repeat(i -> Stream.of("f" + i));
+      }
+    }
+  }
+
+  private String[] repeat(IntFunction<Stream<String>> occurrence) {
+    return IntStream.range(0, count).boxed().flatMap(occurrence::apply).toArray(String[]::new);
+  }
+
+  @Benchmark
+  public ArgumentMap options() {
+    return optionSplitter.split(arguments);
+  }
+
+  @Benchmark
+  public Object record() {
+    return recordSplitter.split(arguments);
+  }
+}
@@ -0,0 +1,78 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.spi.ToolProvider;
+import java.util.stream.Stream;
+
+class bench {
+  private static final String MAVEN_CENTRAL = "https://repo.maven.apache.org/maven2/";
+  private static final List<String> LIBRARIES = List.of(
+      "org/openjdk/jmh/jmh-core/1.37/jmh-core-1.37.jar",
+      "org/openjdk/jmh/jmh-generator-annprocess/1.37/jmh-generator-annprocess-1.37.jar",
+      "net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar",
+      "org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar");
+
+  // run all benchmarks with: java build/bench.java
+  // run some benchmarks with: java build/bench.java NameMatcherBenchmark -p size=10
+  // report the allocation rate with: java build/bench.java SplitBenchmark -prof gc
+  public static void main(String... args) throws Exception {
+    var lib = Files.createDirectories(Path.of("lib"));
+    var classPath = new ArrayList<String>();
+    for (var library : LIBRARIES) {
+      classPath.add(download(lib, library).toString());
+    }
+    var libraries = String.join(File.pathSeparator, classPath);
+
+    // benchmarks are declared in the package main to have access to package-private classes,
+    // so they are compiled with the sources of the module main on the class path
+    var sources = new ArrayList<String>();
+    sources.addAll(sources(Path.of("main", "main")));
+    sources.addAll(sources(Path.of("main", "main", "internal")));
+    sources.addAll(sources(Path.of("bench", "main")));
+    var javac = new ArrayList<>(List.of("-d", "classes/bench", "--class-path", libraries, "--processor-path", libraries));
+    javac.addAll(sources);
+    tool("javac", javac);
+
+    var java = new ArrayList<>(List.of(
+        "--class-path", "classes/bench" + File.pathSeparator + libraries, "org.openjdk.jmh.Main"));
+    java.addAll(List.of(args));
+    java(java);
+  }
+
+  static Path download(Path lib, String library) throws IOException {
+    var file = lib.resolve(library.substring(library.lastIndexOf('/') + 1));
+    if (Files.notExists(file)) {
+      System.out.println("[download] " + MAVEN_CENTRAL + library);
+      try (InputStream input = URI.create(MAVEN_CENTRAL + library).toURL().openStream()) {
+        Files.copy(input, file);
+      }
+    }
+    return file;
+  }
+
+  static List<String> sources(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(Path::toString).filter(name -> name.endsWith(".java")).sorted().toList();
+    }
+  }
+
+  static void tool(String name, List<String> args) {
+    System.out.println(name + " " + args);
+    var code = ToolProvider.findFirst(name).orElseThrow().run(System.out, System.err, args.toArray(String[]::new));
+    if (code != 0) throw new RuntimeException();
+  }
+
+  static void java(List<String> args) throws Exception {
+    var java = Path.of(System.getProperty("java.home"), "bin", "java" /*.exe*/);
+    var process = new ProcessBuilder(java.toString());
+    process.command().addAll(args);
+    System.out.println(process.command());
+    var code = process.inheritIO().start().waitFor();
+    if (code != 0) throw new RuntimeException();
+  }
+}
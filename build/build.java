@@ -6,8 +6,8 @@ import java.util.spi.ToolProvider;
 
 class build {
   public static void main(String... args) throws Exception {
-    tool("javac -Xlint -Werror        --module main --module-source-path . -d classes");
-    tool("javac --module-path classes --module test --module-source-path . -d classes");
+    tool("javac -Xlint -Werror        --module main,processor --module-source-path . -d classes");
+    tool("javac --module-path classes --processor-module-path classes --module test --module-source-path . -d classes");
     if (args.length == 0) {
       java("--module-path classes --module test/test.AllTests");
     } else {
@@ -15,12 +15,20 @@ public class generate {
   private static FileContent gatherAllFiles() throws IOException {
     var imports = new TreeSet<String>();
     var lines = new ArrayList<String>();
-    try (var files = Files.newDirectoryStream(Path.of("main", "main"), "*.java")) {
+    for (var directory : List.of(Path.of("main", "main"), Path.of("main", "main", "internal"))) {
+      gatherFiles(directory, imports, lines);
+    }
+    return new FileContent(imports, lines);
+  }
+
+  private static void gatherFiles(Path directory, Set<String> imports, List<String> lines) throws IOException {
+    try (var files = Files.newDirectoryStream(directory, "*.java")) {
       for (var file : files) {
         var topLevel = true;
         var insideComment = false;
         for (var line : Files.readAllLines(file)) {
           if (line.startsWith("package ")) continue;
+          if (line.startsWith("import main.")) continue;  // all the classes are merged in one file
           if (line.startsWith("import ")) {
             imports.add(line);
             continue;
@@ -45,7 +53,6 @@ public class generate {
         }
       }
     }
-    return new FileContent(imports, lines);
   }
 
   private static FileContent applyTemplate(List<String> template, FileContent content) {
@@ -0,0 +1,4 @@
+package main.jmh_generated;
+public class BatchBenchmark_jmhType extends BatchBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package main.jmh_generated;
+public class EngineBenchmark_jmhType extends EngineBenchmark_jmhType_B3 {
+}
+
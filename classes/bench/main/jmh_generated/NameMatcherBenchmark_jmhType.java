@@ -0,0 +1,4 @@
+package main.jmh_generated;
+public class NameMatcherBenchmark_jmhType extends NameMatcherBenchmark_jmhType_B3 {
+}
+
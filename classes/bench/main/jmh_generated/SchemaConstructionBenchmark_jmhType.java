@@ -0,0 +1,4 @@
+package main.jmh_generated;
+public class SchemaConstructionBenchmark_jmhType extends SchemaConstructionBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,32 @@
+package test.unit;
+
+// generated by RecordSchemaProcessor from test.unit.RecordSchemaProcessorTests.Command
+
+/**
+ * Creates the schema of {@link test.unit.RecordSchemaProcessorTests.Command} without reflection.
+ */
+final class RecordSchemaProcessorTests_CommandSchema {
+  private RecordSchemaProcessorTests_CommandSchema() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Returns a new schema of {@link test.unit.RecordSchemaProcessorTests.Command}.
+   * @return a new schema of {@link test.unit.RecordSchemaProcessorTests.Command}.
+   */
+  @SuppressWarnings("unchecked")
+  public static main.Schema<test.unit.RecordSchemaProcessorTests.Command> schema() {
+    return new main.Schema<test.unit.RecordSchemaProcessorTests.Command>(java.util.List.<main.Option<?>>of(
+            main.Option.flag("-v", "--verbose").help("be verbose"),
+            main.Option.single("--level").<test.unit.RecordSchemaProcessorTests.Level>convert(test.unit.RecordSchemaProcessorTests.Level::valueOf),
+            main.Option.single("--count").mapToInt(Integer::parseInt),
+            main.Option.repeatable("--timeout").<java.time.Duration>convert(java.time.Duration::parse),
+            main.Option.varargs("files").<java.nio.file.Path>convert(java.nio.file.Path::of, java.nio.file.Path[]::new)),
+        values -> new test.unit.RecordSchemaProcessorTests.Command(
+            (boolean) values.get(0),
+            (java.util.Optional<test.unit.RecordSchemaProcessorTests.Level>) values.get(1),
+            (java.util.OptionalInt) values.get(2),
+            (java.util.List<java.time.Duration>) values.get(3),
+            (java.nio.file.Path[]) values.get(4)));
+  }
+}
@@ -0,0 +1,32 @@
+package test.unit;
+
+// generated by RecordSchemaProcessor from test.unit.RecordSchemaProcessorTests.Connect
+
+/**
+ * Creates the schema of {@link test.unit.RecordSchemaProcessorTests.Connect} without reflection.
+ */
+final class RecordSchemaProcessorTests_ConnectSchema {
+  private RecordSchemaProcessorTests_ConnectSchema() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Returns a new schema of {@link test.unit.RecordSchemaProcessorTests.Connect}.
+   * @return a new schema of {@link test.unit.RecordSchemaProcessorTests.Connect}.
+   */
+  @SuppressWarnings("unchecked")
+  public static main.Schema<test.unit.RecordSchemaProcessorTests.Connect> schema() {
+    var schema0 = new main.Schema<test.unit.RecordSchemaProcessorTests.Address>(java.util.List.<main.Option<?>>of(
+            main.Option.required("host"),
+            main.Option.required("port").mapToInt(Integer::parseInt)),
+        values -> new test.unit.RecordSchemaProcessorTests.Address(
+            (java.lang.String) values.get(0),
+            (int) values.get(1)));
+    return new main.Schema<test.unit.RecordSchemaProcessorTests.Connect>(java.util.List.<main.Option<?>>of(
+            main.Option.flag("verbose"),
+            new main.Option.Branch<test.unit.RecordSchemaProcessorTests.Address>(java.util.List.of("address"), value -> value, schema0)),
+        values -> new test.unit.RecordSchemaProcessorTests.Connect(
+            (boolean) values.get(0),
+            (test.unit.RecordSchemaProcessorTests.Address) values.get(1)));
+  }
+}
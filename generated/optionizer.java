@@ -0,0 +1,5623 @@
+// Generated on 2026-10-16T06:43:49.153632258Z[Etc/UTC]
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.IntStream.range;
+
+
+public class optionizer {
+  
+  
+  
+  /**
+   * Helper class that generate the help associated to a command line arguments.
+   */
+  static public final class Manual {
+    private Manual() {
+      throw new AssertionError();
+    }
+  
+    /**
+     * Generate the help of a command line application.
+     * This is a convenient method equivalent to
+     * <pre>
+     *   help(schema, 2)
+     * </pre>
+     *
+     * @param schema the schema of the command line.
+     * @return a string describing each argument of the command line.
+     */
+    public static String help(Schema<?> schema) {
+      return help(schema, 2);
+    }
+  
+    /**
+     * Generate the help of a command line application.
+     *
+     * @param schema the schema of the command line.
+     * @param indent the number of spaces when indenting.
+     * @return a string describing each argument of the command line.
+     */
+    public static String help(Schema<?> schema, int indent) {
+      requireNonNull(schema, "schema is null");
+      if (indent < 0) throw new IllegalArgumentException("invalid indent " + indent);
+      var joiner = new StringJoiner("\n");
+      for (var option : schema.options.stream().sorted(comparing(Manual::name)).toList()) {
+        var text = option.help();
+        if (text.isEmpty()) continue;
+        var suffix =
+            switch (option.type()) {
+              case BRANCH -> " (branch)";
+              case FLAG -> " (flag)";
+              case SINGLE -> " <value>";
+              case REPEATABLE -> " <value> (repeatable)";
+              case REQUIRED -> " (required)";
+              case VARARGS -> "...";
+            };
+        var names = String.join(", ", option.names());
+        joiner.add(names + suffix);
+        joiner.add(text.indent(indent).stripTrailing());
+      }
+      return joiner.toString();
+    }
+  
+    private static String name(Option<?> option) {
+      return option.names().iterator().next();
+    }
+  }
+  
+  
+  /**
+   * Uses {@link Record}s to derive a {@link Schema} from the {@link RecordComponent}s as well as
+   * container for the result values.
+   */
+  static final class RecordSchemaSupport {
+    private RecordSchemaSupport() {
+      throw new AssertionError();
+    }
+  
+    static <T extends Record> Schema<T> toSchema(Lookup lookup, Class<T> schema, ConverterResolver resolver) {
+      var event = new JfrEvents.SchemaBuildEvent();
+      event.begin();
+      var components = schema.getRecordComponents();
+      var constructor = constructor(lookup, schema, Stream.of(components).map(RecordComponent::getType).toArray(Class[]::new));
+      var result = toSchema(schema, constructor,
+          Stream.of(components).<Option<?>>map(component -> toOption(lookup, component, resolver)).toList());
+      if (event.shouldCommit()) {
+        event.recordClass = schema;
+        event.optionCount = components.length;
+        event.commit();
+      }
+      return result;
+    }
+  
+    /**
+     * Returns a schema that creates instances of the record class using the canonical constructor
+     * adapted by {@link #constructor(Lookup, Class, Class[])}.
+     */
+    static <T extends Record> Schema<T> toSchema(Class<T> schema, MethodHandle constructor, List<Option<?>> options) {
+      return Schema.ofArray(options,
+          (Schema.Finalizer<T> & Serializable) values -> createRecord(schema, constructor, values));
+    }
+  
+    static String[] names(RecordComponent component) {
+      var nameAnno = getAnnotation(component, Name.class, Name::value);
+      return nameAnno != null
+          ? nameAnno
+          : new String[] { component.getName().replace('_', '-') };
+    }
+  
+    static String help(RecordComponent component) {
+      var helpAnno = getAnnotation(component, Help.class, Help::value);
+      return helpAnno != null ? String.join("\n", helpAnno) : "";
+    }
+  
+    private static Option<?> toOption(Lookup lookup, RecordComponent component, ConverterResolver resolver) {
+      var names = names(component);
+      var type = optionTypeFrom(component.getType());
+      var help = help(component);
+      var converter = resolver.resolve(lookup, component.getGenericType()).orElse(null);
+      if (converter == null) {
+        // int, long, double, OptionalInt, int[], etc. are bound without boxing the values
+        // if the resolver has no converter for them
+        var specialized = AbstractOption.newSpecializedOption(component.getType(), names, help);
+        if (specialized != null) {
+          return specialized;
+        }
+        throw new UnsupportedOperationException("no converter for component " + component);
+      }
+      var nestedSchema = toNestedSchema(component);
+      var optionSchema = nestedSchema == null ? null: toSchema(lookup, nestedSchema, resolver);
+      return AbstractOption.newOption(type, names, converter, help, optionSchema);
+    }
+  
+    private static <A extends Annotation, V> String[] getAnnotation(RecordComponent component, Class<A> annotationClass, Function<A, String[]> value) {
+      var annotations = component.getAnnotations();
+      if (annotations.length == 0) {  // fast path
+        return null;
+      }
+      var annotation = component.getAnnotation(annotationClass);
+      if (annotation != null) {
+        return value.apply(annotation);
+      }
+      // we look for an annotation named 'Name' or 'Help' but maybe in another package
+      return (String[]) Arrays.stream(annotations)
+          .filter(ann -> annotationClass.getSimpleName().equals(ann.annotationType().getSimpleName()))
+          .mapMulti((ann, consumer) -> {
+            try {
+              consumer.accept((ann.annotationType().getMethod("value").invoke(ann)));
+            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException  e) {
+              // skip the value
+            }
+          })
+          .filter(v -> v instanceof String[])
+          .reduce((v1, v2) -> { throw new IllegalStateException("more than one annotation named " + annotationClass.getSimpleName()); })
+          .orElse(null);
+    }
+  
+    static OptionType optionTypeFrom(Class<?> type) {
+      if (type.isRecord()) return OptionType.BRANCH;
+      if (type == Boolean.class || type == boolean.class) return OptionType.FLAG;
+      if (type == Optional.class) return OptionType.SINGLE;
+      if (type == List.class) return OptionType.REPEATABLE;
+      if (type.isArray()) return OptionType.VARARGS;
+      return OptionType.REQUIRED;
+    }
+  
+    static Class<? extends Record> toNestedSchema(RecordComponent component) {
+      if (component.getType().isRecord())
+        return component.getType().asSubclass(Record.class);
+      return (component.getGenericType() instanceof ParameterizedType paramType
+          && paramType.getActualTypeArguments()[0] instanceof Class<?> nestedType
+          && nestedType.isRecord())
+          ? nestedType.asSubclass(Record.class)
+          : null;
+    }
+  
+    /**
+     * Returns the canonical constructor adapted to take all the values as an array,
+     * the method handle type is {@code (Object[])Object}.
+     */
+    static MethodHandle constructor(Lookup lookup, Class<?> schema, Class<?>[] types) {
+      try {
+        return lookup.findConstructor(schema, MethodType.methodType(void.class, types))
+            .asFixedArity()
+            .asSpreader(Object[].class, types.length)
+            .asType(MethodType.methodType(Object.class, Object[].class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  
+    private static <T extends Record> T createRecord(Class<T> schema, MethodHandle constructor, Object[] values) {
+      try {
+        return schema.cast((Object) constructor.invokeExact(values));
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new UndeclaredThrowableException(e);
+      }
+    }
+  }
+  
+  
+  
+  /**
+   * The parse plan of a {@link Schema}, all the data structures used to split the command line
+   * that only depend on the options.
+   * <p>
+   * A plan is immutable, it is computed once when the schema is created and shared by all the calls
+   * to {@link Schema#split(ArgumentCursor, boolean, boolean, long)} that only allocate the values of the arguments.
+   * The method {@link #toString()} describes the plan, this is useful for debugging.
+   */
+  static final class SchemaPlan {
+    private final Option<?>[] options;
+    private final IdentityHashMap<Option<?>, Integer> indexMap;  // immutable, the slot of each option
+    private final NameMatcher nameMatcher;
+    private final int[] requiredIndexes;
+    private final int[] repeatableIndexes;
+    private final int[] blockingIndexes;
+    private final int varargsIndex;
+    private final int flagCount;
+    private final int[] flagTable;  // index of the flag option named '-' + c for each ASCII character c or -1
+    private final Object[] defaultValues;
+  
+    SchemaPlan(List<Option<?>> options) {
+      var opts = options.toArray(Option<?>[]::new);
+      var indexMap = new IdentityHashMap<Option<?>, Integer>();
+      var optionalIndexByName = new LinkedHashMap<String, Integer>();
+      for (var i = 0; i < opts.length; i++) {
+        var option = opts[i];
+        indexMap.put(option, i);
+        if (AbstractOption.isPositional(option)) {
+          continue;  // skip positional option
+        }
+        for (var name : option.names()) {
+          optionalIndexByName.put(name, i);
+        }
+      }
+      var flagCount = (int) options.stream().filter(AbstractOption::isFlag).count();
+      this.options = opts;
+      this.indexMap = indexMap;
+      this.nameMatcher = new NameMatcher(optionalIndexByName);
+      this.requiredIndexes = range(0, opts.length).filter(i -> AbstractOption.isRequired(opts[i])).toArray();
+      this.repeatableIndexes = range(0, opts.length).filter(i -> opts[i].type() == OptionType.REPEATABLE).toArray();
+      this.blockingIndexes = range(0, opts.length).filter(i -> AbstractOption.isBlocking(opts[i])).toArray();
+      this.varargsIndex = range(0, opts.length).filter(i -> AbstractOption.isVarargs(opts[i])).findFirst().orElse(-1);
+      this.flagCount = flagCount;
+      this.flagTable = flagTable(opts);
+      this.defaultValues = Arrays.stream(opts).map(AbstractOption::defaultValue).toArray();
+    }
+  
+    int size() {
+      return options.length;
+    }
+  
+    Option<?> option(int index) {
+      return options[index];
+    }
+  
+    /**
+     * Returns the index (the slot) of the option or -1, the table is computed once per schema.
+     */
+    int index(Option<?> option) {
+      var index = indexMap.get(option);
+      return index == null ? -1 : index;
+    }
+  
+    /**
+     * Returns the index of the optional option with that name or -1.
+     */
+    int optionalIndex(String name) {
+      return nameMatcher.match(name, 0, name.length());
+    }
+  
+    /**
+     * Returns the index of the optional option named by the characters of the argument
+     * between from (inclusive) and to (exclusive) or -1.
+     */
+    int optionalIndex(String argument, int from, int to) {
+      return nameMatcher.match(argument, from, to);
+    }
+  
+    int requiredCount() {
+      return requiredIndexes.length;
+    }
+  
+    int requiredIndex(int position) {
+      return requiredIndexes[position];
+    }
+  
+    List<Option<?>> requiredOptions(int fromPosition) {
+      return Arrays.stream(requiredIndexes, fromPosition, requiredIndexes.length)
+          .<Option<?>>mapToObj(i -> options[i])
+          .toList();
+    }
+  
+    /**
+     * Returns the indexes of the repeatable options, the array should not be modified.
+     */
+    int[] repeatableIndexes() {
+      return repeatableIndexes;
+    }
+  
+    /**
+     * Returns the indexes of the options with a blocking converter, the array should not be modified.
+     */
+    int[] blockingIndexes() {
+      return blockingIndexes;
+    }
+  
+    /**
+     * Returns the index of the varargs option or -1.
+     */
+    int varargsIndex() {
+      return varargsIndex;
+    }
+  
+    private static int[] flagTable(Option<?>[] options) {
+      var flagTable = new int[128];
+      Arrays.fill(flagTable, -1);
+      for (var i = 0; i < options.length; i++) {
+        if (!AbstractOption.isFlag(options[i])) {
+          continue;
+        }
+        for (var name : options[i].names()) {
+          if (name.length() == 2 && name.charAt(0) == '-' && isFlagLetter(name.charAt(1))) {
+            flagTable[name.charAt(1)] = i;
+          }
+        }
+      }
+      return flagTable;
+    }
+  
+    private static boolean isFlagLetter(char c) {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+  
+    /**
+     * Returns true if the argument is a combination of single letter flags like {@code -lvx},
+     * each letter (or digit) is the name of a flag option and there are at most as many letters as flags.
+     */
+    boolean isFlagCombination(String argument) {
+      var length = argument.length();
+      if (length < 2 || length - 1 > flagCount || argument.charAt(0) != '-') {
+        return false;
+      }
+      for (var i = 1; i < length; i++) {
+        var c = argument.charAt(i);
+        if (c >= 128 || flagTable[c] == -1) {
+          return false;
+        }
+      }
+      return true;
+    }
+  
+    /**
+     * Returns the index of the flag option named {@code '-' + c}, {@code c} being a character
+     * of an argument accepted by {@link #isFlagCombination(String)}.
+     */
+    int flagIndex(char c) {
+      return flagTable[c];
+    }
+  
+    Object[] newValues() {
+      return defaultValues.clone();
+    }
+  
+    @Override
+    public String toString() {
+      var names = new StringJoiner(", ", "{", "}");
+      for (var option : options) {
+        if (AbstractOption.isPositional(option)) continue;
+        for (var name : option.names()) {
+          names.add(name + "=" + optionalIndex(name));
+        }
+      }
+      return "SchemaPlan[options=" + Arrays.toString(options)
+          + ", names=" + names
+          + ", required=" + Arrays.toString(requiredIndexes)
+          + ", varargs=" + varargsIndex
+          + ", flags=" + flagCount + "]";
+    }
+  }
+  
+  
+  
+  /**
+   * A cursor on a range of the command line arguments used by {@link Schema#split(ArgumentCursor, boolean, boolean, long)}.
+   * <p>
+   * The arguments are not copied, the cursor moves an index on the array, the remaining arguments
+   * are copied at once when they are all consumed by a varargs option.
+   */
+  static final class ArgumentCursor {
+    private final String[] arguments;
+    private final int start;
+    private final int end;
+    private int index;
+  
+    ArgumentCursor(String[] arguments, int from, int to) {
+      this.arguments = arguments;
+      this.start = from;
+      this.index = from;
+      this.end = to;
+    }
+  
+    /**
+     * Returns the index of the next argument relative to the first argument of the range.
+     */
+    int position() {
+      return index - start;
+    }
+  
+    /**
+     * Returns the number of remaining arguments.
+     */
+    int remainingCount() {
+      return end - index;
+    }
+  
+    /**
+     * Returns a copy of at most {@code max} remaining arguments without moving the cursor.
+     */
+    List<String> peek(int max) {
+      return Arrays.asList(Arrays.copyOfRange(arguments, index, Math.min(end, index + max)));
+    }
+  
+    boolean hasNext() {
+      return index < end;
+    }
+  
+    String next() {
+      return requireNonNull(arguments[index++], "one argument is null");
+    }
+  
+    /**
+     * Moves the cursor back so the last argument returned by {@link #next()} is returned again.
+     */
+    void back() {
+      index--;
+    }
+  
+    /**
+     * Returns all the remaining arguments and moves the cursor to the end.
+     */
+    String[] remaining() {
+      var remaining = Arrays.copyOfRange(arguments, index, end);
+      for (var argument : remaining) {
+        requireNonNull(argument, "one argument is null");
+      }
+      index = end;
+      return remaining;
+    }
+  
+    @Override
+    public String toString() {
+      return Arrays.asList(arguments).subList(index, end).toString();
+    }
+  }
+  
+  
+  
+  /**
+   * An immutable set of non-null values that keeps the insertion order.
+   * <p>
+   * It provides {@link #of(String...)} and {@link #copyOf(Collection)} that works like Set.of() / Set.copyOf()
+   * but keeps the insertion order.
+   * <p>
+   * The names are stored in an array, most options have one or two names so {@link #contains(Object)}
+   * is a linear search, a hashed index is only created if there are more than {@value #LINEAR_SEARCH_MAX} names.
+   * {@link #copyOf(Collection)} returns the same instance if called with a NameSet, so all the options
+   * derived from the same option share the same NameSet.
+   */
+  static final class NameSet extends AbstractSet<String> {
+    private static final int LINEAR_SEARCH_MAX = 8;
+  
+    private final String[] names;
+    private final Set<String> index;  // null if the names are searched linearly
+  
+    private NameSet(String[] names) {
+      this.names = names;
+      this.index = names.length > LINEAR_SEARCH_MAX ? Set.of(names) : null;
+    }
+  
+    @Override
+    public int size() {
+      return names.length;
+    }
+  
+    @Override
+    public Iterator<String> iterator() {
+      return new Iterator<>() {
+        private int i;
+  
+        @Override
+        public boolean hasNext() {
+          return i < names.length;
+        }
+  
+        @Override
+        public String next() {
+          if (i >= names.length) {
+            throw new NoSuchElementException();
+          }
+          return names[i++];
+        }
+      };
+    }
+  
+    @Override
+    public boolean contains(Object o) {
+      requireNonNull(o, "o is null");
+      if (index != null) {
+        return index.contains(o);
+      }
+      for (var name : names) {
+        if (name.equals(o)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  
+    @Override
+    public Object[] toArray() {
+      return Arrays.copyOf(names, names.length, Object[].class);
+    }
+  
+    @Override
+    public Spliterator<String> spliterator() {
+      return Spliterators.spliterator(
+          names, Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+  
+    public static Set<String> of(String... names) {
+      requireNonNull(names, "names is null");
+      return copyOf(Arrays.asList(names));
+    }
+  
+    public static Set<String> copyOf(Collection<? extends String> names) {
+      requireNonNull(names, "names is null");
+      if (names instanceof NameSet nameSet) {
+        return nameSet;
+      }
+      if (names.isEmpty()) {
+        throw new IllegalArgumentException("names is empty");
+      }
+      var array = names.toArray(String[]::new);
+      var seen = array.length > LINEAR_SEARCH_MAX ? new HashSet<String>() : null;
+      for (var i = 0; i < array.length; i++) {
+        var name = array[i];
+        requireNonNull(name, "name is null");
+        if (name.isEmpty()) {
+          throw new IllegalArgumentException("one name is empty");
+        }
+        if (seen != null ? !seen.add(name) : indexOf(array, i, name) != -1) {
+          throw new IllegalArgumentException("duplicate names " + name);
+        }
+      }
+      return new NameSet(array);
+    }
+  
+    private static int indexOf(String[] array, int end, String name) {
+      for (var i = 0; i < end; i++) {
+        if (array[i].equals(name)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+  
+  
+  
+  
+  /**
+   * Find a converter (a conversion function) that converts a String/boolean/record
+   * to a Java generic type.
+   *
+   * <p>This API proposes a toolkit to build your own revolver by composition.
+   *
+   * <p>For example, the default resolver is defined as such
+   *
+   * <pre>
+   *   ConverterResolver defaultResolver =
+   *       ConverterResolver.of(ConverterResolver::basic)
+   *           .or(ConverterResolver::enumerated)
+   *           .or(ConverterResolver::reflected)
+   *           .unwrap();
+   * </pre>
+   *
+   * {@code ConverterResolver::base} is a resolver that associate the identity for the base
+   * types, String, boolean, Boolean and records.
+   *
+   * <p>{@code ConverterResolver::enumerated} is a resolver that calls {@code Enum.valueOf}
+   * if the type is an enum
+   *
+   * <p>{@code ConverterResolver::reflected} is a resolver that tries to find a static method
+   * factory to convert a type from String inside the type.
+   *
+   * <p>{@code or(resolver)} executes the first resolver and if there is no converter found,
+   * executes the second converter.
+   *
+   * <p>{@code unwrap()} provides a resolver that unwrap Optional, List and array and executes
+   * the resolver on the component type.
+   *
+   * <p>{@code cached()} provides a resolver that memoizes the converters per lookup class and per type,
+   * the default resolver is cached.
+   *
+   * <p>A converter resolver is used by {@link Splitter#of(Lookup, Class, ConverterResolver)}
+   * that specify how the value of an option is converted to the type of the corresponding record component.
+   */
+  @FunctionalInterface
+  public interface ConverterResolver {
+    /**
+     * A class used to send a generic Java {@link Type} to a converter resolver.
+     * @param <R> the Java type.
+     *
+     * @see #resolve(Lookup, TypeReference)
+     */
+    interface TypeReference<R> {
+      private Type extract() {
+        var genericInterfaces = getClass().getGenericInterfaces();
+        if (genericInterfaces.length == 1
+            && genericInterfaces[0] instanceof ParameterizedType parameterizedType
+            && parameterizedType.getRawType() == TypeReference.class) {
+          return parameterizedType.getActualTypeArguments()[0];
+        }
+        throw new IllegalStateException("the TypeReference is malformed " + Arrays.toString(genericInterfaces));
+      }
+    }
+  
+    /**
+     * Returns a converter (a conversion function) for a Java type.
+     *
+     * @param lookup the lookup used if reflection is involved to find the converter.
+     * @param type a generic java type
+     * @return a converter (a conversion function) for a specific type or Optional.empty() if no converter is found.
+     */
+    Optional<Converter<Object, ?>> resolve(Lookup lookup, Type type);
+  
+    /**
+     * Returns a converter (a conversion function) for a Java type specified as type argument of a type reference.
+     *
+     * @param lookup the lookup used if reflection is involved to find the converter.
+     * @param typeReference the type reference used to extract the Java generic type from.
+     * @return a converter (a conversion function) for a Java type specified as type argument of a type reference.
+     * @param <R> the generic Java type.
+     */
+    @SuppressWarnings("unchecked")
+    default <R> Optional<Converter<Object, R>> resolve(Lookup lookup, TypeReference<R> typeReference) {
+      Objects.requireNonNull(lookup, "lookup is null");
+      Objects.requireNonNull(typeReference, "typeReference is null");
+      return (Optional<Converter<Object, R>>) (Optional<? extends Converter<?,?>>) resolve(lookup, typeReference.extract());
+    }
+  
+    /**
+     * Returns a resolver that will first try to find the converter (a conversion function) from the current resolver
+     * and if not available from the resolver taken as parameter.
+     *
+     * @param resolver a second resolver.
+     * @return a new resolver that will resolve using the current resolver and the second resolver otherwise.
+     */
+    default ConverterResolver or(ConverterResolver resolver) {
+      requireNonNull(resolver, "resolver is null");
+      return (lookup, valueType) -> resolve(lookup, valueType)
+          .or(() -> resolver.resolve(lookup, valueType));
+    }
+  
+    /**
+     * Returns a new resolver that will unwrap Optional, List or array and calls the current resolver
+     * with the component type.
+     *
+     * @return a new resolver that will unwrap Optional, List or array and calls the current resolver
+     * with the component type.
+     */
+    default ConverterResolver unwrap() {
+      return (lookup, valueType) -> unwrap(lookup, valueType, this, null);
+    }
+  
+    /**
+     * Returns a new resolver that will unwrap Optional, List or array and calls the current resolver
+     * with the component type, the elements of a List or an array are converted using a parallel conversion policy.
+     * <pre>
+     *   var resolver = ConverterResolver.of(ConverterResolver::basic)
+     *       .or(ConverterResolver::enumerated)
+     *       .or(ConverterResolver::reflected)
+     *       .unwrap(ParallelConversion.of(10_000))
+     *       .cached();
+     * </pre>
+     *
+     * @param parallelConversion the policy of the parallel conversion.
+     * @return a new resolver that will unwrap Optional, List or array and calls the current resolver
+     * with the component type.
+     *
+     * @see ParallelConversion
+     */
+    default ConverterResolver unwrap(ParallelConversion parallelConversion) {
+      requireNonNull(parallelConversion, "parallelConversion is null");
+      return (lookup, valueType) -> unwrap(lookup, valueType, this, parallelConversion);
+    }
+  
+    /**
+     * Returns a new resolver that memoizes the result of the current resolver.
+     * <p>
+     * The results are stored per lookup class (and per lookup modes) and per type,
+     * so the current resolver is called at most once (modulo races) for a given pair.
+     * The entries of a lookup class are stored in a {@link ClassValue} so the cache
+     * does not prevent the lookup class from being unloaded.
+     * <p>
+     * The returned resolver is thread-safe if the current resolver is thread-safe,
+     * two threads resolving the same type concurrently may both call the current resolver
+     * but they both see the first result that is stored.
+     * The current resolver should be a pure function of the lookup and the type,
+     * otherwise the cache will return stale results.
+     *
+     * @return a new resolver that memoizes the result of the current resolver.
+     */
+    default ConverterResolver cached() {
+      record Key(int lookupModes, Type type) {}
+      final class Cache extends ClassValue<ConcurrentHashMap<Key, Optional<Converter<Object, ?>>>> {
+        @Override
+        protected ConcurrentHashMap<Key, Optional<Converter<Object, ?>>> computeValue(Class<?> lookupClass) {
+          return new ConcurrentHashMap<>();
+        }
+      }
+      var cache = new Cache();
+      return (lookup, valueType) -> {
+        requireNonNull(lookup, "lookup is null");
+        requireNonNull(valueType, "valueType is null");
+        var map = cache.get(lookup.lookupClass());
+        var key = new Key(lookup.lookupModes(), valueType);
+        var result = map.get(key);
+        if (result != null) {
+          return result;
+        }
+        // not computeIfAbsent, the current resolver may re-enter this resolver
+        result = requireNonNull(resolve(lookup, valueType), "resolver returns null");
+        var previous = map.putIfAbsent(key, result);
+        return previous != null ? previous : result;
+      };
+    }
+  
+    /**
+     * Returns the resolver taken as parameter.
+     * This allows to type a lambda from right to left.
+     * <p>
+     * This does not compile
+     * <pre>
+     *   var resolver = (lookup, valueType) ->  ....
+     * </pre>
+     * But this does
+     * <pre>
+     *   var resolver = ConverterResolver.of((lookup, valueType) -> ...);
+     * </pre>
+     *
+     * @param resolver the resolver.
+     * @return the resolver taken as parameter.
+     */
+    static ConverterResolver of(ConverterResolver resolver) {
+      requireNonNull(resolver, "resolver is null");
+      return resolver;
+    }
+  
+    /**
+     * Returns a resolver that will call the converter if the predicate is true.
+     *
+     * @param predicate a predicate on the valueType (as a {@code java.lang.Class})
+     * @param converter the converter to call
+     * @return a resolver that will call the converter if the predicate is true.
+     */
+    static ConverterResolver when(Predicate<? super Class<?>> predicate, Converter<Object, ?> converter) {
+      requireNonNull(predicate, "predicate is null");
+      requireNonNull(converter, "converter is null");
+      return (lookup, valueType) -> Optional.<Converter<Object, ?>>of(converter)
+          .filter(__ -> valueType instanceof Class<?> clazz && predicate.test(clazz));
+    }
+  
+    /**
+     * Returns a resolver that will call the converter if the valueType is the one taken as parameter.
+     * <p>
+     * The implementation is equivalent to
+     * <pre>
+     *   when(valueType::equals, converter)
+     * </pre>
+     *
+     * @param valueType the value type to check
+     * @param converter the converter to call
+     * @return a resolver that will call the converter if the valueType is the one taken as parameter.
+     */
+    static ConverterResolver when(Class<?> valueType, Converter<Object, ?> converter) {
+      requireNonNull(valueType, "valueType is null");
+      requireNonNull(converter, "converter is null");
+      return when(valueType::equals, converter);
+    }
+  
+    /**
+     * Return the default resolver.
+     * The default resolver first try to unwrap Optional, Liat or any object array then
+     * calls {@link #basic(Lookup, Type)}, {@link #enumerated(Lookup, Type)} and then {@link #reflected(Lookup, Type)}.
+     *
+     * <p>The implementation is equivalent to
+     * <pre>
+     *   ConverterResolver.of(ConverterResolver::basic)
+     *       .or(ConverterResolver::enumerated)
+     *       .or(ConverterResolver::reflected)
+     *       .unwrap()
+     *       .cached();
+     * </pre>
+     *
+     * @return the default resolver.
+     */
+    static ConverterResolver defaultResolver() {
+      final class Default {
+        private static final ConverterResolver DEFAULT_RESOLVER =
+            of(ConverterResolver::basic)
+                .or(ConverterResolver::enumerated)
+                .or(ConverterResolver::reflected)
+                .unwrap()
+                .cached();
+      }
+      return Default.DEFAULT_RESOLVER;
+    }
+  
+    /**
+     * Returns a new converter from a conversion function typed as {@code type}.
+     *
+     * @param converter a conversion function
+     * @param type the type of the parameter of the conversion function.
+     * @return a new converter from a conversion function typed as {@code type}.
+     * @param <T> type of the conversion function parameter.
+     */
+    static <T> Converter<Object, ?> methodHandle(Converter<? super T, ?> converter, Class<? extends T> type) {
+      requireNonNull(converter, "converter is null");
+      requireNonNull(type, "type is null");
+      return converter.compose(type::cast);
+    }
+  
+    /**
+     * Returns a new converter from a conversion function typed as String.
+     * <p>
+     * This implementation is equivalent to
+     * <pre>
+     *   converter(converter, String.class)
+     * </pre>
+     *
+     * @param converter a conversion function.
+     * @return a new converter from a conversion function typed as String..
+     */
+    static Converter<Object, ?> stringConverter(Converter<? super String, ?> converter) {
+      requireNonNull(converter, "converter is null");
+      return methodHandle(converter, String.class);
+    }
+  
+    private static Converter<Object, ?> reflected(MethodHandle mh) {
+      return arg -> {
+        try {
+          return mh.invoke(arg);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new UndeclaredThrowableException(e);
+        }
+      };
+    }
+  
+    /**
+     * Represent a {@link Converter} as a method reference, a class, a method name and captured objects.
+     * <p>
+     * If the converter is created from  a method reference like Foo::bar or this::bar,
+     * the {@code implClass} is Foo and the {@code implMethodName} is bar.
+     * <p>
+     * If the converter is created from {@link #basic(Lookup, Type) basic},
+     * {@link #enumerated(Lookup, Type) enumerated} or
+     * {@link #reflected(Lookup, Type)}, the {@code implClass} is {@link ConverterResolver},
+     * the {@code implMethodName} is respectively "basic", "enumerated" and "reflected".
+     * For "enumerated", the first element of {@code captures} is the class name of the enum.
+     * For "reflected", the first element of {@code captures} is a mirror of the reflected method,
+     * a reflected constructor is mirrored with the method name "new".
+     *
+     * @param implClass the class of the method reference
+     * @param implMethodName the method name of the method reference
+     * @param captures the values captured by the method reference
+     */
+    record ConverterMirror(String implClass, String implMethodName, List<?> captures) {
+      /**
+       * Creates a mirror from a class name, a method name and a list of captured objects.
+       * @param implClass a class name.
+       * @param implMethodName a method name.
+       * @param captures a list of captured objects.
+       */
+      public ConverterMirror {
+        requireNonNull(implClass, "implClass is null");
+        requireNonNull(implClass, "implMethodName is null");
+        captures = List.copyOf(captures);
+      }
+  
+      /**
+       * Creates a converter mirror if it exists from a lookup and a converter.
+       * <p>
+       * The converter should be either a converter created from a method reference
+       * like {@code Integer::parseInt} or a converter created by the {@link #defaultResolver() default resolver}.
+       *
+       * @param lookup a lookup that have access to the class of the method reference
+       * @param converter the converter to mirror
+       * @return a new mirror
+       * @throws IllegalStateException is either the lookup can not access to the class of the method reference
+       *         or if a checked exception occurs while serializing the method reference.
+       */
+      public static Optional<ConverterMirror> of(Lookup lookup, Converter<?, ?> converter) {
+        requireNonNull(lookup, "lookup is null");
+        requireNonNull(converter, "converter is null");
+        return of(lookup, (Object) converter);
+      }
+  
+      static Optional<ConverterMirror> of(Lookup lookup, Object function) {
+        var converterClass = function.getClass();
+        var nestHost = converterClass.getNestHost();
+        // try to find a suitable lookup able to see the converter implementation
+        var nestLookup = nestHost == ConverterResolver.class.getNestHost() ? MethodHandles.lookup() :
+            (nestHost == lookup.lookupClass().getNestHost() ? lookup : null);
+        if (nestLookup == null) {
+          return Optional.empty();
+        }
+        MethodHandle writeReplace;
+        try {
+          writeReplace = nestLookup.findVirtual(converterClass, "writeReplace", methodType(Object.class));
+        } catch (NoSuchMethodException e) {
+          return Optional.empty();  // if it's not a serializable lambda (maybe an anonymous class)
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException("invalid lookup", e);
+        }
+        SerializedLambda lambda;
+        try {
+          lambda = (SerializedLambda) writeReplace.invoke(function);
+        } catch(Error | RuntimeException e) {
+          throw e;
+        } catch (Throwable e) { // if writeReplace is not generated by the JDK
+          throw new IllegalStateException(e);
+        }
+        return Optional.of(new ConverterMirror(lambda.getImplClass().replace('/', '.'), extractLambdaName(lambda.getImplMethodName()),
+            IntStream.range(0, lambda.getCapturedArgCount()).mapToObj(lambda::getCapturedArg).flatMap(o -> capture(lookup, o)).toList()));
+      }
+  
+      private static Stream<Object> capture(Lookup lookup, Object o) {
+        if (o instanceof Converter<?,?> converter) {
+          return of(lookup, converter).map(a -> (Object) a).stream();
+        }
+        if (o instanceof MethodHandle mh) {
+          MethodHandleInfo mhInfo;
+          try {
+            mhInfo = lookup.revealDirect(mh);
+          } catch (IllegalArgumentException e) {
+            return Stream.of();
+          }
+          var name = mhInfo.getReferenceKind() == MethodHandleInfo.REF_newInvokeSpecial ? "new" : mhInfo.getName();
+          return Stream.of(new ConverterMirror(mhInfo.getDeclaringClass().getName(), name, List.of()));
+        }
+        if (o instanceof Class<?> clazz) {  // provides a description, not a live object
+          return Stream.of(clazz.getName());
+        }
+        if (o instanceof String) {
+          return Stream.of(o);
+        }
+        return Stream.of();
+      }
+  
+      private static String extractLambdaName(String methodName) {
+        // sadly there is no proper way to get the enclosing method name of a lambda
+        var begin = methodName.indexOf('$');
+        var end = methodName.indexOf('$', begin + 1);
+        if (end == -1) {
+          return methodName;
+        }
+        return methodName.substring(begin + 1, end);
+      }
+    }
+  
+    private static Optional<Converter<Object, ?>> unwrap(Lookup lookup, Type valueType, ConverterResolver resolver,
+                                                         ParallelConversion parallelConversion) {
+      requireNonNull(lookup, "lookup is null");
+      requireNonNull(valueType, "valueType is null");
+      requireNonNull(resolver, "resolver is null");
+      if (valueType instanceof ParameterizedType parameterizedType) {
+        var raw = (Class<?>) parameterizedType.getRawType();
+        if (raw == Optional.class) {
+          var actualTypeArgument = parameterizedType.getActualTypeArguments()[0];
+          return resolver.resolve(lookup, actualTypeArgument)
+              .map(f -> AbstractOption.blockingIf(f, arg -> ((Optional<?>) arg).map(f)));
+        }
+        if (raw == List.class) {
+          var actualTypeArgument = parameterizedType.getActualTypeArguments()[0];
+          if (parallelConversion != null) {
+            return resolver.resolve(lookup, actualTypeArgument)
+                .map(f -> AbstractOption.blockingIf(f, arg -> parallelConversion.mapList((List<?>) arg, f)));
+          }
+          return resolver.resolve(lookup, actualTypeArgument)
+              .map(f -> AbstractOption.blockingIf(f, arg -> ((List<?>) arg).stream().map(f).toList()));
+        }
+      }
+      if (valueType instanceof Class<?> clazz && Object[].class.isAssignableFrom(clazz)) {
+        var componentType = clazz.getComponentType();
+        if (parallelConversion != null) {
+          return resolver.resolve(lookup, componentType)
+              .map(f -> AbstractOption.blockingIf(f, arg -> parallelConversion.mapArray((Object[]) arg, f,
+                  size -> (Object[]) Array.newInstance(componentType, size))));
+        }
+        return resolver.resolve(lookup, componentType)
+            .map(f -> AbstractOption.blockingIf(f, arg ->
+                Arrays.stream(((Object[]) arg))
+                    .map(f)
+                    .toArray(size -> (Object[]) Array.newInstance(componentType, size))));
+      }
+      return resolver.resolve(lookup, valueType);
+    }
+  
+    private static <T> Converter<T, T> basic() {
+      return t -> t;
+    }
+  
+    /**
+     * Returns the function identity for the types String, Boolean, boolean or Record.
+     *
+     * @param lookup an unused lookup
+     * @param valueType the type of the return type of the function
+     * @return the function identity for the types String, Boolean, boolean or Record.
+     */
+    static Optional<Converter<Object, ?>> basic(Lookup lookup, Type valueType) {
+      requireNonNull(lookup, "lookup is null");
+      requireNonNull(valueType, "valueType is null");
+      return Optional.of(valueType)
+          .flatMap(type -> {
+            if (type instanceof Class<?> clazz) {
+              if (clazz == String.class || clazz == Boolean.class || clazz == boolean.class || clazz.isRecord()) {
+                return Optional.of(basic());
+              }
+            }
+            return Optional.empty();
+          });
+    }
+  
+    /**
+     * Returns the function {@code Enum.valueOf} for any enums.
+     *
+     * @param lookup an unused lookup
+     * @param valueType the type of the return type of the function
+     * @return the function {@code Enum.valueOf} for any enums.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static Optional<Converter<Object, ?>> enumerated(Lookup lookup, Type valueType) {
+      requireNonNull(lookup, "lookup is null");
+      requireNonNull(valueType, "valueType is null");
+      if (valueType instanceof Class<?> clazz && clazz.isEnum()) {
+        return Optional.of(arg -> Enum.valueOf((Class) clazz, (String) arg));
+      }
+      return Optional.empty();
+    }
+  
+    /**
+     * Returns the function that parses a String to a value type.
+     * <p>
+     * This implementation tries the static methods and the constructor (in that order)
+     * <pre>
+     *   valueType ValueType.valueOf(String)
+     *   valueType ValueType.of(String)
+     *   valueType ValueType.of(String, String...)
+     *   valueType ValueType.parse(String)
+     *   valueType ValueType.parse(CharSequence)
+     *   new ValueType(String)
+     * </pre>
+     * The constructor is only tried if it is public and if the value type is not a record.
+     * <p>
+     * The methods and the constructor that exist are found by scanning the value type once,
+     * the result of the scan is cached per class, only the access check depends on the lookup.
+     *
+     * @param lookup the lookup used to try to find the functions
+     * @param valueType the type of the return type of the function
+     * @return the function that parses a String to a value type if available.
+     */
+    static Optional<Converter<Object, ?>> reflected(Lookup lookup, Type valueType) {
+      requireNonNull(lookup, "lookup is null");
+      requireNonNull(valueType, "valueType is null");
+      return Optional.of(valueType)
+          .flatMap(type -> {
+            if (valueType instanceof Class<?> clazz) {
+              return valueOfMethod(lookup, clazz).map(ConverterResolver::reflected);
+            }
+            return Optional.empty();
+          });
+    }
+  
+    private static Optional<MethodHandle> valueOfMethod(Lookup lookup, Class<?> type) {
+      for (var factory : ConverterFactories.factories(type)) {
+        try {
+          return Optional.of(factory.find(lookup, type));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+          continue;  // not accessible from the lookup, try next
+        }
+      }
+      return Optional.empty();
+    }
+  }
+  
+  
+  /**
+   * Asks the annotation processor {@code processor.RecordSchemaProcessor}, declared in the module {@code processor},
+   * to generate, at compile time, a class that creates the {@link Schema} of a record without using reflection.
+   * <pre>
+   *  &#064;GenerateSchema
+   *  record Command (
+   *    &#064;Name("-v")
+   *    boolean verbose,
+   *    Path... files
+   *  }
+   *
+   *  var splitter = Splitter.of(CommandSchema.schema());
+   * </pre>
+   *
+   * The generated class is in the same package as the record, its name is the name of the record,
+   * prefixed by the names of the enclosing classes separated by '_', followed by "Schema".
+   */
+  @Retention(RetentionPolicy.SOURCE)
+  @Target(ElementType.TYPE)
+  public @interface GenerateSchema {
+  }
+  
+  
+  /**
+   * Allow to specify {@link Option#names() the names} of an option defined as a record component.
+   * <p>
+   * By default, the name of the option is derived from the name of the record component,
+   * with the '_' replaced by '-'.
+   * <pre>
+   *  record Command (
+   *    boolean __verbose
+   *  }
+   *  </pre>
+   *
+   * This annotation allows to specify a name thos is not a vid Java identifier
+   * <pre>
+   *  record Command (
+   *    &#064;Name("-v")
+   *    boolean verbose
+   *  }
+   * </pre>
+   *
+   * or several names
+   * <pre>
+   *  record Command (
+   *    &#064;Name({ "-v", "--verbose" })
+   *    boolean verbose
+   *  }
+   * </pre>
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ElementType.RECORD_COMPONENT, ElementType.TYPE})
+  public @interface Name {
+    /**
+     * Returns the option names.
+     * @return the option names.
+     */
+    String[] value();
+  }
+  
+  
+  /**
+   * The implementation of {@link Converter#memoized(int)}.
+   * <p>
+   * The converted values are stored in a {@link LinkedHashMap} in access order guarded by a lock,
+   * the converter is called outside the lock, so two threads converting the same value at the same time
+   * may both call the converter. The exceptions are not memoized and a null value is never memoized.
+   * <p>
+   * Only the converter and the maximum number of entries are serialized, a deserialized converter starts empty.
+   *
+   * @param <T> the type of the value to convert.
+   * @param <R> the type of the converted value.
+   */
+  static class MemoizedConverter<T, R> implements Converter.Memoized<T, R> {
+    @Serial private static final long serialVersionUID = 8121498215433021487L;
+  
+    private static final Object NULL = new Object();  // a memoized null
+  
+    private final Converter<T, R> converter;
+    private final int maxEntries;
+    private final transient Object lock = new Object();
+    private final transient LinkedHashMap<Object, Object> map;  // guarded by lock
+    private transient long hitCount;  // guarded by lock
+    private transient long missCount;  // guarded by lock
+    private transient long evictionCount;  // guarded by lock
+  
+    private MemoizedConverter(Converter<T, R> converter, int maxEntries) {
+      this.converter = converter;
+      this.maxEntries = maxEntries;
+      this.map = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+          if (size() > maxEntries) {
+            evictionCount++;
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+  
+    /**
+     * A memoized blocking converter is still a blocking converter, a value not memoized yet needs a blocking call.
+     */
+    private static final class OfBlocking<T, R> extends MemoizedConverter<T, R> implements Converter.Blocking<T, R> {
+      @Serial private static final long serialVersionUID = -6020738633214683958L;
+  
+      private OfBlocking(Converter<T, R> converter, int maxEntries) {
+        super(converter, maxEntries);
+      }
+    }
+  
+    static <T, R> Converter.Memoized<T, R> of(Converter<T, R> converter, int maxEntries) {
+      if (converter instanceof Converter.Blocking<?,?>) {
+        return new OfBlocking<>(converter, maxEntries);
+      }
+      return new MemoizedConverter<>(converter, maxEntries);
+    }
+  
+    // protected and not private, so it is also called when a OfBlocking is deserialized
+    @Serial
+    protected Object readResolve() {
+      return of(converter, maxEntries);
+    }
+  
+    @Override
+    @SuppressWarnings("unchecked")
+    public R apply(T value) {
+      if (value == null) {
+        return converter.apply(null);
+      }
+      synchronized (lock) {
+        var result = map.get(value);
+        if (result != null) {
+          hitCount++;
+          return result == NULL ? null : (R) result;
+        }
+        missCount++;
+      }
+      var result = converter.apply(value);
+      synchronized (lock) {
+        map.put(value, result == null ? NULL : result);
+      }
+      return result;
+    }
+  
+    @Override
+    public int size() {
+      synchronized (lock) {
+        return map.size();
+      }
+    }
+  
+    @Override
+    public long hitCount() {
+      synchronized (lock) {
+        return hitCount;
+      }
+    }
+  
+    @Override
+    public long missCount() {
+      synchronized (lock) {
+        return missCount;
+      }
+    }
+  
+    @Override
+    public long evictionCount() {
+      synchronized (lock) {
+        return evictionCount;
+      }
+    }
+  
+    @Override
+    public String toString() {
+      synchronized (lock) {
+        return "Memoized[size=" + map.size() + ", hits=" + hitCount + ", misses=" + missCount
+            + ", evictions=" + evictionCount + "]";
+      }
+    }
+  }
+  
+  
+  
+  /**
+   * Base class for all {@link Option}s.
+   * <p>
+   * It implements the basic accessors {@link #type()}, {@link #names()}, {@link #help()} and
+   * {@link #nestedSchema()}. And provides helper methods for {@link Schema#split(ArgumentCursor, boolean, boolean, long)}.
+   *
+   * @param <T> type of the argument of the option.
+   */
+  static abstract sealed class AbstractOption<T>
+      implements Option<T>
+      permits Option.Branch, Option.Flag, Option.Single, Option.Repeatable, Option.Required, Option.Varargs, Option.Specialized {
+    final OptionType type;
+    final Set<String> names;
+    final String help;
+    final Schema<?> nestedSchema;
+  
+    AbstractOption(OptionType type, Set<String> names, String help, Schema<?> nestedSchema) {
+      requireNonNull(type, "type is null");
+      requireNonNull(names, "names is null");
+      requireNonNull(help, "help null");
+      this.type = type;
+      this.names = NameSet.copyOf(names);
+      this.help = help;
+      this.nestedSchema = nestedSchema;
+    }
+  
+    @Override
+    public final OptionType type() {
+      return type;
+    }
+  
+    @Override
+    public final Set<String> names() {
+      return names;
+    }
+  
+    @Override
+    public final String help() {
+      return help;
+    }
+  
+    @Override
+    public final Schema<?> nestedSchema() {
+      return nestedSchema;
+    }
+  
+    @Override
+    public final String toString() {
+      return type + names.toString();
+    }
+  
+  
+    // helper methods
+  
+    @SuppressWarnings("unchecked")
+    static <T> Option<?> newOption(OptionType type, String[] names, Converter<Object, ?> converter, String help, Schema<?> schema) {
+      var nameSet = NameSet.of(names);
+      return switch (type) {
+        case BRANCH -> new Branch<>(nameSet, (Converter<T,T>) converter, help, schema);
+        case FLAG -> new Flag(nameSet, (Converter<Boolean,Boolean>) (Converter<?,?>) converter, help);
+        case SINGLE -> new Single<T>(nameSet, (Converter<Optional<?>, ? extends Optional<T>>) (Converter<?,?>) converter, help, schema);
+        case REPEATABLE -> new Repeatable<T>(nameSet, (Converter<List<?>, ? extends List<T>>) (Converter<?,?>) converter, help, schema);
+        case REQUIRED -> new Required<T>(nameSet, (Converter<? super String, ? extends T>) converter, help);
+        case VARARGS -> new Varargs<T>(nameSet, (Converter<? super String[], ? extends T[]>) (Converter<?,?>) converter, help);
+      };
+    }
+  
+    private static final Set<Class<?>> SPECIALIZED_TYPES = Set.of(
+        int.class, long.class, double.class,
+        OptionalInt.class, OptionalLong.class, OptionalDouble.class,
+        int[].class, long[].class, double[].class);
+  
+    /**
+     * Returns a specialized option if the type is {@code int}, {@code long}, {@code double},
+     * {@link OptionalInt}, {@link OptionalLong}, {@link OptionalDouble}, {@code int[]}, {@code long[]}
+     * or {@code double[]}, null otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    static Option<?> newSpecializedOption(Class<?> type, String[] names, String help) {
+      if (!SPECIALIZED_TYPES.contains(type)) {
+        return null;
+      }
+      var nameSet = NameSet.of(names);
+      var required = new Required<String>(nameSet, value -> value, help);
+      var single = new Single<String>(nameSet, value -> (Optional<String>) value, help, null);
+      var varargs = new Varargs<String>(nameSet, value -> value, help);
+      if (type == int.class) return required.mapToInt(Integer::parseInt);
+      if (type == long.class) return required.mapToLong(Long::parseLong);
+      if (type == double.class) return required.mapToDouble(Double::parseDouble);
+      if (type == OptionalInt.class) return single.mapToInt(Integer::parseInt);
+      if (type == OptionalLong.class) return single.mapToLong(Long::parseLong);
+      if (type == OptionalDouble.class) return single.mapToDouble(Double::parseDouble);
+      if (type == int[].class) return varargs.mapToInt(Integer::parseInt);
+      if (type == long[].class) return varargs.mapToLong(Long::parseLong);
+      if (type == double[].class) return varargs.mapToDouble(Double::parseDouble);
+      return null;
+    }
+  
+    @SuppressWarnings("unchecked")
+    static <T> T defaultValue(Option<T> option) {
+      return (T) option.type().defaultValue;
+    }
+  
+    @SuppressWarnings("unchecked")
+    static <T> T applyConverter(Option<T> option, Object arg) {
+      if (option instanceof Option.Branch<T> branch) {
+        return branch.converter.apply((T) arg);
+      }
+      if (option instanceof Option.Flag flag) {
+        return (T) flag.converter.apply((Boolean) arg);
+      }
+      if (option instanceof Option.Single<?> single) {
+        return (T) single.converter.apply((Optional<String>) arg);
+      }
+      if (option instanceof Option.Repeatable<?> repeatable) {
+        return (T) repeatable.converter.apply((List<String>) arg);
+      }
+      if (option instanceof Option.Required<T> required) {
+        return required.converter.apply((String) arg);
+      }
+      if (option instanceof Option.Varargs<?> varargs) {
+        return (T) varargs.converter.apply((String[]) arg);
+      }
+      if (option instanceof Option.Specialized<T> specialized) {
+        return specialized.converter.apply(arg);
+      }
+      throw new AssertionError();
+    }
+  
+    @SuppressWarnings("unchecked")
+    static Converter<Object, ?> converter(Option<?> option) {
+      Converter<?, ?> converter;
+      if (option instanceof Option.Branch<?> branch) {
+        converter = branch.converter;
+      } else if (option instanceof Option.Flag flag) {
+        converter = flag.converter;
+      } else if (option instanceof Option.Single<?> single) {
+        converter = single.converter;
+      } else if (option instanceof Option.Repeatable<?> repeatable) {
+        converter = repeatable.converter;
+      } else if (option instanceof Option.Required<?> required) {
+        converter = required.converter;
+      } else if (option instanceof Option.Varargs<?> varargs) {
+        converter = varargs.converter;
+      } else if (option instanceof Option.Specialized<?> specialized) {
+        converter = specialized.converter;
+      } else {
+        throw new AssertionError();
+      }
+      return (Converter<Object, ?>) converter;
+    }
+  
+    static boolean isVarargs(Option<?> option) {
+      return option.type() == OptionType.VARARGS;
+    }
+  
+    static boolean isRequired(Option<?> option) {
+      return option.type() == OptionType.REQUIRED;
+    }
+  
+    /**
+     * Returns the composed converter as a blocking converter if the mapper is a blocking converter.
+     */
+    static <T, R> Converter<T, R> blockingIf(Function<?, ?> mapper, Converter<T, R> converter) {
+      return mapper instanceof Converter.Blocking<?,?> ? Converter.blocking(converter) : converter;
+    }
+  
+    static boolean isBlocking(Option<?> option) {
+      return converter(option) instanceof Converter.Blocking<?,?>;
+    }
+  
+    static boolean isFlag(Option<?> option) {
+      return option.type() == OptionType.FLAG;
+    }
+  
+    static boolean isPositional(Option<?> option) {
+      return isRequired(option) || isVarargs(option);
+    }
+  }
+  
+  
+  /**
+   * An immutable associative table that links an {@link Option} to its value (an argument).
+   *
+   * <p>Calling {@link Splitter#of(Option[])} with some options returns a splitter of type
+   * Splitter&lt;ArgumentMap&gt; configured with the options.
+   * On this splitter, calling {@link Splitter#split(Stream)} with a stream of the command line arguments
+   * returns an argument map containing the value (the argument) of each option.
+   *  <pre>
+   *   var flagF = Option.flag("-f");
+   *   var splitter = Splitter.of(flagFJ);
+   *   var argumentMap = splitter.split("-f");
+   *
+   *   var flagFValue = argumentMap.argument(flagF);
+   *   System.out.println(flagFValue);  // true
+   *   </pre>
+   *
+   * <p>Calling {@link Splitter#lazy(Option[])} instead returns a splitter that creates lazy argument maps,
+   * the converter of an option is called the first time its argument is requested by
+   * {@link #argument(Option)}, so the converters of the options that are never read are never called.
+   * The method {@link #validateAll()} converts all the arguments at once.
+   * A lazy argument map can be read concurrently, if several threads request the same argument at the same time
+   * the converter may be called more than once but all threads see the same argument.
+   *
+   * <p>The arguments are stored in an array indexed by the position of the option in the schema,
+   * the table that maps an option to its position is computed once per schema, in its parse plan.
+   * The methods {@link #flag(Option.Flag)}, {@link #single(Option.Single)}, {@link #list(Option.Repeatable)},
+   * {@link #required(Option.Required)} and {@link #varargs(Option.Varargs)} are typed versions
+   * of {@link #argument(Option)}.
+   */
+  static public final class ArgumentMap {
+    private static final VarHandle ARGUMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final Object UNCONVERTED = new Object();
+  
+    private final SchemaPlan plan;  // immutable, shared by all the maps of a schema
+    private final Object[] values;  // the values before conversion, null if the map is not lazy
+    private final Object[] arguments;  // UNCONVERTED if the converter of the option was not called yet
+    private final boolean stackless;  // true if the splitter creates exceptions without stack trace
+  
+    private ArgumentMap(SchemaPlan plan, Object[] values, Object[] arguments, boolean stackless) {
+      this.plan = plan;
+      this.values = values;
+      this.arguments = arguments;
+      this.stackless = stackless;
+    }
+  
+    /**
+     * Returns the value (the argument) of an option.
+     * If the map is lazy and the argument was not requested before, the converter of the option is called.
+     *
+     * @param option the option from which we need the corresponding argument
+     * @return the argument of the option.
+     * @param <T> the type of the argument
+     * @throws IllegalStateException if the option has no argument because the {@link Splitter}
+     * that generates this map was not configured with that option.
+     * @throws SplittingException if the map is lazy and the converter of the option fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T argument(Option<T> option) {
+      Objects.requireNonNull(option, "option is null");
+      return (T) checkedArgument(option);
+    }
+  
+    /**
+     * Returns the value of a flag option.
+     *
+     * @param option a flag option.
+     * @return the value of the flag option.
+     * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+     * @throws SplittingException if the map is lazy and the converter of the option fails.
+     */
+    public boolean flag(Option.Flag option) {
+      Objects.requireNonNull(option, "option is null");
+      return (Boolean) checkedArgument(option);
+    }
+  
+    /**
+     * Returns the value of a single option.
+     *
+     * @param option a single option.
+     * @return the value of the single option, empty if the option is not present on the command line.
+     * @param <T> the type of the value.
+     * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+     * @throws SplittingException if the map is lazy and the converter of the option fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> single(Option.Single<T> option) {
+      Objects.requireNonNull(option, "option is null");
+      return (Optional<T>) checkedArgument(option);
+    }
+  
+    /**
+     * Returns the values of a repeatable option.
+     *
+     * @param option a repeatable option.
+     * @return the values of the repeatable option in the order of the command line.
+     * @param <T> the type of the values.
+     * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+     * @throws SplittingException if the map is lazy and the converter of the option fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> list(Option.Repeatable<T> option) {
+      Objects.requireNonNull(option, "option is null");
+      return (List<T>) checkedArgument(option);
+    }
+  
+    /**
+     * Returns the value of a required option.
+     *
+     * @param option a required option.
+     * @return the value of the required option.
+     * @param <T> the type of the value.
+     * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+     * @throws SplittingException if the map is lazy and the converter of the option fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T required(Option.Required<T> option) {
+      Objects.requireNonNull(option, "option is null");
+      return (T) checkedArgument(option);
+    }
+  
+    /**
+     * Returns the values of a varargs option.
+     *
+     * @param option a varargs option.
+     * @return the values of the varargs option, the array is shared and should not be modified.
+     * @param <T> the type of the values.
+     * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+     * @throws SplittingException if the map is lazy and the converter of the option fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T[] varargs(Option.Varargs<T> option) {
+      Objects.requireNonNull(option, "option is null");
+      return (T[]) checkedArgument(option);
+    }
+  
+    private Object checkedArgument(Option<?> option) {
+      var index = plan.index(option);
+      if (index == -1) {
+        throw new IllegalStateException("no argument for option " + option);
+      }
+      var argument = argument(index);
+      if (argument == null) {
+        throw new IllegalStateException("no argument for option " + option);
+      }
+      return argument;
+    }
+  
+    private Object argument(int index) {
+      var argument = ARGUMENTS.getAcquire(arguments, index);
+      if (argument != UNCONVERTED) {
+        return argument;
+      }
+      var converted = Schema.convert(plan.option(index), values[index], stackless);
+      // the first converted argument wins
+      var witness = ARGUMENTS.compareAndExchange(arguments, index, UNCONVERTED, converted);
+      return witness == UNCONVERTED ? converted : witness;
+    }
+  
+    /**
+     * Converts all the arguments that are not converted yet.
+     * This method does nothing if the map is not lazy, the arguments are converted by the splitter.
+     *
+     * @return this argument map.
+     * @throws SplittingException if the converter of an option fails.
+     */
+    public ArgumentMap validateAll() {
+      if (values != null) {
+        for (var i = 0; i < arguments.length; i++) {
+          argument(i);
+        }
+      }
+      return this;
+    }
+  
+    /**
+     * Returns a string representation the arguments associated with each option.
+     * If the map is lazy, all the arguments are converted.
+     *
+     * @return a string representation the arguments associated with each option.
+     * @throws SplittingException if the map is lazy and the converter of an option fails.
+     */
+    @Override
+    public String toString() {
+      var joiner = new StringJoiner(", ", "{", "}");
+      for (var i = 0; i < plan.size(); i++) {
+        joiner.add(plan.option(i) + "=" + argument(i));
+      }
+      return joiner.toString();
+    }
+  
+    static Schema<ArgumentMap> toSchema(boolean lazy, Option<?>... options)  {
+      var opt = List.of(options);
+      if (lazy) {
+        return Schema.ofUnconverted(opt, plan -> (values, stackless) -> {
+          var arguments = new Object[values.length];
+          Arrays.fill(arguments, UNCONVERTED);
+          return new ArgumentMap(plan, values, arguments, stackless);
+        });
+      }
+      return Schema.ofPlan(opt, plan -> arguments -> new ArgumentMap(plan, null, arguments, false));
+    }
+  }
+  
+  
+  /**
+   * Allow to specify {@link Option#help()} the help text} of an option defined as a record component.
+   * <p>
+   * This annotation allows to specify the help text as a string
+   * <pre>
+   *  record Command (
+   *    &#064;Help("this is an hep text")
+   *    boolean verbose
+   *  }
+   * </pre>
+   *
+   * or using several strings that will be joined using a space.
+   * <pre>
+   *  record Command (
+   *    &#064;Help({ "this is an hep text", "on several parts"})
+   *    boolean verbose
+   *  }
+   * </pre>
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ElementType.RECORD_COMPONENT, ElementType.TYPE})
+  public @interface Help {
+    /**
+     * Returns the option help texts.
+     * @return the option help texts.
+     */
+    String[] value();
+  }
+  
+  
+  
+  /**
+   * A policy to convert the arguments of a repeatable or a varargs option in parallel.
+   * <p>
+   * If the number of arguments is at least the {@link #threshold() threshold}, the arguments
+   * are converted by the tasks of a {@link ForkJoinPool}, otherwise they are converted by the calling thread.
+   * In both cases, the converted values are in the same order as the arguments and if the conversion
+   * of several arguments fails, the {@link SplittingException} reports the first one,
+   * its {@link SplittingException#elementIndex() element index} is the index of the argument in the option.
+   * <pre>
+   *   var parallel = ParallelConversion.of(10_000);
+   *   var files = Option.varargs("files").convert(Path::of, Path[]::new, parallel);
+   * </pre>
+   * For an option defined by a record component, {@link ConverterResolver#unwrap(ParallelConversion)}
+   * creates a resolver that converts the lists and the arrays using a policy.
+   * <p>
+   * Parallel conversion is only worth it if the converter is expensive and the arguments are numerous,
+   * the converter must be thread safe.
+   * A policy is serializable but the pool is not, a deserialized policy uses the
+   * {@link ForkJoinPool#commonPool() common pool}.
+   *
+   * @see Option.Repeatable#convert(Converter, ParallelConversion)
+   * @see Option.Varargs#convert(Converter, IntFunction, ParallelConversion)
+   */
+  static public final class ParallelConversion implements Serializable {
+    @Serial private static final long serialVersionUID = 3421076854118806217L;
+  
+    private final int threshold;
+    private final transient ForkJoinPool pool;  // null means the common pool
+  
+    private ParallelConversion(int threshold, ForkJoinPool pool) {
+      this.threshold = threshold;
+      this.pool = pool;
+    }
+  
+    /**
+     * Returns a policy that converts the arguments using the {@link ForkJoinPool#commonPool() common pool}
+     * if there are at least {@code threshold} arguments.
+     *
+     * @param threshold the minimum number of arguments to convert them in parallel.
+     * @return a new policy.
+     * @throws IllegalArgumentException if the threshold is not positive.
+     */
+    public static ParallelConversion of(int threshold) {
+      return new ParallelConversion(checkThreshold(threshold), null);
+    }
+  
+    /**
+     * Returns a policy that converts the arguments using a pool if there are at least {@code threshold} arguments.
+     *
+     * @param threshold the minimum number of arguments to convert them in parallel.
+     * @param pool the pool used to convert the arguments.
+     * @return a new policy.
+     * @throws IllegalArgumentException if the threshold is not positive.
+     */
+    public static ParallelConversion of(int threshold, ForkJoinPool pool) {
+      requireNonNull(pool, "pool is null");
+      return new ParallelConversion(checkThreshold(threshold), pool);
+    }
+  
+    private static int checkThreshold(int threshold) {
+      if (threshold <= 0) {
+        throw new IllegalArgumentException("threshold is not positive " + threshold);
+      }
+      return threshold;
+    }
+  
+    /**
+     * Returns the minimum number of arguments to convert them in parallel.
+     * @return the minimum number of arguments to convert them in parallel.
+     */
+    public int threshold() {
+      return threshold;
+    }
+  
+    /**
+     * Returns the pool used to convert the arguments.
+     * @return the pool used to convert the arguments.
+     */
+    public ForkJoinPool pool() {
+      return pool == null ? ForkJoinPool.commonPool() : pool;
+    }
+  
+    @Override
+    public String toString() {
+      return "ParallelConversion[threshold=" + threshold + ", pool=" + (pool == null ? "common" : pool) + "]";
+    }
+  
+    /**
+     * Raised when the conversion of an element fails, the cause is the exception of the converter.
+     * The index is reported by {@link SplittingException#elementIndex()}.
+     */
+    static final class ElementFailure extends RuntimeException {
+      @Serial private static final long serialVersionUID = -2298645217463329035L;
+  
+      final int index;
+  
+      ElementFailure(int index, RuntimeException cause) {
+        super(null, cause, false, false);
+        this.index = index;
+      }
+    }
+  
+    <T, U> U[] mapArray(T[] values, Function<? super T, ? extends U> mapper, IntFunction<U[]> generator) {
+      var results = generator.apply(values.length);
+      map(values, mapper, results);
+      return results;
+    }
+  
+    <T, U> List<U> mapList(List<? extends T> values, Function<? super T, ? extends U> mapper) {
+      @SuppressWarnings("unchecked")
+      var results = (U[]) new Object[values.size()];
+      map(values.toArray(), mapper, results);
+      return Collections.unmodifiableList(Arrays.asList(results));
+    }
+  
+    @SuppressWarnings("unchecked")
+    private <T, U> void map(Object[] values, Function<? super T, ? extends U> mapper, U[] results) {
+      var failure = new Failure();
+      var length = values.length;
+      if (length < threshold) {
+        new MapTask<>((T[]) values, mapper, results, 0, length, length, failure).compute();
+      } else {
+        var pool = pool();
+        var grain = Math.max(1, length / (pool.getParallelism() << 2));
+        pool.invoke(new MapTask<>((T[]) values, mapper, results, 0, length, grain, failure));
+      }
+      if (failure.exception != null) {
+        throw new ElementFailure(failure.index, failure.exception);
+      }
+    }
+  
+    // the first failure by index, the elements after it are not converted
+    private static final class Failure {
+      private volatile int index = Integer.MAX_VALUE;
+      private RuntimeException exception;  // guarded by this
+  
+      private synchronized void record(int index, RuntimeException exception) {
+        if (index < this.index) {
+          this.index = index;
+          this.exception = exception;
+        }
+      }
+    }
+  
+    @SuppressWarnings("serial")  // a task is never serialized
+    private static final class MapTask<T, U> extends RecursiveAction {
+      @Serial private static final long serialVersionUID = 1L;
+  
+      private final T[] values;
+      private final Function<? super T, ? extends U> mapper;
+      private final U[] results;
+      private final int from;
+      private final int to;
+      private final int grain;
+      private final Failure failure;
+  
+      private MapTask(T[] values, Function<? super T, ? extends U> mapper, U[] results,
+                      int from, int to, int grain, Failure failure) {
+        this.values = values;
+        this.mapper = mapper;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.failure = failure;
+      }
+  
+      @Override
+      protected void compute() {
+        if (to - from <= grain) {
+          for (var i = from; i < to && i < failure.index; i++) {
+            try {
+              results[i] = mapper.apply(values[i]);
+            } catch (RuntimeException e) {
+              failure.record(i, e);
+              return;
+            }
+          }
+          return;
+        }
+        var middle = (from + to) >>> 1;
+        invokeAll(
+            new MapTask<>(values, mapper, results, from, middle, grain, failure),
+            new MapTask<>(values, mapper, results, middle, to, grain, failure));
+      }
+    }
+  }
+  
+  
+  /**
+   * Type of {@link Option}.
+   *
+   * @see Option#type()
+   */
+  public enum OptionType {
+    /** A branch to a new set of options. */
+    BRANCH(null),
+    /** An optional flag, like {@code --verbose}, {@code quiet=true} or {@code quiet=false}. */
+    FLAG(false),
+    /** An optional key-value pair, like {@code --version 47.11} or {@code version=47.11}. */
+    SINGLE(Optional.empty()),
+    /**
+     * An optional and repeatable key, like {@code --with alpha --with omega} or {@code
+     * --with=alpha,omega}
+     */
+    REPEATABLE(List.of()),
+    /** A required positional option */
+    REQUIRED(null),
+    /** An array of all unhandled arguments. */
+    VARARGS(new String[0]);
+  
+    final Object defaultValue;
+  
+    OptionType(Object defaultValue) {
+      this.defaultValue = defaultValue;
+    }
+  }
+  
+  
+  
+  /**
+   * Splits the command line arguments.
+   * This implementation is thread safe.
+   *
+   * <p>A Splitter is created from a schema using {@link #of(Schema)}.
+   *    Once configured the Splitter can be used to split arguments using {@link #split(Stream)}.
+   * <pre>
+   *   Schema&lt;X&gt; schema = ...
+   *   Splitter&lt;X&gt; splitter = Splitter.of(schema);
+   *   X result = splitter.split(args);
+   * </pre>
+   *
+   * <h2>Using a record to define a schema</h2>
+   * <p>There is a convenient method {@link #of(Lookup, Class) of(lookup, record)} that uses a record
+   * both as a schema and also as a storage for the arguments.
+   * <pre>
+   *   record Command(
+   *     &#064;Name("-v")  boolean verbose,
+   *     Optional&lt;Level&gt; __level,
+   *     List&lt;String&gt; __data,
+   *     Path destination,
+   *     Path... files) {}
+   *
+   *   Splitter&lt;Command&gt; splitter = Splitter.of(MethodHandles.lookup(), Command.class);
+   *   Command command = splitter.split(args);
+   * </pre>
+   * Each component of the record is transformed to an {@link Option}. The component type determines
+   * the option type, a boolean/Boolean is a {@link Option.Flag Flag}, an Optional is a {@link Option.Single Single},
+   * a List is a {@link Option.Repeatable Repeatable}, an array is a {@link Option.Varargs Varargs},
+   * a record is a {@link Option.Branch Branch} otherwise it's a {@link Option.Required Required}.
+   * <p>
+   * The annotations &#064;{@link Name} and &#064;{@link Help} specify respectively
+   * {@link Option#names() several names} and a {@link Option#help() help text} of an option.
+   * <p>
+   * The conversion from strings are handled by the {@link ConverterResolver#defaultResolver() default resolver}.
+   * <p>&nbsp;
+   *
+   * <h2>Using a list of options to define a schema</h2>
+   * <p>There is a convenient method {@link #of(Option[]) of(options...)} that uses an array of options as schema
+   * and store the resulting arguments in an {@link ArgumentMap}.
+   * <pre>
+   *   var verbose = Option.flag("-v");
+   *   var level = Option.single("--level").convert(Level::valueOf);
+   *   var data = Option.repeatable("--data");
+   *   var destination = Option.required("destination").convert(Path::of);
+   *   var files = Option.varargs("files").convert(Path::of, Path[]::new);
+   *
+   *   Splitter&lt;ArgumentMap&gt; splitter = Splitter.of(verbose, level, data, destination, files);
+   *   ArgumentMap argumentMap = splitter.split(args);
+   * </pre>
+   * This example defines the same schema as the record above but using the programmatic API.
+   * <p>
+   * The method {@link #lazy(Option[]) lazy(options...)} returns a splitter that only calls the converter
+   * of an option when its argument is requested from the {@link ArgumentMap}.
+   * <p>&nbsp;
+   *
+   * <h2>Argument pre-processing</h2>
+   * <p>The méthodes {@link #withEach(UnaryOperator)} and {@link #withExpand(Function)} allows to
+   * pre-process the arguments and respectively modify an argument or expand it into several arguments.
+   * The method {@link #withArgumentFiles()} expands the arguments {@code @file} like javac does,
+   * the content of the files can be kept in an {@link ArgumentFileCache}.
+   * <p>&nbsp;
+   *
+   * <h2>Splitting incrementally</h2>
+   * <p>The method {@link #session()} returns a {@link Session} that accepts the arguments one by one,
+   * for example when the arguments are read from a socket, an invalid argument is reported as soon as
+   * it is sent.
+   * <pre>
+   *   var session = splitter.session();
+   *   session.accept("--level");
+   *   session.accept("debug");
+   *   X result = session.finish();
+   * </pre>
+   * <p>&nbsp;
+   *
+   * <h2>Splitting in bulk</h2>
+   * <p>The method {@link #splitAll(List, Execution)} splits a batch of command lines sequentially,
+   * in parallel or using virtual threads, the command lines that do not match the schema do not
+   * abort the batch, the corresponding exceptions are reported by index in the {@link Batch}.
+   *
+   * @param <T> the type bundling all the arguments extracted from the command line.
+   */
+  static public final class Splitter<T> {
+    private final Schema<T> schema;
+    private final UnaryOperator<Stream<String>> preprocessor;  // null if there is no preprocessing
+    private final boolean stackless;
+    private final long timeout;  // timeout of the blocking converters in nanoseconds, 0 if there is no timeout
+  
+    private Splitter(Schema<T> schema, UnaryOperator<Stream<String>> preprocessor, boolean stackless, long timeout) {
+      this.schema = schema;
+      this.preprocessor = preprocessor;
+      this.stackless = stackless;
+      this.timeout = timeout;
+    }
+  
+    /**
+     * Returns a splitter configured from a record class and using the {@link ConverterResolver#defaultResolver() default resolver}.
+     * The result of the method {@link #split(Stream)} is an instance of the record class created using
+     * the lookup. The lookup is also used to find the conversion functions if needed.
+     *
+     * @param lookup a lookup object.
+     * @param schema a record class defining the schema.
+     * @return a splitter configured from a record class.
+     * @throws IllegalArgumentException if the record is not a valid schema.
+     *
+     * @param <R> the type of the record.
+     */
+    public static <R extends Record> Splitter<R> of(Lookup lookup, Class<R> schema) {
+      return of(lookup, schema, ConverterResolver.defaultResolver());
+    }
+  
+    /**
+     * Returns a splitter configured from a record class and a conversion function resolver.
+     * The result of the method {@link #split(Stream)} is an instance of the record class created using
+     * the lookup. The lookup is also used by the resolver to find the conversion functions if needed.
+     *
+     * @param lookup a lookup object.
+     * @param schema a record class defining the schema.
+     * @param resolver a conversion function resolver
+     * @return a splitter configured from a record class.
+     * @throws IllegalArgumentException if the record is not a valid schema.
+     *
+     * @param <R> the type of the record.
+     */
+    public static <R extends Record> Splitter<R> of(Lookup lookup, Class<R> schema, ConverterResolver resolver) {
+      requireNonNull(schema, "schema is null");
+      requireNonNull(lookup, "lookup is null");
+      requireNonNull(resolver, "resolver is null");
+      return of(RecordSchemaSupport.toSchema(lookup, schema, resolver));
+    }
+  
+    /**
+     * Returns a splitter configured from a record class and a snapshot of its schema created by
+     * {@link SchemaSnapshot#write(Lookup, Class)}, so the record class is not scanned at startup.
+     * If the snapshot can not be used, because the record class or the conversion functions have changed,
+     * the schema is created from the record class using the {@link ConverterResolver#defaultResolver() default resolver}.
+     *
+     * @param lookup a lookup object.
+     * @param schema a record class defining the schema.
+     * @param snapshot a snapshot of the schema of the record class.
+     * @return a splitter configured from a record class.
+     * @throws IllegalArgumentException if the record is not a valid schema.
+     *
+     * @param <R> the type of the record.
+     * @see SchemaSnapshot
+     */
+    public static <R extends Record> Splitter<R> ofSnapshot(Lookup lookup, Class<R> schema, byte[] snapshot) {
+      requireNonNull(schema, "schema is null");
+      requireNonNull(lookup, "lookup is null");
+      requireNonNull(snapshot, "snapshot is null");
+      return of(SchemaSnapshot.read(lookup, schema, snapshot)
+          .orElseGet(() -> RecordSchemaSupport.toSchema(lookup, schema, ConverterResolver.defaultResolver())));
+    }
+  
+    /**
+     * Returns a splitter configured from the options.
+     * The result of the method {@link #split(Stream)} is an instance of {@link ArgumentMap}.
+     *
+     * @param options the options defining the schema.
+     * @return a splitter configured from the options.
+     */
+    public static Splitter<ArgumentMap> of(Option<?>... options)  {
+      requireNonNull(options, "options is null");
+      return of(ArgumentMap.toSchema(false, options));
+    }
+  
+    /**
+     * Returns a splitter configured from the options that creates lazy argument maps.
+     * The result of the method {@link #split(Stream)} is an instance of {@link ArgumentMap},
+     * the converter of an option is only called when its argument is requested,
+     * use {@link ArgumentMap#validateAll()} to convert all the arguments at once.
+     *
+     * @param options the options defining the schema.
+     * @return a splitter configured from the options that creates lazy argument maps.
+     *
+     * @see #of(Option[])
+     */
+    public static Splitter<ArgumentMap> lazy(Option<?>... options)  {
+      requireNonNull(options, "options is null");
+      return of(ArgumentMap.toSchema(true, options));
+    }
+  
+    /**
+     * Returns a splitter configured from a schema.
+     *
+     * @param schema the schema used to configure the splitter.
+     * @return a splitter configured from a schema.
+     *
+     * @param <T> type of the return type of the method {@link #split(Stream)}.
+     */
+    public static <T> Splitter<T> of(Schema<T> schema) {
+      Objects.requireNonNull(schema, "schema is null");
+      return new Splitter<>(schema, null, false, 0);
+    }
+  
+    /**
+     * Returns the schema used to create this class.
+     * @return the schema used to create this class.
+     */
+    public Schema<T> schema() {
+      return schema;
+    }
+  
+    /**
+     * Splits the command line argument into different values following the recipe of the {@link Schema}
+     * used to create this splitter.
+     *
+     * @param args the command line arguments.
+     * @return an object gathering the values of the arguments.
+     * @throws SplittingException if the arguments does not match the schema.
+     */
+    public T split(Stream<String> args) {
+      requireNonNull(args, "args is null");
+      var arguments = preprocess(args).toArray(String[]::new);
+      return schema.split(new ArgumentCursor(arguments, 0, arguments.length), stackless, timeout);
+    }
+  
+    /**
+     * Splits the command line argument into different values following the recipe of the {@link Schema}
+     * used to create this splitter.
+     * This is a convenient method equivalent to
+     * <pre>
+     *   split(Arrays.stream(args))
+     * </pre>
+     *
+     * <p>If no pre-processing is configured, the arguments are read directly from the array
+     * without being copied.
+     *
+     * @param args the command line arguments.
+     * @return an object gathering the values of the arguments.
+     * @throws SplittingException if the arguments does not match the schema.
+     */
+    public T split(String... args) {
+      requireNonNull(args, "args is null");
+      return split(args, 0, args.length);
+    }
+  
+    /**
+     * Splits the command line argument between the index {@code from} (inclusive) and the index {@code to}
+     * (exclusive) into different values following the recipe of the {@link Schema} used to create this splitter.
+     * This is a convenient method equivalent to
+     * <pre>
+     *   split(Arrays.stream(args, from, to))
+     * </pre>
+     *
+     * <p>If no pre-processing is configured, the arguments are read directly from the array
+     * without being copied, so the array should not be modified during the call.
+     *
+     * @param args the command line arguments.
+     * @param from the index of the first argument.
+     * @param to the index after the last argument.
+     * @return an object gathering the values of the arguments.
+     * @throws IndexOutOfBoundsException if the range is out of the bounds of the array.
+     * @throws SplittingException if the arguments does not match the schema.
+     */
+    public T split(String[] args, int from, int to) {
+      requireNonNull(args, "args is null");
+      Objects.checkFromToIndex(from, to, args.length);
+      if (preprocessor != null) {
+        return split(Arrays.stream(args, from, to));
+      }
+      return schema.split(new ArgumentCursor(args, from, to), stackless, timeout);
+    }
+  
+    /**
+     * Splits the command line argument into different values following the recipe of the {@link Schema}
+     * used to create this splitter.
+     * This is a convenient method equivalent to
+     * <pre>
+     *   split(args.stream())
+     * </pre>
+     *
+     * <p>If no pre-processing is configured, the arguments are copied at once into an array.
+     *
+     * @param args the command line arguments.
+     * @return an object gathering the values of the arguments.
+     * @throws SplittingException if the arguments does not match the schema.
+     */
+    public T split(List<String> args) {
+      requireNonNull(args, "args is null");
+      if (preprocessor != null) {
+        return split(args.stream());
+      }
+      var arguments = args.toArray(String[]::new);
+      return schema.split(new ArgumentCursor(arguments, 0, arguments.length), stackless, timeout);
+    }
+  
+    /**
+     * A session that splits the arguments of one command line sent one by one.
+     * <p>
+     * The state of the split, the required options already seen, the nested options being split
+     * and the double dash mode, are kept between two calls to {@link #accept(String)},
+     * so an argument that does not match the schema is reported as soon as it is accepted.
+     * Some errors like a missing required option can only be reported by {@link #finish()}.
+     * <p>
+     * Once an exception is thrown or once {@link #finish()} is called, the session can not be used anymore.
+     * This class is not thread safe.
+     *
+     * @param <T> the type bundling all the arguments extracted from the command line.
+     * @see Splitter#session()
+     */
+    public static final class Session<T> {
+      private final Schema<T> schema;
+      private final Schema.Parser<T> parser;
+      private final UnaryOperator<Stream<String>> preprocessor;  // null if there is no preprocessing
+      private final boolean stackless;
+      private final JfrEvents.SplitEvent event;  // started when the session is created
+      private int position;  // index of the next argument
+      private boolean done;
+      private ArrayList<String> varargs;  // null if the arguments are not globbed by the varargs option yet
+  
+      private Session(Schema<T> schema, Schema.Parser<T> parser, UnaryOperator<Stream<String>> preprocessor,
+                      boolean stackless) {
+        this.schema = schema;
+        this.parser = parser;
+        this.preprocessor = preprocessor;
+        this.stackless = stackless;
+        this.event = new JfrEvents.SplitEvent();
+        event.begin();
+      }
+  
+      // the session can not be used anymore, the split event is committed like by Splitter.split()
+      private void fail(Throwable e) {
+        done = true;
+        schema.commitSplitEvent(event, null, position, e instanceof SplittingException splittingException
+            ? splittingException.kind().name() : "FAILED");
+      }
+  
+      private void checkNotDone() {
+        if (done) {
+          throw new IllegalStateException("session already finished or failed");
+        }
+      }
+  
+      /**
+       * Sends the next argument of the command line to the session.
+       * If a pre-processing is configured, it is applied to the argument.
+       *
+       * @param argument the next argument.
+       * @throws SplittingException if the argument does not match the schema.
+       * @throws IllegalStateException if the session is finished or has failed.
+       */
+      public void accept(String argument) {
+        requireNonNull(argument, "argument is null");
+        checkNotDone();
+        try {
+          if (preprocessor == null) {
+            acceptArgument(argument);
+          } else {
+            preprocessor.apply(Stream.of(argument)).forEach(this::acceptArgument);
+          }
+        } catch (RuntimeException | Error e) {
+          fail(e);
+          throw e;
+        }
+      }
+  
+      private void acceptArgument(String argument) {
+        requireNonNull(argument, "one argument is null");
+        if (varargs != null) {
+          varargs.add(argument);
+          position++;
+          return;
+        }
+        var status = parser.accept(argument);
+        if (status == Schema.Parser.ACCEPTED) {
+          position++;
+          return;
+        }
+        if (status == Schema.Parser.VARARGS) {
+          // the arguments are sent to the parser all at once by finish(), like Splitter.split()
+          varargs = new ArrayList<>();
+          varargs.add(argument);
+          position++;
+          return;
+        }
+        throw SplittingException.rejected(Schema.Parser.rejection(status), position, List.of(argument), 1, stackless);
+      }
+  
+      /**
+       * Ends the command line and returns the object gathering the values of the arguments.
+       *
+       * @return an object gathering the values of the arguments.
+       * @throws SplittingException if the arguments does not match the schema.
+       * @throws IllegalStateException if the session is finished or has failed.
+       */
+      public T finish() {
+        checkNotDone();
+        T value;
+        try {
+          if (varargs != null) {
+            parser.varargs(varargs.toArray(String[]::new));
+          }
+          value = parser.finish();
+        } catch (RuntimeException | Error e) {
+          fail(e);
+          throw e;
+        }
+        done = true;
+        schema.commitSplitEvent(event, value, position, "ACCEPTED");
+        return value;
+      }
+    }
+  
+    /**
+     * Returns a new session to split the arguments of a command line sent one by one.
+     *
+     * @return a new session to split the arguments of a command line sent one by one.
+     */
+    public Session<T> session() {
+      return new Session<>(schema, new Schema.Parser<>(schema, stackless, timeout), preprocessor, stackless);
+    }
+  
+    /**
+     * The strategy used by {@link #splitAll(List, Execution)} to split a batch of command lines.
+     */
+    public enum Execution {
+      /**
+       * The command lines are split one after the other by the calling thread.
+       */
+      SEQUENTIAL,
+      /**
+       * The command lines are split in parallel by the common fork-join pool,
+       * this is the strategy of choice if the converters are CPU-bound.
+       */
+      PARALLEL,
+      /**
+       * Each command line is split by its own virtual thread,
+       * this is the strategy of choice if the converters do blocking I/O.
+       */
+      VIRTUAL_THREADS
+    }
+  
+    /**
+     * The results of {@link #splitAll(List, Execution)}, the value or the exception
+     * of each command line of a batch, in the order of the batch.
+     *
+     * @param <T> the type bundling all the arguments extracted from a command line.
+     */
+    public static final class Batch<T> {
+      private final List<T> values;
+      private final SortedMap<Integer, SplittingException> errors;
+  
+      private Batch(T[] values, SplittingException[] errors) {
+        var errorMap = new TreeMap<Integer, SplittingException>();
+        for (var i = 0; i < errors.length; i++) {
+          if (errors[i] != null) {
+            errorMap.put(i, errors[i]);
+          }
+        }
+        this.values = Collections.unmodifiableList(Arrays.asList(values));
+        this.errors = Collections.unmodifiableSortedMap(errorMap);
+      }
+  
+      /**
+       * Returns the number of command lines of the batch.
+       * @return the number of command lines of the batch.
+       */
+      public int size() {
+        return values.size();
+      }
+  
+      /**
+       * Returns the value of each command line, the value of a command line that fails to split is null.
+       * @return an unmodifiable list of the values of the command lines.
+       */
+      public List<T> values() {
+        return values;
+      }
+  
+      /**
+       * Returns the exception of each command line that fails to split by index.
+       * @return an unmodifiable map of the exceptions sorted by index.
+       */
+      public SortedMap<Integer, SplittingException> errors() {
+        return errors;
+      }
+  
+      /**
+       * Returns the value of the command line at {@code index}.
+       *
+       * @param index the index of the command line in the batch.
+       * @return the value of the command line at {@code index}.
+       * @throws IndexOutOfBoundsException if the index is out of bounds.
+       * @throws SplittingException the exception raised when splitting that command line.
+       */
+      public T value(int index) {
+        Objects.checkIndex(index, values.size());
+        var error = errors.get(index);
+        if (error != null) {
+          throw error;
+        }
+        return values.get(index);
+      }
+  
+      @Override
+      public String toString() {
+        return "Batch[size=" + values.size() + ", errors=" + errors.keySet() + "]";
+      }
+    }
+  
+    /**
+     * Splits a batch of command lines sequentially.
+     * This is a convenient method equivalent to
+     * <pre>
+     *   splitAll(commandLines, Execution.SEQUENTIAL)
+     * </pre>
+     *
+     * @param commandLines the command lines to split.
+     * @return the value or the exception of each command line.
+     *
+     * @see #splitAll(List, Execution)
+     */
+    public Batch<T> splitAll(List<String[]> commandLines) {
+      return splitAll(commandLines, Execution.SEQUENTIAL);
+    }
+  
+    /**
+     * Splits a batch of command lines using an execution strategy.
+     * <p>
+     * Each command line is split as by {@link #split(String...)}, a command line that does not match
+     * the schema does not abort the batch, its {@link SplittingException} is reported at its index
+     * by {@link Batch#errors()}. Any other exception, for example if an argument is null, aborts the batch.
+     * <p>
+     * A splitter is immutable so all the workers share the same splitter,
+     * the command lines should not be modified until this method returns.
+     *
+     * @param commandLines the command lines to split.
+     * @param execution the execution strategy.
+     * @return the value or the exception of each command line.
+     * @throws NullPointerException if one command line is null.
+     */
+    public Batch<T> splitAll(List<String[]> commandLines, Execution execution) {
+      requireNonNull(commandLines, "commandLines is null");
+      requireNonNull(execution, "execution is null");
+      var batch = commandLines.toArray(String[][]::new);
+      for (var commandLine : batch) {
+        requireNonNull(commandLine, "one command line is null");
+      }
+      @SuppressWarnings("unchecked")
+      var values = (T[]) new Object[batch.length];
+      var errors = new SplittingException[batch.length];
+      switch (execution) {
+        case SEQUENTIAL -> {
+          for (var i = 0; i < batch.length; i++) {
+            splitAt(batch, i, values, errors);
+          }
+        }
+        case PARALLEL -> IntStream.range(0, batch.length).parallel().forEach(i -> splitAt(batch, i, values, errors));
+        case VIRTUAL_THREADS -> {
+          var failure = new AtomicReference<Throwable>();
+          try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < batch.length; i++) {
+              var index = i;
+              executor.execute(() -> {
+                try {
+                  splitAt(batch, index, values, errors);
+                } catch (Throwable e) {
+                  failure.compareAndSet(null, e);
+                }
+              });
+            }
+          }
+          var e = failure.get();
+          if (e instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+          }
+          if (e instanceof Error error) {
+            throw error;
+          }
+          if (e != null) {
+            throw new UndeclaredThrowableException(e);
+          }
+        }
+      }
+      // the executions above all happen-before this point, each slot is written by one worker
+      return new Batch<>(values, errors);
+    }
+  
+    private void splitAt(String[][] batch, int index, T[] values, SplittingException[] errors) {
+      try {
+        values[index] = split(batch[index]);
+      } catch (SplittingException e) {
+        errors[index] = e;
+      }
+    }
+  
+    private Stream<String> preprocess(Stream<String> args) {
+      return preprocessor == null ? args : preprocessor.apply(args);
+    }
+  
+    /**
+     * Returns a splitter that raises lightweight exceptions.
+     * <p>
+     * The {@link SplittingException}s raised by the returned splitter have no stack trace,
+     * the kind of error, the index of the offending argument and the option involved are available
+     * as structured data, so rejecting an invalid command line costs about the same as accepting a valid one.
+     * This is useful when a lot of command lines are invalid, for example in a server.
+     *
+     * @return a splitter that raises exceptions without stack trace.
+     *
+     * @see SplittingException#kind()
+     */
+    public Splitter<T> withLightweightErrors() {
+      return new Splitter<>(schema, preprocessor, true, timeout);
+    }
+  
+    /**
+     * Returns a splitter that waits at most {@code timeout} for the {@link Converter.Blocking blocking converters}
+     * of a split.
+     * <p>
+     * The blocking converters of a schema are called concurrently on virtual threads,
+     * the timeout starts when the split starts and is shared by all the schemas of a split,
+     * the nested schemas included. If the timeout elapses, the remaining blocking conversions are
+     * interrupted and a {@link SplittingException} of kind {@link SplittingException.Kind#CONVERTER_FAILURE}
+     * is raised with a {@link java.util.concurrent.TimeoutException} as cause once they are stopped.
+     * Without a timeout, the splitter waits for all the blocking converters.
+     *
+     * @param timeout the maximum time to wait for the blocking converters of a split.
+     * @return a splitter that waits at most {@code timeout} for the blocking converters.
+     * @throws IllegalArgumentException if the timeout is not positive.
+     *
+     * @see Converter#blocking(Converter)
+     */
+    public Splitter<T> withConversionTimeout(Duration timeout) {
+      requireNonNull(timeout, "timeout is null");
+      if (timeout.isNegative() || timeout.isZero()) {
+        throw new IllegalArgumentException("timeout is not positive " + timeout);
+      }
+      long nanos;
+      try {
+        nanos = timeout.toNanos();
+      } catch (ArithmeticException e) {
+        nanos = Long.MAX_VALUE;
+      }
+      return new Splitter<>(schema, preprocessor, stackless, nanos);
+    }
+  
+    /*
+    Argument preprocessing
+     */
+  
+    /**
+     * Returns a splitter that will call the preprocessor on all arguments of the command line
+     * when {@link #split(Stream)} is called.
+     *
+     * @param preprocessor an argument pre-processor.
+     * @return a splitter that will call the preprocessor on all arguments of the command line.
+     *
+     * @see #split(Stream)
+     */
+    public Splitter<T> withEach(UnaryOperator<String> preprocessor) {
+      requireNonNull(preprocessor, "preprocessor is null");
+      return new Splitter<>(schema, args -> preprocess(args).map(preprocessor), stackless, timeout);
+    }
+  
+    /**
+     * Returns a splitter that will call the preprocessor on all arguments of the command line
+     * when {@link #split(Stream)} is called.
+     *
+     * @param preprocessor an argument pre-processor that can expand each argument into multiple arguments.
+     * @return a splitter that will call the preprocessor on all arguments of the command line.
+     *
+     * @see #split(Stream)
+     */
+    public Splitter<T> withExpand(Function<? super String, ? extends Stream<String>> preprocessor) {
+      requireNonNull(preprocessor, "preprocessor is null");
+      return new Splitter<>(schema, args -> preprocess(args).flatMap(preprocessor), stackless, timeout);
+    }
+  
+    /**
+     * Returns a splitter that will replace each argument {@code @file} by the arguments contained in the file
+     * when {@link #split(Stream)} is called.
+     * <p>
+     * The syntax of the file is the one of javac, the arguments are separated by white spaces,
+     * a {@code #} at the beginning of an argument starts a comment until the end of the line,
+     * the single or double quotes group white spaces into one argument, and inside quotes
+     * the backslash introduces an escape sequence ({@code \n}, {@code \t}, etc) or joins the next line.
+     * An argument {@code @@arg} is replaced by {@code @arg} without reading a file.
+     * Unlike javac, an argument {@code @file} inside a file is also expanded, up to 16 nested files.
+     * <p>
+     * The file is memory mapped and the arguments are decoded from UTF-8 directly from the mapped bytes,
+     * so large argument files are not loaded in memory as lines.
+     * A file that can not be read, an unmatched quote or too many nested files raise a {@link SplittingException}.
+     *
+     * @return a splitter that will expand the argument files.
+     *
+     * @see #withExpand(Function)
+     * @see #withArgumentFiles(ArgumentFileCache)
+     */
+    public Splitter<T> withArgumentFiles() {
+      return withExpand(argument -> ArgumentFiles.expand(argument, null));
+    }
+  
+    /**
+     * Returns a splitter that will replace each argument {@code @file} by the arguments contained in the file
+     * using a cache, so an argument file that has not changed is not read again.
+     * The syntax of the file is the same as {@link #withArgumentFiles()}.
+     *
+     * @param cache the cache of the argument files.
+     * @return a splitter that will expand the argument files using the cache.
+     *
+     * @see ArgumentFileCache
+     */
+    public Splitter<T> withArgumentFiles(ArgumentFileCache cache) {
+      requireNonNull(cache, "cache is null");
+      return withExpand(argument -> ArgumentFiles.expand(argument, cache));
+    }
+  }
+  
+  
+  
+  /**
+   * An immutable table that associates names to an index.
+   * <p>
+   * Unlike a {@code HashMap<String, Integer>}, a name can be matched directly on a range of characters
+   * of an argument, so matching the {@code name} of {@code name=value} requires no substring.
+   * <p>
+   * The table uses open addressing with linear probing, the hash of a name is computed on the range
+   * of characters (with the same value as {@link String#hashCode()}) and the names are compared using
+   * {@link String#regionMatches(int, String, int, int)}.
+   * The table is at most half full, so an unknown name is rejected after a few probes.
+   */
+  static final class NameMatcher {
+    private final int mask;
+    private final int[] hashes;
+    private final String[] names;
+    private final int[] values;
+  
+    /**
+     * Creates a table from a map of names to indexes.
+     *
+     * @param indexByName a map of names to indexes.
+     */
+    NameMatcher(Map<String, Integer> indexByName) {
+      requireNonNull(indexByName, "indexByName is null");
+      var capacity = Integer.highestOneBit(Math.max(1, indexByName.size()) * 2) << 1;
+      mask = capacity - 1;
+      hashes = new int[capacity];
+      names = new String[capacity];
+      values = new int[capacity];
+      for (var entry : indexByName.entrySet()) {
+        var name = entry.getKey();
+        var hash = mix(name.hashCode());
+        var slot = hash & mask;
+        while (names[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        names[slot] = name;
+        values[slot] = entry.getValue();
+      }
+    }
+  
+    private static int mix(int hash) {
+      return hash ^ (hash >>> 16);
+    }
+  
+    private static int hash(String text, int from, int to) {
+      if (from == 0 && to == text.length()) {
+        return mix(text.hashCode());  // the hash code of a String is cached
+      }
+      // same value as String.hashCode() but 4 characters at a time to shorten the dependency chain
+      var hash = 0;
+      var i = from;
+      for (; i + 3 < to; i += 4) {
+        hash = 923_521 * hash
+            + 29_791 * text.charAt(i)
+            + 961 * text.charAt(i + 1)
+            + 31 * text.charAt(i + 2)
+            + text.charAt(i + 3);
+      }
+      for (; i < to; i++) {
+        hash = 31 * hash + text.charAt(i);
+      }
+      return mix(hash);
+    }
+  
+    /**
+     * Returns the index associated with the name stored in {@code text} between {@code from} (inclusive)
+     * and {@code to} (exclusive) or -1 if there is no such name.
+     *
+     * @param text a text containing the name.
+     * @param from index of the first character of the name.
+     * @param to index after the last character of the name.
+     * @return the index associated with the name or -1.
+     */
+    int match(String text, int from, int to) {
+      var length = to - from;
+      var hash = hash(text, from, to);
+      for (var slot = hash & mask; ; slot = (slot + 1) & mask) {
+        var name = names[slot];
+        if (name == null) {
+          return -1;
+        }
+        if (hashes[slot] == hash && name.length() == length && text.regionMatches(from, name, 0, length)) {
+          return values[slot];
+        }
+      }
+    }
+  }
+  
+  
+  /**
+   * A cache of the content of the argument files used by {@link Splitter#withArgumentFiles(ArgumentFileCache)}.
+   * <p>
+   * The tokens of a file are stored by real path, with the last modified time and the size of the file,
+   * a file which has the same last modified time and the same size is not read again,
+   * otherwise the file is read and the entry is replaced.
+   * A modification that changes neither the last modified time nor the size of a file is not seen.
+   * <p>
+   * The cache contains at most {@code maxSize} files, the least recently used file is evicted first.
+   * The numbers of hits, misses and evictions are available, for example to size the cache.
+   * <pre>
+   *   var cache = ArgumentFileCache.of(64);
+   *   var splitter = Splitter.of(schema).withArgumentFiles(cache);
+   *   ...
+   *   System.out.println(cache);  // ArgumentFileCache[size=3, hits=42, misses=3, evictions=0]
+   * </pre>
+   * This class is thread safe, a cache can be shared by several splitters.
+   */
+  static public final class ArgumentFileCache {
+    private record Entry(FileTime lastModifiedTime, long size, String[] tokens) {}
+  
+    private final Object lock = new Object();
+    private final LinkedHashMap<Path, Entry> map;  // guarded by lock
+    private long hitCount;  // guarded by lock
+    private long missCount;  // guarded by lock
+    private long evictionCount;  // guarded by lock
+  
+    private ArgumentFileCache(int maxSize) {
+      this.map = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Entry> eldest) {
+          if (size() > maxSize) {
+            evictionCount++;
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+  
+    /**
+     * Returns a new cache that contains at most {@code maxSize} argument files.
+     *
+     * @param maxSize the maximum number of argument files.
+     * @return a new cache.
+     * @throws IllegalArgumentException if {@code maxSize} is not positive.
+     */
+    public static ArgumentFileCache of(int maxSize) {
+      if (maxSize <= 0) {
+        throw new IllegalArgumentException("maxSize is not positive " + maxSize);
+      }
+      return new ArgumentFileCache(maxSize);
+    }
+  
+    String[] tokens(String name, Path path) {
+      Path realPath;
+      BasicFileAttributes attributes;
+      try {
+        realPath = path.toRealPath();
+        attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+      } catch (IOException e) {
+        throw new SplittingException("error while reading argument file @" + name, e);
+      }
+      synchronized (lock) {
+        var entry = map.get(realPath);
+        if (entry != null && entry.lastModifiedTime.equals(attributes.lastModifiedTime()) && entry.size == attributes.size()) {
+          hitCount++;
+          return entry.tokens;
+        }
+        missCount++;
+      }
+      // the file is read outside the lock, if the file changes in between, the next lookup is a miss
+      var tokens = ArgumentFiles.read(name, realPath);
+      synchronized (lock) {
+        map.put(realPath, new Entry(attributes.lastModifiedTime(), attributes.size(), tokens));
+      }
+      return tokens;
+    }
+  
+    /**
+     * Returns the number of argument files in the cache.
+     * @return the number of argument files in the cache.
+     */
+    public int size() {
+      synchronized (lock) {
+        return map.size();
+      }
+    }
+  
+    /**
+     * Returns the number of times an argument file was found in the cache unchanged.
+     * @return the number of cache hits.
+     */
+    public long hitCount() {
+      synchronized (lock) {
+        return hitCount;
+      }
+    }
+  
+    /**
+     * Returns the number of times an argument file was read because it was not in the cache or was modified.
+     * @return the number of cache misses.
+     */
+    public long missCount() {
+      synchronized (lock) {
+        return missCount;
+      }
+    }
+  
+    /**
+     * Returns the number of argument files evicted because the cache was full.
+     * @return the number of evictions.
+     */
+    public long evictionCount() {
+      synchronized (lock) {
+        return evictionCount;
+      }
+    }
+  
+    @Override
+    public String toString() {
+      synchronized (lock) {
+        return "ArgumentFileCache[size=" + map.size() + ", hits=" + hitCount + ", misses=" + missCount
+            + ", evictions=" + evictionCount + "]";
+      }
+    }
+  }
+  
+  
+  /**
+   * Expands the arguments {@code @file} into the arguments contained in the file, used by
+   * {@link Splitter#withArgumentFiles()}.
+   * <p>
+   * The syntax is the one of javac, the arguments are separated by white spaces, a {@code #} at
+   * the beginning of an argument starts a comment until the end of the line, and the single or
+   * double quotes group white spaces into one argument. Inside quotes, {@code \n}, {@code \r},
+   * {@code \t} and {@code \f} are escape sequences, a backslash followed by another character is
+   * replaced by that character, and a backslash at the end of a line joins the next line
+   * without its leading white spaces.
+   * An argument {@code @@file} is replaced by {@code @file} without reading the file.
+   * <p>
+   * Unlike javac, an argument {@code @file} inside an argument file is also expanded,
+   * up to {@value #MAX_DEPTH} nested files.
+   * <p>
+   * The file is memory mapped and read as UTF-8, the tokens are decoded directly from the mapped bytes,
+   * so only the strings of the resulting arguments are allocated.
+   * The tokens of a file are read as an array that can be shared by an {@link ArgumentFileCache},
+   * the nested files are expanded each time so a modification of a nested file is seen.
+   */
+  static final class ArgumentFiles {
+    static final int MAX_DEPTH = 16;
+  
+    private byte[] scratch = new byte[64];  // the bytes of the current argument
+    private int length;
+  
+    private ArgumentFiles() {}
+  
+    /**
+     * Expands an argument, the cache is null if the files are read each time.
+     */
+    static Stream<String> expand(String argument, ArgumentFileCache cache) {
+      if (!isFileReference(argument)) {
+        return Stream.of(argument);
+      }
+      if (argument.charAt(1) == '@') {
+        return Stream.of(argument.substring(1));
+      }
+      var tokens = tokens(argument.substring(1), cache, 1);
+      if (Arrays.stream(tokens).noneMatch(ArgumentFiles::isFileReference)) {
+        return Arrays.stream(tokens);  // the array is shared, it is not copied
+      }
+      var arguments = new ArrayList<String>();
+      expand(tokens, arguments, cache, 1);
+      return arguments.stream();
+    }
+  
+    private static boolean isFileReference(String token) {
+      return token.length() > 1 && token.charAt(0) == '@';
+    }
+  
+    private static void expand(String[] tokens, List<String> arguments, ArgumentFileCache cache, int depth) {
+      for (var token : tokens) {
+        if (!isFileReference(token)) {
+          arguments.add(token);
+          continue;
+        }
+        if (token.charAt(1) == '@') {
+          arguments.add(token.substring(1));
+          continue;
+        }
+        expand(tokens(token.substring(1), cache, depth + 1), arguments, cache, depth + 1);
+      }
+    }
+  
+    private static String[] tokens(String name, ArgumentFileCache cache, int depth) {
+      if (depth > MAX_DEPTH) {
+        throw new SplittingException("too many nested argument files (" + MAX_DEPTH + " max) @" + name);
+      }
+      Path path;
+      try {
+        path = Path.of(name);
+      } catch (InvalidPathException e) {
+        throw new SplittingException("error while reading argument file @" + name, e);
+      }
+      return cache == null ? read(name, path) : cache.tokens(name, path);
+    }
+  
+    /**
+     * Reads the tokens of a file, the nested files are not expanded.
+     */
+    static String[] read(String name, Path path) {
+      ByteBuffer buffer;
+      try (var channel = FileChannel.open(path)) {
+        var size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+          throw new SplittingException("argument file too large @" + name);
+        }
+        buffer = channel.map(MapMode.READ_ONLY, 0, size);
+      } catch (IOException e) {
+        throw new SplittingException("error while reading argument file @" + name, e);
+      }
+      var tokens = new ArrayList<String>();
+      new ArgumentFiles().tokenize(name, buffer, tokens);
+      return tokens.toArray(String[]::new);
+    }
+  
+    private void tokenize(String name, ByteBuffer buffer, List<String> tokens) {
+      var limit = buffer.limit();
+      var index = 0;
+      for (;;) {
+        // skip white spaces and comments
+        while (index < limit) {
+          var b = buffer.get(index);
+          if (b == '#') {
+            while (index < limit && !isEndOfLine(buffer.get(index))) {
+              index++;
+            }
+          } else if (isWhitespace(b)) {
+            index++;
+          } else {
+            break;
+          }
+        }
+        if (index == limit) {
+          return;
+        }
+        length = 0;
+        while (index < limit) {
+          var b = buffer.get(index);
+          if (isWhitespace(b)) {
+            break;
+          }
+          if (b == '\'' || b == '"') {
+            index = quoted(name, buffer, index + 1, b);
+            continue;
+          }
+          // copy the run of unquoted bytes at once
+          var start = index;
+          while (index < limit && !isWhitespace(b = buffer.get(index)) && b != '\'' && b != '"') {
+            index++;
+          }
+          ensureCapacity(index - start);
+          buffer.get(start, scratch, length, index - start);
+          length += index - start;
+        }
+        tokens.add(new String(scratch, 0, length, StandardCharsets.UTF_8));
+      }
+    }
+  
+    private int quoted(String name, ByteBuffer buffer, int index, byte quote) {
+      var limit = buffer.limit();
+      for (;;) {
+        if (index == limit) {
+          throw new SplittingException("unmatched quote in argument file @" + name);
+        }
+        var b = buffer.get(index++);
+        if (b == quote) {
+          return index;
+        }
+        if (b == '\\' && index < limit) {
+          b = buffer.get(index++);
+          if (isEndOfLine(b)) {
+            // line continuation, the leading white spaces of the next line are skipped
+            while (index < limit && isWhitespace(buffer.get(index))) {
+              index++;
+            }
+            continue;
+          }
+          b = switch (b) {
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'f' -> '\f';
+            default -> b;
+          };
+        }
+        ensureCapacity(1);
+        scratch[length++] = b;
+      }
+    }
+  
+    private void ensureCapacity(int count) {
+      if (length + count > scratch.length) {
+        scratch = Arrays.copyOf(scratch, Math.max(scratch.length << 1, length + count));
+      }
+    }
+  
+    private static boolean isEndOfLine(byte b) {
+      return b == '\n' || b == '\r';
+    }
+  
+    private static boolean isWhitespace(byte b) {
+      return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+    }
+  }
+  
+  
+  
+  /**
+   * An Option is a description of one of more arguments of the command line.
+   * Option are immutable classes and can be shared between several {@link Schema schemas}.
+   *
+   * <p>There two kinds of options, optional options with three sub-categories {@link #flag(String...) FLAG},
+   * {@link #single(String...) SINGLE} and {@link #repeatable(String...) REPETABLE} and positional
+   * options with two sub-categories {@link #required(String...) REQUIRED} and
+   * {@link #varargs(String...) VARARGS}.
+   *
+   * <p>&nbsp;
+   *
+   * <table>
+   *   <caption>Overview of the different options</caption>
+   *   <tr>
+   *     <th>Option type</th><th>positional</th><th>arguments ?</th><th>Java type</th><th>default value</th>
+   *   </tr><tr>
+   *     <td>FLAG</td><td>no</td><td>no argument</td><td>boolean or Boolean</td><td>false</td>
+   *  </tr><tr>
+   *     <td>SINGLE</td><td>no</td><td>one argument</td><td>java.util.Optional</td><td>Optional.&lt;String&gt;empty()</td>
+   *  </tr><tr>
+   *     <td>REPEATABLE</td><td>no</td><td>many arguments</td><td>java.util.List</td><td>List.&lt;String&gt;of()</td>
+   *  </tr><tr>
+   *    <td>REQUIRED</td><td>yes</td><td>an argument</td><td>any Object</td><td>null</td>
+   *  </tr><tr>
+   *    <td>VARARGS</td><td>yes</td><td>many arguments</td><td>any object array</td><td>new String[0]</td>
+   *  </tr>
+   * </table>
+   *
+   * <p>Options are created using factory methods, {@link #flag(String...)}, {@link #single(String...)},
+   * {@link #repeatable(String...)}, {@link #required(String...)} or {@link #varargs(String...)}.
+   *
+   * <p>Options have a {@link #type() type}, case-sensitive {@link #names() names} and optionally
+   * a {@link #help() help text}, a {@link #defaultValue(Object) default value} and
+   * {@link #nestedSchema() a nested schema}.
+   *
+   * <p>The argument(s) of an option can be converted using Options specific {@code convert()} methods,
+   * {@link Flag#convert(Converter)}, {@link Single#convert(Converter)}, {@link Repeatable#convert(Converter)},
+   * {@link Required#convert(Converter)} and {@link Varargs#convert(Converter, IntFunction)}.
+   * The methods {@code mapToInt()}, {@code mapToLong()} and {@code mapToDouble()} convert the argument(s)
+   * to a {@link Specialized} option that stores primitive values without boxing, for example
+   * {@code Option.varargs("ids").mapToLong(Long::parseLong)} is an option of type {@code long[]}.
+   *
+   * <p>Options are grouped into a {@link Schema#Schema(List, java.util.function.Function) schema} that is used to create a
+   * {@link Splitter#of(Schema) Splitter} that parses the command line.
+   *
+   * @param <T> type of the argument(s) described by this Option.
+   */
+  public sealed interface Option<T> permits AbstractOption {
+  
+    /**
+     * An option that branch to a nested schema.
+     *
+     * @param <T> the type of the argument corresponding to that option.
+     */
+    final class Branch<T> extends AbstractOption<T> {
+      final Converter<T,T> converter;
+  
+      Branch(Set<String> names, Converter<T,T> converter, String help, Schema<?> nestedSchema) {
+        super(OptionType.BRANCH, names, help, nestedSchema);
+        this.converter = requireNonNull(converter, "converter is null");
+        requireNonNull(nestedSchema, "schema is null");
+      }
+  
+      /**
+       * Create a branch option with several names, a conversion function and a nested schema.
+       *
+       * @param names names of the option.
+       * @param converter a conversion function.
+       * @param nestedSchema the nested schema
+       * @throws IllegalArgumentException if a name is empty or if names are duplicated.
+       */
+      public Branch(List<String> names, Converter<T,T> converter, Schema<T> nestedSchema) {
+        this(NameSet.copyOf(names), converter, "", nestedSchema);
+      }
+  
+      @Override
+      public Branch<T> help(String helpText) {
+        requireNonNull(helpText, "helpText is null");
+        if (!help.isEmpty()) {
+          throw new IllegalStateException("option already has an help text");
+        }
+        return new Branch<>(names, converter, helpText, nestedSchema);
+      }
+  
+      /**
+       * Returns a new option that converts the argument to a value of the same type.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument to a value of the same type.
+       */
+      public Branch<T> convert(Converter<? super T, ? extends T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Branch<>(names, converter.andThen(mapper), help, nestedSchema);
+      }
+  
+      @Override
+      public Branch<T> defaultValue(T value) {
+        return convert(v -> v == null? value: v);
+      }
+    }
+  
+    /**
+     * A boolean optional option.
+     */
+    final class Flag extends AbstractOption<Boolean> {
+      final Converter<Boolean, Boolean> converter;
+  
+      Flag(Set<String> names, Converter<Boolean, Boolean> converter, String help) {
+        super(OptionType.FLAG, names, help, null);
+        this.converter = requireNonNull(converter, "converter is null");
+      }
+  
+      /**
+       * Create a flag option with several names, a conversion function, a help text and a nested schema
+       *
+       * @param names names of the option.
+       * @param converter a conversion function.
+       * @throws IllegalArgumentException if a name is empty or if names are duplicated.
+       *
+       * @see #flag(String...)
+       */
+      public Flag(List<String> names, Converter<Boolean,Boolean> converter) {
+        this(NameSet.copyOf(names), converter, "");
+      }
+  
+      @Override
+      public Flag help(String helpText) {
+        requireNonNull(names, "helpText is null");
+        if (!help.isEmpty()) {
+          throw new IllegalStateException("option already has an help text");
+        }
+        return new Flag(names, converter, helpText);
+      }
+  
+      /**
+       * Returns a new option that converts the argument to a boolean value.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument to a boolean value.
+       */
+      public Flag convert(Converter<Boolean,Boolean> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Flag(names, converter.andThen(mapper), help);
+      }
+  
+      @Override
+      public Flag defaultValue(Boolean value) {
+        requireNonNull(value, "value is null");
+        return convert(v -> !v && value);
+      }
+    }
+  
+    /**
+     * An optional key/value option.
+     */
+    final class Single<T> extends AbstractOption<Optional<T>> {
+      final Converter<Optional<?>, ? extends Optional<T>> converter;
+  
+      Single(Set<String> names, Converter<Optional<?>, ? extends Optional<T>> converter, String help, Schema<?> nestedSchema) {
+        super(OptionType.SINGLE, names, help, nestedSchema);
+        this.converter = requireNonNull(converter, "converter is null");
+      }
+  
+      /**
+       * Create a single option with several names, a conversion function, a help text and a nested schema
+       *
+       * @param names names of the option.
+       * @param converter a conversion function.
+       * @throws IllegalArgumentException if a name is empty or if names are duplicated.
+       *
+       * @see #single(String...)
+       */
+      @SuppressWarnings("unchecked")
+      public Single(List<String> names, Converter<? super Optional<String>, ? extends Optional<T>> converter) {
+        this(NameSet.copyOf(names), (Converter<Optional<?>, ? extends Optional<T>>) converter, "", null);
+      }
+  
+      @Override
+      public Single<T> help(String helpText) {
+        requireNonNull(names, "helpText is null");
+        if (!help.isEmpty()) {
+          throw new IllegalStateException("option already has an help text");
+        }
+        return new Single<>(names, converter, helpText, nestedSchema);
+      }
+  
+      /**
+       * Returns a new option with the nested schema.
+       * The newly created option has no defined conversion.
+       *
+       * @param nestedSchema the nested schema of the new option.
+       * @return a new option with the nested schema.
+       * @throws IllegalStateException if the option already has a nested schema set.
+       */
+      @SuppressWarnings("unchecked")
+      public <U> Single<U> nestedSchema(Schema<U> nestedSchema) {
+        requireNonNull(nestedSchema, "nestedSchema is null");
+        if (this.nestedSchema != null) {
+          throw new IllegalStateException("a nested schema is already set");
+        }
+        return new Single<>(names, opt -> (Optional<U>) opt, help, nestedSchema);
+      }
+  
+      /**
+       * Returns a new option that converts the argument if it exists to another value.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument if it exists to another value.
+       */
+      public <U> Single<U> convert(Converter<? super T, ? extends U> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Single<>(names, blockingIf(mapper, converter.andThen(v -> v.map(mapper))), help, nestedSchema);
+      }
+  
+      /**
+       * Returns a new option that converts the argument if it exists to an int without boxing.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument if it exists to an int.
+       * @throws IllegalStateException if the option has a nested schema.
+       */
+      public Specialized<OptionalInt> mapToInt(Converter.ToInt<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        checkNoNestedSchema(nestedSchema);
+        return new Specialized<>(OptionType.SINGLE, names,
+            raw(converter.andThen(v -> v.isPresent() ? OptionalInt.of(mapper.applyAsInt(v.get())) : OptionalInt.empty())), help);
+      }
+  
+      /**
+       * Returns a new option that converts the argument if it exists to a long without boxing.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument if it exists to a long.
+       * @throws IllegalStateException if the option has a nested schema.
+       */
+      public Specialized<OptionalLong> mapToLong(Converter.ToLong<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        checkNoNestedSchema(nestedSchema);
+        return new Specialized<>(OptionType.SINGLE, names,
+            raw(converter.andThen(v -> v.isPresent() ? OptionalLong.of(mapper.applyAsLong(v.get())) : OptionalLong.empty())), help);
+      }
+  
+      /**
+       * Returns a new option that converts the argument if it exists to a double without boxing.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument if it exists to a double.
+       * @throws IllegalStateException if the option has a nested schema.
+       */
+      public Specialized<OptionalDouble> mapToDouble(Converter.ToDouble<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        checkNoNestedSchema(nestedSchema);
+        return new Specialized<>(OptionType.SINGLE, names,
+            raw(converter.andThen(v -> v.isPresent() ? OptionalDouble.of(mapper.applyAsDouble(v.get())) : OptionalDouble.empty())), help);
+      }
+  
+      @Override
+      public Single<T> defaultValue(Optional<T> value) {
+        requireNonNull(value, "value is null");
+        return new Single<>(names, converter.andThen(v -> v.or(() -> value)), help, nestedSchema);
+      }
+    }
+  
+    /**
+     * An optional repeatable key/value option.
+     *
+     * @param <T> the type of the argument corresponding to that option.
+     */
+    final class Repeatable<T> extends AbstractOption<List<T>> {
+      final Converter<List<?>, ? extends List<T>> converter;
+  
+      Repeatable(Set<String> names, Converter<List<?>, ? extends List<T>> converter, String help, Schema<?> nestedSchema) {
+        super(OptionType.REPEATABLE, names, help, nestedSchema);
+        this.converter = requireNonNull(converter, "converter is null");
+      }
+  
+      /**
+       * Create a repeatable option with several names, a conversion function, a help text and a nested schema
+       *
+       * @param names names of the option.
+       * @param converter a conversion function.
+       * @throws IllegalArgumentException if a name is empty or if names are duplicated.
+       *
+       * @see #repeatable(String...)
+       */
+      @SuppressWarnings("unchecked")
+      public Repeatable(List<String> names, Converter<? super List<String>, ? extends List<T>> converter) {
+        this(NameSet.copyOf(names), (Converter<List<?>, ? extends List<T>>) converter, "", null);
+      }
+  
+      @Override
+      public Repeatable<T> help(String helpText) {
+        requireNonNull(names, "helpText is null");
+        if (!help.isEmpty()) {
+          throw new IllegalStateException("option already has an help text");
+        }
+        return new Repeatable<>(names, converter, helpText, nestedSchema);
+      }
+  
+      /**
+       * Returns a new option with the nested schema.
+       * The newly created option has no defined conversion.
+       *
+       * @param nestedSchema the nested schema of the new option.
+       * @return a new option with the nested schema.
+       * @throws IllegalStateException if the option already has a nested schema set.
+       */
+      @SuppressWarnings("unchecked")
+      public <U> Repeatable<U> nestedSchema(Schema<U> nestedSchema) {
+        requireNonNull(nestedSchema, "nestedSchema is null");
+        if (this.nestedSchema != null) {
+          throw new IllegalStateException("a nested schema is already set");
+        }
+        return new Repeatable<>(names, x -> (List<U>) x, help, nestedSchema);
+      }
+  
+      /**
+       * Returns a new option that converts each argument to another value.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts each argument to another value.
+       */
+      public <U> Repeatable<U> convert(Converter<? super T, ? extends U> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Repeatable<>(names, blockingIf(mapper, converter.andThen(list -> list.stream().<U>map(mapper).toList())), help, nestedSchema);
+      }
+  
+      /**
+       * Returns a new option that converts each argument to another value,
+       * in parallel if there are enough arguments.
+       *
+       * @param mapper the function to apply to do the conversion, it must be thread safe.
+       * @param parallelConversion the policy of the parallel conversion.
+       * @return a new option that converts each argument to another value.
+       *
+       * @see ParallelConversion
+       */
+      public <U> Repeatable<U> convert(Converter<? super T, ? extends U> mapper, ParallelConversion parallelConversion) {
+        requireNonNull(mapper, "mapper is null");
+        requireNonNull(parallelConversion, "parallelConversion is null");
+        return new Repeatable<>(names, blockingIf(mapper, converter.andThen(list -> parallelConversion.<T, U>mapList(list, mapper))), help, nestedSchema);
+      }
+  
+      /**
+       * Returns a new option that converts all the arguments to an array of ints without boxing.
+       *
+       * @param mapper the function to apply to convert each argument.
+       * @return a new option that converts all the arguments to an array of ints.
+       * @throws IllegalStateException if the option has a nested schema.
+       */
+      public Specialized<int[]> mapToInt(Converter.ToInt<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        checkNoNestedSchema(nestedSchema);
+        return new Specialized<>(OptionType.REPEATABLE, names, raw(converter.andThen(list -> {
+          var array = new int[list.size()];
+          for (var i = 0; i < array.length; i++) {
+            array[i] = mapper.applyAsInt(list.get(i));
+          }
+          return array;
+        })), help);
+      }
+  
+      /**
+       * Returns a new option that converts all the arguments to an array of longs without boxing.
+       *
+       * @param mapper the function to apply to convert each argument.
+       * @return a new option that converts all the arguments to an array of longs.
+       * @throws IllegalStateException if the option has a nested schema.
+       */
+      public Specialized<long[]> mapToLong(Converter.ToLong<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        checkNoNestedSchema(nestedSchema);
+        return new Specialized<>(OptionType.REPEATABLE, names, raw(converter.andThen(list -> {
+          var array = new long[list.size()];
+          for (var i = 0; i < array.length; i++) {
+            array[i] = mapper.applyAsLong(list.get(i));
+          }
+          return array;
+        })), help);
+      }
+  
+      /**
+       * Returns a new option that converts all the arguments to an array of doubles without boxing.
+       *
+       * @param mapper the function to apply to convert each argument.
+       * @return a new option that converts all the arguments to an array of doubles.
+       * @throws IllegalStateException if the option has a nested schema.
+       */
+      public Specialized<double[]> mapToDouble(Converter.ToDouble<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        checkNoNestedSchema(nestedSchema);
+        return new Specialized<>(OptionType.REPEATABLE, names, raw(converter.andThen(list -> {
+          var array = new double[list.size()];
+          for (var i = 0; i < array.length; i++) {
+            array[i] = mapper.applyAsDouble(list.get(i));
+          }
+          return array;
+        })), help);
+      }
+  
+      @Override
+      public Repeatable<T> defaultValue(List<T> value) {
+        requireNonNull(value, "value is null");
+        return new Repeatable<>(names, converter.andThen(list -> list.isEmpty()? value: list), help, nestedSchema);
+      }
+    }
+  
+    /**
+     * A required positional option.
+     *
+     * @param <T> the type of the argument corresponding to that option.
+     */
+    final class Required<T> extends AbstractOption<T> {
+      final Converter<? super String, ? extends T> converter;
+  
+      Required(Set<String> names, Converter<? super String, ? extends T> converter, String help) {
+        super(OptionType.REQUIRED, names, help, null);
+        this.converter = requireNonNull(converter, "converter is null");
+      }
+  
+      /**
+       * Create a required option with several names, a conversion function, a help text and a nested schema
+       *
+       * @param names names of the option.
+       * @param converter a conversion function.
+       * @throws IllegalArgumentException if a name is empty or if names are duplicated.
+       *
+       * @see #required(String...)
+       */
+      public Required(List<String> names, Converter<? super String, ? extends T> converter) {
+        this(NameSet.copyOf(names), converter, "");
+      }
+  
+      @Override
+      public Required<T> help(String helpText) {
+        requireNonNull(names, "helpText is null");
+        if (!help.isEmpty()) {
+          throw new IllegalStateException("option already has an help text");
+        }
+        return new Required<>(names, converter, helpText);
+      }
+  
+      /**
+       * Returns a new option that converts the argument to another value.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument to another value.
+       */
+      public <U> Required<U> convert(Converter<? super T, ? extends U> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Required<>(names, converter.andThen(mapper), help);
+      }
+  
+      /**
+       * Returns a new option that converts the argument to an int.
+       * The int is boxed once to be stored with the other arguments, a record component
+       * of type {@code int} receives it unboxed.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument to an int.
+       */
+      public Specialized<Integer> mapToInt(Converter.ToInt<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Specialized<>(OptionType.REQUIRED, names, raw(converter.andThen(v -> mapper.applyAsInt(v))), help);
+      }
+  
+      /**
+       * Returns a new option that converts the argument to a long.
+       * The long is boxed once to be stored with the other arguments, a record component
+       * of type {@code long} receives it unboxed.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument to a long.
+       */
+      public Specialized<Long> mapToLong(Converter.ToLong<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Specialized<>(OptionType.REQUIRED, names, raw(converter.andThen(v -> mapper.applyAsLong(v))), help);
+      }
+  
+      /**
+       * Returns a new option that converts the argument to a double.
+       * The double is boxed once to be stored with the other arguments, a record component
+       * of type {@code double} receives it unboxed.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @return a new option that converts the argument to a double.
+       */
+      public Specialized<Double> mapToDouble(Converter.ToDouble<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Specialized<>(OptionType.REQUIRED, names, raw(converter.andThen(v -> mapper.applyAsDouble(v))), help);
+      }
+  
+      @Override
+      public Required<T> defaultValue(T value) {
+        return convert(v -> v == null ? value : v);
+      }
+    }
+  
+    /**
+     * An option corresponding to the rest of the positional arguments..
+     *
+     * @param <T> the type of the argument corresponding to that option.
+     */
+    final class Varargs<T> extends AbstractOption<T[]> {
+      final Converter<? super String[], ? extends T[]> converter;
+  
+      Varargs(Set<String> names, Converter<? super String[], ? extends T[]> converter, String help) {
+        super(OptionType.VARARGS, names, help, null);
+        this.converter = requireNonNull(converter, "converter is null");
+      }
+  
+      /**
+       * Create a varargs option with several names, a conversion function, a help text and a nested schema
+       *
+       * @param names names of the option.
+       * @param converter a conversion function.
+       * @throws IllegalArgumentException if a name is empty or if names are duplicated.
+       *
+       * @see #varargs(String...)
+       */
+      public Varargs(List<String> names, Converter<? super String[], ? extends T[]> converter) {
+        this(NameSet.copyOf(names), converter, "");
+      }
+  
+      @Override
+      public Varargs<T> help(String helpText) {
+        requireNonNull(names, "helpText is null");
+        if (!help.isEmpty()) {
+          throw new IllegalStateException("option already has an help text");
+        }
+        return new Varargs<>(names, converter, helpText);
+      }
+  
+      /**
+       * Returns a new option that converts each argument to another value.
+       *
+       * @param mapper the function to apply to do the conversion.
+       * @param generator an array generator
+       * @return a new option that converts each argument to another value.
+       */
+      public <U> Varargs<U> convert(Converter<? super T, ? extends U> mapper, IntFunction<U[]> generator) {
+        requireNonNull(mapper, "mapper is null");
+        return new Varargs<>(names, blockingIf(mapper, converter.andThen(v -> Arrays.stream(v).map(mapper).toArray(generator))), help);
+      }
+  
+      /**
+       * Returns a new option that converts each argument to another value,
+       * in parallel if there are enough arguments.
+       *
+       * @param mapper the function to apply to do the conversion, it must be thread safe.
+       * @param generator an array generator
+       * @param parallelConversion the policy of the parallel conversion.
+       * @return a new option that converts each argument to another value.
+       *
+       * @see ParallelConversion
+       */
+      public <U> Varargs<U> convert(Converter<? super T, ? extends U> mapper, IntFunction<U[]> generator,
+                                    ParallelConversion parallelConversion) {
+        requireNonNull(mapper, "mapper is null");
+        requireNonNull(generator, "generator is null");
+        requireNonNull(parallelConversion, "parallelConversion is null");
+        return new Varargs<>(names, blockingIf(mapper, converter.andThen(v -> parallelConversion.<T, U>mapArray(v, mapper, generator))), help);
+      }
+  
+      /**
+       * Returns a new option that converts each argument to an int without boxing.
+       *
+       * @param mapper the function to apply to convert each argument.
+       * @return a new option that converts the arguments to an array of ints.
+       */
+      public Specialized<int[]> mapToInt(Converter.ToInt<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Specialized<>(OptionType.VARARGS, names, raw(converter.andThen(values -> {
+          T[] elements = values;
+          var array = new int[elements.length];
+          for (var i = 0; i < array.length; i++) {
+            array[i] = mapper.applyAsInt(elements[i]);
+          }
+          return array;
+        })), help);
+      }
+  
+      /**
+       * Returns a new option that converts each argument to a long without boxing.
+       *
+       * @param mapper the function to apply to convert each argument.
+       * @return a new option that converts the arguments to an array of longs.
+       */
+      public Specialized<long[]> mapToLong(Converter.ToLong<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Specialized<>(OptionType.VARARGS, names, raw(converter.andThen(values -> {
+          T[] elements = values;
+          var array = new long[elements.length];
+          for (var i = 0; i < array.length; i++) {
+            array[i] = mapper.applyAsLong(elements[i]);
+          }
+          return array;
+        })), help);
+      }
+  
+      /**
+       * Returns a new option that converts each argument to a double without boxing.
+       *
+       * @param mapper the function to apply to convert each argument.
+       * @return a new option that converts the arguments to an array of doubles.
+       */
+      public Specialized<double[]> mapToDouble(Converter.ToDouble<? super T> mapper) {
+        requireNonNull(mapper, "mapper is null");
+        return new Specialized<>(OptionType.VARARGS, names, raw(converter.andThen(values -> {
+          T[] elements = values;
+          var array = new double[elements.length];
+          for (var i = 0; i < array.length; i++) {
+            array[i] = mapper.applyAsDouble(elements[i]);
+          }
+          return array;
+        })), help);
+      }
+  
+      @Override
+      public Varargs<T> defaultValue(T[] value) {
+        requireNonNull(value, "value is null");
+        return new Varargs<>(names, converter.andThen(v -> v.length == 0 ? value : v), help);
+      }
+    }
+  
+    /**
+     * An option converted to a primitive value or to an array of primitive values without boxing,
+     * like an {@link OptionalInt} or an {@code int[]}.
+     * <p>
+     * A specialized option is created by the methods {@code mapToInt()}, {@code mapToLong()} and
+     * {@code mapToDouble()} of the options {@link Single#mapToInt(Converter.ToInt) SINGLE},
+     * {@link Repeatable#mapToInt(Converter.ToInt) REPEATABLE}, {@link Required#mapToInt(Converter.ToInt) REQUIRED}
+     * and {@link Varargs#mapToInt(Converter.ToInt) VARARGS}, its {@link #type() type} is the type of
+     * the option it is created from.
+     *
+     * @param <T> the type of the argument corresponding to that option.
+     */
+    final class Specialized<T> extends AbstractOption<T> {
+      final Converter<Object, ? extends T> converter;
+  
+      Specialized(OptionType type, Set<String> names, Converter<Object, ? extends T> converter, String help) {
+        super(type, names, help, null);
+        this.converter = requireNonNull(converter, "converter is null");
+      }
+  
+      @Override
+      public Specialized<T> help(String helpText) {
+        requireNonNull(helpText, "helpText is null");
+        if (!help.isEmpty()) {
+          throw new IllegalStateException("option already has an help text");
+        }
+        return new Specialized<>(type, names, converter, helpText);
+      }
+  
+      /**
+       * Returns a new option configured with a default value.
+       * The default value is used if the option is absent of the command line,
+       * for a {@link OptionType#REPEATABLE REPEATABLE} or a {@link OptionType#VARARGS VARARGS},
+       * if there is no argument.
+       *
+       * @param value the default value
+       * @return a new option configured with a default value.
+       */
+      @Override
+      public Specialized<T> defaultValue(T value) {
+        requireNonNull(value, "value is null");
+        return new Specialized<>(type, names, v -> isAbsent(type, v) ? value : converter.apply(v), help);
+      }
+  
+      private static boolean isAbsent(OptionType type, Object value) {
+        return switch (type) {
+          case SINGLE -> ((Optional<?>) value).isEmpty();
+          case REPEATABLE -> ((List<?>) value).isEmpty();
+          case REQUIRED -> value == null;
+          case VARARGS -> ((String[]) value).length == 0;
+          case BRANCH, FLAG -> throw new AssertionError("" + type);
+        };
+      }
+    }
+  
+    @SuppressWarnings("unchecked")
+    private static <T> Converter<Object, T> raw(Converter<?, ? extends T> converter) {
+      // the converter is only called with the values produced by the splitter for the option type
+      return (Converter<Object, T>) converter;
+    }
+  
+    private static void checkNoNestedSchema(Schema<?> nestedSchema) {
+      if (nestedSchema != null) {
+        throw new IllegalStateException("a nested schema is set");
+      }
+    }
+  
+    /**
+     * Returns the type of the option.
+     * @return the type of the option.
+     */
+    OptionType type();
+  
+    /**
+     * Returns the names of the options.
+     * @return the named of the options.
+     */
+    Set<String> names();
+  
+    /**
+     * Returns the text of the help message.
+     * @return the text of the help message or an empty string if no text is set.
+     */
+    String help();
+  
+    /**
+     * Returns the nested schema if it exists.
+     * @return the nested schema or {@code null} otherwise.
+     */
+    Schema<?> nestedSchema();
+  
+    /**
+     * Creates an option of type {@link OptionType#FLAG} with names.
+     *
+     * @param names the names of the options.
+     * @return a new {@link OptionType#FLAG} option.
+     * @throws IllegalArgumentException is there are duplicated names.
+     */
+    static Flag flag(String... names) {
+      return new Flag(NameSet.of(names), value -> value, "");
+    }
+  
+    /**
+     * Creates an option of type {@link OptionType#SINGLE} with names.
+     *
+     * @param names the names of the options.
+     * @return a new {@link OptionType#SINGLE} option.
+     * @throws IllegalArgumentException is there are duplicated names.
+     */
+    @SuppressWarnings("unchecked")
+    static Single<String> single(String... names) {
+      return new Single<>(NameSet.of(names), value -> (Optional<String>) value, "", null);
+    }
+  
+    /**
+     * Creates an option of type {@link OptionType#REPEATABLE} with names.
+     *
+     * @param names the names of the options.
+     * @return a new {@link OptionType#REPEATABLE} option.
+     * @throws IllegalArgumentException is there are duplicated names.
+     */
+    @SuppressWarnings("unchecked")
+    static Repeatable<String> repeatable(String... names) {
+      return new Repeatable<>(NameSet.of(names), value -> (List<String>) value, "", null);
+    }
+  
+    /**
+     * Creates an option of type {@link OptionType#REQUIRED} with names.
+     *
+     * @param names the names of the options.
+     * @return a new {@link OptionType#REQUIRED} option.
+     * @throws IllegalArgumentException is there are duplicated names.
+     */
+    static Required<String> required(String... names) {
+      return new Required<>(NameSet.of(names), value -> value, "");
+    }
+  
+    /**
+     * Creates an option of type {@link OptionType#VARARGS} with names.
+     *
+     * @param names the names of the options.
+     * @return a new {@link OptionType#VARARGS} option.
+     * @throws IllegalArgumentException is there are duplicated names.
+     */
+    static Varargs<String> varargs(String... names) {
+      return new Varargs<>(NameSet.of(names), value -> value, "");
+    }
+  
+    /**
+     * Returns a string representation of the option.
+     * @return a string representation of the option using its {@link #type()} and its {@link #names()}.
+     */
+    @Override
+    String toString();
+  
+    /**
+     * Returns a new option configured with a default value.
+     *
+     * @param value the default value
+     * @return a new option configured with a default value.
+     */
+    Option<T> defaultValue(T value);
+  
+    /**
+     * Returns a new option with the help text.
+     *
+     * @param helpText the help text of the new option.
+     * @return a new option with the help text.
+     * @throws IllegalStateException if the option already has a help text set.
+     */
+    Option<T> help(String helpText);
+  }
+  
+  
+  
+  @FunctionalInterface
+  public interface Converter<T,R> extends Function<T,R>, Serializable {
+    R apply(T t);
+  
+    default <S> Converter<T, S> andThen(Function<? super R, ? extends S> converter) {
+      requireNonNull(converter, "converter is null");
+      Converter<T, S> result = t -> converter.apply(apply(t));
+      return this instanceof Blocking<?,?> || converter instanceof Blocking<?,?> ? blocking(result) : result;
+    }
+  
+    default <S> Converter<S, R> compose(Function<? super S, ? extends T> converter) {
+      requireNonNull(converter, "converter is null");
+      Converter<S, R> result = t -> apply(converter.apply(t));
+      return this instanceof Blocking<?,?> || converter instanceof Blocking<?,?> ? blocking(result) : result;
+    }
+  
+    /**
+     * Returns a converter that memoizes the values returned by this converter,
+     * so converting the same value again returns the same result without calling this converter.
+     * <p>
+     * At most {@code maxEntries} values are memoized, the least recently used value is evicted first.
+     * The values to convert are compared using {@code equals()}, the exceptions and a null value
+     * to convert are not memoized.
+     * This is useful for expensive converters called repeatedly with a few different values,
+     * like {@code Pattern::compile}.
+     * <pre>
+     *   Converter&lt;String, Pattern&gt; compile = Pattern::compile;
+     *   var pattern = Option.single("--pattern").convert(compile.memoized(64));
+     * </pre>
+     * The returned converter is thread safe if this converter is thread safe and is a {@link Blocking blocking}
+     * converter if this converter is a blocking converter.
+     *
+     * @param maxEntries the maximum number of memoized values.
+     * @return a converter that memoizes the values returned by this converter.
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive.
+     */
+    default Memoized<T,R> memoized(int maxEntries) {
+      if (maxEntries <= 0) {
+        throw new IllegalArgumentException("maxEntries is not positive " + maxEntries);
+      }
+      return MemoizedConverter.of(this, maxEntries);
+    }
+  
+    /**
+     * A converter that memoizes the values returned by another converter,
+     * the numbers of hits, misses and evictions are available, for example to size the cache.
+     *
+     * @param <T> the type of the value to convert.
+     * @param <R> the type of the converted value.
+     * @see #memoized(int)
+     */
+    interface Memoized<T,R> extends Converter<T,R> {
+      /**
+       * Returns the number of memoized values.
+       * @return the number of memoized values.
+       */
+      int size();
+  
+      /**
+       * Returns the number of conversions that return a memoized value.
+       * @return the number of conversions that return a memoized value.
+       */
+      long hitCount();
+  
+      /**
+       * Returns the number of conversions that call the memoized converter.
+       * @return the number of conversions that call the memoized converter.
+       */
+      long missCount();
+  
+      /**
+       * Returns the number of memoized values evicted because there were too many values.
+       * @return the number of evicted values.
+       */
+      long evictionCount();
+    }
+  
+    /**
+     * A conversion function that does blocking work, like reading a file or resolving a host name.
+     * <p>
+     * When a schema has several options with a blocking converter, the splitter calls these converters
+     * concurrently, each one on its own virtual thread, while the other converters are called by the splitting thread.
+     * A converter composed with a blocking converter, using {@link #andThen(Function)}, {@link #compose(Function)}
+     * or the {@code convert()} methods of the options, is also a blocking converter.
+     * <p>
+     * The time to wait for the blocking converters can be bounded using
+     * {@link Splitter#withConversionTimeout(java.time.Duration)}.
+     *
+     * @param <T> the type of the value to convert.
+     * @param <R> the type of the converted value.
+     * @see #blocking(Converter)
+     */
+    @FunctionalInterface
+    interface Blocking<T,R> extends Converter<T,R> {}
+  
+    /**
+     * Returns a blocking converter that delegates to a converter.
+     *
+     * @param converter a conversion function that does blocking work.
+     * @return a blocking converter.
+     * @param <T> the type of the value to convert.
+     * @param <R> the type of the converted value.
+     * @see Blocking
+     */
+    static <T,R> Converter<T,R> blocking(Converter<T,R> converter) {
+      requireNonNull(converter, "converter is null");
+      if (converter instanceof Blocking<T,R>) {
+        return converter;
+      }
+      return (Blocking<T,R>) converter::apply;
+    }
+  
+    /**
+     * A conversion function that returns an int without boxing.
+     *
+     * @param <T> the type of the value to convert.
+     * @see Option.Single#mapToInt(ToInt)
+     */
+    @FunctionalInterface
+    interface ToInt<T> extends Serializable {
+      int applyAsInt(T t);
+    }
+  
+    /**
+     * A conversion function that returns a long without boxing.
+     *
+     * @param <T> the type of the value to convert.
+     * @see Option.Single#mapToLong(ToLong)
+     */
+    @FunctionalInterface
+    interface ToLong<T> extends Serializable {
+      long applyAsLong(T t);
+    }
+  
+    /**
+     * A conversion function that returns a double without boxing.
+     *
+     * @param <T> the type of the value to convert.
+     * @see Option.Single#mapToDouble(ToDouble)
+     */
+    @FunctionalInterface
+    interface ToDouble<T> extends Serializable {
+      double applyAsDouble(T t);
+    }
+  }
+  
+  
+  /**
+   * Exception that occurs when splitting the arguments.
+   * <p>
+   * An exception raised by a {@link Splitter} carries structured data, the {@link #kind() kind} of error,
+   * the {@link #index() index} of the offending argument and the {@link #option() option} involved.
+   * The message is only computed when requested, at most 10 arguments are listed in the message
+   * and each argument is truncated to 80 characters.
+   * <p>
+   * A splitter configured with {@link Splitter#withLightweightErrors()} raises exceptions without stack trace,
+   * so rejecting a command line is as cheap as accepting it.
+   *
+   * @see Splitter#split(Stream)
+   */
+  static public final class SplittingException extends RuntimeException {
+  
+    @Serial private static final long serialVersionUID = 6958903301611893552L;
+  
+    private static final int MAX_ARGUMENTS = 10;
+    private static final int MAX_ARGUMENT_LENGTH = 80;
+  
+    /**
+     * The kind of error that occurs when splitting the arguments.
+     */
+    public enum Kind {
+      /**
+       * No option accepts an argument.
+       */
+      UNHANDLED_ARGUMENTS,
+      /**
+       * An argument follows a branch option that already consumed all the arguments.
+       */
+      TOO_MANY_ARGUMENTS,
+      /**
+       * An option is at the end of the command line without its value.
+       */
+      MISSING_VALUE,
+      /**
+       * At least one required option is missing.
+       */
+      MISSING_REQUIRED,
+      /**
+       * The converter of an option fails, the exception of the converter is the cause.
+       */
+      CONVERTER_FAILURE,
+      /**
+       * The exception was created with a message, there is no structured data.
+       */
+      OTHER
+    }
+  
+    private final Kind kind;
+    private final int index;
+    private final int elementIndex;
+    private final transient Option<?> option;
+    private final transient List<?> arguments;  // the offending arguments or the missing options
+    private final int argumentCount;
+    private String message;  // lazily computed by getMessage()
+  
+    /**
+     * Creates a splitting exception with a message and a cause.
+     *
+     * @param message a message.
+     * @param cause a cause.
+     */
+    public SplittingException(String message, Throwable cause) {
+      super(message, cause);
+      this.kind = Kind.OTHER;
+      this.index = -1;
+      this.elementIndex = -1;
+      this.option = null;
+      this.arguments = List.of();
+      this.argumentCount = 0;
+      this.message = message;
+    }
+  
+    /**
+     * Creates a splitting exception with a message.
+     *
+     * @param message a message.
+     */
+    public SplittingException(String message) {
+      this(message, null);
+    }
+  
+    /**
+     * Creates a splitting exception with a cause.
+     *
+     * @param cause a cause.
+     */
+    public SplittingException(Throwable cause) {
+      this(cause == null ? null : cause.toString(), cause);
+    }
+  
+    private SplittingException(Kind kind, int index, int elementIndex, Option<?> option, List<?> arguments,
+                               int argumentCount, Throwable cause, boolean stackless) {
+      super(null, cause, !stackless, !stackless);
+      this.kind = kind;
+      this.index = index;
+      this.elementIndex = elementIndex;
+      this.option = option;
+      this.arguments = arguments;
+      this.argumentCount = argumentCount;
+    }
+  
+    /**
+     * Creates an exception for arguments that are not accepted.
+     *
+     * @param kind {@link Kind#UNHANDLED_ARGUMENTS} or {@link Kind#TOO_MANY_ARGUMENTS}.
+     * @param index the index of the first argument not accepted.
+     * @param arguments the first arguments not accepted, only the first ten are used by the message.
+     * @param argumentCount the number of arguments not accepted.
+     * @param stackless true if the stack trace is not filled.
+     */
+    static SplittingException rejected(Kind kind, int index, List<String> arguments, int argumentCount, boolean stackless) {
+      return new SplittingException(kind, index, -1, null, arguments, argumentCount, null, stackless);
+    }
+  
+    static SplittingException missingValue(Option<?> option, boolean stackless) {
+      return new SplittingException(Kind.MISSING_VALUE, -1, -1, option, List.of(), 0, null, stackless);
+    }
+  
+    static SplittingException missingRequired(List<Option<?>> options, boolean stackless) {
+      return new SplittingException(Kind.MISSING_REQUIRED, -1, -1, options.get(0), options, options.size(), null, stackless);
+    }
+  
+    static SplittingException converterFailure(Option<?> option, Exception cause, boolean stackless) {
+      if (cause instanceof ParallelConversion.ElementFailure elementFailure) {
+        return new SplittingException(Kind.CONVERTER_FAILURE, -1, elementFailure.index, option, List.of(), 0,
+            elementFailure.getCause(), stackless);
+      }
+      return new SplittingException(Kind.CONVERTER_FAILURE, -1, -1, option, List.of(), 0, cause, stackless);
+    }
+  
+    /**
+     * Returns the kind of error.
+     * @return the kind of error, {@link Kind#OTHER} if the exception was created with a message.
+     */
+    public Kind kind() {
+      return kind;
+    }
+  
+    /**
+     * Returns the index in the command line of the first argument not accepted.
+     * @return the index of the offending argument or -1 if the error is not related to an argument.
+     */
+    public int index() {
+      return index;
+    }
+  
+    /**
+     * Returns the index of the first value of a repeatable or a varargs option that the converter fails to convert,
+     * only available if the option is converted using a {@link ParallelConversion}.
+     * @return the index of the value in the option or -1 if the error is not related to a value of the option.
+     */
+    public int elementIndex() {
+      return elementIndex;
+    }
+  
+    /**
+     * Returns the option involved in the error, the first missing option if several required options are missing.
+     * @return the option involved in the error or null if the error is not related to an option.
+     */
+    public Option<?> option() {
+      return option;
+    }
+  
+    @Override
+    public String getMessage() {
+      var message = this.message;
+      if (message == null) {
+        this.message = message = switch (kind) {
+          case UNHANDLED_ARGUMENTS -> "Unhandled arguments: " + truncate(arguments, argumentCount);
+          case TOO_MANY_ARGUMENTS -> "Too many arguments: " + truncate(arguments, argumentCount);
+          case MISSING_VALUE -> "no argument available for option " + option;
+          case MISSING_REQUIRED -> "Required option(s) missing: " + truncate(arguments, argumentCount);
+          case CONVERTER_FAILURE -> "error while calling converter for option " + option
+              + (elementIndex == -1 ? "" : " at index " + elementIndex);
+          case OTHER -> null;
+        };
+      }
+      return message;
+    }
+  
+    private static String truncate(List<?> elements, int count) {
+      var builder = new StringBuilder("[");
+      var size = Math.min(elements.size(), MAX_ARGUMENTS);
+      for (var i = 0; i < size; i++) {
+        if (i != 0) {
+          builder.append(", ");
+        }
+        var element = String.valueOf(elements.get(i));
+        if (element.length() > MAX_ARGUMENT_LENGTH) {
+          builder.append(element, 0, MAX_ARGUMENT_LENGTH).append("...");
+        } else {
+          builder.append(element);
+        }
+      }
+      if (count > size) {
+        builder.append(", ... (").append(count - size).append(" more)");
+      }
+      return builder.append(']').toString();
+    }
+  
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      getMessage();  // the structured data are not serialized, so the message is computed first
+      out.defaultWriteObject();
+    }
+  }
+  
+  
+  /**
+   * The JDK Flight Recorder events emitted by the {@link Splitter}.
+   * <p>
+   * The events are disabled by default, they can be enabled in a JFR configuration file or on
+   * the command line, for example
+   * <pre>
+   *   java -XX:StartFlightRecording:filename=split.jfr,+main.Split#enabled=true ...
+   * </pre>
+   * If an event is disabled, {@code begin()} and {@code shouldCommit()} are no-ops once JITed and
+   * the allocation of the event is removed by escape analysis, so the events can stay in the hot path.
+   */
+  static final class JfrEvents {
+    private JfrEvents() {
+      throw new AssertionError();
+    }
+  
+    private static final String CATEGORY = "Command Line Interface";
+  
+    @jdk.jfr.Name("main.SchemaBuild")
+    @Label("Schema Build")
+    @Description("Creation of a schema from a record class")
+    @Category(CATEGORY)
+    @jdk.jfr.Enabled(false)
+    static final class SchemaBuildEvent extends Event {
+      @Label("Record Class")
+      Class<?> recordClass;
+  
+      @Label("Option Count")
+      int optionCount;
+    }
+  
+    @jdk.jfr.Name("main.Split")
+    @Label("Split")
+    @Description("Split of a command line")
+    @Category(CATEGORY)
+    @jdk.jfr.Enabled(false)
+    static final class SplitEvent extends Event {
+      @Label("Result Type")
+      @Description("The class of the value bundling the arguments, null if the split fails")
+      Class<?> resultType;
+  
+      @Label("Option Count")
+      int optionCount;
+  
+      @Label("Token Count")
+      int tokenCount;
+  
+      @Label("Outcome")
+      @Description("ACCEPTED, the kind of the SplittingException or FAILED")
+      String outcome;
+    }
+  
+    @jdk.jfr.Name("main.Conversion")
+    @Label("Conversion")
+    @Description("Call to the converter of an option")
+    @Category(CATEGORY)
+    @jdk.jfr.Enabled(false)
+    static final class ConversionEvent extends Event {
+      @Label("Option")
+      String option;
+  
+      @Label("Converter Class")
+      Class<?> converterClass;
+    }
+  }
+  
+  
+  
+  
+  /**
+   * A compact binary snapshot of the schema of a record class, so the schema can be created at startup
+   * without scanning the record components, their annotations and the types for the conversion functions.
+   * <p>
+   * The snapshot is created ahead of time by {@link #write(Lookup, Class)}, stored for example as a resource,
+   * and used at startup by {@link Splitter#ofSnapshot(Lookup, Class, byte[])}.
+   * <pre>
+   *   // at build time
+   *   Files.write(Path.of("Command.schema"), SchemaSnapshot.write(MethodHandles.lookup(), Command.class));
+   *
+   *   // at startup
+   *   byte[] snapshot = ... // the content of the resource Command.schema
+   *   var splitter = Splitter.ofSnapshot(MethodHandles.lookup(), Command.class, snapshot);
+   * </pre>
+   * For each record class, the snapshot contains the names, the help and the type of each component
+   * and how its values are converted, either by an enum, by a factory method or without conversion.
+   * At startup, the canonical constructor and the factory methods are found directly by the lookup.
+   * <p>
+   * The snapshot also contains a fingerprint, a CRC32 of the class file, of each record class,
+   * if a record class has changed since the snapshot was written, if its class file can not be read
+   * or if the factory method of a component is not anymore the one that would be recorded now,
+   * the snapshot is rejected.
+   * Only the conversion functions of the {@link ConverterResolver#defaultResolver() default resolver}
+   * can be recorded in a snapshot.
+   */
+  static public final class SchemaSnapshot {
+    private SchemaSnapshot() {
+      throw new AssertionError();
+    }
+  
+    private static final int MAGIC = 0x434c4953;  // "CLIS"
+    private static final int VERSION = 1;
+  
+    // how the values of a component are converted
+    private static final int SPECIALIZED = 0, IDENTITY = 1, ENUM = 2, FACTORY = 3;
+  
+    /**
+     * Returns a snapshot of the schema of a record class.
+     *
+     * @param lookup a lookup that can access the record class and the conversion functions.
+     * @param schema a record class defining the schema.
+     * @return a snapshot of the schema.
+     * @throws IllegalArgumentException if a conversion function can not be recorded in a snapshot
+     *   or if the class file of a record class can not be read.
+     */
+    public static byte[] write(Lookup lookup, Class<? extends Record> schema) {
+      requireNonNull(lookup, "lookup is null");
+      requireNonNull(schema, "schema is null");
+      // the nested record classes are appended while the record classes are written
+      var records = new ArrayList<Class<?>>();
+      records.add(schema);
+      var body = new ByteArrayOutputStream();
+      var bytes = new ByteArrayOutputStream();
+      try (var bodyOutput = new DataOutputStream(body);
+           var output = new DataOutputStream(bytes)) {
+        for (var i = 0; i < records.size(); i++) {
+          writeRecord(lookup, records.get(i), records, bodyOutput);
+        }
+        bodyOutput.flush();
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(records.size());
+        body.writeTo(output);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return bytes.toByteArray();
+    }
+  
+    private static void writeRecord(Lookup lookup, Class<?> record, List<Class<?>> records, DataOutputStream output)
+        throws IOException {
+      var fingerprint = fingerprint(record);
+      if (fingerprint == -1) {
+        throw new IllegalArgumentException("no class file for " + record.getName());
+      }
+      output.writeUTF(record.getName());
+      output.writeLong(fingerprint);
+      var components = record.getRecordComponents();
+      output.writeInt(components.length);
+      for (var component : components) {
+        var type = component.getType();
+        var names = RecordSchemaSupport.names(component);
+        output.writeUTF(type.getName());
+        output.writeInt(names.length);
+        for (var name : names) {
+          output.writeUTF(name);
+        }
+        output.writeUTF(RecordSchemaSupport.help(component));
+        if (AbstractOption.newSpecializedOption(type, names, "") != null) {
+          output.writeByte(SPECIALIZED);
+          continue;
+        }
+        var nested = RecordSchemaSupport.toNestedSchema(component);
+        var nestedIndex = -1;
+        if (nested != null) {
+          nestedIndex = records.indexOf(nested);
+          if (nestedIndex == -1) {
+            nestedIndex = records.size();
+            records.add(nested);
+          }
+        }
+        var elementType = elementType(component);
+        if (elementType == String.class || elementType == Boolean.class || elementType == boolean.class || elementType.isRecord()) {
+          output.writeByte(IDENTITY);
+          output.writeInt(nestedIndex);
+          continue;
+        }
+        if (elementType.isEnum()) {
+          output.writeByte(ENUM);
+          output.writeInt(nestedIndex);
+          output.writeUTF(elementType.getName());
+          continue;
+        }
+        var factory = factory(lookup, elementType);
+        if (factory == -1) {
+          throw new IllegalArgumentException("no converter for component " + component);
+        }
+        output.writeByte(FACTORY);
+        output.writeInt(nestedIndex);
+        output.writeUTF(elementType.getName());
+        output.writeByte(factory);
+      }
+    }
+  
+    // the type of the values of an Optional, a List or an array
+    private static Class<?> elementType(RecordComponent component) {
+      var type = component.getType();
+      return switch (RecordSchemaSupport.optionTypeFrom(type)) {
+        case BRANCH, FLAG, REQUIRED -> type;
+        case VARARGS -> type.getComponentType();
+        case SINGLE, REPEATABLE -> {
+          if (component.getGenericType() instanceof ParameterizedType parameterizedType
+              && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementType) {
+            yield elementType;
+          }
+          throw new IllegalArgumentException("no converter for component " + component);
+        }
+      };
+    }
+  
+    // the index in ConverterFactories.FACTORIES of the first factory accessible from the lookup or -1,
+    // like ConverterResolver.reflected()
+    private static int factory(Lookup lookup, Class<?> type) {
+      for (var factory : ConverterFactories.factories(type)) {
+        try {
+          factory.find(lookup, type);
+          return factory.index();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+          // not accessible from the lookup, try next
+        }
+      }
+      return -1;
+    }
+  
+    // a CRC32 of the class file, -1 if the class file is not available
+    private static long fingerprint(Class<?> type) throws IOException {
+      try (var input = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+        if (input == null) {
+          return -1;
+        }
+        var crc = new CRC32();
+        crc.update(input.readAllBytes());
+        return crc.getValue();
+      }
+    }
+  
+    /**
+     * Returns the schema of a record class from a snapshot created by {@link #write(Lookup, Class)}.
+     *
+     * @param lookup a lookup that can access the record class and the conversion functions.
+     * @param schema a record class defining the schema.
+     * @param snapshot a snapshot of the schema.
+     * @return the schema of the record class or an empty optional if the snapshot is not a snapshot of
+     *   the record class, if a record class has changed or if a conversion function can not be found.
+     *
+     * @param <R> the type of the record.
+     */
+    public static <R extends Record> Optional<Schema<R>> read(Lookup lookup, Class<R> schema, byte[] snapshot) {
+      requireNonNull(lookup, "lookup is null");
+      requireNonNull(schema, "schema is null");
+      requireNonNull(snapshot, "snapshot is null");
+      try (var input = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+          return Optional.empty();
+        }
+        var records = new RecordSnapshot[input.readInt()];
+        for (var i = 0; i < records.length; i++) {
+          records[i] = readRecord(schema.getClassLoader(), records.length, input);
+        }
+        if (records.length == 0 || records[0].record != schema) {
+          return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        var result = (Schema<R>) new SchemaReader(lookup, records).schema(0);
+        return Optional.of(result);
+      } catch (IOException | ReflectiveOperationException | LinkageError | IllegalArgumentException e) {
+        return Optional.empty();
+      }
+    }
+  
+    private record ComponentSnapshot(Class<?> type, String[] names, String help, int kind, int nestedIndex,
+                                     Class<?> elementType, int factory) {}
+  
+    private record RecordSnapshot(Class<? extends Record> record, ComponentSnapshot[] components) {}
+  
+    private static RecordSnapshot readRecord(ClassLoader loader, int recordCount, DataInputStream input)
+        throws IOException, ClassNotFoundException {
+      var record = Class.forName(input.readUTF(), false, loader);
+      // a record class without a class file can not be checked, so it is rejected
+      var fingerprint = fingerprint(record);
+      if (!record.isRecord() || input.readLong() != fingerprint || fingerprint == -1) {
+        throw new IOException("stale snapshot " + record.getName());
+      }
+      var components = new ComponentSnapshot[input.readInt()];
+      for (var i = 0; i < components.length; i++) {
+        var type = type(input.readUTF(), loader);
+        var names = new String[input.readInt()];
+        for (var j = 0; j < names.length; j++) {
+          names[j] = input.readUTF();
+        }
+        var help = input.readUTF();
+        var kind = input.readUnsignedByte();
+        if (kind == SPECIALIZED) {
+          components[i] = new ComponentSnapshot(type, names, help, kind, -1, null, -1);
+          continue;
+        }
+        var nestedIndex = input.readInt();
+        if (nestedIndex < -1 || nestedIndex >= recordCount) {
+          throw new IOException("invalid nested index " + nestedIndex);
+        }
+        var elementType = kind == IDENTITY ? null : Class.forName(input.readUTF(), false, loader);
+        var factory = kind == FACTORY ? input.readUnsignedByte() : -1;
+        if (kind > FACTORY || factory >= ConverterFactories.FACTORIES.size()) {
+          throw new IOException("invalid converter " + kind + " " + factory);
+        }
+        components[i] = new ComponentSnapshot(type, names, help, kind, nestedIndex, elementType, factory);
+      }
+      return new RecordSnapshot(record.asSubclass(Record.class), components);
+    }
+  
+    private static Class<?> type(String name, ClassLoader loader) throws ClassNotFoundException {
+      return switch (name) {
+        case "boolean" -> boolean.class;
+        case "int" -> int.class;
+        case "long" -> long.class;
+        case "double" -> double.class;
+        default -> Class.forName(name, false, loader);
+      };
+    }
+  
+    // creates the schemas, a nested schema used by several components is only created once
+    private static final class SchemaReader {
+      private final Lookup lookup;
+      private final RecordSnapshot[] records;
+      private final Schema<?>[] schemas;
+      private final boolean[] visiting;
+  
+      private SchemaReader(Lookup lookup, RecordSnapshot[] records) {
+        this.lookup = lookup;
+        this.records = records;
+        this.schemas = new Schema<?>[records.length];
+        this.visiting = new boolean[records.length];
+      }
+  
+      private Schema<?> schema(int index) throws IOException, ReflectiveOperationException {
+        if (schemas[index] != null) {
+          return schemas[index];
+        }
+        if (visiting[index]) {
+          throw new IOException("recursive schema " + records[index].record.getName());
+        }
+        visiting[index] = true;
+        var record = records[index];
+        var types = Arrays.stream(record.components).map(ComponentSnapshot::type).toArray(Class<?>[]::new);
+        // checked here because RecordSchemaSupport.constructor() reports a missing constructor as an error
+        lookup.findConstructor(record.record, methodType(void.class, types));
+        var constructor = RecordSchemaSupport.constructor(lookup, record.record, types);
+        var options = new ArrayList<Option<?>>();
+        for (var component : record.components) {
+          if (component.kind == SPECIALIZED) {
+            options.add(AbstractOption.newSpecializedOption(component.type, component.names, component.help));
+            continue;
+          }
+          var optionType = RecordSchemaSupport.optionTypeFrom(component.type);
+          var optionSchema = component.nestedIndex == -1 ? null : schema(component.nestedIndex);
+          var converter = unwrap(optionType, component.type, converter(component));
+          options.add(AbstractOption.newOption(optionType, component.names, converter, component.help, optionSchema));
+        }
+        return schemas[index] = RecordSchemaSupport.toSchema(record.record, constructor, options);
+      }
+  
+      @SuppressWarnings({"rawtypes", "unchecked"})
+      private Converter<Object, ?> converter(ComponentSnapshot component) throws IOException, ReflectiveOperationException {
+        var elementType = component.elementType;
+        return switch (component.kind) {
+          case IDENTITY -> value -> value;
+          case ENUM -> {
+            if (!elementType.isEnum()) {
+              throw new IOException("stale snapshot " + elementType.getName());
+            }
+            yield value -> Enum.valueOf((Class) elementType, (String) value);
+          }
+          case FACTORY -> {
+            // the element type is not fingerprinted, a new or a removed factory method changes the one
+            // that write() would record
+            if (factory(lookup, elementType) != component.factory) {
+              throw new IOException("stale snapshot " + elementType.getName());
+            }
+            var mh = ConverterFactories.FACTORIES.get(component.factory).find(lookup, elementType);
+            yield value -> {
+              try {
+                return mh.invoke(value);
+              } catch (RuntimeException | Error e) {
+                throw e;
+              } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+              }
+            };
+          }
+          default -> throw new IllegalArgumentException("invalid converter " + component.kind);
+        };
+      }
+    }
+  
+    // like ConverterResolver.unwrap()
+    private static Converter<Object, ?> unwrap(OptionType optionType, Class<?> type, Converter<Object, ?> converter) {
+      return switch (optionType) {
+        case BRANCH, FLAG, REQUIRED -> converter;
+        case SINGLE -> value -> ((Optional<?>) value).map(converter);
+        case REPEATABLE -> value -> ((List<?>) value).stream().map(converter).toList();
+        case VARARGS -> {
+          var componentType = type.getComponentType();
+          yield value -> Arrays.stream((Object[]) value)
+              .map(converter)
+              .toArray(size -> (Object[]) Array.newInstance(componentType, size));
+        }
+      };
+    }
+  }
+  
+  
+  
+  /**
+   * Schema used to split the command line into arguments.
+   * The arguments are described using {@link Option}s, the {@link Splitter} splits command line arguments
+   * following the recipe defined by the options.
+   * <p>
+   * The option list should follow these rules:
+   * <ul>
+   *   <li>there is at least one option
+   *   <li>no two option share the same name
+   *   <li>there is only zero or one varargs
+   *   <li>the varargs should appear after all required.
+   * </ul>
+   * <p>
+   * The schema also specify a finalizer function that is called with the list of arguments decoded by
+   * the {@link Splitter} so the arguments collected into a more user-friendly data structure.
+   * <p>
+   * A schema should be to be immutable so the finalizer should not do any side effects.
+   *
+   * @param <T> the type of the value bundling the command line arguments.
+   * @see Splitter
+   */
+  static public final class Schema<T> {
+    final List<Option<?>> options;
+    private final Finalizer<? extends T> finalizer;  // null if the values are not converted
+    private final UnconvertedFinalizer<? extends T> unconvertedFinalizer;  // null if the values are converted
+    private final SchemaPlan plan;
+  
+    /**
+     * A finalizer that takes the converted values as an array.
+     * The array is created by each split, so the finalizer can keep it.
+     *
+     * @param <T> the type of the value bundling the command line arguments.
+     */
+    @FunctionalInterface
+    interface Finalizer<T> {
+      T apply(Object[] values);
+    }
+  
+    /**
+     * A finalizer that takes the values before conversion as an array,
+     * the finalizer is responsible to call {@link #convert(Option, Object, boolean)} with the same
+     * {@code stackless} flag as the splitter.
+     *
+     * @param <T> the type of the value bundling the command line arguments.
+     */
+    @FunctionalInterface
+    interface UnconvertedFinalizer<T> {
+      T apply(Object[] values, boolean stackless);
+    }
+  
+    /**
+     * Create a schema from a list of options and a finalizer function.
+     *
+     * @param options the options.
+     * @param finalizer a side effect free function.
+     * @throws IllegalArgumentException if the list of options is empty, if the same option is specified twice,
+     * if at least two options share the same name, if there are more than one varargs, if the varargs is
+     * not specified after the required option.
+     */
+    public Schema(List<? extends Option<?>> options, Function<? super List<Object>, ? extends T> finalizer) {
+      this(options, __ -> listFinalizer(finalizer), null);
+    }
+  
+    // exactly one of the two factories is not null
+    private Schema(List<? extends Option<?>> options,
+                   Function<? super SchemaPlan, ? extends Finalizer<? extends T>> finalizerFactory,
+                   Function<? super SchemaPlan, ? extends UnconvertedFinalizer<? extends T>> unconvertedFinalizerFactory) {
+      requireNonNull(options, "options is null");
+      var opts = List.<Option<?>>copyOf(options);
+      checkCardinality(opts);
+      checkDuplicates(opts);
+      checkVarargs(opts);
+      this.options = opts;
+      this.plan = new SchemaPlan(opts);
+      this.finalizer = finalizerFactory == null ? null : finalizerFactory.apply(plan);
+      this.unconvertedFinalizer = unconvertedFinalizerFactory == null ? null : unconvertedFinalizerFactory.apply(plan);
+    }
+  
+    /**
+     * Create a schema from a list of options and a finalizer that takes the values as an array.
+     *
+     * @see #Schema(List, Function)
+     */
+    static <T> Schema<T> ofArray(List<? extends Option<?>> options, Finalizer<? extends T> finalizer) {
+      requireNonNull(finalizer, "finalizer is null");
+      return new Schema<>(options, __ -> finalizer, null);
+    }
+  
+    /**
+     * Create a schema from a list of options and a function that creates the finalizer from the parse plan
+     * of the schema, so the finalizer can find the index of an option without its own table.
+     *
+     * @see #ofArray(List, Finalizer)
+     */
+    static <T> Schema<T> ofPlan(List<? extends Option<?>> options,
+                                Function<? super SchemaPlan, ? extends Finalizer<? extends T>> finalizerFactory) {
+      requireNonNull(finalizerFactory, "finalizerFactory is null");
+      return new Schema<>(options, finalizerFactory, null);
+    }
+  
+    /**
+     * Create a schema from a list of options and a function that creates, from the parse plan of the schema,
+     * a finalizer that takes the values before conversion.
+     *
+     * @see #ofPlan(List, Function)
+     */
+    static <T> Schema<T> ofUnconverted(List<? extends Option<?>> options,
+                                       Function<? super SchemaPlan, ? extends UnconvertedFinalizer<? extends T>> finalizerFactory) {
+      requireNonNull(finalizerFactory, "finalizerFactory is null");
+      return new Schema<>(options, null, finalizerFactory);
+    }
+  
+    private static <T> Finalizer<T> listFinalizer(Function<? super List<Object>, ? extends T> finalizer) {
+      requireNonNull(finalizer, "finalizer is null");
+      return values -> finalizer.apply(Collections.unmodifiableList(Arrays.asList(values)));
+    }
+  
+    private static void checkCardinality(List<Option<?>> options) {
+      if (options.isEmpty()) throw new IllegalArgumentException("At least one option is expected");
+    }
+  
+    private static void checkDuplicates(List<Option<?>> options) {
+      var optionsByName = new HashMap<String, Option<?>>();
+      for (var option : options) {
+        var names = option.names();
+        for (var name : names) {
+          var otherOption = optionsByName.put(name, option);
+          if (otherOption != null)
+            throw new IllegalArgumentException(
+                "options " + option + " and " + otherOption + " both declares name " + name);
+        }
+      }
+    }
+  
+    private static void checkVarargs(List<Option<?>> options) {
+      var varargs = options.stream().filter(AbstractOption::isVarargs).toList();
+      if (varargs.isEmpty()) return;
+      if (varargs.size() > 1)
+        throw new IllegalArgumentException("Too many varargs types specified: " + varargs);
+      var positionals = options.stream().filter(AbstractOption::isPositional).toList();
+      if (!AbstractOption.isVarargs(positionals.get(positionals.size() - 1)))
+        throw new IllegalArgumentException("varargs is not at last positional option: " + options);
+    }
+  
+    /**
+     * Converts the value of an option using its converter.
+     *
+     * @param option the option.
+     * @param value the value of the option before conversion.
+     * @param stackless true if the exception raised when the converter fails has no stack trace.
+     * @return the converted value.
+     * @throws SplittingException if the converter fails.
+     */
+    static Object convert(Option<?> option, Object value, boolean stackless) {
+      var event = new JfrEvents.ConversionEvent();
+      event.begin();
+      try {
+        return AbstractOption.applyConverter(option, value);
+      } catch(RuntimeException e) {
+        throw SplittingException.converterFailure(option, e, stackless);
+      } finally {
+        if (event.shouldCommit()) {
+          event.option = option.toString();
+          event.converterClass = AbstractOption.converter(option).getClass();
+          event.commit();
+        }
+      }
+    }
+  
+    T split(ArgumentCursor pendingArguments, boolean stackless, long timeout) {
+      var event = new JfrEvents.SplitEvent();
+      event.begin();
+      var tokenCount = pendingArguments.remainingCount();
+      var outcome = "FAILED";
+      T value = null;
+      try {
+        value = parse(pendingArguments, stackless, timeout);
+        outcome = "ACCEPTED";
+        return value;
+      } catch (SplittingException e) {
+        outcome = e.kind().name();
+        throw e;
+      } finally {
+        commitSplitEvent(event, value, tokenCount, outcome);
+      }
+    }
+  
+    /**
+     * Commits the event of a split of this schema, also used by {@link Splitter.Session}.
+     *
+     * @param event the event started with the split.
+     * @param value the value bundling the arguments or null if the split fails.
+     * @param tokenCount the number of arguments of the split.
+     * @param outcome ACCEPTED, the kind of the SplittingException or FAILED.
+     */
+    void commitSplitEvent(JfrEvents.SplitEvent event, T value, int tokenCount, String outcome) {
+      if (event.shouldCommit()) {
+        event.resultType = value == null ? null : value.getClass();
+        event.optionCount = plan.size();
+        event.tokenCount = tokenCount;
+        event.outcome = outcome;
+        event.commit();
+      }
+    }
+  
+    private T parse(ArgumentCursor pendingArguments, boolean stackless, long timeout) {
+      var parser = new Parser<>(this, stackless, timeout);
+      while (pendingArguments.hasNext()) {
+        var status = parser.accept(pendingArguments.next());
+        if (status == Parser.ACCEPTED) {
+          continue;
+        }
+        // restore the pending argument
+        pendingArguments.back();
+        if (status == Parser.VARARGS) {
+          // glob all pending arguments into the varargs option at once
+          parser.varargs(pendingArguments.remaining());
+          break;
+        }
+        throw SplittingException.rejected(Parser.rejection(status), pendingArguments.position(),
+            pendingArguments.peek(MAX_REJECTED_ARGUMENTS), pendingArguments.remainingCount(), stackless);
+      }
+      return parser.finish();
+    }
+  
+    // the number of rejected arguments recorded by a SplittingException
+    private static final int MAX_REJECTED_ARGUMENTS = 16;
+  
+    private static String unQuote(String str) {
+      return str.length() >= 2 && str.charAt(0) == '"' && str.charAt(str.length()-1) == '"' ? str.substring(1, str.length()-1) : str;
+    }
+  
+    /**
+     * A push parser, the arguments are sent one by one to {@link #accept(String)}
+     * and {@link #finish()} returns the value bundling the arguments.
+     * <p>
+     * The parser keeps a stack of frames, one frame per schema being split, the top frame is the schema
+     * of the innermost nested option. A frame records the values of the arguments of its schema,
+     * the position of the next required option, if the double dash mode is on and the option waiting for its value.
+     * Nothing is buffered, an argument is rejected as soon as it can not be accepted.
+     * <p>
+     * This class is not thread safe.
+     *
+     * @param <T> the type of the value bundling the command line arguments.
+     */
+    static final class Parser<T> {
+      /** The argument is accepted. */
+      static final int ACCEPTED = 0;
+      /** The argument is not accepted, it is the first argument of the varargs option. */
+      static final int VARARGS = 1;
+      /** The argument is not accepted, no option matches. */
+      static final int UNHANDLED = 2;
+      /** The argument is not accepted, a branch option already consumed all the arguments. */
+      static final int TOO_MANY = 3;
+  
+      private static final class Frame {
+        private final Frame parent;
+        private final int parentIndex;  // index of the nested option in the parent frame or -1
+        private final Schema<?> schema;
+        private final Workspace workspace;
+        private int requiredPosition;
+        private boolean doubleDashMode;
+        private int awaitingIndex = -1;  // index of the option waiting for its value or -1
+        private boolean closed;  // a branch option or the varargs option consumed all the arguments
+  
+        private Frame(Frame parent, int parentIndex, Schema<?> schema, boolean stackless) {
+          this.parent = parent;
+          this.parentIndex = parentIndex;
+          this.schema = schema;
+          this.workspace = new Workspace(schema.plan, schema.unconvertedFinalizer == null, stackless);
+        }
+  
+        private Object create(Parser<?> parser) {
+          var stackless = parser.stackless;
+          if (awaitingIndex != -1) {
+            throw SplittingException.missingValue(schema.plan.option(awaitingIndex), stackless);
+          }
+          var plan = schema.plan;
+          // a branch replaces the required options
+          if (!closed && requiredPosition != plan.requiredCount()) {
+            throw SplittingException.missingRequired(plan.requiredOptions(requiredPosition), stackless);
+          }
+          return workspace.create(schema, parser);
+        }
+      }
+  
+      private final boolean stackless;
+      private final long timeout;  // in nanoseconds, 0 if there is no timeout
+      private final long deadline;  // in nanoseconds, started when the parser is created
+      private Frame frame;  // top of the stack
+  
+      Parser(Schema<T> schema, boolean stackless, long timeout) {
+        this.stackless = stackless;
+        this.timeout = timeout;
+        this.deadline = timeout == 0 ? 0 : System.nanoTime() + timeout;
+        this.frame = new Frame(null, -1, schema, stackless);
+      }
+  
+      /**
+       * Returns the time in nanoseconds left to the blocking conversions of the split, or -1 if there is no timeout.
+       * The deadline starts when the parser is created, so it bounds the whole split, the nested schemas included.
+       */
+      private long remainingTime() {
+        if (timeout == 0) {
+          return -1;
+        }
+        return Math.max(0, deadline - System.nanoTime());
+      }
+  
+      static SplittingException.Kind rejection(int status) {
+        return switch (status) {
+          case UNHANDLED -> SplittingException.Kind.UNHANDLED_ARGUMENTS;
+          case TOO_MANY -> SplittingException.Kind.TOO_MANY_ARGUMENTS;
+          default -> throw new AssertionError("" + status);
+        };
+      }
+  
+      /**
+       * Sends the next argument to the parser.
+       * If a nested schema does not accept the argument, its value is created before the argument
+       * is sent to the enclosing schema, so the converters of the nested schema may be called.
+       *
+       * @param argument the next argument.
+       * @return {@link #ACCEPTED} or the reason why the argument is not accepted.
+       */
+      int accept(String argument) {
+        for (;;) {
+          var frame = this.frame;
+          var plan = frame.schema.plan;
+          var workspace = frame.workspace;
+          if (frame.closed) {
+            return TOO_MANY;
+          }
+          if (frame.awaitingIndex != -1) {
+            var index = frame.awaitingIndex;
+            frame.awaitingIndex = -1;
+            if (plan.option(index).type() == OptionType.SINGLE) {
+              workspace.set(index, Optional.of(argument));
+            } else {
+              workspace.append(index, argument);
+            }
+            return ACCEPTED;
+          }
+          if ("--".equals(argument)) {
+            frame.doubleDashMode = true;
+            return ACCEPTED;
+          }
+          // try well-known option first, --name or name=value
+          var separator = argument.indexOf('=');
+          var longForm = separator == -1;
+          var index = frame.doubleDashMode ? -1 : plan.optionalIndex(argument, 0, longForm ? argument.length() : separator);
+          if (index != -1) {
+            var option = plan.option(index);
+            if (option.nestedSchema() != null) {  // BRANCH, or SINGLE or REPEATABLE of a record
+              this.frame = new Frame(frame, index, option.nestedSchema(), stackless);
+              return ACCEPTED;
+            }
+            var shortFormValue = longForm ? null : unQuote(argument.substring(separator + 1));
+            switch (option.type()) {
+              case FLAG -> workspace.set(index, longForm || parseBoolean(shortFormValue));
+              case SINGLE -> {
+                if (longForm) {
+                  frame.awaitingIndex = index;
+                } else {
+                  workspace.set(index, Optional.of(shortFormValue));
+                }
+              }
+              case REPEATABLE -> {
+                if (longForm) {
+                  frame.awaitingIndex = index;
+                } else {
+                  workspace.appendAll(index, shortFormValue);
+                }
+              }
+              case BRANCH, VARARGS, REQUIRED -> throw new AssertionError("" + option);
+            }
+            return ACCEPTED;
+          }
+          // maybe a combination of single letter flags?
+          if (!frame.doubleDashMode && plan.isFlagCombination(argument)) {
+            for (var i = 1; i < argument.length(); i++) {
+              workspace.set(plan.flagIndex(argument.charAt(i)), true);
+            }
+            return ACCEPTED;
+          }
+          // try required option
+          if (frame.requiredPosition < plan.requiredCount()) {
+            workspace.set(plan.requiredIndex(frame.requiredPosition++), argument);
+            return ACCEPTED;
+          }
+          // a nested schema ends at the first argument it does not accept, try with the enclosing schema
+          if (frame.parent != null) {
+            pop();
+            continue;
+          }
+          return plan.varargsIndex() != -1 ? VARARGS : UNHANDLED;
+        }
+      }
+  
+      /**
+       * Sets the argument rejected with the status {@link #VARARGS} and all the following arguments
+       * as the value of the varargs option, no other argument is accepted.
+       *
+       * @param arguments the values of the varargs option.
+       */
+      void varargs(String[] arguments) {
+        var frame = this.frame;
+        assert frame.parent == null && frame.schema.plan.varargsIndex() != -1;
+        frame.workspace.set(frame.schema.plan.varargsIndex(), arguments);
+        frame.closed = true;
+      }
+  
+      /**
+       * Ends the parsing and returns the value bundling the arguments.
+       *
+       * @return the value bundling the arguments.
+       * @throws SplittingException if an option is waiting for its value or a required option is missing.
+       */
+      @SuppressWarnings("unchecked")
+      T finish() {
+        while (frame.parent != null) {
+          pop();
+        }
+        return (T) frame.create(this);
+      }
+  
+      private void pop() {
+        var frame = this.frame;
+        var value = frame.create(this);
+        var parent = frame.parent;
+        var index = frame.parentIndex;
+        var workspace = parent.workspace;
+        switch (parent.schema.plan.option(index).type()) {
+          case BRANCH -> {
+            workspace.set(index, value);
+            parent.closed = true;
+          }
+          case SINGLE -> workspace.set(index, Optional.of(value));
+          case REPEATABLE -> workspace.append(index, value);
+          case FLAG, VARARGS, REQUIRED -> throw new AssertionError();
+        }
+        this.frame = parent;
+      }
+    }
+  
+    /**
+     * Returns a string representation of the schema including its parse plan.
+     * @return a string representation of the schema including its parse plan.
+     */
+    @Override
+    public String toString() {
+      return plan.toString();
+    }
+  
+    /**
+     * The growable list of the values of a repeatable option during the split.
+     */
+    @SuppressWarnings("serial")
+    private static final class Accumulator extends ArrayList<Object> {}
+  
+    private static final class Workspace {
+      private final SchemaPlan plan;
+      private final boolean convert;
+      private final boolean stackless;
+      private final Object[] array;
+  
+      private Workspace(SchemaPlan plan, boolean convert, boolean stackless) {
+        this.plan = plan;
+        this.convert = convert;
+        this.stackless = stackless;
+        this.array = plan.newValues();
+      }
+  
+      void set(int index, Object value) {
+        array[index] = value;
+      }
+  
+      /**
+       * Appends a value to the values of a repeatable option.
+       * The values are accumulated in a growable list that is frozen by {@link #create(Schema, Parser)}.
+       */
+      void append(int index, Object value) {
+        accumulator(index).add(value);
+      }
+  
+      /**
+       * Appends the comma separated values of a repeatable option,
+       * the trailing empty values are removed like {@link String#split(String) value.split(",")}.
+       */
+      void appendAll(int index, String values) {
+        var accumulator = accumulator(index);
+        var size = accumulator.size();
+        var start = 0;
+        for (int comma; (comma = values.indexOf(',', start)) != -1; start = comma + 1) {
+          accumulator.add(values.substring(start, comma));
+        }
+        if (start == 0) {  // no comma
+          accumulator.add(values);
+          return;
+        }
+        accumulator.add(values.substring(start));
+        while (accumulator.size() > size && ((String) accumulator.get(accumulator.size() - 1)).isEmpty()) {
+          accumulator.remove(accumulator.size() - 1);
+        }
+      }
+  
+      private Accumulator accumulator(int index) {
+        if (array[index] instanceof Accumulator accumulator) {
+          return accumulator;
+        }
+        var accumulator = new Accumulator();
+        array[index] = accumulator;
+        return accumulator;
+      }
+  
+      /**
+       * Replaces the accumulators of the repeatable options by unmodifiable lists.
+       */
+      private void freeze() {
+        for (var index : plan.repeatableIndexes()) {
+          if (array[index] instanceof Accumulator accumulator) {
+            array[index] = Collections.unmodifiableList(accumulator);
+          }
+        }
+      }
+  
+      <T> T create(Schema<? extends T> schema, Parser<?> parser) {
+        freeze();
+        if (!convert) {
+          return schema.unconvertedFinalizer.apply(array, stackless);
+        }
+        var finalizer = schema.finalizer;
+        var blockingIndexes = plan.blockingIndexes();
+        if (blockingIndexes.length != 0) {
+          convertConcurrently(blockingIndexes, parser.remainingTime());
+          return finalizer.apply(array);
+        }
+        // the array is owned by the workspace, the values are converted in place
+        for (var i = 0; i < array.length; i++) {
+          array[i] = convert(plan.option(i), array[i], stackless);
+        }
+        return finalizer.apply(array);
+      }
+  
+      /**
+       * Calls each blocking converter on its own virtual thread and the other converters on the current thread,
+       * the first failure cancels the other blocking conversions.
+       *
+       * @param blockingIndexes the indexes of the options with a blocking converter.
+       * @param timeout the time to wait for the blocking conversions in nanoseconds or -1.
+       */
+      private void convertConcurrently(int[] blockingIndexes, long timeout) {
+        var deadline = System.nanoTime() + timeout;
+        var executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+          var completionService = new ExecutorCompletionService<Void>(executor);
+          var futures = new HashMap<Future<Void>, Integer>();
+          for (var index : blockingIndexes) {
+            futures.put(completionService.submit(() -> {
+              array[index] = convert(plan.option(index), array[index], stackless);
+              return null;
+            }), index);
+          }
+          var blocking = new boolean[array.length];
+          for (var index : blockingIndexes) {
+            blocking[index] = true;
+          }
+          for (var i = 0; i < array.length; i++) {
+            if (!blocking[i]) {
+              array[i] = convert(plan.option(i), array[i], stackless);
+            }
+          }
+          for (var i = 0; i < blockingIndexes.length; i++) {
+            var future = timeout == -1
+                ? completionService.take()
+                : completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (future == null) {
+              var pending = futures.entrySet().stream()
+                  .filter(entry -> !entry.getKey().isDone())
+                  .mapToInt(Map.Entry::getValue)
+                  .min()
+                  .orElseThrow();
+              throw SplittingException.converterFailure(plan.option(pending),
+                  new TimeoutException("blocking converter timeout"), stackless);
+            }
+            try {
+              future.get();  // the write in the array happens-before
+            } catch (ExecutionException e) {
+              var cause = e.getCause();
+              if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+              }
+              if (cause instanceof Error error) {
+                throw error;
+              }
+              throw new UndeclaredThrowableException(cause);
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new SplittingException("interrupted while waiting for the blocking converters", e);
+        } finally {
+          // interrupt the conversions that are still running and wait for them,
+          // so no conversion outlives the split
+          executor.shutdownNow();
+          executor.close();
+        }
+      }
+    }
+  }
+  
+  
+  /**
+   * The static methods and the constructor that convert a String to a value type, in the order they are tried.
+   * <p>
+   * This table is shared by {@code ConverterResolver.reflected()}, by {@code SchemaSnapshot} that records
+   * a factory by its index and by the annotation processor of the module {@code processor}
+   * that generates a reference to the factory.
+   * This package is only exported to the module {@code processor}, it is not part of the API.
+   */
+  static public final class ConverterFactories {
+    private ConverterFactories() {
+      throw new AssertionError();
+    }
+  
+    /**
+     * A factory, a static method or a constructor (named {@code <init>}) with the value type as return type.
+     *
+     * @param index the index of the factory in {@link #FACTORIES}.
+     * @param name the name of the static method or {@code <init>}.
+     * @param parameterTypes the parameter types.
+     * @param varargs true if the static method must be a varargs method.
+     */
+    public record Factory(int index, String name, List<Class<?>> parameterTypes, boolean varargs) {
+      /**
+       * Returns true if the factory is the constructor.
+       * @return true if the factory is the constructor.
+       */
+      public boolean isConstructor() {
+        return name.equals("<init>");
+      }
+  
+      /**
+       * Returns the method type of the factory for a value type.
+       * @param type the value type.
+       * @return the method type of the factory.
+       */
+      public MethodType methodType(Class<?> type) {
+        return MethodType.methodType(isConstructor() ? void.class : type, parameterTypes);
+      }
+  
+      /**
+       * Finds the factory of a value type.
+       * @param lookup the lookup used to find the factory.
+       * @param type the value type.
+       * @return a method handle on the factory.
+       * @throws NoSuchMethodException if the factory does not exist.
+       * @throws IllegalAccessException if the factory is not accessible from the lookup.
+       */
+      public MethodHandle find(Lookup lookup, Class<?> type) throws NoSuchMethodException, IllegalAccessException {
+        return isConstructor() ?
+            lookup.findConstructor(type, methodType(type)) :
+            lookup.findStatic(type, name, methodType(type));
+      }
+    }
+  
+    /**
+     * All the factories in lookup order, the constructor is the last one and is only used if
+     * it is public and the value type is not a record.
+     */
+    public static final List<Factory> FACTORIES = List.of(
+        new Factory(0, "valueOf", List.of(String.class), false),
+        new Factory(1, "of", List.of(String.class), false),
+        // we only allow X.of(String, String...) with a varargs, not X.of(String, String[])
+        new Factory(2, "of", List.of(String.class, String[].class), true),
+        new Factory(3, "parse", List.of(String.class), false),
+        new Factory(4, "parse", List.of(CharSequence.class), false),
+        new Factory(5, "<init>", List.of(String.class), false));
+  
+    private static final Factory NEW = FACTORIES.getLast();
+  
+    private static final ClassValue<List<Factory>> FACTORIES_BY_TYPE = new ClassValue<>() {
+      @Override
+      protected List<Factory> computeValue(Class<?> type) {
+        return scan(type);
+      }
+    };
+  
+    /**
+     * Returns the factories that exist on a value type in lookup order.
+     * The type is scanned once, the result is cached per class, only the access check depends on the lookup.
+     *
+     * @param type the value type.
+     * @return the factories that exist on a value type.
+     */
+    public static List<Factory> factories(Class<?> type) {
+      return FACTORIES_BY_TYPE.get(type);
+    }
+  
+    // one pass on the declared methods, no exception thrown if a factory does not exist
+    private static List<Factory> scan(Class<?> type) {
+      var factories = new Factory[FACTORIES.size()];
+      // like findStatic, the static methods of the super classes are visible
+      for (var clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+        for (var method : clazz.getDeclaredMethods()) {
+          if (!Modifier.isStatic(method.getModifiers()) || method.getReturnType() != type) {
+            continue;
+          }
+          var index = index(method.getName(), method.getParameterTypes(), method.isVarArgs());
+          if (index != -1 && factories[index] == null) {
+            factories[index] = FACTORIES.get(index);
+          }
+        }
+      }
+      if (!type.isRecord()) {  // the canonical constructor of a record is not a conversion
+        for (var constructor : type.getConstructors()) {
+          if (Arrays.asList(constructor.getParameterTypes()).equals(NEW.parameterTypes)) {
+            factories[NEW.index] = NEW;
+          }
+        }
+      }
+      return Arrays.stream(factories).filter(Objects::nonNull).toList();
+    }
+  
+    // the index of the static factory with that signature or -1
+    private static int index(String name, Class<?>[] parameterTypes, boolean varargs) {
+      var parameters = Arrays.asList(parameterTypes);
+      return IntStream.range(0, NEW.index)
+          .filter(i -> {
+            var factory = FACTORIES.get(i);
+            return factory.name.equals(name) && factory.parameterTypes.equals(parameters) && (!factory.varargs || varargs);
+          })
+          .findFirst()
+          .orElse(-1);
+    }
+  }
+
+
+  // specific code below
+
+  private static String name(Option<?> option) {
+    return option.names().iterator().next().replace('-', '_');
+  }
+
+  private static Optional<String> methodRef(ConverterResolver.ConverterMirror mirror) {
+    if (mirror.implClass.equals(ConverterResolver.class.getName())) {
+      return switch(mirror.implMethodName()) {
+        case "basic" -> Optional.empty();
+        case "enumerated" -> Optional.of(mirror.captures().get(0) + "::valueOf");
+        case "reflected", "unwrap" -> methodRef((ConverterResolver.ConverterMirror) mirror.captures().get(0));
+        default -> throw new AssertionError("unknown mirror inside ConverterResolver");
+      };
+    }
+    return Optional.of(mirror.implClass() + "::" + mirror.implMethodName);
+  }
+
+  private static Converter<?,?> converter(Option<?> option) {
+    if (option instanceof Option.Specialized<?> specialized) {
+      return specialized.converter;
+    }
+    return switch (option.type()) {
+      case BRANCH -> ((Option.Branch<?>) option).converter;
+      case FLAG -> ((Option.Flag) option).converter;
+      case SINGLE -> ((Option.Single<?>) option).converter;
+      case REPEATABLE -> ((Option.Repeatable<?>) option).converter;
+      case REQUIRED -> ((Option.Required<?>) option).converter;
+      case VARARGS -> ((Option.Varargs<?>) option).converter;
+    };
+  }
+
+  private static String appendConvert(Optional<ConverterResolver.ConverterMirror> mirror, String expr) {
+    return mirror.flatMap(m -> methodRef(m)).map(ref -> expr + ".convert(%s)".formatted(ref)).orElse(expr);
+  }
+
+  private static Optional<Class<?>> findRecordClass(ClassLoader classLoader, Schema<?> schema) {
+    var mirror = ConverterResolver.ConverterMirror.of(MethodHandles.lookup(), schema.finalizer);
+    if (mirror.isEmpty()) {
+      return Optional.empty();
+    }
+    var captures = mirror.orElseThrow().captures();
+    if (captures.isEmpty()) {
+      return Optional.empty();
+    }
+    var schemaClassName = (String) captures.get(0);
+    try {
+      return Optional.of(classLoader.loadClass(schemaClassName));
+    } catch (ClassNotFoundException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static final IdentityHashMap<Schema<?>, String> SCHEMA_MAP = new IdentityHashMap<>();
+
+  private static String schemaName(Schema<?> schema) {
+    var size = SCHEMA_MAP.size();
+    return SCHEMA_MAP.computeIfAbsent(schema, k -> "schema" + size);
+  }
+
+  private static String finalizer(ClassLoader classloader, Schema<?> schema) {
+    var recordClass = findRecordClass(classloader, schema);
+    if (recordClass.isEmpty()) {
+      return "/*FIXME*/";
+    }
+    var clazz = recordClass.orElseThrow();
+    var recordComponents = clazz.getRecordComponents();
+    return "list -> new " + clazz.getSimpleName() +
+        IntStream.range(0, recordComponents.length)
+            .mapToObj(i -> "(" + recordComponents[i].getGenericType().getTypeName() + ") list.get(" + i + ")")
+            .collect(Collectors.joining(", ", "(", ")"));
+  }
+
+  private static void generateNestedSchema(ClassLoader classloader, Schema<?> schema, Lookup lookup, ConverterResolver resolver, PrintStream out) {
+    // scan nested schema first
+    for(var option: schema.options) {
+      var nestedSchema = option.nestedSchema();
+      if (nestedSchema != null) {
+        generateNestedSchema(classloader, nestedSchema, lookup, resolver, out);
+      }
+    }
+
+    // print schema
+    for(var option: schema.options) {
+      var names = option.names().stream().map(n -> "\"" + n + "\"").collect(Collectors.joining(", ", "(", ")"));
+      var expr = "Option." + option.type().name().toLowerCase(Locale.ROOT) + names;
+      if (!option.help().isEmpty()) {
+        expr = expr + ".help(\"%s\")".formatted(option.help());
+      }
+      expr = appendConvert(ConverterResolver.ConverterMirror.of(lookup, converter(option)), expr);
+      if (option.nestedSchema() != null) {
+        expr = expr + ".nestedSchema(%s)".formatted(schemaName(option.nestedSchema()));
+      }
+      var text = "var " + name(option) + " = " + expr + ';';
+      out.print(text.indent(4));
+    }
+
+    var schemaText = """
+        var %s = new Schema<>(
+            List.of(%s),
+            %s
+            );\
+        """
+        .formatted(
+            schemaName(schema),
+            schema.options.stream().map(optionizer::name).collect(Collectors.joining(", ")),
+            finalizer(classloader, schema));
+    System.out.println(schemaText.indent(4));
+  }
+
+  private static void generateClassFile(ClassLoader classloader, Schema<?> schema, Lookup lookup, ConverterResolver resolver, PrintStream out) {
+    System.out.println("// generated by the optionizer");
+    var options = schema.options;
+    out.print("""
+        import CommandLineInterface.Option;
+        
+        class Main {
+          public static void main(String[] args) {
+        """);
+
+    generateNestedSchema(classloader, schema, lookup, resolver, out);
+
+    out.print("""
+          }
+        }
+        """);
+  }
+
+  // test with: java ./generated/optionizer.java classes/test/test/AssortedTests\$7Options.class
+  public static void main(String... args) throws Exception {
+    record ArgParameters(
+        @Help("an optional output file (not implemented yet !)")
+        Optional<Path> output,
+        @Help("a class file (a .class file)")
+        String fileName
+    ) {}
+
+    var lookup = MethodHandles.lookup();
+    var splitter = Splitter.of(lookup, ArgParameters.class);
+    ArgParameters argParameters;
+    try {
+      argParameters = splitter.split(args);
+    } catch(SplittingException e) {
+      System.err.println("error " + e.getMessage());
+      System.err.println("help : ");
+      System.err.println(Manual.help(splitter.schema()));
+      System.exit(1);
+      return;
+    }
+
+    var path = Path.of(argParameters.fileName);
+    var bytecode = Files.readAllBytes(path);
+    var clazz = new ClassLoader() {
+      Class<?> define(byte[] bytecode) {
+        return super.defineClass(null, bytecode, 0, bytecode.length);
+      }
+    }.define(bytecode);
+
+    var packagePath = Path.of(clazz.getPackageName().replace('.', '/'));
+    var nameCount = packagePath.getNameCount();
+    var root = path;
+    for(var i = 0; i <= nameCount; i++) {
+      root = root.getParent();
+    }
+
+    var classLoader = new URLClassLoader(new URL[] { root.toUri().toURL() });
+    try {
+      clazz = classLoader.loadClass(clazz.getName());
+    } catch(ClassNotFoundException e) {
+      // the class is not part of a classpath, dependencies will not be resolved
+    }
+
+    if (!clazz.isRecord()) {
+      throw new IllegalStateException("class " + argParameters.fileName + "is not a record");
+    }
+
+    var resolver = ConverterResolver.defaultResolver();
+    var schema = Splitter.of(lookup, clazz.asSubclass(Record.class), resolver).schema();
+
+    generateClassFile(clazz.getClassLoader(), schema, lookup, resolver, System.out);
+  }
+}
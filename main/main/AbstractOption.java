@@ -1,9 +1,12 @@
 package main;
 
-import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
 
@@ -11,13 +14,13 @@ import static java.util.Objects.requireNonNull;
  * Base class for all {@link Option}s.
  * <p>
  * It implements the basic accessors {@link #type()}, {@link #names()}, {@link #help()} and
- * {@link #nestedSchema()}. And provides helper methods for {@link Schema#split(boolean, ArrayDeque)}.
+ * {@link #nestedSchema()}. And provides helper methods for {@link Schema#split(ArgumentCursor, boolean, boolean, long)}.
  *
  * @param <T> type of the argument of the option.
  */
 abstract sealed class AbstractOption<T>
     implements Option<T>
-    permits Option.Branch, Option.Flag, Option.Single, Option.Repeatable, Option.Required, Option.Varargs {
+    permits Option.Branch, Option.Flag, Option.Single, Option.Repeatable, Option.Required, Option.Varargs, Option.Specialized {
   final OptionType type;
   final Set<String> names;
   final String help;
@@ -74,6 +77,37 @@ abstract sealed class AbstractOption<T>
     };
   }
 
+  private static final Set<Class<?>> SPECIALIZED_TYPES = Set.of(
+      int.class, long.class, double.class,
+      OptionalInt.class, OptionalLong.class, OptionalDouble.class,
+      int[].class, long[].class, double[].class);
+
+  /**
+   * Returns a specialized option if the type is {@code int}, {@code long}, {@code double},
+   * {@link OptionalInt}, {@link OptionalLong}, {@link OptionalDouble}, {@code int[]}, {@code long[]}
+   * or {@code double[]}, null otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  static Option<?> newSpecializedOption(Class<?> type, String[] names, String help) {
+    if (!SPECIALIZED_TYPES.contains(type)) {
+      return null;
+    }
+    var nameSet = NameSet.of(names);
+    var required = new Required<String>(nameSet, value -> value, help);
+    var single = new Single<String>(nameSet, value -> (Optional<String>) value, help, null);
+    var varargs = new Varargs<String>(nameSet, value -> value, help);
+    if (type == int.class) return required.mapToInt(Integer::parseInt);
+    if (type == long.class) return required.mapToLong(Long::parseLong);
+    if (type == double.class) return required.mapToDouble(Double::parseDouble);
+    if (type == OptionalInt.class) return single.mapToInt(Integer::parseInt);
+    if (type == OptionalLong.class) return single.mapToLong(Long::parseLong);
+    if (type == OptionalDouble.class) return single.mapToDouble(Double::parseDouble);
+    if (type == int[].class) return varargs.mapToInt(Integer::parseInt);
+    if (type == long[].class) return varargs.mapToLong(Long::parseLong);
+    if (type == double[].class) return varargs.mapToDouble(Double::parseDouble);
+    return null;
+  }
+
   @SuppressWarnings("unchecked")
   static <T> T defaultValue(Option<T> option) {
     return (T) option.type().defaultValue;
@@ -99,9 +133,35 @@ abstract sealed class AbstractOption<T>
     if (option instanceof Option.Varargs<?> varargs) {
       return (T) varargs.converter.apply((String[]) arg);
     }
+    if (option instanceof Option.Specialized<T> specialized) {
+      return specialized.converter.apply(arg);
+    }
     throw new AssertionError();
   }
 
+  @SuppressWarnings("unchecked")
+  static Converter<Object, ?> converter(Option<?> option) {
+    Converter<?, ?> converter;
+    if (option instanceof Option.Branch<?> branch) {
+      converter = branch.converter;
+    } else if (option instanceof Option.Flag flag) {
+      converter = flag.converter;
+    } else if (option instanceof Option.Single<?> single) {
+      converter = single.converter;
+    } else if (option instanceof Option.Repeatable<?> repeatable) {
+      converter = repeatable.converter;
+    } else if (option instanceof Option.Required<?> required) {
+      converter = required.converter;
+    } else if (option instanceof Option.Varargs<?> varargs) {
+      converter = varargs.converter;
+    } else if (option instanceof Option.Specialized<?> specialized) {
+      converter = specialized.converter;
+    } else {
+      throw new AssertionError();
+    }
+    return (Converter<Object, ?>) converter;
+  }
+
   static boolean isVarargs(Option<?> option) {
     return option.type() == OptionType.VARARGS;
   }
@@ -110,6 +170,17 @@ abstract sealed class AbstractOption<T>
     return option.type() == OptionType.REQUIRED;
   }
 
+  /**
+   * Returns the composed converter as a blocking converter if the mapper is a blocking converter.
+   */
+  static <T, R> Converter<T, R> blockingIf(Function<?, ?> mapper, Converter<T, R> converter) {
+    return mapper instanceof Converter.Blocking<?,?> ? Converter.blocking(converter) : converter;
+  }
+
+  static boolean isBlocking(Option<?> option) {
+    return converter(option) instanceof Converter.Blocking<?,?>;
+  }
+
   static boolean isFlag(Option<?> option) {
     return option.type() == OptionType.FLAG;
   }
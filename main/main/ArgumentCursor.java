@@ -0,0 +1,79 @@
+package main;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A cursor on a range of the command line arguments used by {@link Schema#split(ArgumentCursor, boolean, boolean, long)}.
+ * <p>
+ * The arguments are not copied, the cursor moves an index on the array, the remaining arguments
+ * are copied at once when they are all consumed by a varargs option.
+ */
+final class ArgumentCursor {
+  private final String[] arguments;
+  private final int start;
+  private final int end;
+  private int index;
+
+  ArgumentCursor(String[] arguments, int from, int to) {
+    this.arguments = arguments;
+    this.start = from;
+    this.index = from;
+    this.end = to;
+  }
+
+  /**
+   * Returns the index of the next argument relative to the first argument of the range.
+   */
+  int position() {
+    return index - start;
+  }
+
+  /**
+   * Returns the number of remaining arguments.
+   */
+  int remainingCount() {
+    return end - index;
+  }
+
+  /**
+   * Returns a copy of at most {@code max} remaining arguments without moving the cursor.
+   */
+  List<String> peek(int max) {
+    return Arrays.asList(Arrays.copyOfRange(arguments, index, Math.min(end, index + max)));
+  }
+
+  boolean hasNext() {
+    return index < end;
+  }
+
+  String next() {
+    return requireNonNull(arguments[index++], "one argument is null");
+  }
+
+  /**
+   * Moves the cursor back so the last argument returned by {@link #next()} is returned again.
+   */
+  void back() {
+    index--;
+  }
+
+  /**
+   * Returns all the remaining arguments and moves the cursor to the end.
+   */
+  String[] remaining() {
+    var remaining = Arrays.copyOfRange(arguments, index, end);
+    for (var argument : remaining) {
+      requireNonNull(argument, "one argument is null");
+    }
+    index = end;
+    return remaining;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.asList(arguments).subList(index, end).toString();
+  }
+}
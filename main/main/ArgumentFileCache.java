@@ -0,0 +1,137 @@
+package main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the content of the argument files used by {@link Splitter#withArgumentFiles(ArgumentFileCache)}.
+ * <p>
+ * The tokens of a file are stored by real path, with the last modified time and the size of the file,
+ * a file which has the same last modified time and the same size is not read again,
+ * otherwise the file is read and the entry is replaced.
+ * A modification that changes neither the last modified time nor the size of a file is not seen.
+ * <p>
+ * The cache contains at most {@code maxSize} files, the least recently used file is evicted first.
+ * The numbers of hits, misses and evictions are available, for example to size the cache.
+ * <pre>
+ *   var cache = ArgumentFileCache.of(64);
+ *   var splitter = Splitter.of(schema).withArgumentFiles(cache);
+ *   ...
+ *   System.out.println(cache);  // ArgumentFileCache[size=3, hits=42, misses=3, evictions=0]
+ * </pre>
+ * This class is thread safe, a cache can be shared by several splitters.
+ */
+public final class ArgumentFileCache {
+  private record Entry(FileTime lastModifiedTime, long size, String[] tokens) {}
+
+  private final Object lock = new Object();
+  private final LinkedHashMap<Path, Entry> map;  // guarded by lock
+  private long hitCount;  // guarded by lock
+  private long missCount;  // guarded by lock
+  private long evictionCount;  // guarded by lock
+
+  private ArgumentFileCache(int maxSize) {
+    this.map = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Path, Entry> eldest) {
+        if (size() > maxSize) {
+          evictionCount++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns a new cache that contains at most {@code maxSize} argument files.
+   *
+   * @param maxSize the maximum number of argument files.
+   * @return a new cache.
+   * @throws IllegalArgumentException if {@code maxSize} is not positive.
+   */
+  public static ArgumentFileCache of(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize is not positive " + maxSize);
+    }
+    return new ArgumentFileCache(maxSize);
+  }
+
+  String[] tokens(String name, Path path) {
+    Path realPath;
+    BasicFileAttributes attributes;
+    try {
+      realPath = path.toRealPath();
+      attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+    } catch (IOException e) {
+      throw new SplittingException("error while reading argument file @" + name, e);
+    }
+    synchronized (lock) {
+      var entry = map.get(realPath);
+      if (entry != null && entry.lastModifiedTime.equals(attributes.lastModifiedTime()) && entry.size == attributes.size()) {
+        hitCount++;
+        return entry.tokens;
+      }
+      missCount++;
+    }
+    // the file is read outside the lock, if the file changes in between, the next lookup is a miss
+    var tokens = ArgumentFiles.read(name, realPath);
+    synchronized (lock) {
+      map.put(realPath, new Entry(attributes.lastModifiedTime(), attributes.size(), tokens));
+    }
+    return tokens;
+  }
+
+  /**
+   * Returns the number of argument files in the cache.
+   * @return the number of argument files in the cache.
+   */
+  public int size() {
+    synchronized (lock) {
+      return map.size();
+    }
+  }
+
+  /**
+   * Returns the number of times an argument file was found in the cache unchanged.
+   * @return the number of cache hits.
+   */
+  public long hitCount() {
+    synchronized (lock) {
+      return hitCount;
+    }
+  }
+
+  /**
+   * Returns the number of times an argument file was read because it was not in the cache or was modified.
+   * @return the number of cache misses.
+   */
+  public long missCount() {
+    synchronized (lock) {
+      return missCount;
+    }
+  }
+
+  /**
+   * Returns the number of argument files evicted because the cache was full.
+   * @return the number of evictions.
+   */
+  public long evictionCount() {
+    synchronized (lock) {
+      return evictionCount;
+    }
+  }
+
+  @Override
+  public String toString() {
+    synchronized (lock) {
+      return "ArgumentFileCache[size=" + map.size() + ", hits=" + hitCount + ", misses=" + missCount
+          + ", evictions=" + evictionCount + "]";
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Expands the arguments {@code @file} into the arguments contained in the file, used by
+ * {@link Splitter#withArgumentFiles()}.
+ * <p>
+ * The syntax is the one of javac, the arguments are separated by white spaces, a {@code #} at
+ * the beginning of an argument starts a comment until the end of the line, and the single or
+ * double quotes group white spaces into one argument. Inside quotes, {@code \n}, {@code \r},
+ * {@code \t} and {@code \f} are escape sequences, a backslash followed by another character is
+ * replaced by that character, and a backslash at the end of a line joins the next line
+ * without its leading white spaces.
+ * An argument {@code @@file} is replaced by {@code @file} without reading the file.
+ * <p>
+ * Unlike javac, an argument {@code @file} inside an argument file is also expanded,
+ * up to {@value #MAX_DEPTH} nested files.
+ * <p>
+ * The file is memory mapped and read as UTF-8, the tokens are decoded directly from the mapped bytes,
+ * so only the strings of the resulting arguments are allocated.
+ * The tokens of a file are read as an array that can be shared by an {@link ArgumentFileCache},
+ * the nested files are expanded each time so a modification of a nested file is seen.
+ */
+final class ArgumentFiles {
+  static final int MAX_DEPTH = 16;
+
+  private byte[] scratch = new byte[64];  // the bytes of the current argument
+  private int length;
+
+  private ArgumentFiles() {}
+
+  /**
+   * Expands an argument, the cache is null if the files are read each time.
+   */
+  static Stream<String> expand(String argument, ArgumentFileCache cache) {
+    if (!isFileReference(argument)) {
+      return Stream.of(argument);
+    }
+    if (argument.charAt(1) == '@') {
+      return Stream.of(argument.substring(1));
+    }
+    var tokens = tokens(argument.substring(1), cache, 1);
+    if (Arrays.stream(tokens).noneMatch(ArgumentFiles::isFileReference)) {
+      return Arrays.stream(tokens);  // the array is shared, it is not copied
+    }
+    var arguments = new ArrayList<String>();
+    expand(tokens, arguments, cache, 1);
+    return arguments.stream();
+  }
+
+  private static boolean isFileReference(String token) {
+    return token.length() > 1 && token.charAt(0) == '@';
+  }
+
+  private static void expand(String[] tokens, List<String> arguments, ArgumentFileCache cache, int depth) {
+    for (var token : tokens) {
+      if (!isFileReference(token)) {
+        arguments.add(token);
+        continue;
+      }
+      if (token.charAt(1) == '@') {
+        arguments.add(token.substring(1));
+        continue;
+      }
+      expand(tokens(token.substring(1), cache, depth + 1), arguments, cache, depth + 1);
+    }
+  }
+
+  private static String[] tokens(String name, ArgumentFileCache cache, int depth) {
+    if (depth > MAX_DEPTH) {
+      throw new SplittingException("too many nested argument files (" + MAX_DEPTH + " max) @" + name);
+    }
+    Path path;
+    try {
+      path = Path.of(name);
+    } catch (InvalidPathException e) {
+      throw new SplittingException("error while reading argument file @" + name, e);
+    }
+    return cache == null ? read(name, path) : cache.tokens(name, path);
+  }
+
+  /**
+   * Reads the tokens of a file, the nested files are not expanded.
+   */
+  static String[] read(String name, Path path) {
+    ByteBuffer buffer;
+    try (var channel = FileChannel.open(path)) {
+      var size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new SplittingException("argument file too large @" + name);
+      }
+      buffer = channel.map(MapMode.READ_ONLY, 0, size);
+    } catch (IOException e) {
+      throw new SplittingException("error while reading argument file @" + name, e);
+    }
+    var tokens = new ArrayList<String>();
+    new ArgumentFiles().tokenize(name, buffer, tokens);
+    return tokens.toArray(String[]::new);
+  }
+
+  private void tokenize(String name, ByteBuffer buffer, List<String> tokens) {
+    var limit = buffer.limit();
+    var index = 0;
+    for (;;) {
+      // skip white spaces and comments
+      while (index < limit) {
+        var b = buffer.get(index);
+        if (b == '#') {
+          while (index < limit && !isEndOfLine(buffer.get(index))) {
+            index++;
+          }
+        } else if (isWhitespace(b)) {
+          index++;
+        } else {
+          break;
+        }
+      }
+      if (index == limit) {
+        return;
+      }
+      length = 0;
+      while (index < limit) {
+        var b = buffer.get(index);
+        if (isWhitespace(b)) {
+          break;
+        }
+        if (b == '\'' || b == '"') {
+          index = quoted(name, buffer, index + 1, b);
+          continue;
+        }
+        // copy the run of unquoted bytes at once
+        var start = index;
+        while (index < limit && !isWhitespace(b = buffer.get(index)) && b != '\'' && b != '"') {
+          index++;
+        }
+        ensureCapacity(index - start);
+        buffer.get(start, scratch, length, index - start);
+        length += index - start;
+      }
+      tokens.add(new String(scratch, 0, length, StandardCharsets.UTF_8));
+    }
+  }
+
+  private int quoted(String name, ByteBuffer buffer, int index, byte quote) {
+    var limit = buffer.limit();
+    for (;;) {
+      if (index == limit) {
+        throw new SplittingException("unmatched quote in argument file @" + name);
+      }
+      var b = buffer.get(index++);
+      if (b == quote) {
+        return index;
+      }
+      if (b == '\\' && index < limit) {
+        b = buffer.get(index++);
+        if (isEndOfLine(b)) {
+          // line continuation, the leading white spaces of the next line are skipped
+          while (index < limit && isWhitespace(buffer.get(index))) {
+            index++;
+          }
+          continue;
+        }
+        b = switch (b) {
+          case 'n' -> '\n';
+          case 'r' -> '\r';
+          case 't' -> '\t';
+          case 'f' -> '\f';
+          default -> b;
+        };
+      }
+      ensureCapacity(1);
+      scratch[length++] = b;
+    }
+  }
+
+  private void ensureCapacity(int count) {
+    if (length + count > scratch.length) {
+      scratch = Arrays.copyOf(scratch, Math.max(scratch.length << 1, length + count));
+    }
+  }
+
+  private static boolean isEndOfLine(byte b) {
+    return b == '\n' || b == '\r';
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+  }
+}
@@ -1,13 +1,14 @@
 package main;
 
-import java.util.LinkedHashMap;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.StringJoiner;
 import java.util.stream.Stream;
 
-import static java.util.stream.Collectors.toMap;
-import static java.util.stream.IntStream.range;
-
 /**
  * An immutable associative table that links an {@link Option} to its value (an argument).
  *
@@ -23,50 +24,190 @@ import static java.util.stream.IntStream.range;
  *   var flagFValue = argumentMap.argument(flagF);
  *   System.out.println(flagFValue);  // true
  *   </pre>
+ *
+ * <p>Calling {@link Splitter#lazy(Option[])} instead returns a splitter that creates lazy argument maps,
+ * the converter of an option is called the first time its argument is requested by
+ * {@link #argument(Option)}, so the converters of the options that are never read are never called.
+ * The method {@link #validateAll()} converts all the arguments at once.
+ * A lazy argument map can be read concurrently, if several threads request the same argument at the same time
+ * the converter may be called more than once but all threads see the same argument.
+ *
+ * <p>The arguments are stored in an array indexed by the position of the option in the schema,
+ * the table that maps an option to its position is computed once per schema, in its parse plan.
+ * The methods {@link #flag(Option.Flag)}, {@link #single(Option.Single)}, {@link #list(Option.Repeatable)},
+ * {@link #required(Option.Required)} and {@link #varargs(Option.Varargs)} are typed versions
+ * of {@link #argument(Option)}.
  */
 public final class ArgumentMap {
-  private final LinkedHashMap<Option<?>, Object> argumentMap;
+  private static final VarHandle ARGUMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+  private static final Object UNCONVERTED = new Object();
+
+  private final SchemaPlan plan;  // immutable, shared by all the maps of a schema
+  private final Object[] values;  // the values before conversion, null if the map is not lazy
+  private final Object[] arguments;  // UNCONVERTED if the converter of the option was not called yet
+  private final boolean stackless;  // true if the splitter creates exceptions without stack trace
 
-  private ArgumentMap(LinkedHashMap<Option<?>, Object> argumentMap) {
-    this.argumentMap = argumentMap;
+  private ArgumentMap(SchemaPlan plan, Object[] values, Object[] arguments, boolean stackless) {
+    this.plan = plan;
+    this.values = values;
+    this.arguments = arguments;
+    this.stackless = stackless;
   }
 
   /**
    * Returns the value (the argument) of an option.
+   * If the map is lazy and the argument was not requested before, the converter of the option is called.
    *
    * @param option the option from which we need the corresponding argument
    * @return the argument of the option.
    * @param <T> the type of the argument
    * @throws IllegalStateException if the option has no argument because the {@link Splitter}
    * that generates this map was not configured with that option.
+   * @throws SplittingException if the map is lazy and the converter of the option fails.
    */
   @SuppressWarnings("unchecked")
   public <T> T argument(Option<T> option) {
     Objects.requireNonNull(option, "option is null");
-    var argument = argumentMap.get(option);
+    return (T) checkedArgument(option);
+  }
+
+  /**
+   * Returns the value of a flag option.
+   *
+   * @param option a flag option.
+   * @return the value of the flag option.
+   * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+   * @throws SplittingException if the map is lazy and the converter of the option fails.
+   */
+  public boolean flag(Option.Flag option) {
+    Objects.requireNonNull(option, "option is null");
+    return (Boolean) checkedArgument(option);
+  }
+
+  /**
+   * Returns the value of a single option.
+   *
+   * @param option a single option.
+   * @return the value of the single option, empty if the option is not present on the command line.
+   * @param <T> the type of the value.
+   * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+   * @throws SplittingException if the map is lazy and the converter of the option fails.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Optional<T> single(Option.Single<T> option) {
+    Objects.requireNonNull(option, "option is null");
+    return (Optional<T>) checkedArgument(option);
+  }
+
+  /**
+   * Returns the values of a repeatable option.
+   *
+   * @param option a repeatable option.
+   * @return the values of the repeatable option in the order of the command line.
+   * @param <T> the type of the values.
+   * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+   * @throws SplittingException if the map is lazy and the converter of the option fails.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> list(Option.Repeatable<T> option) {
+    Objects.requireNonNull(option, "option is null");
+    return (List<T>) checkedArgument(option);
+  }
+
+  /**
+   * Returns the value of a required option.
+   *
+   * @param option a required option.
+   * @return the value of the required option.
+   * @param <T> the type of the value.
+   * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+   * @throws SplittingException if the map is lazy and the converter of the option fails.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T required(Option.Required<T> option) {
+    Objects.requireNonNull(option, "option is null");
+    return (T) checkedArgument(option);
+  }
+
+  /**
+   * Returns the values of a varargs option.
+   *
+   * @param option a varargs option.
+   * @return the values of the varargs option, the array is shared and should not be modified.
+   * @param <T> the type of the values.
+   * @throws IllegalStateException if the {@link Splitter} that generates this map was not configured with that option.
+   * @throws SplittingException if the map is lazy and the converter of the option fails.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T[] varargs(Option.Varargs<T> option) {
+    Objects.requireNonNull(option, "option is null");
+    return (T[]) checkedArgument(option);
+  }
+
+  private Object checkedArgument(Option<?> option) {
+    var index = plan.index(option);
+    if (index == -1) {
+      throw new IllegalStateException("no argument for option " + option);
+    }
+    var argument = argument(index);
     if (argument == null) {
-      throw new IllegalStateException("no argument for option " + this);
+      throw new IllegalStateException("no argument for option " + option);
     }
-    return (T) argument;
+    return argument;
   }
 
-  // TODO add more methods
-  // because we ask in Option.map() to produce a value of an equivalent type
-  // we know that we have records, boolean, Optional, List, array or any other values
+  private Object argument(int index) {
+    var argument = ARGUMENTS.getAcquire(arguments, index);
+    if (argument != UNCONVERTED) {
+      return argument;
+    }
+    var converted = Schema.convert(plan.option(index), values[index], stackless);
+    // the first converted argument wins
+    var witness = ARGUMENTS.compareAndExchange(arguments, index, UNCONVERTED, converted);
+    return witness == UNCONVERTED ? converted : witness;
+  }
+
+  /**
+   * Converts all the arguments that are not converted yet.
+   * This method does nothing if the map is not lazy, the arguments are converted by the splitter.
+   *
+   * @return this argument map.
+   * @throws SplittingException if the converter of an option fails.
+   */
+  public ArgumentMap validateAll() {
+    if (values != null) {
+      for (var i = 0; i < arguments.length; i++) {
+        argument(i);
+      }
+    }
+    return this;
+  }
 
   /**
    * Returns a string representation the arguments associated with each option.
+   * If the map is lazy, all the arguments are converted.
+   *
    * @return a string representation the arguments associated with each option.
+   * @throws SplittingException if the map is lazy and the converter of an option fails.
    */
   @Override
   public String toString() {
-    return argumentMap.toString();
+    var joiner = new StringJoiner(", ", "{", "}");
+    for (var i = 0; i < plan.size(); i++) {
+      joiner.add(plan.option(i) + "=" + argument(i));
+    }
+    return joiner.toString();
   }
 
-  static Schema<ArgumentMap> toSchema(Option<?>... options)  {
+  static Schema<ArgumentMap> toSchema(boolean lazy, Option<?>... options)  {
     var opt = List.of(options);
-    return new Schema<>(opt, data -> new ArgumentMap(range(0, opt.size())
-        .boxed()
-        .collect(toMap(opt::get, data::get, (_1, _2) -> { throw null; }, LinkedHashMap::new))));
+    if (lazy) {
+      return Schema.ofUnconverted(opt, plan -> (values, stackless) -> {
+        var arguments = new Object[values.length];
+        Arrays.fill(arguments, UNCONVERTED);
+        return new ArgumentMap(plan, values, arguments, stackless);
+      });
+    }
+    return Schema.ofPlan(opt, plan -> arguments -> new ArgumentMap(plan, null, arguments, false));
   }
-}
\ No newline at end of file
+}
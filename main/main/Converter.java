@@ -11,11 +11,142 @@ public interface Converter<T,R> extends Function<T,R>, Serializable {
 
   default <S> Converter<T, S> andThen(Function<? super R, ? extends S> converter) {
     requireNonNull(converter, "converter is null");
-    return t -> converter.apply(apply(t));
+    Converter<T, S> result = t -> converter.apply(apply(t));
+    return this instanceof Blocking<?,?> || converter instanceof Blocking<?,?> ? blocking(result) : result;
   }
 
   default <S> Converter<S, R> compose(Function<? super S, ? extends T> converter) {
     requireNonNull(converter, "converter is null");
-    return t -> apply(converter.apply(t));
+    Converter<S, R> result = t -> apply(converter.apply(t));
+    return this instanceof Blocking<?,?> || converter instanceof Blocking<?,?> ? blocking(result) : result;
+  }
+
+  /**
+   * Returns a converter that memoizes the values returned by this converter,
+   * so converting the same value again returns the same result without calling this converter.
+   * <p>
+   * At most {@code maxEntries} values are memoized, the least recently used value is evicted first.
+   * The values to convert are compared using {@code equals()}, the exceptions and a null value
+   * to convert are not memoized.
+   * This is useful for expensive converters called repeatedly with a few different values,
+   * like {@code Pattern::compile}.
+   * <pre>
+   *   Converter&lt;String, Pattern&gt; compile = Pattern::compile;
+   *   var pattern = Option.single("--pattern").convert(compile.memoized(64));
+   * </pre>
+   * The returned converter is thread safe if this converter is thread safe and is a {@link Blocking blocking}
+   * converter if this converter is a blocking converter.
+   *
+   * @param maxEntries the maximum number of memoized values.
+   * @return a converter that memoizes the values returned by this converter.
+   * @throws IllegalArgumentException if {@code maxEntries} is not positive.
+   */
+  default Memoized<T,R> memoized(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries is not positive " + maxEntries);
+    }
+    return MemoizedConverter.of(this, maxEntries);
+  }
+
+  /**
+   * A converter that memoizes the values returned by another converter,
+   * the numbers of hits, misses and evictions are available, for example to size the cache.
+   *
+   * @param <T> the type of the value to convert.
+   * @param <R> the type of the converted value.
+   * @see #memoized(int)
+   */
+  interface Memoized<T,R> extends Converter<T,R> {
+    /**
+     * Returns the number of memoized values.
+     * @return the number of memoized values.
+     */
+    int size();
+
+    /**
+     * Returns the number of conversions that return a memoized value.
+     * @return the number of conversions that return a memoized value.
+     */
+    long hitCount();
+
+    /**
+     * Returns the number of conversions that call the memoized converter.
+     * @return the number of conversions that call the memoized converter.
+     */
+    long missCount();
+
+    /**
+     * Returns the number of memoized values evicted because there were too many values.
+     * @return the number of evicted values.
+     */
+    long evictionCount();
+  }
+
+  /**
+   * A conversion function that does blocking work, like reading a file or resolving a host name.
+   * <p>
+   * When a schema has several options with a blocking converter, the splitter calls these converters
+   * concurrently, each one on its own virtual thread, while the other converters are called by the splitting thread.
+   * A converter composed with a blocking converter, using {@link #andThen(Function)}, {@link #compose(Function)}
+   * or the {@code convert()} methods of the options, is also a blocking converter.
+   * <p>
+   * The time to wait for the blocking converters can be bounded using
+   * {@link Splitter#withConversionTimeout(java.time.Duration)}.
+   *
+   * @param <T> the type of the value to convert.
+   * @param <R> the type of the converted value.
+   * @see #blocking(Converter)
+   */
+  @FunctionalInterface
+  interface Blocking<T,R> extends Converter<T,R> {}
+
+  /**
+   * Returns a blocking converter that delegates to a converter.
+   *
+   * @param converter a conversion function that does blocking work.
+   * @return a blocking converter.
+   * @param <T> the type of the value to convert.
+   * @param <R> the type of the converted value.
+   * @see Blocking
+   */
+  static <T,R> Converter<T,R> blocking(Converter<T,R> converter) {
+    requireNonNull(converter, "converter is null");
+    if (converter instanceof Blocking<T,R>) {
+      return converter;
+    }
+    return (Blocking<T,R>) converter::apply;
+  }
+
+  /**
+   * A conversion function that returns an int without boxing.
+   *
+   * @param <T> the type of the value to convert.
+   * @see Option.Single#mapToInt(ToInt)
+   */
+  @FunctionalInterface
+  interface ToInt<T> extends Serializable {
+    int applyAsInt(T t);
+  }
+
+  /**
+   * A conversion function that returns a long without boxing.
+   *
+   * @param <T> the type of the value to convert.
+   * @see Option.Single#mapToLong(ToLong)
+   */
+  @FunctionalInterface
+  interface ToLong<T> extends Serializable {
+    long applyAsLong(T t);
+  }
+
+  /**
+   * A conversion function that returns a double without boxing.
+   *
+   * @param <T> the type of the value to convert.
+   * @see Option.Single#mapToDouble(ToDouble)
+   */
+  @FunctionalInterface
+  interface ToDouble<T> extends Serializable {
+    double applyAsDouble(T t);
   }
 }
\ No newline at end of file
@@ -1,10 +1,11 @@
 package main;
 
+import main.internal.ConverterFactories;
+
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandleInfo;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodHandles.Lookup;
-import java.lang.invoke.MethodType;
 import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.Array;
 import java.lang.reflect.ParameterizedType;
@@ -14,6 +15,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -52,6 +54,9 @@ import static java.util.Objects.requireNonNull;
  * <p>{@code unwrap()} provides a resolver that unwrap Optional, List and array and executes
  * the resolver on the component type.
  *
+ * <p>{@code cached()} provides a resolver that memoizes the converters per lookup class and per type,
+ * the default resolver is cached.
+ *
  * <p>A converter resolver is used by {@link Splitter#of(Lookup, Class, ConverterResolver)}
  * that specify how the value of an option is converted to the type of the corresponding record component.
  */
@@ -120,7 +125,70 @@ public interface ConverterResolver {
    * with the component type.
    */
   default ConverterResolver unwrap() {
-    return (lookup, valueType) -> unwrap(lookup, valueType, this);
+    return (lookup, valueType) -> unwrap(lookup, valueType, this, null);
+  }
+
+  /**
+   * Returns a new resolver that will unwrap Optional, List or array and calls the current resolver
+   * with the component type, the elements of a List or an array are converted using a parallel conversion policy.
+   * <pre>
+   *   var resolver = ConverterResolver.of(ConverterResolver::basic)
+   *       .or(ConverterResolver::enumerated)
+   *       .or(ConverterResolver::reflected)
+   *       .unwrap(ParallelConversion.of(10_000))
+   *       .cached();
+   * </pre>
+   *
+   * @param parallelConversion the policy of the parallel conversion.
+   * @return a new resolver that will unwrap Optional, List or array and calls the current resolver
+   * with the component type.
+   *
+   * @see ParallelConversion
+   */
+  default ConverterResolver unwrap(ParallelConversion parallelConversion) {
+    requireNonNull(parallelConversion, "parallelConversion is null");
+    return (lookup, valueType) -> unwrap(lookup, valueType, this, parallelConversion);
+  }
+
+  /**
+   * Returns a new resolver that memoizes the result of the current resolver.
+   * <p>
+   * The results are stored per lookup class (and per lookup modes) and per type,
+   * so the current resolver is called at most once (modulo races) for a given pair.
+   * The entries of a lookup class are stored in a {@link ClassValue} so the cache
+   * does not prevent the lookup class from being unloaded.
+   * <p>
+   * The returned resolver is thread-safe if the current resolver is thread-safe,
+   * two threads resolving the same type concurrently may both call the current resolver
+   * but they both see the first result that is stored.
+   * The current resolver should be a pure function of the lookup and the type,
+   * otherwise the cache will return stale results.
+   *
+   * @return a new resolver that memoizes the result of the current resolver.
+   */
+  default ConverterResolver cached() {
+    record Key(int lookupModes, Type type) {}
+    final class Cache extends ClassValue<ConcurrentHashMap<Key, Optional<Converter<Object, ?>>>> {
+      @Override
+      protected ConcurrentHashMap<Key, Optional<Converter<Object, ?>>> computeValue(Class<?> lookupClass) {
+        return new ConcurrentHashMap<>();
+      }
+    }
+    var cache = new Cache();
+    return (lookup, valueType) -> {
+      requireNonNull(lookup, "lookup is null");
+      requireNonNull(valueType, "valueType is null");
+      var map = cache.get(lookup.lookupClass());
+      var key = new Key(lookup.lookupModes(), valueType);
+      var result = map.get(key);
+      if (result != null) {
+        return result;
+      }
+      // not computeIfAbsent, the current resolver may re-enter this resolver
+      result = requireNonNull(resolve(lookup, valueType), "resolver returns null");
+      var previous = map.putIfAbsent(key, result);
+      return previous != null ? previous : result;
+    };
   }
 
   /**
@@ -186,7 +254,8 @@ public interface ConverterResolver {
    *   ConverterResolver.of(ConverterResolver::basic)
    *       .or(ConverterResolver::enumerated)
    *       .or(ConverterResolver::reflected)
-   *       .unwrap();
+   *       .unwrap()
+   *       .cached();
    * </pre>
    *
    * @return the default resolver.
@@ -197,7 +266,8 @@ public interface ConverterResolver {
           of(ConverterResolver::basic)
               .or(ConverterResolver::enumerated)
               .or(ConverterResolver::reflected)
-              .unwrap();
+              .unwrap()
+              .cached();
     }
     return Default.DEFAULT_RESOLVER;
   }
@@ -255,7 +325,8 @@ public interface ConverterResolver {
    * {@link #reflected(Lookup, Type)}, the {@code implClass} is {@link ConverterResolver},
    * the {@code implMethodName} is respectively "basic", "enumerated" and "reflected".
    * For "enumerated", the first element of {@code captures} is the class name of the enum.
-   * For "reflected", the first element of {@code captures} is a mirror of the reflected method.
+   * For "reflected", the first element of {@code captures} is a mirror of the reflected method,
+   * a reflected constructor is mirrored with the method name "new".
    *
    * @param implClass the class of the method reference
    * @param implMethodName the method name of the method reference
@@ -332,7 +403,8 @@ public interface ConverterResolver {
         } catch (IllegalArgumentException e) {
           return Stream.of();
         }
-        return Stream.of(new ConverterMirror(mhInfo.getDeclaringClass().getName(), mhInfo.getName(), List.of()));
+        var name = mhInfo.getReferenceKind() == MethodHandleInfo.REF_newInvokeSpecial ? "new" : mhInfo.getName();
+        return Stream.of(new ConverterMirror(mhInfo.getDeclaringClass().getName(), name, List.of()));
       }
       if (o instanceof Class<?> clazz) {  // provides a description, not a live object
         return Stream.of(clazz.getName());
@@ -354,7 +426,8 @@ public interface ConverterResolver {
     }
   }
 
-  private static Optional<Converter<Object, ?>> unwrap(Lookup lookup, Type valueType, ConverterResolver resolver) {
+  private static Optional<Converter<Object, ?>> unwrap(Lookup lookup, Type valueType, ConverterResolver resolver,
+                                                       ParallelConversion parallelConversion) {
     requireNonNull(lookup, "lookup is null");
     requireNonNull(valueType, "valueType is null");
     requireNonNull(resolver, "resolver is null");
@@ -362,20 +435,31 @@ public interface ConverterResolver {
       var raw = (Class<?>) parameterizedType.getRawType();
       if (raw == Optional.class) {
         var actualTypeArgument = parameterizedType.getActualTypeArguments()[0];
-        return resolver.resolve(lookup, actualTypeArgument).map(f -> arg -> ((Optional<?>) arg).map(f));
+        return resolver.resolve(lookup, actualTypeArgument)
+            .map(f -> AbstractOption.blockingIf(f, arg -> ((Optional<?>) arg).map(f)));
       }
       if (raw == List.class) {
         var actualTypeArgument = parameterizedType.getActualTypeArguments()[0];
-        return resolver.resolve(lookup, actualTypeArgument).map(f -> arg -> ((List<?>) arg).stream().map(f).toList());
+        if (parallelConversion != null) {
+          return resolver.resolve(lookup, actualTypeArgument)
+              .map(f -> AbstractOption.blockingIf(f, arg -> parallelConversion.mapList((List<?>) arg, f)));
+        }
+        return resolver.resolve(lookup, actualTypeArgument)
+            .map(f -> AbstractOption.blockingIf(f, arg -> ((List<?>) arg).stream().map(f).toList()));
       }
     }
     if (valueType instanceof Class<?> clazz && Object[].class.isAssignableFrom(clazz)) {
       var componentType = clazz.getComponentType();
+      if (parallelConversion != null) {
+        return resolver.resolve(lookup, componentType)
+            .map(f -> AbstractOption.blockingIf(f, arg -> parallelConversion.mapArray((Object[]) arg, f,
+                size -> (Object[]) Array.newInstance(componentType, size))));
+      }
       return resolver.resolve(lookup, componentType)
-          .map(f -> arg ->
+          .map(f -> AbstractOption.blockingIf(f, arg ->
               Arrays.stream(((Object[]) arg))
                   .map(f)
-                  .toArray(size -> (Object[]) Array.newInstance(componentType, size)));
+                  .toArray(size -> (Object[]) Array.newInstance(componentType, size))));
     }
     return resolver.resolve(lookup, valueType);
   }
@@ -425,14 +509,19 @@ public interface ConverterResolver {
   /**
    * Returns the function that parses a String to a value type.
    * <p>
-   * This implementation tries the static methods (in that order)
+   * This implementation tries the static methods and the constructor (in that order)
    * <pre>
    *   valueType ValueType.valueOf(String)
    *   valueType ValueType.of(String)
    *   valueType ValueType.of(String, String...)
    *   valueType ValueType.parse(String)
    *   valueType ValueType.parse(CharSequence)
+   *   new ValueType(String)
    * </pre>
+   * The constructor is only tried if it is public and if the value type is not a record.
+   * <p>
+   * The methods and the constructor that exist are found by scanning the value type once,
+   * the result of the scan is cached per class, only the access check depends on the lookup.
    *
    * @param lookup the lookup used to try to find the functions
    * @param valueType the type of the return type of the function
@@ -451,28 +540,12 @@ public interface ConverterResolver {
   }
 
   private static Optional<MethodHandle> valueOfMethod(Lookup lookup, Class<?> type) {
-    record Factory (String name, MethodType method) {}
-    var factories = List.of(
-        new Factory("valueOf", methodType(type, String.class)),
-        new Factory("of", methodType(type, String.class)),
-        new Factory("of", methodType(type, String.class, String[].class)),
-        new Factory("parse", methodType(type, String.class)),
-        new Factory("parse", methodType(type, CharSequence.class))
-    );
-    for (var factory : factories) {
-      MethodHandle mh;
+    for (var factory : ConverterFactories.factories(type)) {
       try {
-        mh = lookup.findStatic(type, factory.name(), factory.method());
+        return Optional.of(factory.find(lookup, type));
       } catch (NoSuchMethodException | IllegalAccessException e) {
-        continue;  // does not exist, try next
-      }
-      // we only allow X.of(String, String...) with a varargs, not X.of(String, String[])
-      if (factory.name().equals("of") &&
-          mh.type().parameterType(mh.type().parameterCount() - 1).isArray() &&
-          !mh.isVarargsCollector()) {
-        continue; // try next
+        continue;  // not accessible from the lookup, try next
       }
-      return Optional.of(mh);
     }
     return Optional.empty();
   }
@@ -0,0 +1,28 @@
+package main;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Asks the annotation processor {@code processor.RecordSchemaProcessor}, declared in the module {@code processor},
+ * to generate, at compile time, a class that creates the {@link Schema} of a record without using reflection.
+ * <pre>
+ *  &#064;GenerateSchema
+ *  record Command (
+ *    &#064;Name("-v")
+ *    boolean verbose,
+ *    Path... files
+ *  }
+ *
+ *  var splitter = Splitter.of(CommandSchema.schema());
+ * </pre>
+ *
+ * The generated class is in the same package as the record, its name is the name of the record,
+ * prefixed by the names of the enclosing classes separated by '_', followed by "Schema".
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateSchema {
+}
@@ -0,0 +1,72 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * The JDK Flight Recorder events emitted by the {@link Splitter}.
+ * <p>
+ * The events are disabled by default, they can be enabled in a JFR configuration file or on
+ * the command line, for example
+ * <pre>
+ *   java -XX:StartFlightRecording:filename=split.jfr,+main.Split#enabled=true ...
+ * </pre>
+ * If an event is disabled, {@code begin()} and {@code shouldCommit()} are no-ops once JITed and
+ * the allocation of the event is removed by escape analysis, so the events can stay in the hot path.
+ */
+final class JfrEvents {
+  private JfrEvents() {
+    throw new AssertionError();
+  }
+
+  private static final String CATEGORY = "Command Line Interface";
+
+  @jdk.jfr.Name("main.SchemaBuild")
+  @Label("Schema Build")
+  @Description("Creation of a schema from a record class")
+  @Category(CATEGORY)
+  @jdk.jfr.Enabled(false)
+  static final class SchemaBuildEvent extends Event {
+    @Label("Record Class")
+    Class<?> recordClass;
+
+    @Label("Option Count")
+    int optionCount;
+  }
+
+  @jdk.jfr.Name("main.Split")
+  @Label("Split")
+  @Description("Split of a command line")
+  @Category(CATEGORY)
+  @jdk.jfr.Enabled(false)
+  static final class SplitEvent extends Event {
+    @Label("Result Type")
+    @Description("The class of the value bundling the arguments, null if the split fails")
+    Class<?> resultType;
+
+    @Label("Option Count")
+    int optionCount;
+
+    @Label("Token Count")
+    int tokenCount;
+
+    @Label("Outcome")
+    @Description("ACCEPTED, the kind of the SplittingException or FAILED")
+    String outcome;
+  }
+
+  @jdk.jfr.Name("main.Conversion")
+  @Label("Conversion")
+  @Description("Call to the converter of an option")
+  @Category(CATEGORY)
+  @jdk.jfr.Enabled(false)
+  static final class ConversionEvent extends Event {
+    @Label("Option")
+    String option;
+
+    @Label("Converter Class")
+    Class<?> converterClass;
+  }
+}
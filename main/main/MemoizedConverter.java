@@ -0,0 +1,127 @@
+package main;
+
+import java.io.Serial;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The implementation of {@link Converter#memoized(int)}.
+ * <p>
+ * The converted values are stored in a {@link LinkedHashMap} in access order guarded by a lock,
+ * the converter is called outside the lock, so two threads converting the same value at the same time
+ * may both call the converter. The exceptions are not memoized and a null value is never memoized.
+ * <p>
+ * Only the converter and the maximum number of entries are serialized, a deserialized converter starts empty.
+ *
+ * @param <T> the type of the value to convert.
+ * @param <R> the type of the converted value.
+ */
+class MemoizedConverter<T, R> implements Converter.Memoized<T, R> {
+  @Serial private static final long serialVersionUID = 8121498215433021487L;
+
+  private static final Object NULL = new Object();  // a memoized null
+
+  private final Converter<T, R> converter;
+  private final int maxEntries;
+  private final transient Object lock = new Object();
+  private final transient LinkedHashMap<Object, Object> map;  // guarded by lock
+  private transient long hitCount;  // guarded by lock
+  private transient long missCount;  // guarded by lock
+  private transient long evictionCount;  // guarded by lock
+
+  private MemoizedConverter(Converter<T, R> converter, int maxEntries) {
+    this.converter = converter;
+    this.maxEntries = maxEntries;
+    this.map = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+        if (size() > maxEntries) {
+          evictionCount++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * A memoized blocking converter is still a blocking converter, a value not memoized yet needs a blocking call.
+   */
+  private static final class OfBlocking<T, R> extends MemoizedConverter<T, R> implements Converter.Blocking<T, R> {
+    @Serial private static final long serialVersionUID = -6020738633214683958L;
+
+    private OfBlocking(Converter<T, R> converter, int maxEntries) {
+      super(converter, maxEntries);
+    }
+  }
+
+  static <T, R> Converter.Memoized<T, R> of(Converter<T, R> converter, int maxEntries) {
+    if (converter instanceof Converter.Blocking<?,?>) {
+      return new OfBlocking<>(converter, maxEntries);
+    }
+    return new MemoizedConverter<>(converter, maxEntries);
+  }
+
+  // protected and not private, so it is also called when a OfBlocking is deserialized
+  @Serial
+  protected Object readResolve() {
+    return of(converter, maxEntries);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public R apply(T value) {
+    if (value == null) {
+      return converter.apply(null);
+    }
+    synchronized (lock) {
+      var result = map.get(value);
+      if (result != null) {
+        hitCount++;
+        return result == NULL ? null : (R) result;
+      }
+      missCount++;
+    }
+    var result = converter.apply(value);
+    synchronized (lock) {
+      map.put(value, result == null ? NULL : result);
+    }
+    return result;
+  }
+
+  @Override
+  public int size() {
+    synchronized (lock) {
+      return map.size();
+    }
+  }
+
+  @Override
+  public long hitCount() {
+    synchronized (lock) {
+      return hitCount;
+    }
+  }
+
+  @Override
+  public long missCount() {
+    synchronized (lock) {
+      return missCount;
+    }
+  }
+
+  @Override
+  public long evictionCount() {
+    synchronized (lock) {
+      return evictionCount;
+    }
+  }
+
+  @Override
+  public String toString() {
+    synchronized (lock) {
+      return "Memoized[size=" + map.size() + ", hits=" + hitCount + ", misses=" + missCount
+          + ", evictions=" + evictionCount + "]";
+    }
+  }
+}
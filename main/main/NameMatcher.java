@@ -0,0 +1,95 @@
+package main;
+
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable table that associates names to an index.
+ * <p>
+ * Unlike a {@code HashMap<String, Integer>}, a name can be matched directly on a range of characters
+ * of an argument, so matching the {@code name} of {@code name=value} requires no substring.
+ * <p>
+ * The table uses open addressing with linear probing, the hash of a name is computed on the range
+ * of characters (with the same value as {@link String#hashCode()}) and the names are compared using
+ * {@link String#regionMatches(int, String, int, int)}.
+ * The table is at most half full, so an unknown name is rejected after a few probes.
+ */
+final class NameMatcher {
+  private final int mask;
+  private final int[] hashes;
+  private final String[] names;
+  private final int[] values;
+
+  /**
+   * Creates a table from a map of names to indexes.
+   *
+   * @param indexByName a map of names to indexes.
+   */
+  NameMatcher(Map<String, Integer> indexByName) {
+    requireNonNull(indexByName, "indexByName is null");
+    var capacity = Integer.highestOneBit(Math.max(1, indexByName.size()) * 2) << 1;
+    mask = capacity - 1;
+    hashes = new int[capacity];
+    names = new String[capacity];
+    values = new int[capacity];
+    for (var entry : indexByName.entrySet()) {
+      var name = entry.getKey();
+      var hash = mix(name.hashCode());
+      var slot = hash & mask;
+      while (names[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      hashes[slot] = hash;
+      names[slot] = name;
+      values[slot] = entry.getValue();
+    }
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static int hash(String text, int from, int to) {
+    if (from == 0 && to == text.length()) {
+      return mix(text.hashCode());  // the hash code of a String is cached
+    }
+    // same value as String.hashCode() but 4 characters at a time to shorten the dependency chain
+    var hash = 0;
+    var i = from;
+    for (; i + 3 < to; i += 4) {
+      hash = 923_521 * hash
+          + 29_791 * text.charAt(i)
+          + 961 * text.charAt(i + 1)
+          + 31 * text.charAt(i + 2)
+          + text.charAt(i + 3);
+    }
+    for (; i < to; i++) {
+      hash = 31 * hash + text.charAt(i);
+    }
+    return mix(hash);
+  }
+
+  /**
+   * Returns the index associated with the name stored in {@code text} between {@code from} (inclusive)
+   * and {@code to} (exclusive) or -1 if there is no such name.
+   *
+   * @param text a text containing the name.
+   * @param from index of the first character of the name.
+   * @param to index after the last character of the name.
+   * @return the index associated with the name or -1.
+   */
+  int match(String text, int from, int to) {
+    var length = to - from;
+    var hash = hash(text, from, to);
+    for (var slot = hash & mask; ; slot = (slot + 1) & mask) {
+      var name = names[slot];
+      if (name == null) {
+        return -1;
+      }
+      if (hashes[slot] == hash && name.length() == length && text.regionMatches(from, name, 0, length)) {
+        return values[slot];
+      }
+    }
+  }
+}
@@ -5,8 +5,9 @@ import static java.util.Objects.requireNonNull;
 import java.util.AbstractSet;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -16,31 +17,44 @@ import java.util.Spliterators;
  * <p>
  * It provides {@link #of(String...)} and {@link #copyOf(Collection)} that works like Set.of() / Set.copyOf()
  * but keeps the insertion order.
+ * <p>
+ * The names are stored in an array, most options have one or two names so {@link #contains(Object)}
+ * is a linear search, a hashed index is only created if there are more than {@value #LINEAR_SEARCH_MAX} names.
+ * {@link #copyOf(Collection)} returns the same instance if called with a NameSet, so all the options
+ * derived from the same option share the same NameSet.
  */
 final class NameSet extends AbstractSet<String> {
-  private final LinkedHashSet<String> set;
+  private static final int LINEAR_SEARCH_MAX = 8;
+
+  private final String[] names;
+  private final Set<String> index;  // null if the names are searched linearly
 
-  private NameSet(LinkedHashSet<String> set) {
-    this.set = set;
+  private NameSet(String[] names) {
+    this.names = names;
+    this.index = names.length > LINEAR_SEARCH_MAX ? Set.of(names) : null;
   }
 
   @Override
   public int size() {
-    return set.size();
+    return names.length;
   }
 
   @Override
   public Iterator<String> iterator() {
-    var iterator = set.iterator();
     return new Iterator<>() {
+      private int i;
+
       @Override
       public boolean hasNext() {
-        return iterator.hasNext();
+        return i < names.length;
       }
 
       @Override
       public String next() {
-        return iterator.next();
+        if (i >= names.length) {
+          throw new NoSuchElementException();
+        }
+        return names[i++];
       }
     };
   }
@@ -48,13 +62,26 @@ final class NameSet extends AbstractSet<String> {
   @Override
   public boolean contains(Object o) {
     requireNonNull(o, "o is null");
-    return set.contains(o);
+    if (index != null) {
+      return index.contains(o);
+    }
+    for (var name : names) {
+      if (name.equals(o)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Object[] toArray() {
+    return Arrays.copyOf(names, names.length, Object[].class);
   }
 
   @Override
   public Spliterator<String> spliterator() {
     return Spliterators.spliterator(
-        this, Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL);
+        names, Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
   }
 
   public static Set<String> of(String... names) {
@@ -70,16 +97,27 @@ final class NameSet extends AbstractSet<String> {
     if (names.isEmpty()) {
       throw new IllegalArgumentException("names is empty");
     }
-    var set = new LinkedHashSet<String>();
-    for (var name : names) {
+    var array = names.toArray(String[]::new);
+    var seen = array.length > LINEAR_SEARCH_MAX ? new HashSet<String>() : null;
+    for (var i = 0; i < array.length; i++) {
+      var name = array[i];
       requireNonNull(name, "name is null");
       if (name.isEmpty()) {
         throw new IllegalArgumentException("one name is empty");
       }
-      if (!set.add(name)) {
+      if (seen != null ? !seen.add(name) : indexOf(array, i, name) != -1) {
         throw new IllegalArgumentException("duplicate names " + name);
       }
     }
-    return new NameSet(set);
+    return new NameSet(array);
+  }
+
+  private static int indexOf(String[] array, int end, String name) {
+    for (var i = 0; i < end; i++) {
+      if (array[i].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
   }
 }
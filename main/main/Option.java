@@ -5,6 +5,9 @@ import static java.util.Objects.requireNonNull;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.function.IntFunction;
 
@@ -46,6 +49,9 @@ import java.util.function.IntFunction;
  * <p>The argument(s) of an option can be converted using Options specific {@code convert()} methods,
  * {@link Flag#convert(Converter)}, {@link Single#convert(Converter)}, {@link Repeatable#convert(Converter)},
  * {@link Required#convert(Converter)} and {@link Varargs#convert(Converter, IntFunction)}.
+ * The methods {@code mapToInt()}, {@code mapToLong()} and {@code mapToDouble()} convert the argument(s)
+ * to a {@link Specialized} option that stores primitive values without boxing, for example
+ * {@code Option.varargs("ids").mapToLong(Long::parseLong)} is an option of type {@code long[]}.
  *
  * <p>Options are grouped into a {@link Schema#Schema(List, java.util.function.Function) schema} that is used to create a
  * {@link Splitter#of(Schema) Splitter} that parses the command line.
@@ -216,7 +222,49 @@ public sealed interface Option<T> permits AbstractOption {
      */
     public <U> Single<U> convert(Converter<? super T, ? extends U> mapper) {
       requireNonNull(mapper, "mapper is null");
-      return new Single<>(names, converter.andThen(v -> v.map(mapper)), help, nestedSchema);
+      return new Single<>(names, blockingIf(mapper, converter.andThen(v -> v.map(mapper))), help, nestedSchema);
+    }
+
+    /**
+     * Returns a new option that converts the argument if it exists to an int without boxing.
+     *
+     * @param mapper the function to apply to do the conversion.
+     * @return a new option that converts the argument if it exists to an int.
+     * @throws IllegalStateException if the option has a nested schema.
+     */
+    public Specialized<OptionalInt> mapToInt(Converter.ToInt<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      checkNoNestedSchema(nestedSchema);
+      return new Specialized<>(OptionType.SINGLE, names,
+          raw(converter.andThen(v -> v.isPresent() ? OptionalInt.of(mapper.applyAsInt(v.get())) : OptionalInt.empty())), help);
+    }
+
+    /**
+     * Returns a new option that converts the argument if it exists to a long without boxing.
+     *
+     * @param mapper the function to apply to do the conversion.
+     * @return a new option that converts the argument if it exists to a long.
+     * @throws IllegalStateException if the option has a nested schema.
+     */
+    public Specialized<OptionalLong> mapToLong(Converter.ToLong<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      checkNoNestedSchema(nestedSchema);
+      return new Specialized<>(OptionType.SINGLE, names,
+          raw(converter.andThen(v -> v.isPresent() ? OptionalLong.of(mapper.applyAsLong(v.get())) : OptionalLong.empty())), help);
+    }
+
+    /**
+     * Returns a new option that converts the argument if it exists to a double without boxing.
+     *
+     * @param mapper the function to apply to do the conversion.
+     * @return a new option that converts the argument if it exists to a double.
+     * @throws IllegalStateException if the option has a nested schema.
+     */
+    public Specialized<OptionalDouble> mapToDouble(Converter.ToDouble<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      checkNoNestedSchema(nestedSchema);
+      return new Specialized<>(OptionType.SINGLE, names,
+          raw(converter.andThen(v -> v.isPresent() ? OptionalDouble.of(mapper.applyAsDouble(v.get())) : OptionalDouble.empty())), help);
     }
 
     @Override
@@ -287,7 +335,80 @@ public sealed interface Option<T> permits AbstractOption {
      */
     public <U> Repeatable<U> convert(Converter<? super T, ? extends U> mapper) {
       requireNonNull(mapper, "mapper is null");
-      return new Repeatable<>(names, converter.andThen(list -> list.stream().<U>map(mapper).toList()), help, nestedSchema);
+      return new Repeatable<>(names, blockingIf(mapper, converter.andThen(list -> list.stream().<U>map(mapper).toList())), help, nestedSchema);
+    }
+
+    /**
+     * Returns a new option that converts each argument to another value,
+     * in parallel if there are enough arguments.
+     *
+     * @param mapper the function to apply to do the conversion, it must be thread safe.
+     * @param parallelConversion the policy of the parallel conversion.
+     * @return a new option that converts each argument to another value.
+     *
+     * @see ParallelConversion
+     */
+    public <U> Repeatable<U> convert(Converter<? super T, ? extends U> mapper, ParallelConversion parallelConversion) {
+      requireNonNull(mapper, "mapper is null");
+      requireNonNull(parallelConversion, "parallelConversion is null");
+      return new Repeatable<>(names, blockingIf(mapper, converter.andThen(list -> parallelConversion.<T, U>mapList(list, mapper))), help, nestedSchema);
+    }
+
+    /**
+     * Returns a new option that converts all the arguments to an array of ints without boxing.
+     *
+     * @param mapper the function to apply to convert each argument.
+     * @return a new option that converts all the arguments to an array of ints.
+     * @throws IllegalStateException if the option has a nested schema.
+     */
+    public Specialized<int[]> mapToInt(Converter.ToInt<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      checkNoNestedSchema(nestedSchema);
+      return new Specialized<>(OptionType.REPEATABLE, names, raw(converter.andThen(list -> {
+        var array = new int[list.size()];
+        for (var i = 0; i < array.length; i++) {
+          array[i] = mapper.applyAsInt(list.get(i));
+        }
+        return array;
+      })), help);
+    }
+
+    /**
+     * Returns a new option that converts all the arguments to an array of longs without boxing.
+     *
+     * @param mapper the function to apply to convert each argument.
+     * @return a new option that converts all the arguments to an array of longs.
+     * @throws IllegalStateException if the option has a nested schema.
+     */
+    public Specialized<long[]> mapToLong(Converter.ToLong<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      checkNoNestedSchema(nestedSchema);
+      return new Specialized<>(OptionType.REPEATABLE, names, raw(converter.andThen(list -> {
+        var array = new long[list.size()];
+        for (var i = 0; i < array.length; i++) {
+          array[i] = mapper.applyAsLong(list.get(i));
+        }
+        return array;
+      })), help);
+    }
+
+    /**
+     * Returns a new option that converts all the arguments to an array of doubles without boxing.
+     *
+     * @param mapper the function to apply to convert each argument.
+     * @return a new option that converts all the arguments to an array of doubles.
+     * @throws IllegalStateException if the option has a nested schema.
+     */
+    public Specialized<double[]> mapToDouble(Converter.ToDouble<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      checkNoNestedSchema(nestedSchema);
+      return new Specialized<>(OptionType.REPEATABLE, names, raw(converter.andThen(list -> {
+        var array = new double[list.size()];
+        for (var i = 0; i < array.length; i++) {
+          array[i] = mapper.applyAsDouble(list.get(i));
+        }
+        return array;
+      })), help);
     }
 
     @Override
@@ -343,6 +464,45 @@ public sealed interface Option<T> permits AbstractOption {
       return new Required<>(names, converter.andThen(mapper), help);
     }
 
+    /**
+     * Returns a new option that converts the argument to an int.
+     * The int is boxed once to be stored with the other arguments, a record component
+     * of type {@code int} receives it unboxed.
+     *
+     * @param mapper the function to apply to do the conversion.
+     * @return a new option that converts the argument to an int.
+     */
+    public Specialized<Integer> mapToInt(Converter.ToInt<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      return new Specialized<>(OptionType.REQUIRED, names, raw(converter.andThen(v -> mapper.applyAsInt(v))), help);
+    }
+
+    /**
+     * Returns a new option that converts the argument to a long.
+     * The long is boxed once to be stored with the other arguments, a record component
+     * of type {@code long} receives it unboxed.
+     *
+     * @param mapper the function to apply to do the conversion.
+     * @return a new option that converts the argument to a long.
+     */
+    public Specialized<Long> mapToLong(Converter.ToLong<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      return new Specialized<>(OptionType.REQUIRED, names, raw(converter.andThen(v -> mapper.applyAsLong(v))), help);
+    }
+
+    /**
+     * Returns a new option that converts the argument to a double.
+     * The double is boxed once to be stored with the other arguments, a record component
+     * of type {@code double} receives it unboxed.
+     *
+     * @param mapper the function to apply to do the conversion.
+     * @return a new option that converts the argument to a double.
+     */
+    public Specialized<Double> mapToDouble(Converter.ToDouble<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      return new Specialized<>(OptionType.REQUIRED, names, raw(converter.andThen(v -> mapper.applyAsDouble(v))), help);
+    }
+
     @Override
     public Required<T> defaultValue(T value) {
       return convert(v -> v == null ? value : v);
@@ -393,7 +553,80 @@ public sealed interface Option<T> permits AbstractOption {
      */
     public <U> Varargs<U> convert(Converter<? super T, ? extends U> mapper, IntFunction<U[]> generator) {
       requireNonNull(mapper, "mapper is null");
-      return new Varargs<>(names, converter.andThen(v -> Arrays.stream(v).map(mapper).toArray(generator)), help);
+      return new Varargs<>(names, blockingIf(mapper, converter.andThen(v -> Arrays.stream(v).map(mapper).toArray(generator))), help);
+    }
+
+    /**
+     * Returns a new option that converts each argument to another value,
+     * in parallel if there are enough arguments.
+     *
+     * @param mapper the function to apply to do the conversion, it must be thread safe.
+     * @param generator an array generator
+     * @param parallelConversion the policy of the parallel conversion.
+     * @return a new option that converts each argument to another value.
+     *
+     * @see ParallelConversion
+     */
+    public <U> Varargs<U> convert(Converter<? super T, ? extends U> mapper, IntFunction<U[]> generator,
+                                  ParallelConversion parallelConversion) {
+      requireNonNull(mapper, "mapper is null");
+      requireNonNull(generator, "generator is null");
+      requireNonNull(parallelConversion, "parallelConversion is null");
+      return new Varargs<>(names, blockingIf(mapper, converter.andThen(v -> parallelConversion.<T, U>mapArray(v, mapper, generator))), help);
+    }
+
+    /**
+     * Returns a new option that converts each argument to an int without boxing.
+     *
+     * @param mapper the function to apply to convert each argument.
+     * @return a new option that converts the arguments to an array of ints.
+     */
+    public Specialized<int[]> mapToInt(Converter.ToInt<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      return new Specialized<>(OptionType.VARARGS, names, raw(converter.andThen(values -> {
+        T[] elements = values;
+        var array = new int[elements.length];
+        for (var i = 0; i < array.length; i++) {
+          array[i] = mapper.applyAsInt(elements[i]);
+        }
+        return array;
+      })), help);
+    }
+
+    /**
+     * Returns a new option that converts each argument to a long without boxing.
+     *
+     * @param mapper the function to apply to convert each argument.
+     * @return a new option that converts the arguments to an array of longs.
+     */
+    public Specialized<long[]> mapToLong(Converter.ToLong<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      return new Specialized<>(OptionType.VARARGS, names, raw(converter.andThen(values -> {
+        T[] elements = values;
+        var array = new long[elements.length];
+        for (var i = 0; i < array.length; i++) {
+          array[i] = mapper.applyAsLong(elements[i]);
+        }
+        return array;
+      })), help);
+    }
+
+    /**
+     * Returns a new option that converts each argument to a double without boxing.
+     *
+     * @param mapper the function to apply to convert each argument.
+     * @return a new option that converts the arguments to an array of doubles.
+     */
+    public Specialized<double[]> mapToDouble(Converter.ToDouble<? super T> mapper) {
+      requireNonNull(mapper, "mapper is null");
+      return new Specialized<>(OptionType.VARARGS, names, raw(converter.andThen(values -> {
+        T[] elements = values;
+        var array = new double[elements.length];
+        for (var i = 0; i < array.length; i++) {
+          array[i] = mapper.applyAsDouble(elements[i]);
+        }
+        return array;
+      })), help);
     }
 
     @Override
@@ -403,6 +636,73 @@ public sealed interface Option<T> permits AbstractOption {
     }
   }
 
+  /**
+   * An option converted to a primitive value or to an array of primitive values without boxing,
+   * like an {@link OptionalInt} or an {@code int[]}.
+   * <p>
+   * A specialized option is created by the methods {@code mapToInt()}, {@code mapToLong()} and
+   * {@code mapToDouble()} of the options {@link Single#mapToInt(Converter.ToInt) SINGLE},
+   * {@link Repeatable#mapToInt(Converter.ToInt) REPEATABLE}, {@link Required#mapToInt(Converter.ToInt) REQUIRED}
+   * and {@link Varargs#mapToInt(Converter.ToInt) VARARGS}, its {@link #type() type} is the type of
+   * the option it is created from.
+   *
+   * @param <T> the type of the argument corresponding to that option.
+   */
+  final class Specialized<T> extends AbstractOption<T> {
+    final Converter<Object, ? extends T> converter;
+
+    Specialized(OptionType type, Set<String> names, Converter<Object, ? extends T> converter, String help) {
+      super(type, names, help, null);
+      this.converter = requireNonNull(converter, "converter is null");
+    }
+
+    @Override
+    public Specialized<T> help(String helpText) {
+      requireNonNull(helpText, "helpText is null");
+      if (!help.isEmpty()) {
+        throw new IllegalStateException("option already has an help text");
+      }
+      return new Specialized<>(type, names, converter, helpText);
+    }
+
+    /**
+     * Returns a new option configured with a default value.
+     * The default value is used if the option is absent of the command line,
+     * for a {@link OptionType#REPEATABLE REPEATABLE} or a {@link OptionType#VARARGS VARARGS},
+     * if there is no argument.
+     *
+     * @param value the default value
+     * @return a new option configured with a default value.
+     */
+    @Override
+    public Specialized<T> defaultValue(T value) {
+      requireNonNull(value, "value is null");
+      return new Specialized<>(type, names, v -> isAbsent(type, v) ? value : converter.apply(v), help);
+    }
+
+    private static boolean isAbsent(OptionType type, Object value) {
+      return switch (type) {
+        case SINGLE -> ((Optional<?>) value).isEmpty();
+        case REPEATABLE -> ((List<?>) value).isEmpty();
+        case REQUIRED -> value == null;
+        case VARARGS -> ((String[]) value).length == 0;
+        case BRANCH, FLAG -> throw new AssertionError("" + type);
+      };
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Converter<Object, T> raw(Converter<?, ? extends T> converter) {
+    // the converter is only called with the values produced by the splitter for the option type
+    return (Converter<Object, T>) converter;
+  }
+
+  private static void checkNoNestedSchema(Schema<?> nestedSchema) {
+    if (nestedSchema != null) {
+      throw new IllegalStateException("a nested schema is set");
+    }
+  }
+
   /**
    * Returns the type of the option.
    * @return the type of the option.
@@ -0,0 +1,201 @@
+package main;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A policy to convert the arguments of a repeatable or a varargs option in parallel.
+ * <p>
+ * If the number of arguments is at least the {@link #threshold() threshold}, the arguments
+ * are converted by the tasks of a {@link ForkJoinPool}, otherwise they are converted by the calling thread.
+ * In both cases, the converted values are in the same order as the arguments and if the conversion
+ * of several arguments fails, the {@link SplittingException} reports the first one,
+ * its {@link SplittingException#elementIndex() element index} is the index of the argument in the option.
+ * <pre>
+ *   var parallel = ParallelConversion.of(10_000);
+ *   var files = Option.varargs("files").convert(Path::of, Path[]::new, parallel);
+ * </pre>
+ * For an option defined by a record component, {@link ConverterResolver#unwrap(ParallelConversion)}
+ * creates a resolver that converts the lists and the arrays using a policy.
+ * <p>
+ * Parallel conversion is only worth it if the converter is expensive and the arguments are numerous,
+ * the converter must be thread safe.
+ * A policy is serializable but the pool is not, a deserialized policy uses the
+ * {@link ForkJoinPool#commonPool() common pool}.
+ *
+ * @see Option.Repeatable#convert(Converter, ParallelConversion)
+ * @see Option.Varargs#convert(Converter, IntFunction, ParallelConversion)
+ */
+public final class ParallelConversion implements Serializable {
+  @Serial private static final long serialVersionUID = 3421076854118806217L;
+
+  private final int threshold;
+  private final transient ForkJoinPool pool;  // null means the common pool
+
+  private ParallelConversion(int threshold, ForkJoinPool pool) {
+    this.threshold = threshold;
+    this.pool = pool;
+  }
+
+  /**
+   * Returns a policy that converts the arguments using the {@link ForkJoinPool#commonPool() common pool}
+   * if there are at least {@code threshold} arguments.
+   *
+   * @param threshold the minimum number of arguments to convert them in parallel.
+   * @return a new policy.
+   * @throws IllegalArgumentException if the threshold is not positive.
+   */
+  public static ParallelConversion of(int threshold) {
+    return new ParallelConversion(checkThreshold(threshold), null);
+  }
+
+  /**
+   * Returns a policy that converts the arguments using a pool if there are at least {@code threshold} arguments.
+   *
+   * @param threshold the minimum number of arguments to convert them in parallel.
+   * @param pool the pool used to convert the arguments.
+   * @return a new policy.
+   * @throws IllegalArgumentException if the threshold is not positive.
+   */
+  public static ParallelConversion of(int threshold, ForkJoinPool pool) {
+    requireNonNull(pool, "pool is null");
+    return new ParallelConversion(checkThreshold(threshold), pool);
+  }
+
+  private static int checkThreshold(int threshold) {
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("threshold is not positive " + threshold);
+    }
+    return threshold;
+  }
+
+  /**
+   * Returns the minimum number of arguments to convert them in parallel.
+   * @return the minimum number of arguments to convert them in parallel.
+   */
+  public int threshold() {
+    return threshold;
+  }
+
+  /**
+   * Returns the pool used to convert the arguments.
+   * @return the pool used to convert the arguments.
+   */
+  public ForkJoinPool pool() {
+    return pool == null ? ForkJoinPool.commonPool() : pool;
+  }
+
+  @Override
+  public String toString() {
+    return "ParallelConversion[threshold=" + threshold + ", pool=" + (pool == null ? "common" : pool) + "]";
+  }
+
+  /**
+   * Raised when the conversion of an element fails, the cause is the exception of the converter.
+   * The index is reported by {@link SplittingException#elementIndex()}.
+   */
+  static final class ElementFailure extends RuntimeException {
+    @Serial private static final long serialVersionUID = -2298645217463329035L;
+
+    final int index;
+
+    ElementFailure(int index, RuntimeException cause) {
+      super(null, cause, false, false);
+      this.index = index;
+    }
+  }
+
+  <T, U> U[] mapArray(T[] values, Function<? super T, ? extends U> mapper, IntFunction<U[]> generator) {
+    var results = generator.apply(values.length);
+    map(values, mapper, results);
+    return results;
+  }
+
+  <T, U> List<U> mapList(List<? extends T> values, Function<? super T, ? extends U> mapper) {
+    @SuppressWarnings("unchecked")
+    var results = (U[]) new Object[values.size()];
+    map(values.toArray(), mapper, results);
+    return Collections.unmodifiableList(Arrays.asList(results));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T, U> void map(Object[] values, Function<? super T, ? extends U> mapper, U[] results) {
+    var failure = new Failure();
+    var length = values.length;
+    if (length < threshold) {
+      new MapTask<>((T[]) values, mapper, results, 0, length, length, failure).compute();
+    } else {
+      var pool = pool();
+      var grain = Math.max(1, length / (pool.getParallelism() << 2));
+      pool.invoke(new MapTask<>((T[]) values, mapper, results, 0, length, grain, failure));
+    }
+    if (failure.exception != null) {
+      throw new ElementFailure(failure.index, failure.exception);
+    }
+  }
+
+  // the first failure by index, the elements after it are not converted
+  private static final class Failure {
+    private volatile int index = Integer.MAX_VALUE;
+    private RuntimeException exception;  // guarded by this
+
+    private synchronized void record(int index, RuntimeException exception) {
+      if (index < this.index) {
+        this.index = index;
+        this.exception = exception;
+      }
+    }
+  }
+
+  @SuppressWarnings("serial")  // a task is never serialized
+  private static final class MapTask<T, U> extends RecursiveAction {
+    @Serial private static final long serialVersionUID = 1L;
+
+    private final T[] values;
+    private final Function<? super T, ? extends U> mapper;
+    private final U[] results;
+    private final int from;
+    private final int to;
+    private final int grain;
+    private final Failure failure;
+
+    private MapTask(T[] values, Function<? super T, ? extends U> mapper, U[] results,
+                    int from, int to, int grain, Failure failure) {
+      this.values = values;
+      this.mapper = mapper;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+      this.failure = failure;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= grain) {
+        for (var i = from; i < to && i < failure.index; i++) {
+          try {
+            results[i] = mapper.apply(values[i]);
+          } catch (RuntimeException e) {
+            failure.record(i, e);
+            return;
+          }
+        }
+        return;
+      }
+      var middle = (from + to) >>> 1;
+      invokeAll(
+          new MapTask<>(values, mapper, results, from, middle, grain, failure),
+          new MapTask<>(values, mapper, results, middle, to, grain, failure));
+    }
+  }
+}
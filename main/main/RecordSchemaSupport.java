@@ -25,22 +25,56 @@ final class RecordSchemaSupport {
   }
 
   static <T extends Record> Schema<T> toSchema(Lookup lookup, Class<T> schema, ConverterResolver resolver) {
-    return new Schema<>(
-        Stream.of(schema.getRecordComponents()).map(component -> toOption(lookup, component, resolver)).toList(),
-        (Function<? super List<Object>, ? extends T> & Serializable) values -> createRecord(schema, values, lookup));
+    var event = new JfrEvents.SchemaBuildEvent();
+    event.begin();
+    var components = schema.getRecordComponents();
+    var constructor = constructor(lookup, schema, Stream.of(components).map(RecordComponent::getType).toArray(Class[]::new));
+    var result = toSchema(schema, constructor,
+        Stream.of(components).<Option<?>>map(component -> toOption(lookup, component, resolver)).toList());
+    if (event.shouldCommit()) {
+      event.recordClass = schema;
+      event.optionCount = components.length;
+      event.commit();
+    }
+    return result;
   }
 
-  private static Option<?> toOption(Lookup lookup, RecordComponent component, ConverterResolver resolver) {
+  /**
+   * Returns a schema that creates instances of the record class using the canonical constructor
+   * adapted by {@link #constructor(Lookup, Class, Class[])}.
+   */
+  static <T extends Record> Schema<T> toSchema(Class<T> schema, MethodHandle constructor, List<Option<?>> options) {
+    return Schema.ofArray(options,
+        (Schema.Finalizer<T> & Serializable) values -> createRecord(schema, constructor, values));
+  }
+
+  static String[] names(RecordComponent component) {
     var nameAnno = getAnnotation(component, Name.class, Name::value);
+    return nameAnno != null
+        ? nameAnno
+        : new String[] { component.getName().replace('_', '-') };
+  }
+
+  static String help(RecordComponent component) {
     var helpAnno = getAnnotation(component, Help.class, Help::value);
-    var names =
-        nameAnno != null
-            ? nameAnno
-            : new String[] { component.getName().replace('_', '-') };
+    return helpAnno != null ? String.join("\n", helpAnno) : "";
+  }
+
+  private static Option<?> toOption(Lookup lookup, RecordComponent component, ConverterResolver resolver) {
+    var names = names(component);
     var type = optionTypeFrom(component.getType());
-    var help = helpAnno != null ? String.join("\n", helpAnno) : "";
+    var help = help(component);
+    var converter = resolver.resolve(lookup, component.getGenericType()).orElse(null);
+    if (converter == null) {
+      // int, long, double, OptionalInt, int[], etc. are bound without boxing the values
+      // if the resolver has no converter for them
+      var specialized = AbstractOption.newSpecializedOption(component.getType(), names, help);
+      if (specialized != null) {
+        return specialized;
+      }
+      throw new UnsupportedOperationException("no converter for component " + component);
+    }
     var nestedSchema = toNestedSchema(component);
-    var converter = resolveConverter(lookup, component, resolver);
     var optionSchema = nestedSchema == null ? null: toSchema(lookup, nestedSchema, resolver);
     return AbstractOption.newOption(type, names, converter, help, optionSchema);
   }
@@ -69,12 +103,7 @@ final class RecordSchemaSupport {
         .orElse(null);
   }
 
-  private static Converter<Object, ?> resolveConverter(Lookup lookup, RecordComponent component, ConverterResolver resolver) {
-    return resolver.resolve(lookup, component.getGenericType())
-        .orElseThrow(() -> new UnsupportedOperationException("no converter for component " + component));
-  }
-
-  private static OptionType optionTypeFrom(Class<?> type) {
+  static OptionType optionTypeFrom(Class<?> type) {
     if (type.isRecord()) return OptionType.BRANCH;
     if (type == Boolean.class || type == boolean.class) return OptionType.FLAG;
     if (type == Optional.class) return OptionType.SINGLE;
@@ -83,7 +112,7 @@ final class RecordSchemaSupport {
     return OptionType.REQUIRED;
   }
 
-  private static Class<? extends Record> toNestedSchema(RecordComponent component) {
+  static Class<? extends Record> toNestedSchema(RecordComponent component) {
     if (component.getType().isRecord())
       return component.getType().asSubclass(Record.class);
     return (component.getGenericType() instanceof ParameterizedType paramType
@@ -93,21 +122,24 @@ final class RecordSchemaSupport {
         : null;
   }
 
-  private static MethodHandle constructor(Lookup lookup, Class<?> schema) {
-    var components = schema.getRecordComponents();
-    var types = Stream.of(components).map(RecordComponent::getType).toArray(Class[]::new);
+  /**
+   * Returns the canonical constructor adapted to take all the values as an array,
+   * the method handle type is {@code (Object[])Object}.
+   */
+  static MethodHandle constructor(Lookup lookup, Class<?> schema, Class<?>[] types) {
     try {
-      return lookup.findConstructor(schema, MethodType.methodType(void.class, types));
+      return lookup.findConstructor(schema, MethodType.methodType(void.class, types))
+          .asFixedArity()
+          .asSpreader(Object[].class, types.length)
+          .asType(MethodType.methodType(Object.class, Object[].class));
     } catch (NoSuchMethodException | IllegalAccessException e) {
       throw new IllegalStateException(e);
     }
   }
 
-  private static <T extends Record> T createRecord(
-      Class<T> schema, List<Object> values, Lookup lookup) {
+  private static <T extends Record> T createRecord(Class<T> schema, MethodHandle constructor, Object[] values) {
     try {
-      return schema.cast(
-          constructor(lookup, schema).asFixedArity().invokeWithArguments(values.toArray()));
+      return schema.cast((Object) constructor.invokeExact(values));
     } catch (RuntimeException | Error e) {
       throw e;
     } catch (Throwable e) {
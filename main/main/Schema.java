@@ -1,20 +1,23 @@
 package main;
 
-import java.util.ArrayDeque;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 import static java.lang.Boolean.parseBoolean;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toCollection;
-import static java.util.stream.Collectors.toMap;
-import static java.util.stream.IntStream.range;
 
 /**
  * Schema used to split the command line into arguments.
@@ -39,7 +42,32 @@ import static java.util.stream.IntStream.range;
  */
 public final class Schema<T> {
   final List<Option<?>> options;
-  private final Function<? super List<Object>, ? extends T> finalizer;
+  private final Finalizer<? extends T> finalizer;  // null if the values are not converted
+  private final UnconvertedFinalizer<? extends T> unconvertedFinalizer;  // null if the values are converted
+  private final SchemaPlan plan;
+
+  /**
+   * A finalizer that takes the converted values as an array.
+   * The array is created by each split, so the finalizer can keep it.
+   *
+   * @param <T> the type of the value bundling the command line arguments.
+   */
+  @FunctionalInterface
+  interface Finalizer<T> {
+    T apply(Object[] values);
+  }
+
+  /**
+   * A finalizer that takes the values before conversion as an array,
+   * the finalizer is responsible to call {@link #convert(Option, Object, boolean)} with the same
+   * {@code stackless} flag as the splitter.
+   *
+   * @param <T> the type of the value bundling the command line arguments.
+   */
+  @FunctionalInterface
+  interface UnconvertedFinalizer<T> {
+    T apply(Object[] values, boolean stackless);
+  }
 
   /**
    * Create a schema from a list of options and a finalizer function.
@@ -51,14 +79,61 @@ public final class Schema<T> {
    * not specified after the required option.
    */
   public Schema(List<? extends Option<?>> options, Function<? super List<Object>, ? extends T> finalizer) {
+    this(options, __ -> listFinalizer(finalizer), null);
+  }
+
+  // exactly one of the two factories is not null
+  private Schema(List<? extends Option<?>> options,
+                 Function<? super SchemaPlan, ? extends Finalizer<? extends T>> finalizerFactory,
+                 Function<? super SchemaPlan, ? extends UnconvertedFinalizer<? extends T>> unconvertedFinalizerFactory) {
     requireNonNull(options, "options is null");
-    requireNonNull(finalizer, "finalizer is null");
     var opts = List.<Option<?>>copyOf(options);
     checkCardinality(opts);
     checkDuplicates(opts);
     checkVarargs(opts);
     this.options = opts;
-    this.finalizer = finalizer;
+    this.plan = new SchemaPlan(opts);
+    this.finalizer = finalizerFactory == null ? null : finalizerFactory.apply(plan);
+    this.unconvertedFinalizer = unconvertedFinalizerFactory == null ? null : unconvertedFinalizerFactory.apply(plan);
+  }
+
+  /**
+   * Create a schema from a list of options and a finalizer that takes the values as an array.
+   *
+   * @see #Schema(List, Function)
+   */
+  static <T> Schema<T> ofArray(List<? extends Option<?>> options, Finalizer<? extends T> finalizer) {
+    requireNonNull(finalizer, "finalizer is null");
+    return new Schema<>(options, __ -> finalizer, null);
+  }
+
+  /**
+   * Create a schema from a list of options and a function that creates the finalizer from the parse plan
+   * of the schema, so the finalizer can find the index of an option without its own table.
+   *
+   * @see #ofArray(List, Finalizer)
+   */
+  static <T> Schema<T> ofPlan(List<? extends Option<?>> options,
+                              Function<? super SchemaPlan, ? extends Finalizer<? extends T>> finalizerFactory) {
+    requireNonNull(finalizerFactory, "finalizerFactory is null");
+    return new Schema<>(options, finalizerFactory, null);
+  }
+
+  /**
+   * Create a schema from a list of options and a function that creates, from the parse plan of the schema,
+   * a finalizer that takes the values before conversion.
+   *
+   * @see #ofPlan(List, Function)
+   */
+  static <T> Schema<T> ofUnconverted(List<? extends Option<?>> options,
+                                     Function<? super SchemaPlan, ? extends UnconvertedFinalizer<? extends T>> finalizerFactory) {
+    requireNonNull(finalizerFactory, "finalizerFactory is null");
+    return new Schema<>(options, null, finalizerFactory);
+  }
+
+  private static <T> Finalizer<T> listFinalizer(Function<? super List<Object>, ? extends T> finalizer) {
+    requireNonNull(finalizer, "finalizer is null");
+    return values -> finalizer.apply(Collections.unmodifiableList(Arrays.asList(values)));
   }
 
   private static void checkCardinality(List<Option<?>> options) {
@@ -88,156 +163,469 @@ public final class Schema<T> {
       throw new IllegalArgumentException("varargs is not at last positional option: " + options);
   }
 
-  T split(boolean nested, ArrayDeque<String> pendingArguments) {
-    var requiredOptions =
-        options.stream().filter(AbstractOption::isRequired).collect(toCollection(ArrayDeque::new));
-    var optionalOptionByName = optionalOptionByName(options);
-    var workspace = new Workspace(options);
-    var flagCount = options.stream().filter(AbstractOption::isFlag).count();
-    var flagPattern = flagCount == 0 ? null : Pattern.compile("^-[a-zA-Z]{1," + flagCount + "}$");
-
-    var doubleDashMode = false;
-    while (true) {
-      if (pendingArguments.isEmpty()) {
-        if (requiredOptions.isEmpty()) return workspace.create(finalizer);
-        throw new SplittingException("Required option(s) missing: " + requiredOptions);
-      }
-      // acquire next argument
-      var argument = pendingArguments.removeFirst();
-      if ("--".equals(argument)) {
-        doubleDashMode = true;
+  /**
+   * Converts the value of an option using its converter.
+   *
+   * @param option the option.
+   * @param value the value of the option before conversion.
+   * @param stackless true if the exception raised when the converter fails has no stack trace.
+   * @return the converted value.
+   * @throws SplittingException if the converter fails.
+   */
+  static Object convert(Option<?> option, Object value, boolean stackless) {
+    var event = new JfrEvents.ConversionEvent();
+    event.begin();
+    try {
+      return AbstractOption.applyConverter(option, value);
+    } catch(RuntimeException e) {
+      throw SplittingException.converterFailure(option, e, stackless);
+    } finally {
+      if (event.shouldCommit()) {
+        event.option = option.toString();
+        event.converterClass = AbstractOption.converter(option).getClass();
+        event.commit();
+      }
+    }
+  }
+
+  T split(ArgumentCursor pendingArguments, boolean stackless, long timeout) {
+    var event = new JfrEvents.SplitEvent();
+    event.begin();
+    var tokenCount = pendingArguments.remainingCount();
+    var outcome = "FAILED";
+    T value = null;
+    try {
+      value = parse(pendingArguments, stackless, timeout);
+      outcome = "ACCEPTED";
+      return value;
+    } catch (SplittingException e) {
+      outcome = e.kind().name();
+      throw e;
+    } finally {
+      commitSplitEvent(event, value, tokenCount, outcome);
+    }
+  }
+
+  /**
+   * Commits the event of a split of this schema, also used by {@link Splitter.Session}.
+   *
+   * @param event the event started with the split.
+   * @param value the value bundling the arguments or null if the split fails.
+   * @param tokenCount the number of arguments of the split.
+   * @param outcome ACCEPTED, the kind of the SplittingException or FAILED.
+   */
+  void commitSplitEvent(JfrEvents.SplitEvent event, T value, int tokenCount, String outcome) {
+    if (event.shouldCommit()) {
+      event.resultType = value == null ? null : value.getClass();
+      event.optionCount = plan.size();
+      event.tokenCount = tokenCount;
+      event.outcome = outcome;
+      event.commit();
+    }
+  }
+
+  private T parse(ArgumentCursor pendingArguments, boolean stackless, long timeout) {
+    var parser = new Parser<>(this, stackless, timeout);
+    while (pendingArguments.hasNext()) {
+      var status = parser.accept(pendingArguments.next());
+      if (status == Parser.ACCEPTED) {
         continue;
       }
-      var separator = argument.indexOf('=');
-      var longForm = separator == -1;
-      var argumentName = longForm ? argument : argument.substring(0, separator);
-      var shortFormValue = longForm ? null : unQuote(argument.substring(separator + 1));
-      // try well-known option first
-      if (!doubleDashMode && optionalOptionByName.containsKey(argumentName)) {
-        var option = optionalOptionByName.get(argumentName);
-        if (option.type() == OptionType.BRANCH) {
-          workspace.set(option, splitNested(pendingArguments, option));
-          if (!pendingArguments.isEmpty())
-            throw new SplittingException("Too many arguments: " + pendingArguments);
-          return workspace.create(finalizer);
+      // restore the pending argument
+      pendingArguments.back();
+      if (status == Parser.VARARGS) {
+        // glob all pending arguments into the varargs option at once
+        parser.varargs(pendingArguments.remaining());
+        break;
+      }
+      throw SplittingException.rejected(Parser.rejection(status), pendingArguments.position(),
+          pendingArguments.peek(MAX_REJECTED_ARGUMENTS), pendingArguments.remainingCount(), stackless);
+    }
+    return parser.finish();
+  }
+
+  // the number of rejected arguments recorded by a SplittingException
+  private static final int MAX_REJECTED_ARGUMENTS = 16;
+
+  private static String unQuote(String str) {
+    return str.length() >= 2 && str.charAt(0) == '"' && str.charAt(str.length()-1) == '"' ? str.substring(1, str.length()-1) : str;
+  }
+
+  /**
+   * A push parser, the arguments are sent one by one to {@link #accept(String)}
+   * and {@link #finish()} returns the value bundling the arguments.
+   * <p>
+   * The parser keeps a stack of frames, one frame per schema being split, the top frame is the schema
+   * of the innermost nested option. A frame records the values of the arguments of its schema,
+   * the position of the next required option, if the double dash mode is on and the option waiting for its value.
+   * Nothing is buffered, an argument is rejected as soon as it can not be accepted.
+   * <p>
+   * This class is not thread safe.
+   *
+   * @param <T> the type of the value bundling the command line arguments.
+   */
+  static final class Parser<T> {
+    /** The argument is accepted. */
+    static final int ACCEPTED = 0;
+    /** The argument is not accepted, it is the first argument of the varargs option. */
+    static final int VARARGS = 1;
+    /** The argument is not accepted, no option matches. */
+    static final int UNHANDLED = 2;
+    /** The argument is not accepted, a branch option already consumed all the arguments. */
+    static final int TOO_MANY = 3;
+
+    private static final class Frame {
+      private final Frame parent;
+      private final int parentIndex;  // index of the nested option in the parent frame or -1
+      private final Schema<?> schema;
+      private final Workspace workspace;
+      private int requiredPosition;
+      private boolean doubleDashMode;
+      private int awaitingIndex = -1;  // index of the option waiting for its value or -1
+      private boolean closed;  // a branch option or the varargs option consumed all the arguments
+
+      private Frame(Frame parent, int parentIndex, Schema<?> schema, boolean stackless) {
+        this.parent = parent;
+        this.parentIndex = parentIndex;
+        this.schema = schema;
+        this.workspace = new Workspace(schema.plan, schema.unconvertedFinalizer == null, stackless);
+      }
+
+      private Object create(Parser<?> parser) {
+        var stackless = parser.stackless;
+        if (awaitingIndex != -1) {
+          throw SplittingException.missingValue(schema.plan.option(awaitingIndex), stackless);
+        }
+        var plan = schema.plan;
+        // a branch replaces the required options
+        if (!closed && requiredPosition != plan.requiredCount()) {
+          throw SplittingException.missingRequired(plan.requiredOptions(requiredPosition), stackless);
+        }
+        return workspace.create(schema, parser);
+      }
+    }
+
+    private final boolean stackless;
+    private final long timeout;  // in nanoseconds, 0 if there is no timeout
+    private final long deadline;  // in nanoseconds, started when the parser is created
+    private Frame frame;  // top of the stack
+
+    Parser(Schema<T> schema, boolean stackless, long timeout) {
+      this.stackless = stackless;
+      this.timeout = timeout;
+      this.deadline = timeout == 0 ? 0 : System.nanoTime() + timeout;
+      this.frame = new Frame(null, -1, schema, stackless);
+    }
+
+    /**
+     * Returns the time in nanoseconds left to the blocking conversions of the split, or -1 if there is no timeout.
+     * The deadline starts when the parser is created, so it bounds the whole split, the nested schemas included.
+     */
+    private long remainingTime() {
+      if (timeout == 0) {
+        return -1;
+      }
+      return Math.max(0, deadline - System.nanoTime());
+    }
+
+    static SplittingException.Kind rejection(int status) {
+      return switch (status) {
+        case UNHANDLED -> SplittingException.Kind.UNHANDLED_ARGUMENTS;
+        case TOO_MANY -> SplittingException.Kind.TOO_MANY_ARGUMENTS;
+        default -> throw new AssertionError("" + status);
+      };
+    }
+
+    /**
+     * Sends the next argument to the parser.
+     * If a nested schema does not accept the argument, its value is created before the argument
+     * is sent to the enclosing schema, so the converters of the nested schema may be called.
+     *
+     * @param argument the next argument.
+     * @return {@link #ACCEPTED} or the reason why the argument is not accepted.
+     */
+    int accept(String argument) {
+      for (;;) {
+        var frame = this.frame;
+        var plan = frame.schema.plan;
+        var workspace = frame.workspace;
+        if (frame.closed) {
+          return TOO_MANY;
+        }
+        if (frame.awaitingIndex != -1) {
+          var index = frame.awaitingIndex;
+          frame.awaitingIndex = -1;
+          if (plan.option(index).type() == OptionType.SINGLE) {
+            workspace.set(index, Optional.of(argument));
+          } else {
+            workspace.append(index, argument);
+          }
+          return ACCEPTED;
         }
-        var optionValue =
-            switch (option.type()) {
-              case FLAG -> longForm || parseBoolean(shortFormValue);
-              case SINGLE -> {
-                var value =
-                    option.nestedSchema() != null
-                        ? splitNested(pendingArguments, option)
-                        : longForm ? nextArgument(pendingArguments, option) : shortFormValue;
-                yield Optional.of(value);
+        if ("--".equals(argument)) {
+          frame.doubleDashMode = true;
+          return ACCEPTED;
+        }
+        // try well-known option first, --name or name=value
+        var separator = argument.indexOf('=');
+        var longForm = separator == -1;
+        var index = frame.doubleDashMode ? -1 : plan.optionalIndex(argument, 0, longForm ? argument.length() : separator);
+        if (index != -1) {
+          var option = plan.option(index);
+          if (option.nestedSchema() != null) {  // BRANCH, or SINGLE or REPEATABLE of a record
+            this.frame = new Frame(frame, index, option.nestedSchema(), stackless);
+            return ACCEPTED;
+          }
+          var shortFormValue = longForm ? null : unQuote(argument.substring(separator + 1));
+          switch (option.type()) {
+            case FLAG -> workspace.set(index, longForm || parseBoolean(shortFormValue));
+            case SINGLE -> {
+              if (longForm) {
+                frame.awaitingIndex = index;
+              } else {
+                workspace.set(index, Optional.of(shortFormValue));
               }
-              case REPEATABLE -> {
-                var value =
-                    option.nestedSchema() != null
-                        ? Stream.of(splitNested(pendingArguments, option))
-                        : longForm
-                            ? Stream.of(nextArgument(pendingArguments, option))
-                            : Arrays.stream(shortFormValue.split(","));
-                var elements = (List<?>) workspace.get(option);
-                yield Stream.concat(elements.stream(), value).toList();
+            }
+            case REPEATABLE -> {
+              if (longForm) {
+                frame.awaitingIndex = index;
+              } else {
+                workspace.appendAll(index, shortFormValue);
               }
-              case BRANCH, VARARGS, REQUIRED -> throw new AssertionError("" + option);
-            };
-        workspace.set(option, optionValue);
-        continue; // with next argument
-      }
-      // maybe a combination of single letter flags?
-      if (!doubleDashMode && flagPattern != null && flagPattern.matcher(argument).matches()) {
-        var flags = argument.substring(1).chars().mapToObj(c -> "-" + (char) c).toList();
-        if (flags.stream().allMatch(optionalOptionByName::containsKey)) {
-          flags.forEach(flag -> {
-            var option = optionalOptionByName.get(flag);
-            workspace.set(option, true);
-          });
+            }
+            case BRANCH, VARARGS, REQUIRED -> throw new AssertionError("" + option);
+          }
+          return ACCEPTED;
+        }
+        // maybe a combination of single letter flags?
+        if (!frame.doubleDashMode && plan.isFlagCombination(argument)) {
+          for (var i = 1; i < argument.length(); i++) {
+            workspace.set(plan.flagIndex(argument.charAt(i)), true);
+          }
+          return ACCEPTED;
+        }
+        // try required option
+        if (frame.requiredPosition < plan.requiredCount()) {
+          workspace.set(plan.requiredIndex(frame.requiredPosition++), argument);
+          return ACCEPTED;
+        }
+        // a nested schema ends at the first argument it does not accept, try with the enclosing schema
+        if (frame.parent != null) {
+          pop();
           continue;
         }
+        return plan.varargsIndex() != -1 ? VARARGS : UNHANDLED;
       }
-      // try required option
-      if (!requiredOptions.isEmpty()) {
-        var requiredOption = requiredOptions.removeFirst();
-        workspace.set(requiredOption, argument);
-        continue;
-      }
-      // restore pending arguments deque
-      pendingArguments.addFirst(argument);
-      if (nested) return workspace.create(finalizer);
-      // try globbing all pending arguments into a varargs collector
-      var varargsOption = options.stream().filter(AbstractOption::isVarargs).findFirst().orElse(null);
-      if (varargsOption != null) {
-        workspace.set(varargsOption, pendingArguments.toArray(String[]::new));
-        return workspace.create(finalizer);
-      }
-      throw new SplittingException("Unhandled arguments: " + pendingArguments);
     }
-  }
 
-  private static HashMap<String, Option<?>> optionalOptionByName(List<Option<?>> options) {
-    var optionalOptionByName = new HashMap<String, Option<?>>();
-    for (var option : options) {
-      if (AbstractOption.isPositional(option)) {
-        continue;  // skip positional option
-      }
-      for (var name : option.names()) {
-        optionalOptionByName.put(name, option);
+    /**
+     * Sets the argument rejected with the status {@link #VARARGS} and all the following arguments
+     * as the value of the varargs option, no other argument is accepted.
+     *
+     * @param arguments the values of the varargs option.
+     */
+    void varargs(String[] arguments) {
+      var frame = this.frame;
+      assert frame.parent == null && frame.schema.plan.varargsIndex() != -1;
+      frame.workspace.set(frame.schema.plan.varargsIndex(), arguments);
+      frame.closed = true;
+    }
+
+    /**
+     * Ends the parsing and returns the value bundling the arguments.
+     *
+     * @return the value bundling the arguments.
+     * @throws SplittingException if an option is waiting for its value or a required option is missing.
+     */
+    @SuppressWarnings("unchecked")
+    T finish() {
+      while (frame.parent != null) {
+        pop();
       }
+      return (T) frame.create(this);
     }
-    return optionalOptionByName;
-  }
 
-  private static String nextArgument(ArrayDeque<String> pendingArguments, Option<?> option) {
-    if (pendingArguments.isEmpty()) {
-      throw new SplittingException("no argument available for option " + option);
+    private void pop() {
+      var frame = this.frame;
+      var value = frame.create(this);
+      var parent = frame.parent;
+      var index = frame.parentIndex;
+      var workspace = parent.workspace;
+      switch (parent.schema.plan.option(index).type()) {
+        case BRANCH -> {
+          workspace.set(index, value);
+          parent.closed = true;
+        }
+        case SINGLE -> workspace.set(index, Optional.of(value));
+        case REPEATABLE -> workspace.append(index, value);
+        case FLAG, VARARGS, REQUIRED -> throw new AssertionError();
+      }
+      this.frame = parent;
     }
-    return pendingArguments.removeFirst();
   }
 
-  private static String unQuote(String str) {
-    return str.charAt(0) == '"' && str.charAt(str.length()-1) == '"' ? str.substring(1, str.length()-1) : str;
+  /**
+   * Returns a string representation of the schema including its parse plan.
+   * @return a string representation of the schema including its parse plan.
+   */
+  @Override
+  public String toString() {
+    return plan.toString();
   }
 
-  private static Object splitNested(ArrayDeque<String> pendingArguments, Option<?> option) {
-    return option.nestedSchema().split(true, pendingArguments);
-  }
+  /**
+   * The growable list of the values of a repeatable option during the split.
+   */
+  @SuppressWarnings("serial")
+  private static final class Accumulator extends ArrayList<Object> {}
 
   private static final class Workspace {
-    private final List<Option<?>> options;
-    private final IdentityHashMap<Option<?>, Integer> indexMap;
+    private final SchemaPlan plan;
+    private final boolean convert;
+    private final boolean stackless;
     private final Object[] array;
 
-    private Workspace(List<Option<?>> options) {
-      this.options = options;
-      indexMap = range(0, options.size()).boxed().collect(toMap(options::get, i -> i, (_1, _2) -> { throw null; }, IdentityHashMap::new));
-      var array = new Object[options.size()];
-      Arrays.setAll(array, i -> AbstractOption.defaultValue(options.get(i)));
-      this.array = array;
+    private Workspace(SchemaPlan plan, boolean convert, boolean stackless) {
+      this.plan = plan;
+      this.convert = convert;
+      this.stackless = stackless;
+      this.array = plan.newValues();
     }
 
-    Object get(Option<?> option) {
-      return array[indexMap.get(option)];
+    void set(int index, Object value) {
+      array[index] = value;
     }
 
-    void set(Option<?> option, Object value) {
-      array[indexMap.get(option)] = value;
+    /**
+     * Appends a value to the values of a repeatable option.
+     * The values are accumulated in a growable list that is frozen by {@link #create(Schema, Parser)}.
+     */
+    void append(int index, Object value) {
+      accumulator(index).add(value);
     }
 
-    private static Object convert(Option<?> option, Object value) {
-      try {
-        return AbstractOption.applyConverter(option, value);
-      } catch(RuntimeException e) {
-        throw new SplittingException("error while calling converter for option " + option, e);
+    /**
+     * Appends the comma separated values of a repeatable option,
+     * the trailing empty values are removed like {@link String#split(String) value.split(",")}.
+     */
+    void appendAll(int index, String values) {
+      var accumulator = accumulator(index);
+      var size = accumulator.size();
+      var start = 0;
+      for (int comma; (comma = values.indexOf(',', start)) != -1; start = comma + 1) {
+        accumulator.add(values.substring(start, comma));
+      }
+      if (start == 0) {  // no comma
+        accumulator.add(values);
+        return;
+      }
+      accumulator.add(values.substring(start));
+      while (accumulator.size() > size && ((String) accumulator.get(accumulator.size() - 1)).isEmpty()) {
+        accumulator.remove(accumulator.size() - 1);
       }
     }
 
-    <T> T create(Function<? super List<Object>, ? extends T> finalizer) {
-      var values = range(0, options.size())
-          .mapToObj(i -> convert(options.get(i), array[i]))
-          .toList();
-      return finalizer.apply(values);
+    private Accumulator accumulator(int index) {
+      if (array[index] instanceof Accumulator accumulator) {
+        return accumulator;
+      }
+      var accumulator = new Accumulator();
+      array[index] = accumulator;
+      return accumulator;
+    }
+
+    /**
+     * Replaces the accumulators of the repeatable options by unmodifiable lists.
+     */
+    private void freeze() {
+      for (var index : plan.repeatableIndexes()) {
+        if (array[index] instanceof Accumulator accumulator) {
+          array[index] = Collections.unmodifiableList(accumulator);
+        }
+      }
+    }
+
+    <T> T create(Schema<? extends T> schema, Parser<?> parser) {
+      freeze();
+      if (!convert) {
+        return schema.unconvertedFinalizer.apply(array, stackless);
+      }
+      var finalizer = schema.finalizer;
+      var blockingIndexes = plan.blockingIndexes();
+      if (blockingIndexes.length != 0) {
+        convertConcurrently(blockingIndexes, parser.remainingTime());
+        return finalizer.apply(array);
+      }
+      // the array is owned by the workspace, the values are converted in place
+      for (var i = 0; i < array.length; i++) {
+        array[i] = convert(plan.option(i), array[i], stackless);
+      }
+      return finalizer.apply(array);
+    }
+
+    /**
+     * Calls each blocking converter on its own virtual thread and the other converters on the current thread,
+     * the first failure cancels the other blocking conversions.
+     *
+     * @param blockingIndexes the indexes of the options with a blocking converter.
+     * @param timeout the time to wait for the blocking conversions in nanoseconds or -1.
+     */
+    private void convertConcurrently(int[] blockingIndexes, long timeout) {
+      var deadline = System.nanoTime() + timeout;
+      var executor = Executors.newVirtualThreadPerTaskExecutor();
+      try {
+        var completionService = new ExecutorCompletionService<Void>(executor);
+        var futures = new HashMap<Future<Void>, Integer>();
+        for (var index : blockingIndexes) {
+          futures.put(completionService.submit(() -> {
+            array[index] = convert(plan.option(index), array[index], stackless);
+            return null;
+          }), index);
+        }
+        var blocking = new boolean[array.length];
+        for (var index : blockingIndexes) {
+          blocking[index] = true;
+        }
+        for (var i = 0; i < array.length; i++) {
+          if (!blocking[i]) {
+            array[i] = convert(plan.option(i), array[i], stackless);
+          }
+        }
+        for (var i = 0; i < blockingIndexes.length; i++) {
+          var future = timeout == -1
+              ? completionService.take()
+              : completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          if (future == null) {
+            var pending = futures.entrySet().stream()
+                .filter(entry -> !entry.getKey().isDone())
+                .mapToInt(Map.Entry::getValue)
+                .min()
+                .orElseThrow();
+            throw SplittingException.converterFailure(plan.option(pending),
+                new TimeoutException("blocking converter timeout"), stackless);
+          }
+          try {
+            future.get();  // the write in the array happens-before
+          } catch (ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+              throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+              throw error;
+            }
+            throw new UndeclaredThrowableException(cause);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SplittingException("interrupted while waiting for the blocking converters", e);
+      } finally {
+        // interrupt the conversions that are still running and wait for them,
+        // so no conversion outlives the split
+        executor.shutdownNow();
+        executor.close();
+      }
     }
   }
 }
@@ -0,0 +1,189 @@
+package main;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static java.util.stream.IntStream.range;
+
+/**
+ * The parse plan of a {@link Schema}, all the data structures used to split the command line
+ * that only depend on the options.
+ * <p>
+ * A plan is immutable, it is computed once when the schema is created and shared by all the calls
+ * to {@link Schema#split(ArgumentCursor, boolean, boolean, long)} that only allocate the values of the arguments.
+ * The method {@link #toString()} describes the plan, this is useful for debugging.
+ */
+final class SchemaPlan {
+  private final Option<?>[] options;
+  private final IdentityHashMap<Option<?>, Integer> indexMap;  // immutable, the slot of each option
+  private final NameMatcher nameMatcher;
+  private final int[] requiredIndexes;
+  private final int[] repeatableIndexes;
+  private final int[] blockingIndexes;
+  private final int varargsIndex;
+  private final int flagCount;
+  private final int[] flagTable;  // index of the flag option named '-' + c for each ASCII character c or -1
+  private final Object[] defaultValues;
+
+  SchemaPlan(List<Option<?>> options) {
+    var opts = options.toArray(Option<?>[]::new);
+    var indexMap = new IdentityHashMap<Option<?>, Integer>();
+    var optionalIndexByName = new LinkedHashMap<String, Integer>();
+    for (var i = 0; i < opts.length; i++) {
+      var option = opts[i];
+      indexMap.put(option, i);
+      if (AbstractOption.isPositional(option)) {
+        continue;  // skip positional option
+      }
+      for (var name : option.names()) {
+        optionalIndexByName.put(name, i);
+      }
+    }
+    var flagCount = (int) options.stream().filter(AbstractOption::isFlag).count();
+    this.options = opts;
+    this.indexMap = indexMap;
+    this.nameMatcher = new NameMatcher(optionalIndexByName);
+    this.requiredIndexes = range(0, opts.length).filter(i -> AbstractOption.isRequired(opts[i])).toArray();
+    this.repeatableIndexes = range(0, opts.length).filter(i -> opts[i].type() == OptionType.REPEATABLE).toArray();
+    this.blockingIndexes = range(0, opts.length).filter(i -> AbstractOption.isBlocking(opts[i])).toArray();
+    this.varargsIndex = range(0, opts.length).filter(i -> AbstractOption.isVarargs(opts[i])).findFirst().orElse(-1);
+    this.flagCount = flagCount;
+    this.flagTable = flagTable(opts);
+    this.defaultValues = Arrays.stream(opts).map(AbstractOption::defaultValue).toArray();
+  }
+
+  int size() {
+    return options.length;
+  }
+
+  Option<?> option(int index) {
+    return options[index];
+  }
+
+  /**
+   * Returns the index (the slot) of the option or -1, the table is computed once per schema.
+   */
+  int index(Option<?> option) {
+    var index = indexMap.get(option);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Returns the index of the optional option with that name or -1.
+   */
+  int optionalIndex(String name) {
+    return nameMatcher.match(name, 0, name.length());
+  }
+
+  /**
+   * Returns the index of the optional option named by the characters of the argument
+   * between from (inclusive) and to (exclusive) or -1.
+   */
+  int optionalIndex(String argument, int from, int to) {
+    return nameMatcher.match(argument, from, to);
+  }
+
+  int requiredCount() {
+    return requiredIndexes.length;
+  }
+
+  int requiredIndex(int position) {
+    return requiredIndexes[position];
+  }
+
+  List<Option<?>> requiredOptions(int fromPosition) {
+    return Arrays.stream(requiredIndexes, fromPosition, requiredIndexes.length)
+        .<Option<?>>mapToObj(i -> options[i])
+        .toList();
+  }
+
+  /**
+   * Returns the indexes of the repeatable options, the array should not be modified.
+   */
+  int[] repeatableIndexes() {
+    return repeatableIndexes;
+  }
+
+  /**
+   * Returns the indexes of the options with a blocking converter, the array should not be modified.
+   */
+  int[] blockingIndexes() {
+    return blockingIndexes;
+  }
+
+  /**
+   * Returns the index of the varargs option or -1.
+   */
+  int varargsIndex() {
+    return varargsIndex;
+  }
+
+  private static int[] flagTable(Option<?>[] options) {
+    var flagTable = new int[128];
+    Arrays.fill(flagTable, -1);
+    for (var i = 0; i < options.length; i++) {
+      if (!AbstractOption.isFlag(options[i])) {
+        continue;
+      }
+      for (var name : options[i].names()) {
+        if (name.length() == 2 && name.charAt(0) == '-' && isFlagLetter(name.charAt(1))) {
+          flagTable[name.charAt(1)] = i;
+        }
+      }
+    }
+    return flagTable;
+  }
+
+  private static boolean isFlagLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+  }
+
+  /**
+   * Returns true if the argument is a combination of single letter flags like {@code -lvx},
+   * each letter (or digit) is the name of a flag option and there are at most as many letters as flags.
+   */
+  boolean isFlagCombination(String argument) {
+    var length = argument.length();
+    if (length < 2 || length - 1 > flagCount || argument.charAt(0) != '-') {
+      return false;
+    }
+    for (var i = 1; i < length; i++) {
+      var c = argument.charAt(i);
+      if (c >= 128 || flagTable[c] == -1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the index of the flag option named {@code '-' + c}, {@code c} being a character
+   * of an argument accepted by {@link #isFlagCombination(String)}.
+   */
+  int flagIndex(char c) {
+    return flagTable[c];
+  }
+
+  Object[] newValues() {
+    return defaultValues.clone();
+  }
+
+  @Override
+  public String toString() {
+    var names = new StringJoiner(", ", "{", "}");
+    for (var option : options) {
+      if (AbstractOption.isPositional(option)) continue;
+      for (var name : option.names()) {
+        names.add(name + "=" + optionalIndex(name));
+      }
+    }
+    return "SchemaPlan[options=" + Arrays.toString(options)
+        + ", names=" + names
+        + ", required=" + Arrays.toString(requiredIndexes)
+        + ", varargs=" + varargsIndex
+        + ", flags=" + flagCount + "]";
+  }
+}
@@ -0,0 +1,363 @@
+package main;
+
+import main.internal.ConverterFactories;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A compact binary snapshot of the schema of a record class, so the schema can be created at startup
+ * without scanning the record components, their annotations and the types for the conversion functions.
+ * <p>
+ * The snapshot is created ahead of time by {@link #write(Lookup, Class)}, stored for example as a resource,
+ * and used at startup by {@link Splitter#ofSnapshot(Lookup, Class, byte[])}.
+ * <pre>
+ *   // at build time
+ *   Files.write(Path.of("Command.schema"), SchemaSnapshot.write(MethodHandles.lookup(), Command.class));
+ *
+ *   // at startup
+ *   byte[] snapshot = ... // the content of the resource Command.schema
+ *   var splitter = Splitter.ofSnapshot(MethodHandles.lookup(), Command.class, snapshot);
+ * </pre>
+ * For each record class, the snapshot contains the names, the help and the type of each component
+ * and how its values are converted, either by an enum, by a factory method or without conversion.
+ * At startup, the canonical constructor and the factory methods are found directly by the lookup.
+ * <p>
+ * The snapshot also contains a fingerprint, a CRC32 of the class file, of each record class,
+ * if a record class has changed since the snapshot was written, if its class file can not be read
+ * or if the factory method of a component is not anymore the one that would be recorded now,
+ * the snapshot is rejected.
+ * Only the conversion functions of the {@link ConverterResolver#defaultResolver() default resolver}
+ * can be recorded in a snapshot.
+ */
+public final class SchemaSnapshot {
+  private SchemaSnapshot() {
+    throw new AssertionError();
+  }
+
+  private static final int MAGIC = 0x434c4953;  // "CLIS"
+  private static final int VERSION = 1;
+
+  // how the values of a component are converted
+  private static final int SPECIALIZED = 0, IDENTITY = 1, ENUM = 2, FACTORY = 3;
+
+  /**
+   * Returns a snapshot of the schema of a record class.
+   *
+   * @param lookup a lookup that can access the record class and the conversion functions.
+   * @param schema a record class defining the schema.
+   * @return a snapshot of the schema.
+   * @throws IllegalArgumentException if a conversion function can not be recorded in a snapshot
+   *   or if the class file of a record class can not be read.
+   */
+  public static byte[] write(Lookup lookup, Class<? extends Record> schema) {
+    requireNonNull(lookup, "lookup is null");
+    requireNonNull(schema, "schema is null");
+    // the nested record classes are appended while the record classes are written
+    var records = new ArrayList<Class<?>>();
+    records.add(schema);
+    var body = new ByteArrayOutputStream();
+    var bytes = new ByteArrayOutputStream();
+    try (var bodyOutput = new DataOutputStream(body);
+         var output = new DataOutputStream(bytes)) {
+      for (var i = 0; i < records.size(); i++) {
+        writeRecord(lookup, records.get(i), records, bodyOutput);
+      }
+      bodyOutput.flush();
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeInt(records.size());
+      body.writeTo(output);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeRecord(Lookup lookup, Class<?> record, List<Class<?>> records, DataOutputStream output)
+      throws IOException {
+    var fingerprint = fingerprint(record);
+    if (fingerprint == -1) {
+      throw new IllegalArgumentException("no class file for " + record.getName());
+    }
+    output.writeUTF(record.getName());
+    output.writeLong(fingerprint);
+    var components = record.getRecordComponents();
+    output.writeInt(components.length);
+    for (var component : components) {
+      var type = component.getType();
+      var names = RecordSchemaSupport.names(component);
+      output.writeUTF(type.getName());
+      output.writeInt(names.length);
+      for (var name : names) {
+        output.writeUTF(name);
+      }
+      output.writeUTF(RecordSchemaSupport.help(component));
+      if (AbstractOption.newSpecializedOption(type, names, "") != null) {
+        output.writeByte(SPECIALIZED);
+        continue;
+      }
+      var nested = RecordSchemaSupport.toNestedSchema(component);
+      var nestedIndex = -1;
+      if (nested != null) {
+        nestedIndex = records.indexOf(nested);
+        if (nestedIndex == -1) {
+          nestedIndex = records.size();
+          records.add(nested);
+        }
+      }
+      var elementType = elementType(component);
+      if (elementType == String.class || elementType == Boolean.class || elementType == boolean.class || elementType.isRecord()) {
+        output.writeByte(IDENTITY);
+        output.writeInt(nestedIndex);
+        continue;
+      }
+      if (elementType.isEnum()) {
+        output.writeByte(ENUM);
+        output.writeInt(nestedIndex);
+        output.writeUTF(elementType.getName());
+        continue;
+      }
+      var factory = factory(lookup, elementType);
+      if (factory == -1) {
+        throw new IllegalArgumentException("no converter for component " + component);
+      }
+      output.writeByte(FACTORY);
+      output.writeInt(nestedIndex);
+      output.writeUTF(elementType.getName());
+      output.writeByte(factory);
+    }
+  }
+
+  // the type of the values of an Optional, a List or an array
+  private static Class<?> elementType(RecordComponent component) {
+    var type = component.getType();
+    return switch (RecordSchemaSupport.optionTypeFrom(type)) {
+      case BRANCH, FLAG, REQUIRED -> type;
+      case VARARGS -> type.getComponentType();
+      case SINGLE, REPEATABLE -> {
+        if (component.getGenericType() instanceof ParameterizedType parameterizedType
+            && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementType) {
+          yield elementType;
+        }
+        throw new IllegalArgumentException("no converter for component " + component);
+      }
+    };
+  }
+
+  // the index in ConverterFactories.FACTORIES of the first factory accessible from the lookup or -1,
+  // like ConverterResolver.reflected()
+  private static int factory(Lookup lookup, Class<?> type) {
+    for (var factory : ConverterFactories.factories(type)) {
+      try {
+        factory.find(lookup, type);
+        return factory.index();
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        // not accessible from the lookup, try next
+      }
+    }
+    return -1;
+  }
+
+  // a CRC32 of the class file, -1 if the class file is not available
+  private static long fingerprint(Class<?> type) throws IOException {
+    try (var input = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+      if (input == null) {
+        return -1;
+      }
+      var crc = new CRC32();
+      crc.update(input.readAllBytes());
+      return crc.getValue();
+    }
+  }
+
+  /**
+   * Returns the schema of a record class from a snapshot created by {@link #write(Lookup, Class)}.
+   *
+   * @param lookup a lookup that can access the record class and the conversion functions.
+   * @param schema a record class defining the schema.
+   * @param snapshot a snapshot of the schema.
+   * @return the schema of the record class or an empty optional if the snapshot is not a snapshot of
+   *   the record class, if a record class has changed or if a conversion function can not be found.
+   *
+   * @param <R> the type of the record.
+   */
+  public static <R extends Record> Optional<Schema<R>> read(Lookup lookup, Class<R> schema, byte[] snapshot) {
+    requireNonNull(lookup, "lookup is null");
+    requireNonNull(schema, "schema is null");
+    requireNonNull(snapshot, "snapshot is null");
+    try (var input = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+      if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+        return Optional.empty();
+      }
+      var records = new RecordSnapshot[input.readInt()];
+      for (var i = 0; i < records.length; i++) {
+        records[i] = readRecord(schema.getClassLoader(), records.length, input);
+      }
+      if (records.length == 0 || records[0].record != schema) {
+        return Optional.empty();
+      }
+      @SuppressWarnings("unchecked")
+      var result = (Schema<R>) new SchemaReader(lookup, records).schema(0);
+      return Optional.of(result);
+    } catch (IOException | ReflectiveOperationException | LinkageError | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  private record ComponentSnapshot(Class<?> type, String[] names, String help, int kind, int nestedIndex,
+                                   Class<?> elementType, int factory) {}
+
+  private record RecordSnapshot(Class<? extends Record> record, ComponentSnapshot[] components) {}
+
+  private static RecordSnapshot readRecord(ClassLoader loader, int recordCount, DataInputStream input)
+      throws IOException, ClassNotFoundException {
+    var record = Class.forName(input.readUTF(), false, loader);
+    // a record class without a class file can not be checked, so it is rejected
+    var fingerprint = fingerprint(record);
+    if (!record.isRecord() || input.readLong() != fingerprint || fingerprint == -1) {
+      throw new IOException("stale snapshot " + record.getName());
+    }
+    var components = new ComponentSnapshot[input.readInt()];
+    for (var i = 0; i < components.length; i++) {
+      var type = type(input.readUTF(), loader);
+      var names = new String[input.readInt()];
+      for (var j = 0; j < names.length; j++) {
+        names[j] = input.readUTF();
+      }
+      var help = input.readUTF();
+      var kind = input.readUnsignedByte();
+      if (kind == SPECIALIZED) {
+        components[i] = new ComponentSnapshot(type, names, help, kind, -1, null, -1);
+        continue;
+      }
+      var nestedIndex = input.readInt();
+      if (nestedIndex < -1 || nestedIndex >= recordCount) {
+        throw new IOException("invalid nested index " + nestedIndex);
+      }
+      var elementType = kind == IDENTITY ? null : Class.forName(input.readUTF(), false, loader);
+      var factory = kind == FACTORY ? input.readUnsignedByte() : -1;
+      if (kind > FACTORY || factory >= ConverterFactories.FACTORIES.size()) {
+        throw new IOException("invalid converter " + kind + " " + factory);
+      }
+      components[i] = new ComponentSnapshot(type, names, help, kind, nestedIndex, elementType, factory);
+    }
+    return new RecordSnapshot(record.asSubclass(Record.class), components);
+  }
+
+  private static Class<?> type(String name, ClassLoader loader) throws ClassNotFoundException {
+    return switch (name) {
+      case "boolean" -> boolean.class;
+      case "int" -> int.class;
+      case "long" -> long.class;
+      case "double" -> double.class;
+      default -> Class.forName(name, false, loader);
+    };
+  }
+
+  // creates the schemas, a nested schema used by several components is only created once
+  private static final class SchemaReader {
+    private final Lookup lookup;
+    private final RecordSnapshot[] records;
+    private final Schema<?>[] schemas;
+    private final boolean[] visiting;
+
+    private SchemaReader(Lookup lookup, RecordSnapshot[] records) {
+      this.lookup = lookup;
+      this.records = records;
+      this.schemas = new Schema<?>[records.length];
+      this.visiting = new boolean[records.length];
+    }
+
+    private Schema<?> schema(int index) throws IOException, ReflectiveOperationException {
+      if (schemas[index] != null) {
+        return schemas[index];
+      }
+      if (visiting[index]) {
+        throw new IOException("recursive schema " + records[index].record.getName());
+      }
+      visiting[index] = true;
+      var record = records[index];
+      var types = Arrays.stream(record.components).map(ComponentSnapshot::type).toArray(Class<?>[]::new);
+      // checked here because RecordSchemaSupport.constructor() reports a missing constructor as an error
+      lookup.findConstructor(record.record, methodType(void.class, types));
+      var constructor = RecordSchemaSupport.constructor(lookup, record.record, types);
+      var options = new ArrayList<Option<?>>();
+      for (var component : record.components) {
+        if (component.kind == SPECIALIZED) {
+          options.add(AbstractOption.newSpecializedOption(component.type, component.names, component.help));
+          continue;
+        }
+        var optionType = RecordSchemaSupport.optionTypeFrom(component.type);
+        var optionSchema = component.nestedIndex == -1 ? null : schema(component.nestedIndex);
+        var converter = unwrap(optionType, component.type, converter(component));
+        options.add(AbstractOption.newOption(optionType, component.names, converter, component.help, optionSchema));
+      }
+      return schemas[index] = RecordSchemaSupport.toSchema(record.record, constructor, options);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Converter<Object, ?> converter(ComponentSnapshot component) throws IOException, ReflectiveOperationException {
+      var elementType = component.elementType;
+      return switch (component.kind) {
+        case IDENTITY -> value -> value;
+        case ENUM -> {
+          if (!elementType.isEnum()) {
+            throw new IOException("stale snapshot " + elementType.getName());
+          }
+          yield value -> Enum.valueOf((Class) elementType, (String) value);
+        }
+        case FACTORY -> {
+          // the element type is not fingerprinted, a new or a removed factory method changes the one
+          // that write() would record
+          if (factory(lookup, elementType) != component.factory) {
+            throw new IOException("stale snapshot " + elementType.getName());
+          }
+          var mh = ConverterFactories.FACTORIES.get(component.factory).find(lookup, elementType);
+          yield value -> {
+            try {
+              return mh.invoke(value);
+            } catch (RuntimeException | Error e) {
+              throw e;
+            } catch (Throwable e) {
+              throw new UndeclaredThrowableException(e);
+            }
+          };
+        }
+        default -> throw new IllegalArgumentException("invalid converter " + component.kind);
+      };
+    }
+  }
+
+  // like ConverterResolver.unwrap()
+  private static Converter<Object, ?> unwrap(OptionType optionType, Class<?> type, Converter<Object, ?> converter) {
+    return switch (optionType) {
+      case BRANCH, FLAG, REQUIRED -> converter;
+      case SINGLE -> value -> ((Optional<?>) value).map(converter);
+      case REPEATABLE -> value -> ((List<?>) value).stream().map(converter).toList();
+      case VARARGS -> {
+        var componentType = type.getComponentType();
+        yield value -> Arrays.stream((Object[]) value)
+            .map(converter)
+            .toArray(size -> (Object[]) Array.newInstance(componentType, size));
+      }
+    };
+  }
+}
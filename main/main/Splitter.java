@@ -1,15 +1,22 @@
 package main;
 
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toCollection;
 
 import java.lang.invoke.MethodHandles.Lookup;
-import java.util.ArrayDeque;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -63,21 +70,48 @@ import java.util.stream.Stream;
  *   ArgumentMap argumentMap = splitter.split(args);
  * </pre>
  * This example defines the same schema as the record above but using the programmatic API.
+ * <p>
+ * The method {@link #lazy(Option[]) lazy(options...)} returns a splitter that only calls the converter
+ * of an option when its argument is requested from the {@link ArgumentMap}.
  * <p>&nbsp;
  *
  * <h2>Argument pre-processing</h2>
  * <p>The méthodes {@link #withEach(UnaryOperator)} and {@link #withExpand(Function)} allows to
  * pre-process the arguments and respectively modify an argument or expand it into several arguments.
+ * The method {@link #withArgumentFiles()} expands the arguments {@code @file} like javac does,
+ * the content of the files can be kept in an {@link ArgumentFileCache}.
+ * <p>&nbsp;
+ *
+ * <h2>Splitting incrementally</h2>
+ * <p>The method {@link #session()} returns a {@link Session} that accepts the arguments one by one,
+ * for example when the arguments are read from a socket, an invalid argument is reported as soon as
+ * it is sent.
+ * <pre>
+ *   var session = splitter.session();
+ *   session.accept("--level");
+ *   session.accept("debug");
+ *   X result = session.finish();
+ * </pre>
+ * <p>&nbsp;
+ *
+ * <h2>Splitting in bulk</h2>
+ * <p>The method {@link #splitAll(List, Execution)} splits a batch of command lines sequentially,
+ * in parallel or using virtual threads, the command lines that do not match the schema do not
+ * abort the batch, the corresponding exceptions are reported by index in the {@link Batch}.
  *
  * @param <T> the type bundling all the arguments extracted from the command line.
  */
 public final class Splitter<T> {
   private final Schema<T> schema;
-  private final UnaryOperator<Stream<String>> preprocessor;
+  private final UnaryOperator<Stream<String>> preprocessor;  // null if there is no preprocessing
+  private final boolean stackless;
+  private final long timeout;  // timeout of the blocking converters in nanoseconds, 0 if there is no timeout
 
-  private Splitter(Schema<T> schema, UnaryOperator<Stream<String>> preprocessor) {
+  private Splitter(Schema<T> schema, UnaryOperator<Stream<String>> preprocessor, boolean stackless, long timeout) {
     this.schema = schema;
     this.preprocessor = preprocessor;
+    this.stackless = stackless;
+    this.timeout = timeout;
   }
 
   /**
@@ -116,6 +150,29 @@ public final class Splitter<T> {
     return of(RecordSchemaSupport.toSchema(lookup, schema, resolver));
   }
 
+  /**
+   * Returns a splitter configured from a record class and a snapshot of its schema created by
+   * {@link SchemaSnapshot#write(Lookup, Class)}, so the record class is not scanned at startup.
+   * If the snapshot can not be used, because the record class or the conversion functions have changed,
+   * the schema is created from the record class using the {@link ConverterResolver#defaultResolver() default resolver}.
+   *
+   * @param lookup a lookup object.
+   * @param schema a record class defining the schema.
+   * @param snapshot a snapshot of the schema of the record class.
+   * @return a splitter configured from a record class.
+   * @throws IllegalArgumentException if the record is not a valid schema.
+   *
+   * @param <R> the type of the record.
+   * @see SchemaSnapshot
+   */
+  public static <R extends Record> Splitter<R> ofSnapshot(Lookup lookup, Class<R> schema, byte[] snapshot) {
+    requireNonNull(schema, "schema is null");
+    requireNonNull(lookup, "lookup is null");
+    requireNonNull(snapshot, "snapshot is null");
+    return of(SchemaSnapshot.read(lookup, schema, snapshot)
+        .orElseGet(() -> RecordSchemaSupport.toSchema(lookup, schema, ConverterResolver.defaultResolver())));
+  }
+
   /**
    * Returns a splitter configured from the options.
    * The result of the method {@link #split(Stream)} is an instance of {@link ArgumentMap}.
@@ -125,7 +182,23 @@ public final class Splitter<T> {
    */
   public static Splitter<ArgumentMap> of(Option<?>... options)  {
     requireNonNull(options, "options is null");
-    return of(ArgumentMap.toSchema(options));
+    return of(ArgumentMap.toSchema(false, options));
+  }
+
+  /**
+   * Returns a splitter configured from the options that creates lazy argument maps.
+   * The result of the method {@link #split(Stream)} is an instance of {@link ArgumentMap},
+   * the converter of an option is only called when its argument is requested,
+   * use {@link ArgumentMap#validateAll()} to convert all the arguments at once.
+   *
+   * @param options the options defining the schema.
+   * @return a splitter configured from the options that creates lazy argument maps.
+   *
+   * @see #of(Option[])
+   */
+  public static Splitter<ArgumentMap> lazy(Option<?>... options)  {
+    requireNonNull(options, "options is null");
+    return of(ArgumentMap.toSchema(true, options));
   }
 
   /**
@@ -138,7 +211,7 @@ public final class Splitter<T> {
    */
   public static <T> Splitter<T> of(Schema<T> schema) {
     Objects.requireNonNull(schema, "schema is null");
-    return new Splitter<>(schema, args -> args);
+    return new Splitter<>(schema, null, false, 0);
   }
 
   /**
@@ -159,7 +232,8 @@ public final class Splitter<T> {
    */
   public T split(Stream<String> args) {
     requireNonNull(args, "args is null");
-    return schema.split(false, preprocessor.apply(args).collect(toCollection(ArrayDeque::new)));
+    var arguments = preprocess(args).toArray(String[]::new);
+    return schema.split(new ArgumentCursor(arguments, 0, arguments.length), stackless, timeout);
   }
 
   /**
@@ -170,13 +244,43 @@ public final class Splitter<T> {
    *   split(Arrays.stream(args))
    * </pre>
    *
+   * <p>If no pre-processing is configured, the arguments are read directly from the array
+   * without being copied.
+   *
    * @param args the command line arguments.
    * @return an object gathering the values of the arguments.
    * @throws SplittingException if the arguments does not match the schema.
    */
   public T split(String... args) {
     requireNonNull(args, "args is null");
-    return split(Arrays.stream(args));
+    return split(args, 0, args.length);
+  }
+
+  /**
+   * Splits the command line argument between the index {@code from} (inclusive) and the index {@code to}
+   * (exclusive) into different values following the recipe of the {@link Schema} used to create this splitter.
+   * This is a convenient method equivalent to
+   * <pre>
+   *   split(Arrays.stream(args, from, to))
+   * </pre>
+   *
+   * <p>If no pre-processing is configured, the arguments are read directly from the array
+   * without being copied, so the array should not be modified during the call.
+   *
+   * @param args the command line arguments.
+   * @param from the index of the first argument.
+   * @param to the index after the last argument.
+   * @return an object gathering the values of the arguments.
+   * @throws IndexOutOfBoundsException if the range is out of the bounds of the array.
+   * @throws SplittingException if the arguments does not match the schema.
+   */
+  public T split(String[] args, int from, int to) {
+    requireNonNull(args, "args is null");
+    Objects.checkFromToIndex(from, to, args.length);
+    if (preprocessor != null) {
+      return split(Arrays.stream(args, from, to));
+    }
+    return schema.split(new ArgumentCursor(args, from, to), stackless, timeout);
   }
 
   /**
@@ -187,13 +291,370 @@ public final class Splitter<T> {
    *   split(args.stream())
    * </pre>
    *
+   * <p>If no pre-processing is configured, the arguments are copied at once into an array.
+   *
    * @param args the command line arguments.
    * @return an object gathering the values of the arguments.
    * @throws SplittingException if the arguments does not match the schema.
    */
   public T split(List<String> args) {
     requireNonNull(args, "args is null");
-    return split(args.stream());
+    if (preprocessor != null) {
+      return split(args.stream());
+    }
+    var arguments = args.toArray(String[]::new);
+    return schema.split(new ArgumentCursor(arguments, 0, arguments.length), stackless, timeout);
+  }
+
+  /**
+   * A session that splits the arguments of one command line sent one by one.
+   * <p>
+   * The state of the split, the required options already seen, the nested options being split
+   * and the double dash mode, are kept between two calls to {@link #accept(String)},
+   * so an argument that does not match the schema is reported as soon as it is accepted.
+   * Some errors like a missing required option can only be reported by {@link #finish()}.
+   * <p>
+   * Once an exception is thrown or once {@link #finish()} is called, the session can not be used anymore.
+   * This class is not thread safe.
+   *
+   * @param <T> the type bundling all the arguments extracted from the command line.
+   * @see Splitter#session()
+   */
+  public static final class Session<T> {
+    private final Schema<T> schema;
+    private final Schema.Parser<T> parser;
+    private final UnaryOperator<Stream<String>> preprocessor;  // null if there is no preprocessing
+    private final boolean stackless;
+    private final JfrEvents.SplitEvent event;  // started when the session is created
+    private int position;  // index of the next argument
+    private boolean done;
+    private ArrayList<String> varargs;  // null if the arguments are not globbed by the varargs option yet
+
+    private Session(Schema<T> schema, Schema.Parser<T> parser, UnaryOperator<Stream<String>> preprocessor,
+                    boolean stackless) {
+      this.schema = schema;
+      this.parser = parser;
+      this.preprocessor = preprocessor;
+      this.stackless = stackless;
+      this.event = new JfrEvents.SplitEvent();
+      event.begin();
+    }
+
+    // the session can not be used anymore, the split event is committed like by Splitter.split()
+    private void fail(Throwable e) {
+      done = true;
+      schema.commitSplitEvent(event, null, position, e instanceof SplittingException splittingException
+          ? splittingException.kind().name() : "FAILED");
+    }
+
+    private void checkNotDone() {
+      if (done) {
+        throw new IllegalStateException("session already finished or failed");
+      }
+    }
+
+    /**
+     * Sends the next argument of the command line to the session.
+     * If a pre-processing is configured, it is applied to the argument.
+     *
+     * @param argument the next argument.
+     * @throws SplittingException if the argument does not match the schema.
+     * @throws IllegalStateException if the session is finished or has failed.
+     */
+    public void accept(String argument) {
+      requireNonNull(argument, "argument is null");
+      checkNotDone();
+      try {
+        if (preprocessor == null) {
+          acceptArgument(argument);
+        } else {
+          preprocessor.apply(Stream.of(argument)).forEach(this::acceptArgument);
+        }
+      } catch (RuntimeException | Error e) {
+        fail(e);
+        throw e;
+      }
+    }
+
+    private void acceptArgument(String argument) {
+      requireNonNull(argument, "one argument is null");
+      if (varargs != null) {
+        varargs.add(argument);
+        position++;
+        return;
+      }
+      var status = parser.accept(argument);
+      if (status == Schema.Parser.ACCEPTED) {
+        position++;
+        return;
+      }
+      if (status == Schema.Parser.VARARGS) {
+        // the arguments are sent to the parser all at once by finish(), like Splitter.split()
+        varargs = new ArrayList<>();
+        varargs.add(argument);
+        position++;
+        return;
+      }
+      throw SplittingException.rejected(Schema.Parser.rejection(status), position, List.of(argument), 1, stackless);
+    }
+
+    /**
+     * Ends the command line and returns the object gathering the values of the arguments.
+     *
+     * @return an object gathering the values of the arguments.
+     * @throws SplittingException if the arguments does not match the schema.
+     * @throws IllegalStateException if the session is finished or has failed.
+     */
+    public T finish() {
+      checkNotDone();
+      T value;
+      try {
+        if (varargs != null) {
+          parser.varargs(varargs.toArray(String[]::new));
+        }
+        value = parser.finish();
+      } catch (RuntimeException | Error e) {
+        fail(e);
+        throw e;
+      }
+      done = true;
+      schema.commitSplitEvent(event, value, position, "ACCEPTED");
+      return value;
+    }
+  }
+
+  /**
+   * Returns a new session to split the arguments of a command line sent one by one.
+   *
+   * @return a new session to split the arguments of a command line sent one by one.
+   */
+  public Session<T> session() {
+    return new Session<>(schema, new Schema.Parser<>(schema, stackless, timeout), preprocessor, stackless);
+  }
+
+  /**
+   * The strategy used by {@link #splitAll(List, Execution)} to split a batch of command lines.
+   */
+  public enum Execution {
+    /**
+     * The command lines are split one after the other by the calling thread.
+     */
+    SEQUENTIAL,
+    /**
+     * The command lines are split in parallel by the common fork-join pool,
+     * this is the strategy of choice if the converters are CPU-bound.
+     */
+    PARALLEL,
+    /**
+     * Each command line is split by its own virtual thread,
+     * this is the strategy of choice if the converters do blocking I/O.
+     */
+    VIRTUAL_THREADS
+  }
+
+  /**
+   * The results of {@link #splitAll(List, Execution)}, the value or the exception
+   * of each command line of a batch, in the order of the batch.
+   *
+   * @param <T> the type bundling all the arguments extracted from a command line.
+   */
+  public static final class Batch<T> {
+    private final List<T> values;
+    private final SortedMap<Integer, SplittingException> errors;
+
+    private Batch(T[] values, SplittingException[] errors) {
+      var errorMap = new TreeMap<Integer, SplittingException>();
+      for (var i = 0; i < errors.length; i++) {
+        if (errors[i] != null) {
+          errorMap.put(i, errors[i]);
+        }
+      }
+      this.values = Collections.unmodifiableList(Arrays.asList(values));
+      this.errors = Collections.unmodifiableSortedMap(errorMap);
+    }
+
+    /**
+     * Returns the number of command lines of the batch.
+     * @return the number of command lines of the batch.
+     */
+    public int size() {
+      return values.size();
+    }
+
+    /**
+     * Returns the value of each command line, the value of a command line that fails to split is null.
+     * @return an unmodifiable list of the values of the command lines.
+     */
+    public List<T> values() {
+      return values;
+    }
+
+    /**
+     * Returns the exception of each command line that fails to split by index.
+     * @return an unmodifiable map of the exceptions sorted by index.
+     */
+    public SortedMap<Integer, SplittingException> errors() {
+      return errors;
+    }
+
+    /**
+     * Returns the value of the command line at {@code index}.
+     *
+     * @param index the index of the command line in the batch.
+     * @return the value of the command line at {@code index}.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     * @throws SplittingException the exception raised when splitting that command line.
+     */
+    public T value(int index) {
+      Objects.checkIndex(index, values.size());
+      var error = errors.get(index);
+      if (error != null) {
+        throw error;
+      }
+      return values.get(index);
+    }
+
+    @Override
+    public String toString() {
+      return "Batch[size=" + values.size() + ", errors=" + errors.keySet() + "]";
+    }
+  }
+
+  /**
+   * Splits a batch of command lines sequentially.
+   * This is a convenient method equivalent to
+   * <pre>
+   *   splitAll(commandLines, Execution.SEQUENTIAL)
+   * </pre>
+   *
+   * @param commandLines the command lines to split.
+   * @return the value or the exception of each command line.
+   *
+   * @see #splitAll(List, Execution)
+   */
+  public Batch<T> splitAll(List<String[]> commandLines) {
+    return splitAll(commandLines, Execution.SEQUENTIAL);
+  }
+
+  /**
+   * Splits a batch of command lines using an execution strategy.
+   * <p>
+   * Each command line is split as by {@link #split(String...)}, a command line that does not match
+   * the schema does not abort the batch, its {@link SplittingException} is reported at its index
+   * by {@link Batch#errors()}. Any other exception, for example if an argument is null, aborts the batch.
+   * <p>
+   * A splitter is immutable so all the workers share the same splitter,
+   * the command lines should not be modified until this method returns.
+   *
+   * @param commandLines the command lines to split.
+   * @param execution the execution strategy.
+   * @return the value or the exception of each command line.
+   * @throws NullPointerException if one command line is null.
+   */
+  public Batch<T> splitAll(List<String[]> commandLines, Execution execution) {
+    requireNonNull(commandLines, "commandLines is null");
+    requireNonNull(execution, "execution is null");
+    var batch = commandLines.toArray(String[][]::new);
+    for (var commandLine : batch) {
+      requireNonNull(commandLine, "one command line is null");
+    }
+    @SuppressWarnings("unchecked")
+    var values = (T[]) new Object[batch.length];
+    var errors = new SplittingException[batch.length];
+    switch (execution) {
+      case SEQUENTIAL -> {
+        for (var i = 0; i < batch.length; i++) {
+          splitAt(batch, i, values, errors);
+        }
+      }
+      case PARALLEL -> IntStream.range(0, batch.length).parallel().forEach(i -> splitAt(batch, i, values, errors));
+      case VIRTUAL_THREADS -> {
+        var failure = new AtomicReference<Throwable>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+          for (var i = 0; i < batch.length; i++) {
+            var index = i;
+            executor.execute(() -> {
+              try {
+                splitAt(batch, index, values, errors);
+              } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+              }
+            });
+          }
+        }
+        var e = failure.get();
+        if (e instanceof RuntimeException runtimeException) {
+          throw runtimeException;
+        }
+        if (e instanceof Error error) {
+          throw error;
+        }
+        if (e != null) {
+          throw new UndeclaredThrowableException(e);
+        }
+      }
+    }
+    // the executions above all happen-before this point, each slot is written by one worker
+    return new Batch<>(values, errors);
+  }
+
+  private void splitAt(String[][] batch, int index, T[] values, SplittingException[] errors) {
+    try {
+      values[index] = split(batch[index]);
+    } catch (SplittingException e) {
+      errors[index] = e;
+    }
+  }
+
+  private Stream<String> preprocess(Stream<String> args) {
+    return preprocessor == null ? args : preprocessor.apply(args);
+  }
+
+  /**
+   * Returns a splitter that raises lightweight exceptions.
+   * <p>
+   * The {@link SplittingException}s raised by the returned splitter have no stack trace,
+   * the kind of error, the index of the offending argument and the option involved are available
+   * as structured data, so rejecting an invalid command line costs about the same as accepting a valid one.
+   * This is useful when a lot of command lines are invalid, for example in a server.
+   *
+   * @return a splitter that raises exceptions without stack trace.
+   *
+   * @see SplittingException#kind()
+   */
+  public Splitter<T> withLightweightErrors() {
+    return new Splitter<>(schema, preprocessor, true, timeout);
+  }
+
+  /**
+   * Returns a splitter that waits at most {@code timeout} for the {@link Converter.Blocking blocking converters}
+   * of a split.
+   * <p>
+   * The blocking converters of a schema are called concurrently on virtual threads,
+   * the timeout starts when the split starts and is shared by all the schemas of a split,
+   * the nested schemas included. If the timeout elapses, the remaining blocking conversions are
+   * interrupted and a {@link SplittingException} of kind {@link SplittingException.Kind#CONVERTER_FAILURE}
+   * is raised with a {@link java.util.concurrent.TimeoutException} as cause once they are stopped.
+   * Without a timeout, the splitter waits for all the blocking converters.
+   *
+   * @param timeout the maximum time to wait for the blocking converters of a split.
+   * @return a splitter that waits at most {@code timeout} for the blocking converters.
+   * @throws IllegalArgumentException if the timeout is not positive.
+   *
+   * @see Converter#blocking(Converter)
+   */
+  public Splitter<T> withConversionTimeout(Duration timeout) {
+    requireNonNull(timeout, "timeout is null");
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("timeout is not positive " + timeout);
+    }
+    long nanos;
+    try {
+      nanos = timeout.toNanos();
+    } catch (ArithmeticException e) {
+      nanos = Long.MAX_VALUE;
+    }
+    return new Splitter<>(schema, preprocessor, stackless, nanos);
   }
 
   /*
@@ -211,7 +672,7 @@ public final class Splitter<T> {
    */
   public Splitter<T> withEach(UnaryOperator<String> preprocessor) {
     requireNonNull(preprocessor, "preprocessor is null");
-    return new Splitter<>(schema, args -> this.preprocessor.apply(args).map(preprocessor));
+    return new Splitter<>(schema, args -> preprocess(args).map(preprocessor), stackless, timeout);
   }
 
   /**
@@ -225,6 +686,45 @@ public final class Splitter<T> {
    */
   public Splitter<T> withExpand(Function<? super String, ? extends Stream<String>> preprocessor) {
     requireNonNull(preprocessor, "preprocessor is null");
-    return new Splitter<>(schema, args -> this.preprocessor.apply(args).flatMap(preprocessor));
+    return new Splitter<>(schema, args -> preprocess(args).flatMap(preprocessor), stackless, timeout);
+  }
+
+  /**
+   * Returns a splitter that will replace each argument {@code @file} by the arguments contained in the file
+   * when {@link #split(Stream)} is called.
+   * <p>
+   * The syntax of the file is the one of javac, the arguments are separated by white spaces,
+   * a {@code #} at the beginning of an argument starts a comment until the end of the line,
+   * the single or double quotes group white spaces into one argument, and inside quotes
+   * the backslash introduces an escape sequence ({@code \n}, {@code \t}, etc) or joins the next line.
+   * An argument {@code @@arg} is replaced by {@code @arg} without reading a file.
+   * Unlike javac, an argument {@code @file} inside a file is also expanded, up to 16 nested files.
+   * <p>
+   * The file is memory mapped and the arguments are decoded from UTF-8 directly from the mapped bytes,
+   * so large argument files are not loaded in memory as lines.
+   * A file that can not be read, an unmatched quote or too many nested files raise a {@link SplittingException}.
+   *
+   * @return a splitter that will expand the argument files.
+   *
+   * @see #withExpand(Function)
+   * @see #withArgumentFiles(ArgumentFileCache)
+   */
+  public Splitter<T> withArgumentFiles() {
+    return withExpand(argument -> ArgumentFiles.expand(argument, null));
+  }
+
+  /**
+   * Returns a splitter that will replace each argument {@code @file} by the arguments contained in the file
+   * using a cache, so an argument file that has not changed is not read again.
+   * The syntax of the file is the same as {@link #withArgumentFiles()}.
+   *
+   * @param cache the cache of the argument files.
+   * @return a splitter that will expand the argument files using the cache.
+   *
+   * @see ArgumentFileCache
+   */
+  public Splitter<T> withArgumentFiles(ArgumentFileCache cache) {
+    requireNonNull(cache, "cache is null");
+    return withExpand(argument -> ArgumentFiles.expand(argument, cache));
   }
 }
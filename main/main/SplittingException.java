@@ -1,10 +1,21 @@
 package main;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serial;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
  * Exception that occurs when splitting the arguments.
+ * <p>
+ * An exception raised by a {@link Splitter} carries structured data, the {@link #kind() kind} of error,
+ * the {@link #index() index} of the offending argument and the {@link #option() option} involved.
+ * The message is only computed when requested, at most 10 arguments are listed in the message
+ * and each argument is truncated to 80 characters.
+ * <p>
+ * A splitter configured with {@link Splitter#withLightweightErrors()} raises exceptions without stack trace,
+ * so rejecting a command line is as cheap as accepting it.
  *
  * @see Splitter#split(Stream)
  */
@@ -12,6 +23,47 @@ public final class SplittingException extends RuntimeException {
 
   @Serial private static final long serialVersionUID = 6958903301611893552L;
 
+  private static final int MAX_ARGUMENTS = 10;
+  private static final int MAX_ARGUMENT_LENGTH = 80;
+
+  /**
+   * The kind of error that occurs when splitting the arguments.
+   */
+  public enum Kind {
+    /**
+     * No option accepts an argument.
+     */
+    UNHANDLED_ARGUMENTS,
+    /**
+     * An argument follows a branch option that already consumed all the arguments.
+     */
+    TOO_MANY_ARGUMENTS,
+    /**
+     * An option is at the end of the command line without its value.
+     */
+    MISSING_VALUE,
+    /**
+     * At least one required option is missing.
+     */
+    MISSING_REQUIRED,
+    /**
+     * The converter of an option fails, the exception of the converter is the cause.
+     */
+    CONVERTER_FAILURE,
+    /**
+     * The exception was created with a message, there is no structured data.
+     */
+    OTHER
+  }
+
+  private final Kind kind;
+  private final int index;
+  private final int elementIndex;
+  private final transient Option<?> option;
+  private final transient List<?> arguments;  // the offending arguments or the missing options
+  private final int argumentCount;
+  private String message;  // lazily computed by getMessage()
+
   /**
    * Creates a splitting exception with a message and a cause.
    *
@@ -20,6 +72,13 @@ public final class SplittingException extends RuntimeException {
    */
   public SplittingException(String message, Throwable cause) {
     super(message, cause);
+    this.kind = Kind.OTHER;
+    this.index = -1;
+    this.elementIndex = -1;
+    this.option = null;
+    this.arguments = List.of();
+    this.argumentCount = 0;
+    this.message = message;
   }
 
   /**
@@ -28,7 +87,7 @@ public final class SplittingException extends RuntimeException {
    * @param message a message.
    */
   public SplittingException(String message) {
-    super(message);
+    this(message, null);
   }
 
   /**
@@ -37,6 +96,122 @@ public final class SplittingException extends RuntimeException {
    * @param cause a cause.
    */
   public SplittingException(Throwable cause) {
-    super(cause);
+    this(cause == null ? null : cause.toString(), cause);
+  }
+
+  private SplittingException(Kind kind, int index, int elementIndex, Option<?> option, List<?> arguments,
+                             int argumentCount, Throwable cause, boolean stackless) {
+    super(null, cause, !stackless, !stackless);
+    this.kind = kind;
+    this.index = index;
+    this.elementIndex = elementIndex;
+    this.option = option;
+    this.arguments = arguments;
+    this.argumentCount = argumentCount;
+  }
+
+  /**
+   * Creates an exception for arguments that are not accepted.
+   *
+   * @param kind {@link Kind#UNHANDLED_ARGUMENTS} or {@link Kind#TOO_MANY_ARGUMENTS}.
+   * @param index the index of the first argument not accepted.
+   * @param arguments the first arguments not accepted, only the first ten are used by the message.
+   * @param argumentCount the number of arguments not accepted.
+   * @param stackless true if the stack trace is not filled.
+   */
+  static SplittingException rejected(Kind kind, int index, List<String> arguments, int argumentCount, boolean stackless) {
+    return new SplittingException(kind, index, -1, null, arguments, argumentCount, null, stackless);
+  }
+
+  static SplittingException missingValue(Option<?> option, boolean stackless) {
+    return new SplittingException(Kind.MISSING_VALUE, -1, -1, option, List.of(), 0, null, stackless);
+  }
+
+  static SplittingException missingRequired(List<Option<?>> options, boolean stackless) {
+    return new SplittingException(Kind.MISSING_REQUIRED, -1, -1, options.get(0), options, options.size(), null, stackless);
+  }
+
+  static SplittingException converterFailure(Option<?> option, Exception cause, boolean stackless) {
+    if (cause instanceof ParallelConversion.ElementFailure elementFailure) {
+      return new SplittingException(Kind.CONVERTER_FAILURE, -1, elementFailure.index, option, List.of(), 0,
+          elementFailure.getCause(), stackless);
+    }
+    return new SplittingException(Kind.CONVERTER_FAILURE, -1, -1, option, List.of(), 0, cause, stackless);
+  }
+
+  /**
+   * Returns the kind of error.
+   * @return the kind of error, {@link Kind#OTHER} if the exception was created with a message.
+   */
+  public Kind kind() {
+    return kind;
+  }
+
+  /**
+   * Returns the index in the command line of the first argument not accepted.
+   * @return the index of the offending argument or -1 if the error is not related to an argument.
+   */
+  public int index() {
+    return index;
+  }
+
+  /**
+   * Returns the index of the first value of a repeatable or a varargs option that the converter fails to convert,
+   * only available if the option is converted using a {@link ParallelConversion}.
+   * @return the index of the value in the option or -1 if the error is not related to a value of the option.
+   */
+  public int elementIndex() {
+    return elementIndex;
+  }
+
+  /**
+   * Returns the option involved in the error, the first missing option if several required options are missing.
+   * @return the option involved in the error or null if the error is not related to an option.
+   */
+  public Option<?> option() {
+    return option;
+  }
+
+  @Override
+  public String getMessage() {
+    var message = this.message;
+    if (message == null) {
+      this.message = message = switch (kind) {
+        case UNHANDLED_ARGUMENTS -> "Unhandled arguments: " + truncate(arguments, argumentCount);
+        case TOO_MANY_ARGUMENTS -> "Too many arguments: " + truncate(arguments, argumentCount);
+        case MISSING_VALUE -> "no argument available for option " + option;
+        case MISSING_REQUIRED -> "Required option(s) missing: " + truncate(arguments, argumentCount);
+        case CONVERTER_FAILURE -> "error while calling converter for option " + option
+            + (elementIndex == -1 ? "" : " at index " + elementIndex);
+        case OTHER -> null;
+      };
+    }
+    return message;
+  }
+
+  private static String truncate(List<?> elements, int count) {
+    var builder = new StringBuilder("[");
+    var size = Math.min(elements.size(), MAX_ARGUMENTS);
+    for (var i = 0; i < size; i++) {
+      if (i != 0) {
+        builder.append(", ");
+      }
+      var element = String.valueOf(elements.get(i));
+      if (element.length() > MAX_ARGUMENT_LENGTH) {
+        builder.append(element, 0, MAX_ARGUMENT_LENGTH).append("...");
+      } else {
+        builder.append(element);
+      }
+    }
+    if (count > size) {
+      builder.append(", ... (").append(count - size).append(" more)");
+    }
+    return builder.append(']').toString();
+  }
+
+  @Serial
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    getMessage();  // the structured data are not serialized, so the message is computed first
+    out.defaultWriteObject();
   }
 }
@@ -0,0 +1,135 @@
+package main.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * The static methods and the constructor that convert a String to a value type, in the order they are tried.
+ * <p>
+ * This table is shared by {@code ConverterResolver.reflected()}, by {@code SchemaSnapshot} that records
+ * a factory by its index and by the annotation processor of the module {@code processor}
+ * that generates a reference to the factory.
+ * This package is only exported to the module {@code processor}, it is not part of the API.
+ */
+public final class ConverterFactories {
+  private ConverterFactories() {
+    throw new AssertionError();
+  }
+
+  /**
+   * A factory, a static method or a constructor (named {@code <init>}) with the value type as return type.
+   *
+   * @param index the index of the factory in {@link #FACTORIES}.
+   * @param name the name of the static method or {@code <init>}.
+   * @param parameterTypes the parameter types.
+   * @param varargs true if the static method must be a varargs method.
+   */
+  public record Factory(int index, String name, List<Class<?>> parameterTypes, boolean varargs) {
+    /**
+     * Returns true if the factory is the constructor.
+     * @return true if the factory is the constructor.
+     */
+    public boolean isConstructor() {
+      return name.equals("<init>");
+    }
+
+    /**
+     * Returns the method type of the factory for a value type.
+     * @param type the value type.
+     * @return the method type of the factory.
+     */
+    public MethodType methodType(Class<?> type) {
+      return MethodType.methodType(isConstructor() ? void.class : type, parameterTypes);
+    }
+
+    /**
+     * Finds the factory of a value type.
+     * @param lookup the lookup used to find the factory.
+     * @param type the value type.
+     * @return a method handle on the factory.
+     * @throws NoSuchMethodException if the factory does not exist.
+     * @throws IllegalAccessException if the factory is not accessible from the lookup.
+     */
+    public MethodHandle find(Lookup lookup, Class<?> type) throws NoSuchMethodException, IllegalAccessException {
+      return isConstructor() ?
+          lookup.findConstructor(type, methodType(type)) :
+          lookup.findStatic(type, name, methodType(type));
+    }
+  }
+
+  /**
+   * All the factories in lookup order, the constructor is the last one and is only used if
+   * it is public and the value type is not a record.
+   */
+  public static final List<Factory> FACTORIES = List.of(
+      new Factory(0, "valueOf", List.of(String.class), false),
+      new Factory(1, "of", List.of(String.class), false),
+      // we only allow X.of(String, String...) with a varargs, not X.of(String, String[])
+      new Factory(2, "of", List.of(String.class, String[].class), true),
+      new Factory(3, "parse", List.of(String.class), false),
+      new Factory(4, "parse", List.of(CharSequence.class), false),
+      new Factory(5, "<init>", List.of(String.class), false));
+
+  private static final Factory NEW = FACTORIES.getLast();
+
+  private static final ClassValue<List<Factory>> FACTORIES_BY_TYPE = new ClassValue<>() {
+    @Override
+    protected List<Factory> computeValue(Class<?> type) {
+      return scan(type);
+    }
+  };
+
+  /**
+   * Returns the factories that exist on a value type in lookup order.
+   * The type is scanned once, the result is cached per class, only the access check depends on the lookup.
+   *
+   * @param type the value type.
+   * @return the factories that exist on a value type.
+   */
+  public static List<Factory> factories(Class<?> type) {
+    return FACTORIES_BY_TYPE.get(type);
+  }
+
+  // one pass on the declared methods, no exception thrown if a factory does not exist
+  private static List<Factory> scan(Class<?> type) {
+    var factories = new Factory[FACTORIES.size()];
+    // like findStatic, the static methods of the super classes are visible
+    for (var clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+      for (var method : clazz.getDeclaredMethods()) {
+        if (!Modifier.isStatic(method.getModifiers()) || method.getReturnType() != type) {
+          continue;
+        }
+        var index = index(method.getName(), method.getParameterTypes(), method.isVarArgs());
+        if (index != -1 && factories[index] == null) {
+          factories[index] = FACTORIES.get(index);
+        }
+      }
+    }
+    if (!type.isRecord()) {  // the canonical constructor of a record is not a conversion
+      for (var constructor : type.getConstructors()) {
+        if (Arrays.asList(constructor.getParameterTypes()).equals(NEW.parameterTypes)) {
+          factories[NEW.index] = NEW;
+        }
+      }
+    }
+    return Arrays.stream(factories).filter(Objects::nonNull).toList();
+  }
+
+  // the index of the static factory with that signature or -1
+  private static int index(String name, Class<?>[] parameterTypes, boolean varargs) {
+    var parameters = Arrays.asList(parameterTypes);
+    return IntStream.range(0, NEW.index)
+        .filter(i -> {
+          var factory = FACTORIES.get(i);
+          return factory.name.equals(name) && factory.parameterTypes.equals(parameters) && (!factory.varargs || varargs);
+        })
+        .findFirst()
+        .orElse(-1);
+  }
+}
@@ -1,3 +1,7 @@
 module main {
+  requires jdk.jfr;
+
   exports main;
+  // the table of the converter factories is shared with the annotation processor
+  exports main.internal to processor;
 }
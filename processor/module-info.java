@@ -0,0 +1,8 @@
+module processor {
+  requires main;
+  requires transitive java.compiler;
+
+  exports processor;
+
+  provides javax.annotation.processing.Processor with processor.RecordSchemaProcessor;
+}
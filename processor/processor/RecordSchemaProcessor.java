@@ -0,0 +1,404 @@
+package processor;
+
+import main.ConverterResolver;
+import main.GenerateSchema;
+import main.Option;
+import main.Schema;
+import main.Splitter;
+import main.internal.ConverterFactories;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import static javax.lang.model.element.Modifier.ABSTRACT;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * An annotation processor that generates, for each record annotated with {@link GenerateSchema},
+ * a class with a method {@code schema()} that creates the same {@link Schema} as {@link Splitter#of(Lookup, Class)}
+ * without reflection.
+ * <p>
+ * The generated code uses the {@link Option} API, the conversion functions are method references
+ * to the functions the {@link ConverterResolver#defaultResolver() default resolver} would find,
+ * and the record is created by calling its canonical constructor directly.
+ * So at startup, there is no scan of the record components, of their annotations
+ * and of the types for the conversion functions.
+ * <p>
+ * The processor is declared as a service by the module {@code processor}, so the module {@code main}
+ * does not depend on the module {@code java.compiler} at runtime,
+ * javac finds it on the processor path or on the processor module path
+ * <pre>
+ *   javac --processor-module-path path/to/main:path/to/processor --module-path path/to/main ...
+ * </pre>
+ * A record component with a type that has no conversion function known by the default resolver
+ * is reported as a compile error.
+ */
+public final class RecordSchemaProcessor extends AbstractProcessor {
+  /**
+   * Creates an annotation processor, called by javac.
+   */
+  public RecordSchemaProcessor() {}
+
+  private static final class GenerationException extends Exception {
+    @Serial private static final long serialVersionUID = 4625113872350719406L;
+
+    private final transient Element element;
+
+    private GenerationException(String message, Element element) {
+      super(message, null, false, false);
+      this.element = element;
+    }
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Set.of(GenerateSchema.class.getCanonicalName());
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    var messager = processingEnv.getMessager();
+    for (var element : roundEnv.getElementsAnnotatedWith(GenerateSchema.class)) {
+      if (element.getKind() != ElementKind.RECORD) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "@GenerateSchema is only allowed on a record", element);
+        continue;
+      }
+      try {
+        generate((TypeElement) element);
+      } catch (GenerationException e) {
+        messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+      } catch (IOException e) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "error while writing the schema " + e.getMessage(), element);
+      }
+    }
+    return true;
+  }
+
+  private void generate(TypeElement record) throws GenerationException, IOException {
+    var isPublic = true;
+    var simpleNames = new ArrayList<String>();
+    for (Element element = record; element.getKind().isClass() || element.getKind().isInterface(); element = element.getEnclosingElement()) {
+      if (element.getModifiers().contains(PRIVATE)) {
+        throw new GenerationException("@GenerateSchema is not allowed on a private record", record);
+      }
+      isPublic &= element.getModifiers().contains(PUBLIC);
+      simpleNames.add(0, element.getSimpleName().toString());
+    }
+    var packageName = processingEnv.getElementUtils().getPackageOf(record).getQualifiedName().toString();
+    var className = String.join("_", simpleNames) + "Schema";
+    var generator = new Generator(packageName);
+    var schema = generator.schema(record);
+
+    var file = processingEnv.getFiler().createSourceFile(
+        packageName.isEmpty() ? className : packageName + '.' + className, record);
+    try (var writer = file.openWriter()) {
+      writer.write("""
+          %s// generated by %s from %s
+
+          /**
+           * Creates the schema of {@link %s} without reflection.
+           */
+          %sfinal class %s {
+            private %s() {
+              throw new AssertionError();
+            }
+
+            /**
+             * Returns a new schema of {@link %s}.
+             * @return a new schema of {@link %s}.
+             */
+            @SuppressWarnings("unchecked")
+            public static %s<%s> schema() {
+          %s    return %s;
+            }
+          }
+          """.formatted(
+              packageName.isEmpty() ? "" : "package " + packageName + ";\n\n",
+              RecordSchemaProcessor.class.getSimpleName(), record.getQualifiedName(),
+              record.getQualifiedName(),
+              isPublic ? "public " : "", className,
+              className,
+              record.getQualifiedName(), record.getQualifiedName(),
+              Schema.class.getCanonicalName(), record.getQualifiedName(),
+              generator.declarations, schema));
+    }
+  }
+
+  private final class Generator {
+    private final String packageName;
+    private final StringBuilder declarations = new StringBuilder();  // the nested schemas
+    private final IdentityHashMap<TypeElement, String> schemaNames = new IdentityHashMap<>();
+    private final HashSet<TypeElement> visiting = new HashSet<>();
+
+    private Generator(String packageName) {
+      this.packageName = packageName;
+    }
+
+    // returns the expression that creates the schema of a record
+    private String schema(TypeElement record) throws GenerationException {
+      if (!visiting.add(record)) {
+        throw new GenerationException("recursive schema " + record.getQualifiedName(), record);
+      }
+      var components = record.getRecordComponents();
+      var options = new ArrayList<String>();
+      for (var component : components) {
+        options.add(option(component));
+      }
+      var arguments = new ArrayList<String>();
+      for (var i = 0; i < components.size(); i++) {
+        arguments.add("(" + components.get(i).asType() + ") values.get(" + i + ")");
+      }
+      visiting.remove(record);
+      return "new %s<%s>(%s.<%s<?>>of(\n%s),\n        values -> new %s(\n%s))".formatted(
+          Schema.class.getCanonicalName(), record.getQualifiedName(),
+          List.class.getName(), Option.class.getCanonicalName(),
+          options.stream().map(option -> "            " + option).collect(Collectors.joining(",\n")),
+          record.getQualifiedName(),
+          arguments.stream().map(argument -> "            " + argument).collect(Collectors.joining(",\n")));
+    }
+
+    // returns the name of the variable that contains the schema of a nested record
+    private String nestedSchema(TypeElement record) throws GenerationException {
+      var name = schemaNames.get(record);
+      if (name != null) {
+        return name;
+      }
+      var schema = schema(record);
+      name = "schema" + schemaNames.size();
+      schemaNames.put(record, name);
+      declarations.append("    var ").append(name).append(" = ").append(schema).append(";\n");
+      return name;
+    }
+
+    private String option(RecordComponentElement component) throws GenerationException {
+      var names = annotationValues(component, "Name");
+      if (names == null) {
+        names = List.of(component.getSimpleName().toString().replace('_', '-'));
+      }
+      var nameList = names.stream()
+          .map(processingEnv.getElementUtils()::getConstantExpression)
+          .collect(Collectors.joining(", "));
+      var helpValues = annotationValues(component, "Help");
+      var help = helpValues == null
+          ? ""
+          : ".help(" + processingEnv.getElementUtils().getConstantExpression(String.join("\n", helpValues)) + ")";
+      var option = Option.class.getCanonicalName();
+      var type = component.asType();
+      return switch (type.getKind()) {
+        case BOOLEAN -> option + ".flag(" + nameList + ")" + help;
+        case INT, LONG, DOUBLE -> option + ".required(" + nameList + ")" + mapTo(type.getKind()) + help;
+        case ARRAY -> {
+          var componentType = ((ArrayType) type).getComponentType();
+          if (componentType.getKind().isPrimitive()) {
+            if (!isSpecialized(componentType.getKind())) {
+              throw noConverter(component);
+            }
+            yield option + ".varargs(" + nameList + ")" + mapTo(componentType.getKind()) + help;
+          }
+          var converter = converter(component, componentType);
+          var erasure = erasure(componentType);
+          yield option + ".varargs(" + nameList + ")"
+              + (converter == null ? "" : ".<" + erasure + ">convert(" + converter + ", " + erasure + "[]::new)")
+              + help;
+        }
+        case DECLARED -> {
+          var element = (TypeElement) ((DeclaredType) type).asElement();
+          if (element.getKind() == ElementKind.RECORD) {
+            yield "new " + option + ".Branch<" + type + ">(" + List.class.getName() + ".of(" + nameList + "), value -> value, "
+                + nestedSchema(element) + ")" + help;
+          }
+          yield switch (element.getQualifiedName().toString()) {
+            case "java.lang.Boolean" -> option + ".flag(" + nameList + ")" + help;
+            case "java.util.OptionalInt" -> option + ".single(" + nameList + ")" + mapTo(TypeKind.INT) + help;
+            case "java.util.OptionalLong" -> option + ".single(" + nameList + ")" + mapTo(TypeKind.LONG) + help;
+            case "java.util.OptionalDouble" -> option + ".single(" + nameList + ")" + mapTo(TypeKind.DOUBLE) + help;
+            case "java.util.Optional" -> option + ".single(" + nameList + ")" + elementConversion(component, type) + help;
+            case "java.util.List" -> option + ".repeatable(" + nameList + ")" + elementConversion(component, type) + help;
+            default -> option + ".required(" + nameList + ")" + conversion(component, type) + help;
+          };
+        }
+        default -> throw noConverter(component);
+      };
+    }
+
+    // the nested schema or the conversion of the type argument of an Optional or a List
+    private String elementConversion(RecordComponentElement component, TypeMirror type) throws GenerationException {
+      var typeArguments = ((DeclaredType) type).getTypeArguments();
+      if (typeArguments.size() != 1) {
+        throw noConverter(component);
+      }
+      var elementType = typeArguments.get(0);
+      if (elementType.getKind() == TypeKind.DECLARED
+          && ((DeclaredType) elementType).asElement() instanceof TypeElement element
+          && element.getKind() == ElementKind.RECORD) {
+        return ".nestedSchema(" + nestedSchema(element) + ")";
+      }
+      return conversion(component, elementType);
+    }
+
+    private String conversion(RecordComponentElement component, TypeMirror type) throws GenerationException {
+      var converter = converter(component, type);
+      return converter == null ? "" : ".<" + erasure(type) + ">convert(" + converter + ")";
+    }
+
+    // returns a method reference like ConverterResolver.defaultResolver(), null if there is no conversion
+    private String converter(RecordComponentElement component, TypeMirror type) throws GenerationException {
+      if (type.getKind() != TypeKind.DECLARED) {
+        throw noConverter(component);
+      }
+      var element = (TypeElement) ((DeclaredType) type).asElement();
+      var name = element.getQualifiedName().toString();
+      if (name.equals("java.lang.String") || name.equals("java.lang.Boolean") || element.getKind() == ElementKind.RECORD) {
+        return null;
+      }
+      if (element.getKind() == ElementKind.ENUM && isAccessible(element)) {
+        return name + "::valueOf";
+      }
+      var typeUtils = processingEnv.getTypeUtils();
+      var erasure = typeUtils.erasure(type);
+      for (var factory : ConverterFactories.FACTORIES) {
+        var factoryParameters = factory.parameterTypes().stream().map(Class::getCanonicalName).toList();
+        if (factory.isConstructor()) {
+          // the canonical constructor of a record is not a conversion
+          if (!element.getModifiers().contains(ABSTRACT)) {
+            for (var constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+              if (constructor.getModifiers().contains(PUBLIC)
+                  && parameters(constructor).equals(factoryParameters)
+                  && isAccessible(constructor, element)) {
+                return name + "::new";
+              }
+            }
+          }
+          continue;
+        }
+        // like findStatic, the static methods of the super classes are visible
+        for (var clazz = element; clazz != null; clazz = superclass(clazz)) {
+          for (var method : ElementFilter.methodsIn(clazz.getEnclosedElements())) {
+            if (method.getModifiers().contains(STATIC)
+                && method.getSimpleName().contentEquals(factory.name())
+                && typeUtils.isSameType(typeUtils.erasure(method.getReturnType()), erasure)
+                && parameters(method).equals(factoryParameters)
+                && (!factory.varargs() || method.isVarArgs())
+                && isAccessible(method, element)) {
+              return name + "::" + factory.name();
+            }
+          }
+        }
+      }
+      throw noConverter(component);
+    }
+
+    // true if the method, referenced as type::method, is accessible from the generated class
+    private boolean isAccessible(ExecutableElement method, TypeElement type) {
+      return isMemberAccessible(method) && isAccessible(type);
+    }
+
+    // true if the type and its enclosing types are accessible from the generated class
+    private boolean isAccessible(TypeElement type) {
+      for (Element element = type; element.getKind().isClass() || element.getKind().isInterface(); element = element.getEnclosingElement()) {
+        if (!isMemberAccessible(element)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean isMemberAccessible(Element element) {
+      var modifiers = element.getModifiers();
+      return modifiers.contains(PUBLIC)
+          || (!modifiers.contains(PRIVATE)
+              && processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().contentEquals(packageName));
+    }
+
+    private List<String> parameters(ExecutableElement method) {
+      var typeUtils = processingEnv.getTypeUtils();
+      return method.getParameters().stream()
+          .map(parameter -> typeUtils.erasure(parameter.asType()).toString())
+          .toList();
+    }
+
+    private TypeElement superclass(TypeElement element) {
+      var superclass = element.getSuperclass();
+      return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    private String erasure(TypeMirror type) {
+      return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    // the values of an annotation named 'Name' or 'Help', maybe in another package, like RecordSchemaSupport
+    private List<String> annotationValues(RecordComponentElement component, String annotationName)
+        throws GenerationException {
+      List<String> result = null;
+      for (var annotation : component.getAnnotationMirrors()) {
+        if (!annotation.getAnnotationType().asElement().getSimpleName().contentEquals(annotationName)) {
+          continue;
+        }
+        for (var entry : annotation.getElementValues().entrySet()) {
+          if (!entry.getKey().getSimpleName().contentEquals("value")) {
+            continue;
+          }
+          if (result != null) {
+            throw new GenerationException("more than one annotation named " + annotationName, component);
+          }
+          result = strings(entry.getValue());
+        }
+      }
+      return result;
+    }
+
+    private static List<String> strings(AnnotationValue annotationValue) {
+      if (annotationValue.getValue() instanceof List<?> values) {
+        return values.stream().map(value -> (String) ((AnnotationValue) value).getValue()).toList();
+      }
+      return List.of((String) annotationValue.getValue());
+    }
+
+    private static String mapTo(TypeKind kind) {
+      return switch (kind) {
+        case INT -> ".mapToInt(Integer::parseInt)";
+        case LONG -> ".mapToLong(Long::parseLong)";
+        case DOUBLE -> ".mapToDouble(Double::parseDouble)";
+        default -> throw new AssertionError(kind);
+      };
+    }
+
+    private static boolean isSpecialized(TypeKind kind) {
+      return kind == TypeKind.INT || kind == TypeKind.LONG || kind == TypeKind.DOUBLE;
+    }
+
+    private static GenerationException noConverter(RecordComponentElement component) {
+      return new GenerationException("no converter for component " + component.getSimpleName()
+          + " of type " + component.asType(), component);
+    }
+  }
+}
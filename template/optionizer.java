@@ -31,6 +31,9 @@ public class optionizer {
   }
 
   private static Converter<?,?> converter(Option<?> option) {
+    if (option instanceof Option.Specialized<?> specialized) {
+      return specialized.converter;
+    }
     return switch (option.type()) {
       case BRANCH -> ((Option.Branch<?>) option).converter;
       case FLAG -> ((Option.Flag) option).converter;
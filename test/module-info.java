@@ -1,4 +1,6 @@
 module test {
   requires main;
+  requires processor;
+  requires jdk.jfr;
   exports published;
 }
@@ -4,9 +4,12 @@ import test.api.JTest;
 import test.jdk.JarRecordTests;
 import test.jdk.JarOptionTests;
 import test.jdk.JarSealedTests;
+import test.unit.ArgumentFileCacheTests;
 import test.unit.ArgumentMapTests;
 import test.unit.ConverterResolverTests;
 import test.unit.OptionTests;
+import test.unit.RecordSchemaProcessorTests;
+import test.unit.SchemaSnapshotTests;
 import test.unit.SchemaTests;
 import test.unit.SplitterOptionTests;
 
@@ -24,9 +27,12 @@ class AllTests {
         JarOptionTests::main,
         // JarSealedTests::main, 
         // unit tests
+        ArgumentFileCacheTests::main,
         ArgumentMapTests::main,
         ConverterResolverTests::main,
         OptionTests::main,
+        RecordSchemaProcessorTests::main,
+        SchemaSnapshotTests::main,
         SchemaTests::main,
         SplitterOptionTests::main
     );
@@ -1,5 +1,6 @@
 package test;
 
+import main.Converter;
 import main.ConverterResolver;
 import main.ConverterResolver.TypeReference;
 import main.Name;
@@ -9,9 +10,20 @@ import main.SplittingException;
 import test.api.JTest;
 import test.api.JTest.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 import static java.lang.invoke.MethodHandles.lookup;
 import static main.ConverterResolver.stringConverter;
@@ -20,6 +32,7 @@ import static test.api.Assertions.assertAll;
 import static test.api.Assertions.assertEquals;
 import static test.api.Assertions.assertFalse;
 import static test.api.Assertions.assertThrows;
+import static test.api.Assertions.assertTrue;
 
 class ConverterTests {
   public static void main(String... args) {
@@ -162,4 +175,117 @@ class ConverterTests {
 
     assertThrows(SplittingException.class, () -> splitter.split("--verbose"));
   }
+
+  @Test
+  void recordPrimitiveComponentWithResolver() {
+    record Job(int timeout) {}
+
+    // the timeout is in seconds with a suffix, "30s"
+    var resolver = ConverterResolver.of(when(int.class,
+            stringConverter(value -> Integer.parseInt(value.substring(0, value.length() - 1)))))
+        .or(ConverterResolver.defaultResolver());
+    var splitter = Splitter.of(lookup(), Job.class, resolver);
+    assertEquals(30, splitter.split("30s").timeout);
+  }
+
+  @Test
+  void recordPrimitiveComponents() {
+    record Job(
+      @Name("--priority") OptionalInt priority,
+      @Name("--limit") OptionalLong limit,
+      @Name("--ratio") OptionalDouble ratio,
+      int id,
+      long size,
+      double weight,
+      long... ids
+    ) {}
+
+    var splitter = Splitter.of(lookup(), Job.class);
+    var job = splitter.split("--priority", "2", "--ratio", "0.25", "1", "1024", "3.5", "10", "20");
+    assertAll(
+        () -> assertEquals(OptionalInt.of(2), job.priority),
+        () -> assertEquals(OptionalLong.empty(), job.limit),
+        () -> assertEquals(OptionalDouble.of(0.25), job.ratio),
+        () -> assertEquals(1, job.id),
+        () -> assertEquals(1024L, job.size),
+        () -> assertEquals(3.5, job.weight),
+        () -> assertEquals("[10, 20]", Arrays.toString(job.ids)),
+        () -> assertThrows(SplittingException.class, () -> splitter.split("one", "1024", "3.5"))
+    );
+  }
+
+  @Test
+  void memoized() {
+    var calls = new AtomicInteger();
+    Converter<String, Pattern> compile = regex -> {
+      calls.incrementAndGet();
+      return Pattern.compile(regex);
+    };
+    var memoized = compile.memoized(2);
+    var pattern = Option.repeatable("--pattern").convert(memoized);
+    var splitter = Splitter.of(pattern);
+    var first = splitter.split("--pattern", "a+", "--pattern", "b+").argument(pattern);
+    var second = splitter.split("--pattern", "a+", "--pattern", "b+").argument(pattern);
+    splitter.split("--pattern", "c+");  // evicts a+
+    splitter.split("--pattern", "a+");
+    assertAll(
+        () -> assertTrue(first.get(0) == second.get(0)),
+        () -> assertTrue(first.get(1) == second.get(1)),
+        () -> assertEquals(4, calls.get()),
+        () -> assertEquals(2, memoized.size()),
+        () -> assertEquals(2L, memoized.hitCount()),
+        () -> assertEquals(4L, memoized.missCount()),
+        () -> assertEquals(2L, memoized.evictionCount()),
+        () -> assertEquals("Memoized[size=2, hits=2, misses=4, evictions=2]", memoized.toString())
+    );
+  }
+
+  @Test
+  void memoizedFailuresAndNull() {
+    var calls = new AtomicInteger();
+    Converter<String, Integer> parse = value -> {
+      calls.incrementAndGet();
+      return value.equals("null") ? null : Integer.parseInt(value);
+    };
+    var memoized = parse.memoized(16);
+    var required = Option.required("value").convert(memoized);
+    var splitter = Splitter.of(required);
+    assertAll(
+        () -> assertThrows(SplittingException.class, () -> splitter.split("foo")),
+        () -> assertThrows(SplittingException.class, () -> splitter.split("foo")),
+        () -> assertEquals(null, memoized.apply("null")),
+        () -> assertEquals(null, memoized.apply("null")),
+        () -> assertEquals(3, calls.get()),
+        () -> assertThrows(IllegalArgumentException.class, () -> parse.memoized(0)),
+        () -> assertTrue(Converter.blocking(parse).memoized(1) instanceof Converter.Blocking<?, ?>)
+    );
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T, R> Converter<T, R> serializeAndDeserialize(Converter<T, R> converter)
+      throws IOException, ClassNotFoundException {
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new ObjectOutputStream(bytes)) {
+      output.writeObject(converter);
+    }
+    try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (Converter<T, R>) input.readObject();
+    }
+  }
+
+  @Test
+  void memoizedSerialization() throws IOException, ClassNotFoundException {
+    Converter<String, Integer> parse = Integer::parseInt;
+    var memoized = serializeAndDeserialize(parse.memoized(4));
+    var blocking = serializeAndDeserialize(Converter.blocking(parse).memoized(4));
+    assertAll(
+        () -> assertEquals(42, memoized.apply("42")),
+        () -> assertEquals(42, memoized.apply("42")),
+        () -> assertEquals(1L, ((Converter.Memoized<String, Integer>) memoized).hitCount()),
+        () -> assertEquals(42, blocking.apply("42")),
+        () -> assertEquals(42, blocking.apply("42")),
+        () -> assertEquals(1L, ((Converter.Memoized<String, Integer>) blocking).hitCount()),
+        () -> assertTrue(blocking instanceof Converter.Blocking<?, ?>)
+    );
+  }
 }
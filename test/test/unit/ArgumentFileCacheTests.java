@@ -0,0 +1,132 @@
+package test.unit;
+
+import main.ArgumentFileCache;
+import main.Option;
+import main.Splitter;
+import test.api.JTest;
+import test.api.JTest.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static test.api.Assertions.assertAll;
+import static test.api.Assertions.assertArrayEquals;
+import static test.api.Assertions.assertEquals;
+import static test.api.Assertions.assertThrows;
+
+public class ArgumentFileCacheTests {
+  public static void main(String... args) {
+    JTest.runTests(new ArgumentFileCacheTests(), args);
+  }
+
+  private static Path argumentFile(String content) throws IOException {
+    return Files.writeString(Files.createTempFile("args", ".txt"), content);
+  }
+
+  @Test
+  void hitAndMiss() throws IOException {
+    var files = Option.varargs("files");
+    var cache = ArgumentFileCache.of(8);
+    var splitter = Splitter.of(files).withArgumentFiles(cache);
+    var file = argumentFile("a b");
+    try {
+      var first = splitter.split("@" + file).argument(files);
+      var second = splitter.split("@" + file).argument(files);
+      assertAll(
+          () -> assertArrayEquals(new String[] { "a", "b" }, first),
+          () -> assertArrayEquals(new String[] { "a", "b" }, second),
+          () -> assertEquals(1, cache.size()),
+          () -> assertEquals(1L, cache.hitCount()),
+          () -> assertEquals(1L, cache.missCount()),
+          () -> assertEquals(0L, cache.evictionCount()),
+          () -> assertEquals("ArgumentFileCache[size=1, hits=1, misses=1, evictions=0]", cache.toString())
+      );
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void modifiedFile() throws IOException {
+    var files = Option.varargs("files");
+    var cache = ArgumentFileCache.of(8);
+    var splitter = Splitter.of(files).withArgumentFiles(cache);
+    var file = argumentFile("a b");
+    try {
+      splitter.split("@" + file);
+      Files.writeString(file, "c d");
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+      var modified = splitter.split("@" + file).argument(files);
+      Files.writeString(file, "e f g");
+      var resized = splitter.split("@" + file).argument(files);
+      assertAll(
+          () -> assertArrayEquals(new String[] { "c", "d" }, modified),
+          () -> assertArrayEquals(new String[] { "e", "f", "g" }, resized),
+          () -> assertEquals(1, cache.size()),
+          () -> assertEquals(0L, cache.hitCount()),
+          () -> assertEquals(3L, cache.missCount())
+      );
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void nestedFileModified() throws IOException {
+    var files = Option.varargs("files");
+    var cache = ArgumentFileCache.of(8);
+    var splitter = Splitter.of(files).withArgumentFiles(cache);
+    var nested = argumentFile("b");
+    var file = argumentFile("a @" + nested);
+    try {
+      splitter.split("@" + file);
+      Files.writeString(nested, "b c");
+      var arguments = splitter.split("@" + file).argument(files);
+      assertAll(
+          () -> assertArrayEquals(new String[] { "a", "b", "c" }, arguments),
+          () -> assertEquals(1L, cache.hitCount()),
+          () -> assertEquals(3L, cache.missCount())
+      );
+    } finally {
+      Files.delete(file);
+      Files.delete(nested);
+    }
+  }
+
+  @Test
+  void leastRecentlyUsedEviction() throws IOException {
+    var cache = ArgumentFileCache.of(2);
+    var splitter = Splitter.of(Option.varargs("files")).withArgumentFiles(cache);
+    var file1 = argumentFile("a");
+    var file2 = argumentFile("b");
+    var file3 = argumentFile("c");
+    try {
+      splitter.split("@" + file1, "@" + file2);
+      splitter.split("@" + file1);  // file2 is now the least recently used
+      splitter.split("@" + file3);  // evicts file2
+      splitter.split("@" + file1);
+      splitter.split("@" + file2);  // evicts file3
+      assertAll(
+          () -> assertEquals(2, cache.size()),
+          () -> assertEquals(2L, cache.hitCount()),
+          () -> assertEquals(4L, cache.missCount()),
+          () -> assertEquals(2L, cache.evictionCount())
+      );
+    } finally {
+      Files.delete(file1);
+      Files.delete(file2);
+      Files.delete(file3);
+    }
+  }
+
+  @Test
+  void preconditions() {
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> ArgumentFileCache.of(0)),
+        () -> assertThrows(NullPointerException.class, () -> Splitter.of(Option.flag("-f")).withArgumentFiles(null))
+    );
+  }
+}
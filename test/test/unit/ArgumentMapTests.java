@@ -1,14 +1,18 @@
 package test.unit;
 
 import main.Option;
+import main.SplittingException;
 import main.Splitter;
 import test.api.JTest;
 import test.api.JTest.Test;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static test.api.Assertions.assertAll;
 import static test.api.Assertions.assertEquals;
+import static test.api.Assertions.assertFalse;
 import static test.api.Assertions.assertThrows;
 import static test.api.Assertions.assertTrue;
 
@@ -45,7 +49,130 @@ public class ArgumentMapTests {
     var flag2 = Option.flag("-f");
     assertAll(
         () -> assertThrows(NullPointerException.class, () -> argumentMap.argument(null)),
-        () -> assertThrows(IllegalStateException.class, () -> argumentMap.argument(flag2))
+        () -> assertThrows(IllegalStateException.class, () -> argumentMap.argument(flag2)),
+        () -> assertThrows(IllegalStateException.class, () -> argumentMap.argument(Option.single("-g")))
+    );
+  }
+
+  @Test
+  void lazyArgument() {
+    var calls = new AtomicInteger();
+    var singleG = Option.single("-g").convert(value -> { calls.incrementAndGet(); return Integer.parseInt(value); });
+    var requiredH = Option.required("h").convert(value -> { calls.incrementAndGet(); return value.length(); });
+    var splitter = Splitter.lazy(singleG, requiredH);
+    var argumentMap = splitter.split("-g", "42", "h.txt");
+
+    assertEquals(0, calls.get());
+    assertEquals(42, argumentMap.argument(singleG).orElseThrow());
+    assertEquals(1, calls.get());
+    assertEquals(42, argumentMap.argument(singleG).orElseThrow());
+    assertEquals(1, calls.get());
+    assertEquals(5, argumentMap.argument(requiredH));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void lazyConverterNotCalledIfNotRead() {
+    var singleG = Option.single("-g").convert(Integer::parseInt);
+    var flagF = Option.flag("-f");
+    var splitter = Splitter.lazy(singleG, flagF);
+    var argumentMap = splitter.split("-g", "not-a-number", "-f");
+
+    assertAll(
+        () -> assertTrue(argumentMap.argument(flagF)),
+        () -> assertThrows(SplittingException.class, () -> argumentMap.argument(singleG)),
+        () -> assertThrows(SplittingException.class, argumentMap::validateAll)
+    );
+  }
+
+  @Test
+  void lazyLightweightErrors() {
+    var singleG = Option.single("-g").convert(Integer::parseInt);
+    var splitter = Splitter.lazy(singleG);
+    var lightweight = splitter.withLightweightErrors().split("-g", "not-a-number");
+    var regular = splitter.split("-g", "not-a-number");
+
+    assertAll(
+        () -> assertEquals(0, assertThrows(SplittingException.class, () -> lightweight.single(singleG)).getStackTrace().length),
+        () -> assertEquals(0, assertThrows(SplittingException.class, lightweight::validateAll).getStackTrace().length),
+        () -> assertTrue(assertThrows(SplittingException.class, () -> regular.single(singleG)).getStackTrace().length != 0)
+    );
+  }
+
+  @Test
+  void lazyValidateAll() {
+    var calls = new AtomicInteger();
+    var requiredH = Option.required("h").convert(value -> { calls.incrementAndGet(); return value; });
+    var varargsJ = Option.varargs("j").convert(value -> { calls.incrementAndGet(); return value; }, String[]::new);
+    var splitter = Splitter.lazy(requiredH, varargsJ);
+    var argumentMap = splitter.split("h.txt", "j1", "j2").validateAll();
+
+    assertEquals(3, calls.get());
+    assertEquals("h.txt", argumentMap.argument(requiredH));
+    assertEquals(2, argumentMap.argument(varargsJ).length);
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  void lazyConcurrentReaders() {
+    var requiredH = Option.required("h").convert(StringBuilder::new);
+    var splitter = Splitter.lazy(requiredH);
+    var argumentMap = splitter.split("h.txt");
+
+    var arguments = IntStream.range(0, 1_000).parallel()
+        .mapToObj(i -> argumentMap.argument(requiredH))
+        .distinct()
+        .toList();
+    assertEquals(1, arguments.size());
+  }
+
+  @Test
+  void lazyArgumentPreconditions() {
+    var flag = Option.flag("-f");
+    var splitter = Splitter.lazy(flag);
+    var argumentMap = splitter.split("-f");
+
+    var flag2 = Option.flag("-f");
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> argumentMap.argument(null)),
+        () -> assertThrows(IllegalStateException.class, () -> argumentMap.argument(flag2)),
+        () -> assertThrows(NullPointerException.class, () -> Splitter.lazy((Option<?>[]) null))
+    );
+  }
+
+  @Test
+  void typedAccessors() {
+    var flagF = Option.flag("-f");
+    var singleG = Option.single("-g").convert(Integer::parseInt);
+    var requiredH = Option.required("h");
+    var repeatableI = Option.repeatable("-i");
+    var varargsJ = Option.varargs("j");
+    var splitter = Splitter.of(flagF, singleG, requiredH, repeatableI, varargsJ);
+    var argumentMap = splitter.split("-f", "-g", "3", "-i", "i1", "-i", "i2", "h.txt", "j1", "j2");
+
+    boolean flag = argumentMap.flag(flagF);
+    assertAll(
+        () -> assertTrue(flag),
+        () -> assertEquals(3, argumentMap.single(singleG).orElseThrow()),
+        () -> assertEquals("h.txt", argumentMap.required(requiredH)),
+        () -> assertEquals(List.of("i1", "i2"), argumentMap.list(repeatableI)),
+        () -> assertEquals(List.of("j1", "j2"), List.of(argumentMap.varargs(varargsJ))),
+        () -> assertThrows(NullPointerException.class, () -> argumentMap.flag(null)),
+        () -> assertThrows(IllegalStateException.class, () -> argumentMap.flag(Option.flag("-f"))),
+        () -> assertThrows(IllegalStateException.class, () -> argumentMap.list(Option.repeatable("-g")))
+    );
+  }
+
+  @Test
+  void typedAccessorsLazy() {
+    var flagF = Option.flag("-f");
+    var repeatableI = Option.repeatable("-i").convert(Integer::parseInt);
+    var splitter = Splitter.lazy(flagF, repeatableI);
+    var argumentMap = splitter.split("-i=1,2");
+
+    assertAll(
+        () -> assertFalse(argumentMap.flag(flagF)),
+        () -> assertEquals(List.of(1, 2), argumentMap.list(repeatableI))
     );
   }
 }
@@ -7,6 +7,7 @@ import main.ConverterResolver.TypeReference;
 import test.api.JTest;
 import test.api.JTest.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.Runtime.Version;
@@ -15,10 +16,12 @@ import java.lang.invoke.MethodHandles;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.math.BigInteger;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
 import static java.lang.invoke.MethodHandles.lookup;
@@ -173,6 +176,57 @@ public class ConverterResolverTests {
     assertEquals(101, unwrappedResolver.resolve(lookup(), new TypeReference<Integer>() {}).orElseThrow().apply("101"));
   }
 
+  @Test
+  void resolverCached() {
+    var counter = new AtomicInteger();
+    var resolver = ConverterResolver.of((lookup, valueType) -> {
+      counter.incrementAndGet();
+      return valueType == Integer.class ? Optional.of(arg -> Integer.parseInt((String) arg)) : Optional.empty();
+    }).cached();
+
+    var converter = resolver.resolve(lookup(), Integer.class).orElseThrow();
+    assertAll(
+        () -> assertEquals(42, converter.apply("42")),
+        () -> assertEquals(converter, resolver.resolve(lookup(), Integer.class).orElseThrow()),
+        () -> assertTrue(resolver.resolve(lookup(), String.class).isEmpty()),
+        () -> assertTrue(resolver.resolve(lookup(), String.class).isEmpty()),
+        () -> assertEquals(2, counter.get())
+    );
+  }
+
+  @Test
+  void resolverCachedPerLookupClassAndType() {
+    var counter = new AtomicInteger();
+    var resolver = ConverterResolver.of((lookup, valueType) -> {
+      counter.incrementAndGet();
+      return Optional.of(x -> x);
+    }).cached();
+
+    resolver.resolve(lookup(), String.class);
+    resolver.resolve(lookup(), new TypeReference<List<String>>() {});
+    resolver.resolve(lookup(), new TypeReference<List<String>>() {});
+    resolver.resolve(MethodHandles.lookup().in(ConverterResolver.class), String.class);
+    resolver.resolve(MethodHandles.publicLookup(), String.class);
+    assertEquals(4, counter.get());
+  }
+
+  @Test
+  void resolverCachedPreconditions() {
+    var resolver = ConverterResolver.of((lookup, valueType) -> Optional.empty()).cached();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> resolver.resolve(null, String.class)),
+        () -> assertThrows(NullPointerException.class, () -> resolver.resolve(lookup(), (Type) null))
+    );
+  }
+
+  @Test
+  void resolverDefaultIsCached() {
+    var resolver = ConverterResolver.defaultResolver();
+    assertEquals(
+        resolver.resolve(lookup(), LocalDate.class).orElseThrow(),
+        resolver.resolve(lookup(), LocalDate.class).orElseThrow());
+  }
+
   @Test
   void resolverWhenPredicate() {
     var resolver = ConverterResolver.when(Integer.class::equals, arg -> Integer.parseInt((String) arg));
@@ -349,6 +403,28 @@ public class ConverterResolverTests {
     assertEquals(new Data("foo"), ConverterResolver.reflected(lookup(), Data.class).orElseThrow().apply("foo"));
   }
 
+  @Test
+  void resolverReflectedConstructor() {
+    assertAll(
+        () -> assertEquals(new File("foo"), ConverterResolver.reflected(lookup(), File.class).orElseThrow().apply("foo")),
+        () -> assertEquals(new StringBuilder("foo").toString(), ConverterResolver.reflected(lookup(), StringBuilder.class).orElseThrow().apply("foo").toString())
+    );
+  }
+
+  @Test
+  void resolverReflectedFactoryBeforeConstructor() {
+    assertEquals(BigInteger.TEN, ConverterResolver.reflected(lookup(), BigInteger.class).orElseThrow().apply("10"));
+  }
+
+  @Test
+  void resolverReflectedNoFactory() {
+    assertAll(
+        () -> assertTrue(ConverterResolver.reflected(lookup(), Object.class).isEmpty()),
+        () -> assertTrue(ConverterResolver.reflected(lookup(), Runtime.class).isEmpty()),
+        () -> assertTrue(ConverterResolver.reflected(lookup(), int.class).isEmpty())
+    );
+  }
+
   @Test
   void resolverReflectedExceptionTransparency() {
     record Data(String text) {
@@ -449,6 +525,19 @@ public class ConverterResolverTests {
     assertEquals(expected, mirror);
   }
 
+  @Test
+  void mirrorReflectedConstructor() {
+    var resolver = ConverterResolver.defaultResolver();
+
+    var lookup = MethodHandles.lookup();
+    var converter = resolver.resolve(lookup, File.class).orElseThrow();
+
+    var mirror = ConverterMirror.of(lookup, converter).orElseThrow();
+    var expected = new ConverterMirror(ConverterResolver.class.getName(), "reflected",
+        List.of(new ConverterMirror(File.class.getName(), "new", List.of())));
+    assertEquals(expected, mirror);
+  }
+
   @Test
   void mirrorEnum() {
     enum Foo {}
@@ -7,13 +7,19 @@ import main.Splitter;
 import test.api.JTest;
 import test.api.JTest.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static test.api.Assertions.assertAll;
 import static test.api.Assertions.assertArrayEquals;
 import static test.api.Assertions.assertEquals;
+import static test.api.Assertions.assertFalse;
 import static test.api.Assertions.assertThrows;
 import static test.api.Assertions.assertTrue;
 
@@ -127,6 +133,90 @@ public class OptionTests {
     );
   }
 
+  @Test
+  void specialized() {
+    var single = Option.single("--count").mapToInt(Integer::parseInt);
+    var required = Option.required("id").mapToLong(Long::parseLong);
+    var repeatable = Option.repeatable("--id").mapToLong(Long::parseLong);
+    var varargs = Option.varargs("ratios").mapToDouble(Double::parseDouble).help("ratios");
+    assertAll(
+        () -> assertEquals(OptionType.SINGLE, single.type()),
+        () -> assertEquals(OptionType.REQUIRED, required.type()),
+        () -> assertEquals(OptionType.REPEATABLE, repeatable.type()),
+        () -> assertEquals(OptionType.VARARGS, varargs.type()),
+        () -> assertEquals(List.of("--count"), List.copyOf(single.names())),
+        () -> assertEquals("ratios", varargs.help()),
+        () -> assertEquals(null, varargs.nestedSchema())
+    );
+  }
+
+  @Test
+  void specializedSplit() {
+    var count = Option.single("--count").mapToInt(Integer::parseInt);
+    var size = Option.single("--size").mapToLong(Long::parseLong);
+    var ids = Option.repeatable("--id").mapToLong(Long::parseLong);
+    var id = Option.required("id").mapToInt(Integer::parseInt);
+    var ratios = Option.varargs("ratios").mapToDouble(Double::parseDouble);
+    var splitter = Splitter.of(count, size, ids, id, ratios);
+    var argumentMap = splitter.split("--count", "3", "--id", "10", "--id=20,30", "42", "0.5", "1.5");
+    assertAll(
+        () -> assertEquals(OptionalInt.of(3), argumentMap.argument(count)),
+        () -> assertEquals(OptionalLong.empty(), argumentMap.argument(size)),
+        () -> assertEquals("[10, 20, 30]", Arrays.toString(argumentMap.argument(ids))),
+        () -> assertEquals(42, argumentMap.argument(id)),
+        () -> assertEquals("[0.5, 1.5]", Arrays.toString(argumentMap.argument(ratios)))
+    );
+  }
+
+  @Test
+  void specializedDefaultValue() {
+    var count = Option.single("--count").mapToInt(Integer::parseInt).defaultValue(OptionalInt.of(1));
+    var ids = Option.varargs("ids").mapToInt(Integer::parseInt).defaultValue(new int[] { 7 });
+    var splitter = Splitter.of(count, ids);
+    var argumentMap = splitter.split();
+    var argumentMap2 = splitter.split("--count", "2", "8");
+    assertAll(
+        () -> assertEquals(OptionalInt.of(1), argumentMap.argument(count)),
+        () -> assertEquals("[7]", Arrays.toString(argumentMap.argument(ids))),
+        () -> assertEquals(OptionalInt.of(2), argumentMap2.argument(count)),
+        () -> assertEquals("[8]", Arrays.toString(argumentMap2.argument(ids)))
+    );
+  }
+
+  @Test
+  void specializedPreconditions() {
+    var schema = new Schema<>(List.of(Option.flag("-f")), list -> list.get(0));
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> Option.single("a").mapToInt(null)),
+        () -> assertThrows(NullPointerException.class, () -> Option.varargs("a").mapToLong(null)),
+        () -> assertThrows(IllegalStateException.class, () -> Option.single("a").nestedSchema(schema).mapToInt(__ -> 0)),
+        () -> assertThrows(IllegalStateException.class, () -> Option.repeatable("a").nestedSchema(schema).mapToInt(__ -> 0)),
+        () -> assertThrows(IllegalStateException.class, () -> Option.required("a").mapToInt(Integer::parseInt).help("x").help("y"))
+    );
+  }
+
+  @Test
+  void namesSharedByDerivedOptions() {
+    var option = Option.single("--foo", "-f");
+    assertAll(
+        () -> assertTrue(option.names() == option.help("help").names()),
+        () -> assertTrue(option.names() == option.convert(Integer::parseInt).names()),
+        () -> assertTrue(option.names() == option.defaultValue(Optional.of("foo")).names())
+    );
+  }
+
+  @Test
+  void manyNames() {
+    var names = IntStream.range(0, 20).mapToObj(i -> "--name" + i).toArray(String[]::new);
+    var option = Option.flag(names);
+    assertAll(
+        () -> assertEquals(List.of(names), List.copyOf(option.names())),
+        () -> assertTrue(option.names().contains("--name19")),
+        () -> assertFalse(option.names().contains("--name20")),
+        () -> assertThrows(IllegalArgumentException.class, () -> Option.flag(Stream.concat(Stream.of(names), Stream.of("--name3")).toArray(String[]::new)))
+    );
+  }
+
   @Test
   void optionTypeSafe() {
     Option<Boolean> flag = Option.flag("a");
@@ -0,0 +1,169 @@
+package test.unit;
+
+import main.GenerateSchema;
+import main.Help;
+import main.Manual;
+import main.Name;
+import main.Splitter;
+import processor.RecordSchemaProcessor;
+import test.api.JTest;
+import test.api.JTest.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static test.api.Assertions.assertAll;
+import static test.api.Assertions.assertArrayEquals;
+import static test.api.Assertions.assertEquals;
+import static test.api.Assertions.assertFalse;
+import static test.api.Assertions.assertTrue;
+
+public class RecordSchemaProcessorTests {
+  public static void main(String... args) {
+    JTest.runTests(new RecordSchemaProcessorTests(), args);
+  }
+
+  enum Level { info, error }
+
+  // the classes RecordSchemaProcessorTests_CommandSchema and RecordSchemaProcessorTests_ConnectSchema
+  // are generated when this file is compiled
+
+  @GenerateSchema
+  record Command(@Name({"-v", "--verbose"}) @Help("be verbose") boolean verbose,
+                 @Name("--level") Optional<Level> level,
+                 @Name("--count") OptionalInt count,
+                 @Name("--timeout") List<Duration> timeouts,
+                 Path... files) {}
+
+  record Address(String host, int port) {}
+
+  @GenerateSchema
+  record Connect(boolean verbose, Address address) {}
+
+  @Test
+  void generatedSchema() {
+    var splitter = Splitter.of(RecordSchemaProcessorTests_CommandSchema.schema());
+    var command = splitter.split(
+        "-v", "--level", "error", "--count", "3", "--timeout", "PT1S", "--timeout", "PT2S", "a", "b");
+    assertAll(
+        () -> assertTrue(command.verbose()),
+        () -> assertEquals(Optional.of(Level.error), command.level()),
+        () -> assertEquals(OptionalInt.of(3), command.count()),
+        () -> assertEquals(List.of(Duration.ofSeconds(1), Duration.ofSeconds(2)), command.timeouts()),
+        () -> assertArrayEquals(new Path[] { Path.of("a"), Path.of("b") }, command.files())
+    );
+  }
+
+  @Test
+  void generatedSchemaSameOptionsAsReflection() {
+    var generated = RecordSchemaProcessorTests_CommandSchema.schema();
+    var reflected = Splitter.of(MethodHandles.lookup(), Command.class).schema();
+    assertEquals(Manual.help(reflected), Manual.help(generated));
+  }
+
+  @Test
+  void generatedNestedSchema() {
+    var connect = Splitter.of(RecordSchemaProcessorTests_ConnectSchema.schema())
+        .split("verbose", "address", "localhost", "8080");
+    assertEquals(new Connect(true, new Address("localhost", 8080)), connect);
+  }
+
+  private static List<Diagnostic<? extends JavaFileObject>> compile(String source) throws IOException, URISyntaxException {
+    return compile(Map.of("Unknown.java", source));
+  }
+
+  // compiles the sources indexed by their file names with the processor
+  private static List<Diagnostic<? extends JavaFileObject>> compile(Map<String, String> sources) throws IOException, URISyntaxException {
+    var compiler = ToolProvider.getSystemJavaCompiler();
+    var diagnostics = new DiagnosticCollector<JavaFileObject>();
+    var files = sources.entrySet().stream()
+        .map(entry -> new SimpleJavaFileObject(URI.create("string:///" + entry.getKey()), JavaFileObject.Kind.SOURCE) {
+          @Override
+          public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return entry.getValue();
+          }
+        })
+        .toList();
+    var classpath = Path.of(GenerateSchema.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    var output = Files.createTempDirectory("processor");
+    try {
+      var task = compiler.getTask(null, null, diagnostics,
+          List.of("-classpath", classpath.toString(), "-d", output.toString(), "-proc:only"), null, files);
+      task.setProcessors(List.of(new RecordSchemaProcessor()));
+      task.call();
+      return diagnostics.getDiagnostics();
+    } finally {
+      try (var paths = Files.walk(output)) {
+        for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+          Files.delete(path);
+        }
+      }
+    }
+  }
+
+  @Test
+  void noConverter() throws IOException, URISyntaxException {
+    var diagnostics = compile("""
+        @main.GenerateSchema
+        record Unknown(Object value) {}
+        """);
+    assertAll(
+        () -> assertEquals(1, diagnostics.size()),
+        () -> assertTrue(diagnostics.get(0).getMessage(null).contains("no converter for component value")),
+        () -> assertEquals(Diagnostic.Kind.ERROR, diagnostics.get(0).getKind())
+    );
+  }
+
+  @Test
+  void converterNotAccessible() throws IOException, URISyntaxException {
+    // the protected class Value is visible from the record but not from the generated class
+    var diagnostics = compile(Map.of(
+        "a/Outer.java", """
+            package a;
+            public class Outer {
+              protected static class Value {
+                public static Value valueOf(String value) { return new Value(); }
+              }
+            }
+            """,
+        "b/Sub.java", """
+            package b;
+            public class Sub extends a.Outer {
+              @main.GenerateSchema
+              record Command(Value value) {}
+            }
+            """));
+    assertAll(
+        () -> assertEquals(1, diagnostics.size()),
+        () -> assertTrue(diagnostics.get(0).getMessage(null).contains("no converter for component value")),
+        () -> assertEquals(Diagnostic.Kind.ERROR, diagnostics.get(0).getKind())
+    );
+  }
+
+  @Test
+  void notARecord() throws IOException, URISyntaxException {
+    var diagnostics = compile("""
+        @main.GenerateSchema
+        class Unknown {}
+        """);
+    assertAll(
+        () -> assertFalse(diagnostics.isEmpty()),
+        () -> assertEquals(Diagnostic.Kind.ERROR, diagnostics.get(0).getKind())
+    );
+  }
+}
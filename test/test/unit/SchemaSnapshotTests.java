@@ -0,0 +1,182 @@
+package test.unit;
+
+import main.Help;
+import main.Name;
+import main.SchemaSnapshot;
+import main.Splitter;
+import test.api.JTest;
+import test.api.JTest.Test;
+
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static test.api.Assertions.assertAll;
+import static test.api.Assertions.assertArrayEquals;
+import static test.api.Assertions.assertEquals;
+import static test.api.Assertions.assertFalse;
+import static test.api.Assertions.assertThrows;
+import static test.api.Assertions.assertTrue;
+
+public class SchemaSnapshotTests {
+  public static void main(String... args) {
+    JTest.runTests(new SchemaSnapshotTests(), args);
+  }
+
+  enum Level { info, error }
+  record Command(@Name({"-v", "--verbose"}) @Help("be verbose") boolean verbose,
+                 @Name("--level") Optional<Level> level,
+                 @Name("--count") OptionalInt count,
+                 @Name("--timeout") List<Duration> timeouts,
+                 Path... files) {}
+
+  @Test
+  void roundTrip() {
+    var lookup = MethodHandles.lookup();
+    var snapshot = SchemaSnapshot.write(lookup, Command.class);
+    var schema = SchemaSnapshot.read(lookup, Command.class, snapshot).orElseThrow();
+    var command = Splitter.of(schema).split(
+        "-v", "--level", "error", "--count", "3", "--timeout", "PT1S", "--timeout", "PT2S", "a", "b");
+    assertAll(
+        () -> assertTrue(command.verbose()),
+        () -> assertEquals(Optional.of(Level.error), command.level()),
+        () -> assertEquals(OptionalInt.of(3), command.count()),
+        () -> assertEquals(List.of(Duration.ofSeconds(1), Duration.ofSeconds(2)), command.timeouts()),
+        () -> assertArrayEquals(new Path[] { Path.of("a"), Path.of("b") }, command.files())
+    );
+  }
+
+  @Test
+  void sameResultAsReflection() {
+    var lookup = MethodHandles.lookup();
+    var snapshot = SchemaSnapshot.write(lookup, Command.class);
+    var args = new String[] { "--level", "info", "--timeout", "PT1M", "x" };
+    var fromSnapshot = Splitter.ofSnapshot(lookup, Command.class, snapshot).split(args);
+    var fromReflection = Splitter.of(lookup, Command.class).split(args);
+    assertAll(
+        () -> assertEquals(fromReflection.level(), fromSnapshot.level()),
+        () -> assertEquals(fromReflection.timeouts(), fromSnapshot.timeouts()),
+        () -> assertArrayEquals(fromReflection.files(), fromSnapshot.files())
+    );
+  }
+
+  record Address(String host, int port) {}
+  record Connect(boolean verbose, Address address) {}
+
+  @Test
+  void nestedRecord() {
+    var lookup = MethodHandles.lookup();
+    var snapshot = SchemaSnapshot.write(lookup, Connect.class);
+    var schema = SchemaSnapshot.read(lookup, Connect.class, snapshot).orElseThrow();
+    var connect = Splitter.of(schema).split("verbose", "address", "localhost", "8080");
+    assertEquals(new Connect(true, new Address("localhost", 8080)), connect);
+  }
+
+  @Test
+  void snapshotOfAnotherRecord() {
+    record Other(String name) {}
+    var lookup = MethodHandles.lookup();
+    var snapshot = SchemaSnapshot.write(lookup, Other.class);
+    var command = Splitter.ofSnapshot(lookup, Command.class, snapshot).split("-v");
+    assertAll(
+        () -> assertFalse(SchemaSnapshot.read(lookup, Command.class, snapshot).isPresent()),
+        () -> assertTrue(command.verbose())
+    );
+  }
+
+  // compiles a record in its own class loader, to have two versions of the same record class
+  private static URLClassLoader compileRecord(Path directory, String source) throws IOException {
+    var file = Files.writeString(Files.createDirectories(directory).resolve("Command.java"), source);
+    var compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler.run(null, null, null, "-proc:none", "-d", directory.toString(), file.toString()) != 0) {
+      throw new AssertionError("can not compile " + source);
+    }
+    return new URLClassLoader(new URL[] { directory.toUri().toURL() }, null);
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (var paths = Files.walk(directory)) {
+      for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  void snapshotOfChangedRecord() throws IOException, ClassNotFoundException {
+    var directory = Files.createTempDirectory("snapshot");
+    // same canonical constructor, only the name of the component has changed
+    try (var before = compileRecord(directory.resolve("before"), "public record Command(boolean verbose) {}");
+         var after = compileRecord(directory.resolve("after"), "public record Command(boolean quiet) {}")) {
+      var lookup = MethodHandles.publicLookup();
+      var snapshot = SchemaSnapshot.write(lookup, before.loadClass("Command").asSubclass(Record.class));
+      var changed = after.loadClass("Command").asSubclass(Record.class);
+      var command = Splitter.ofSnapshot(lookup, changed, snapshot).split("quiet");
+      assertAll(
+          () -> assertFalse(SchemaSnapshot.read(lookup, changed, snapshot).isPresent()),
+          () -> assertEquals("Command[quiet=true]", command.toString())
+      );
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  void snapshotOfChangedFactory() throws IOException, ClassNotFoundException {
+    var directory = Files.createTempDirectory("snapshot");
+    // same record class file, only the element type has a new factory method
+    var template = """
+        public record Command(java.util.Optional<Command.Level> level) {
+          public static final class Level {
+            private final String name;
+            private Level(String name) { this.name = name; }
+            %s
+            public static Level of(String name) { return new Level("of:" + name); }
+            public String toString() { return name; }
+          }
+        }
+        """;
+    try (var before = compileRecord(directory.resolve("before"), template.formatted(""));
+         var after = compileRecord(directory.resolve("after"),
+             template.formatted("public static Level valueOf(String name) { return new Level(\"valueOf:\" + name); }"))) {
+      var lookup = MethodHandles.publicLookup();
+      var snapshot = SchemaSnapshot.write(lookup, before.loadClass("Command").asSubclass(Record.class));
+      var changed = after.loadClass("Command").asSubclass(Record.class);
+      var command = Splitter.ofSnapshot(lookup, changed, snapshot).split("level", "info");
+      assertAll(
+          () -> assertFalse(SchemaSnapshot.read(lookup, changed, snapshot).isPresent()),
+          () -> assertEquals("Command[level=Optional[valueOf:info]]", command.toString())
+      );
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  void invalidSnapshot() {
+    var lookup = MethodHandles.lookup();
+    var snapshot = SchemaSnapshot.write(lookup, Command.class);
+    var truncated = Arrays.copyOf(snapshot, snapshot.length / 2);
+    assertAll(
+        () -> assertFalse(SchemaSnapshot.read(lookup, Command.class, new byte[0]).isPresent()),
+        () -> assertFalse(SchemaSnapshot.read(lookup, Command.class, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }).isPresent()),
+        () -> assertFalse(SchemaSnapshot.read(lookup, Command.class, truncated).isPresent())
+    );
+  }
+
+  @Test
+  void noConverter() {
+    record Unknown(Object value) {}
+    assertThrows(IllegalArgumentException.class, () -> SchemaSnapshot.write(MethodHandles.lookup(), Unknown.class));
+  }
+}
@@ -8,6 +8,7 @@ import test.api.JTest.Test;
 import java.util.List;
 
 import static test.api.Assertions.assertAll;
+import static test.api.Assertions.assertEquals;
 import static test.api.Assertions.assertThrows;
 
 public class SchemaTests {
@@ -30,4 +31,15 @@ public class SchemaTests {
         () -> assertThrows(IllegalArgumentException.class, () -> new Schema<>(List.of(varargs1, varargs2), x -> x))
     );
   }
+
+  @Test
+  void schemaToStringDescribesPlan() {
+    var flag = Option.flag("-f", "--flag");
+    var required = Option.required("r");
+    var varargs = Option.varargs("v");
+    var schema = new Schema<>(List.of(flag, required, varargs), x -> x);
+    assertEquals(
+        "SchemaPlan[options=[FLAG[-f, --flag], REQUIRED[r], VARARGS[v]], names={-f=0, --flag=0}, required=[1], varargs=2, flags=1]",
+        schema.toString());
+  }
 }
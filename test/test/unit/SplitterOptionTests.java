@@ -1,12 +1,32 @@
 package test.unit;
 
+import main.Converter;
+import main.ConverterResolver;
 import main.Option;
+import main.ParallelConversion;
 import main.Splitter;
 import main.SplittingException;
 import test.api.JTest;
 import test.api.JTest.Test;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.lang.invoke.MethodHandles.lookup;
@@ -188,6 +208,39 @@ public class SplitterOptionTests {
     );
   }
 
+  @Test
+  void splitterOfRepeatableShortForm() {
+    var repeatable = Option.repeatable("-p");
+    var splitter = Splitter.of(repeatable);
+    assertAll(
+        () -> assertEquals(List.of("v1", "v2"), splitter.split("-p=v1,v2").argument(repeatable)),
+        () -> assertEquals(List.of("v1", "v2", "v3"), splitter.split("-p=v1,v2", "-p", "v3").argument(repeatable)),
+        () -> assertEquals(List.of("", "v1"), splitter.split("-p=,v1,,").argument(repeatable)),
+        () -> assertEquals(List.of("v0"), splitter.split("-p", "v0", "-p=,").argument(repeatable)),
+        () -> assertEquals(List.of(""), splitter.split("-p=").argument(repeatable)),
+        () -> assertThrows(UnsupportedOperationException.class, () -> splitter.split("-p=v1").argument(repeatable).add("v2"))
+    );
+  }
+
+  @Test
+  void splitterOfRepeatableScaling() {
+    var repeatable = Option.repeatable("-i");
+    var splitter = Splitter.of(repeatable);
+    var args = IntStream.range(0, 100_000)
+        .boxed()
+        .flatMap(i -> Stream.of("-i", "v" + i))
+        .toArray(String[]::new);
+    var start = System.nanoTime();
+    var values = splitter.split(args).argument(repeatable);
+    var elapsed = System.nanoTime() - start;
+    assertAll(
+        () -> assertEquals(100_000, values.size()),
+        () -> assertEquals("v99999", values.get(99_999)),
+        // a quadratic accumulation copies 5 * 10^9 elements and takes tens of seconds
+        () -> assertTrue(elapsed < 2_000_000_000L, "split took " + elapsed / 1_000_000 + " ms")
+    );
+  }
+
   @Test
   void splitterOfRequireAndRepeatable() {
     var repeatable1 = Option.repeatable("-repeatable1");
@@ -386,6 +439,37 @@ public class SplitterOptionTests {
     );
   }
 
+  @Test
+  void splitterOfOptionOneLetterPOSIXFlagDigits() {
+    var store = Option.flag("-0");
+    var verbose = Option.flag("-v");
+    var file = Option.required("file");
+    var splitter = Splitter.of(store, verbose, file);
+    var argumentMap = splitter.split("-0v", "foo.jar");
+    assertAll(
+        () -> assertTrue(argumentMap.argument(store)),
+        () -> assertTrue(argumentMap.argument(verbose)),
+        () -> assertEquals("foo.jar", argumentMap.argument(file))
+    );
+  }
+
+  @Test
+  void splitterOfOptionOneLetterPOSIXFlagRejected() {
+    var full = Option.flag("-f");
+    var verbose = Option.flag("-v");
+    var single = Option.single("-s");
+    var file = Option.required("file");
+    var splitter = Splitter.of(full, verbose, single, file);
+    assertAll(
+        // not all letters are flags, so this is the required option
+        () -> assertEquals("-vx", splitter.split("-vx").argument(file)),
+        () -> assertEquals("-vs", splitter.split("-vs").argument(file)),
+        () -> assertEquals("-vfv", splitter.split("-vfv").argument(file)),
+        () -> assertEquals("-v\u00e9", splitter.split("-v\u00e9").argument(file)),
+        () -> assertEquals("-vf", splitter.split("--", "-vf").argument(file))
+    );
+  }
+
   @Test
   void splitterOfOptionShortFormSingle() {
     var key = Option.single("key");
@@ -435,6 +519,23 @@ public class SplitterOptionTests {
     assertThrows(SplittingException.class, () -> splitter.split("unknown"));
   }
 
+  @Test
+  void splitterOfManyOptionsSharingPrefixes() {
+    var options = IntStream.range(0, 1_000)
+        .mapToObj(i -> Option.single("-XX:Option" + i))
+        .toArray(Option.Single<?>[]::new);
+    var splitter = Splitter.of(options);
+    var argumentMap = splitter.split("-XX:Option1", "one", "-XX:Option10=ten", "-XX:Option100", "hundred");
+    assertAll(
+        () -> assertEquals("one", argumentMap.argument(options[1]).orElseThrow()),
+        () -> assertEquals("ten", argumentMap.argument(options[10]).orElseThrow()),
+        () -> assertEquals("hundred", argumentMap.argument(options[100]).orElseThrow()),
+        () -> assertTrue(argumentMap.argument(options[999]).isEmpty()),
+        () -> assertThrows(SplittingException.class, () -> splitter.split("-XX:Option")),
+        () -> assertThrows(SplittingException.class, () -> splitter.split("-XX:Option1000=value"))
+    );
+  }
+
   @Test
   void splitterPositionalOptionAreNotSeenAsOptional() {
     var required = Option.required("required");
@@ -457,6 +558,416 @@ public class SplitterOptionTests {
     );
   }
 
+  @Test
+  void splitterOfRange() {
+    var flag = Option.flag("-f");
+    var required = Option.required("r");
+    var varargs = Option.varargs("v");
+    var splitter = Splitter.of(flag, required, varargs);
+    var args = new String[] { "ignored", "-f", "r.txt", "a", "b", "ignored" };
+    var argumentMap = splitter.split(args, 1, 5);
+    assertAll(
+        () -> assertTrue(argumentMap.argument(flag)),
+        () -> assertEquals("r.txt", argumentMap.argument(required)),
+        () -> assertArrayEquals(new String[] { "a", "b" }, argumentMap.argument(varargs)),
+        () -> assertEquals("r.txt", splitter.split(args, 2, 3).argument(required)),
+        () -> assertThrows(SplittingException.class, () -> splitter.split(args, 1, 1)),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> splitter.split(args, 4, 2)),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> splitter.split(args, 0, 7))
+    );
+  }
+
+  @Test
+  void splitterOfManyVarargsAfterDoubleDash() {
+    var flag = Option.flag("-f");
+    var varargs = Option.varargs("files");
+    var splitter = Splitter.of(flag, varargs);
+    var args = new String[100_002];
+    args[0] = "-f";
+    args[1] = "--";
+    for (var i = 2; i < args.length; i++) {
+      args[i] = i % 2 == 0 ? "-f" : "file" + i + ".txt";
+    }
+    var argumentMap = splitter.split(args);
+    var files = argumentMap.argument(varargs);
+    assertAll(
+        () -> assertTrue(argumentMap.argument(flag)),
+        () -> assertEquals(100_000, files.length),
+        () -> assertEquals("-f", files[0]),
+        () -> assertEquals("file3.txt", files[1]),
+        () -> assertEquals("file100001.txt", files[99_999])
+    );
+  }
+
+  @Test
+  void splitterSession() {
+    record Server(String host, Optional<Integer> port) {}
+    record Data(boolean verbose, Optional<Server> server, List<String> tags, String name, String... files) {}
+    var splitter = Splitter.of(lookup(), Data.class);
+    var commandLines = List.of(
+        new String[] { "verbose", "foo" },
+        new String[] { "server", "localhost", "port", "8080", "tags", "a", "tags=b,c", "foo", "a.txt", "b.txt" },
+        new String[] { "--", "verbose", "--", "tags" },
+        new String[] { "foo", "verbose", "tags", "x", "y", "--", "z" });
+
+    for (var commandLine : commandLines) {
+      var session = splitter.session();
+      for (var argument : commandLine) {
+        session.accept(argument);
+      }
+      var expected = splitter.split(commandLine);
+      var data = session.finish();
+      assertAll(
+          () -> assertEquals(expected.verbose(), data.verbose()),
+          () -> assertEquals(expected.server(), data.server()),
+          () -> assertEquals(expected.tags(), data.tags()),
+          () -> assertEquals(expected.name(), data.name()),
+          () -> assertArrayEquals(expected.files(), data.files())
+      );
+    }
+  }
+
+  @Test
+  void splitterSessionEarlyError() {
+    var flag = Option.flag("-f");
+    var required = Option.required("name");
+    var splitter = Splitter.of(flag, required);
+    var session = splitter.session();
+    session.accept("-f");
+    session.accept("foo");
+    var e = assertThrows(SplittingException.class, () -> session.accept("bar"));
+    assertAll(
+        () -> assertEquals("Unhandled arguments: [bar]", e.getMessage()),
+        () -> assertThrows(IllegalStateException.class, () -> session.accept("baz")),
+        () -> assertThrows(IllegalStateException.class, session::finish)
+    );
+  }
+
+  @Test
+  void splitterSessionFinishErrors() {
+    var single = Option.single("--single");
+    var required = Option.required("name");
+    var splitter = Splitter.of(single, required);
+    var session1 = splitter.session();
+    session1.accept("foo");
+    session1.accept("--single");
+    var session2 = splitter.session();
+    assertAll(
+        () -> assertThrows(SplittingException.class, session1::finish),
+        () -> assertThrows(SplittingException.class, session2::finish)
+    );
+  }
+
+  @Test
+  void splitterSessionFinishOnce() {
+    var flag = Option.flag("-f");
+    var splitter = Splitter.of(flag);
+    var session = splitter.session();
+    session.accept("-f");
+    assertTrue(session.finish().argument(flag));
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, session::finish),
+        () -> assertThrows(IllegalStateException.class, () -> session.accept("-f"))
+    );
+  }
+
+  @Test
+  void splitterSessionWithPreprocessing() {
+    var files = Option.varargs("files");
+    var splitter = Splitter.of(files).withExpand(arg -> Stream.of(arg.split(":")));
+    var session = splitter.session();
+    session.accept("a:b");
+    session.accept("c");
+    assertArrayEquals(new String[] { "a", "b", "c" }, session.finish().argument(files));
+  }
+
+  @Test
+  void splitterWithArgumentFiles() throws IOException {
+    var files = Option.varargs("files");
+    var splitter = Splitter.of(files).withArgumentFiles();
+    var nested = Files.writeString(Files.createTempFile("nested", ".txt"), "d @@e");
+    var file = Files.writeString(Files.createTempFile("args", ".txt"), """
+        # a comment
+        a   'b c'  "d\\te"#f
+        "g\\
+           h" @%s
+        """.formatted(nested));
+    var utf8 = Files.writeString(Files.createTempFile("utf8", ".txt"), "@@x é");
+    try {
+      assertAll(
+          () -> assertArrayEquals(new String[] { "a", "b c", "d\te#f", "gh", "d", "@e", "i" },
+              splitter.split("@" + file, "i").argument(files)),
+          () -> assertArrayEquals(new String[] { "@x", "@" }, splitter.split("@@x", "@").argument(files)),
+          () -> assertArrayEquals(new String[] { "@x", "é" }, splitter.split("@" + utf8).argument(files))
+      );
+    } finally {
+      Files.delete(file);
+      Files.delete(nested);
+      Files.delete(utf8);
+    }
+  }
+
+  @Test
+  void splitterWithArgumentFilesErrors() throws IOException {
+    var splitter = Splitter.of(Option.varargs("files")).withArgumentFiles();
+    var unmatched = Files.writeString(Files.createTempFile("unmatched", ".txt"), "a 'b");
+    var recursive = Files.createTempFile("recursive", ".txt");
+    Files.writeString(recursive, "a @" + recursive);
+    try {
+      assertAll(
+          () -> assertTrue(assertThrows(SplittingException.class, () -> splitter.split("@" + unmatched))
+              .getMessage().startsWith("unmatched quote")),
+          () -> assertTrue(assertThrows(SplittingException.class, () -> splitter.split("@" + recursive))
+              .getMessage().startsWith("too many nested argument files")),
+          () -> assertTrue(assertThrows(SplittingException.class, () -> splitter.split("@" + recursive + ".missing"))
+              .getCause() instanceof IOException)
+      );
+    } finally {
+      Files.delete(unmatched);
+      Files.delete(recursive);
+    }
+  }
+
+  @Test
+  void splitterWithParallelConversion() {
+    var pool = new ForkJoinPool(4);
+    try {
+      var parallel = ParallelConversion.of(16, pool);
+      var varargs = Option.varargs("values").convert(Integer::parseInt, Integer[]::new, parallel);
+      var repeatable = Option.repeatable("--value").convert(Integer::parseInt, parallel);
+      var splitter = Splitter.of(repeatable, varargs);
+      var args = IntStream.range(0, 10_000).mapToObj(String::valueOf).toArray(String[]::new);
+      var argumentMap = splitter.split(args);
+      var repeated = splitter.split(IntStream.range(0, 1_000).mapToObj(i -> "--value=" + i).toArray(String[]::new));
+      assertAll(
+          () -> assertArrayEquals(IntStream.range(0, 10_000).boxed().toArray(), argumentMap.argument(varargs)),
+          () -> assertEquals(IntStream.range(0, 1_000).boxed().toList(), repeated.argument(repeatable)),
+          () -> assertArrayEquals(new Integer[] { 1, 2 }, splitter.split("1", "2").argument(varargs))
+      );
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void splitterWithParallelConversionFailure() {
+    var varargs = Option.varargs("values").convert(Integer::parseInt, Integer[]::new, ParallelConversion.of(16));
+    var splitter = Splitter.of(varargs);
+    var args = IntStream.range(0, 10_000).mapToObj(i -> i % 1_000 == 999 ? "foo" : String.valueOf(i)).toArray(String[]::new);
+    var small = assertThrows(SplittingException.class, () -> splitter.split("1", "bar", "baz"));
+    var large = assertThrows(SplittingException.class, () -> splitter.split(args));
+    assertAll(
+        () -> assertEquals(SplittingException.Kind.CONVERTER_FAILURE, small.kind()),
+        () -> assertEquals(1, small.elementIndex()),
+        () -> assertTrue(small.getCause() instanceof NumberFormatException),
+        () -> assertEquals(999, large.elementIndex()),
+        () -> assertTrue(large.getMessage().endsWith("at index 999")),
+        () -> assertEquals(-1, assertThrows(SplittingException.class,
+            () -> Splitter.of(Option.varargs("values").convert(Integer::parseInt, Integer[]::new)).split("foo")).elementIndex())
+    );
+  }
+
+  @Test
+  void splitterOfRecordWithParallelConversion() {
+    record Command(List<Integer> ids, Path... files) {}
+    var resolver = ConverterResolver.of(ConverterResolver::basic)
+        .or(ConverterResolver::reflected)
+        .unwrap(ParallelConversion.of(2));
+    var splitter = Splitter.of(lookup(), Command.class, resolver);
+    var command = splitter.split("ids=1,2,3", "a.txt", "b.txt");
+    assertAll(
+        () -> assertEquals(List.of(1, 2, 3), command.ids()),
+        () -> assertArrayEquals(new Path[] { Path.of("a.txt"), Path.of("b.txt") }, command.files()),
+        () -> assertEquals(2, assertThrows(SplittingException.class, () -> splitter.split("a", "b", "\0")).elementIndex())
+    );
+  }
+
+  private static String sleepAndEcho(String value) {
+    try {
+      Thread.sleep(200);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    return value;
+  }
+
+  @Test
+  void splitterWithBlockingConverters() {
+    var threads = ConcurrentHashMap.<Thread>newKeySet();
+    Converter<String, String> slow = Converter.blocking(value -> {
+      threads.add(Thread.currentThread());
+      return sleepAndEcho(value);
+    });
+    var a = Option.single("-a").convert(slow);
+    var b = Option.single("-b").convert(slow);
+    var c = Option.required("c").convert(slow);
+    var d = Option.repeatable("-d").convert(slow);
+    var e = Option.varargs("e").convert(slow, String[]::new);
+    var splitter = Splitter.of(a, b, c, d, e);
+    var start = System.nanoTime();
+    var argumentMap = splitter.split("-a", "1", "-b", "2", "3", "-d", "4", "5");
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+    assertAll(
+        () -> assertEquals(Optional.of("1"), argumentMap.argument(a)),
+        () -> assertEquals(Optional.of("2"), argumentMap.argument(b)),
+        () -> assertEquals("3", argumentMap.argument(c)),
+        () -> assertEquals(List.of("4"), argumentMap.argument(d)),
+        () -> assertArrayEquals(new String[] { "5" }, argumentMap.argument(e)),
+        () -> assertTrue(elapsed.toMillis() < 800, "elapsed " + elapsed),
+        () -> assertTrue(threads.stream().allMatch(Thread::isVirtual))
+    );
+  }
+
+  @Test
+  void splitterWithBlockingConvertersFailure() {
+    var a = Option.single("-a").convert(Converter.blocking(SplitterOptionTests::sleepAndEcho));
+    var b = Option.single("-b").convert(Converter.blocking(Integer::parseInt));
+    var splitter = Splitter.of(a, b);
+    var error = assertThrows(SplittingException.class, () -> splitter.split("-a", "1", "-b", "foo"));
+    assertAll(
+        () -> assertEquals(SplittingException.Kind.CONVERTER_FAILURE, error.kind()),
+        () -> assertEquals(b, error.option()),
+        () -> assertTrue(error.getCause() instanceof NumberFormatException)
+    );
+  }
+
+  @Test
+  void splitterWithConversionTimeout() {
+    var a = Option.single("-a").convert(Converter.blocking(SplitterOptionTests::sleepAndEcho));
+    var b = Option.single("-b").convert(Converter.blocking(value -> value));
+    var splitter = Splitter.of(a, b).withConversionTimeout(Duration.ofMillis(20));
+    var error = assertThrows(SplittingException.class, () -> splitter.split("-a", "1", "-b", "2"));
+    assertAll(
+        () -> assertEquals(a, error.option()),
+        () -> assertTrue(error.getCause() instanceof TimeoutException),
+        () -> assertEquals(Optional.of("1"), Splitter.of(a, b).withConversionTimeout(Duration.ofSeconds(10))
+            .split("-a", "1").argument(a)),
+        () -> assertThrows(IllegalArgumentException.class, () -> splitter.withConversionTimeout(Duration.ZERO))
+    );
+  }
+
+  @Test
+  void splitterWithConversionTimeoutWaitsForTheInterruptedConverters() {
+    var stopped = new AtomicBoolean();
+    var a = Option.single("-a").convert(Converter.blocking(value -> {
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        // ignore the interruptions for a while
+        var end = System.nanoTime() + 200_000_000;
+        while (System.nanoTime() < end) {
+          Thread.interrupted();
+          LockSupport.parkNanos(end - System.nanoTime());
+        }
+        stopped.set(true);
+      }
+      return value;
+    }));
+    var splitter = Splitter.of(a).withConversionTimeout(Duration.ofMillis(20));
+    var error = assertThrows(SplittingException.class, () -> splitter.split("-a", "1"));
+    assertAll(
+        () -> assertTrue(error.getCause() instanceof TimeoutException),
+        () -> assertTrue(stopped.get())
+    );
+  }
+
+  @Test
+  void splitterWithConversionTimeoutStartsWithTheSplit() {
+    record Inner(URI uri) {}
+    record Command(Optional<Path> path, Inner inner) {}
+    // the nested record is converted before the blocking converter of the path is called,
+    // each conversion takes 200 ms so only the sum of both exceeds the timeout
+    ConverterResolver resolver = (lookup, type) ->
+        type == URI.class ? Optional.of(value -> URI.create(sleepAndEcho((String) value)))
+            : type == Path.class ? Optional.of(Converter.blocking(value -> Path.of(sleepAndEcho((String) value))))
+            : Optional.empty();
+    var splitter = Splitter.of(lookup(), Command.class, resolver.or(ConverterResolver.defaultResolver()).unwrap())
+        .withConversionTimeout(Duration.ofMillis(300));
+    var error = assertThrows(SplittingException.class, () -> splitter.split("path", "a", "inner", "b"));
+    assertAll(
+        () -> assertEquals("path", error.option().names().iterator().next()),
+        () -> assertTrue(error.getCause() instanceof TimeoutException)
+    );
+  }
+
+  @Test
+  void splitterOfRecordWithBlockingConverters() {
+    record Command(Optional<URI> key, URI... keys) {}
+    ConverterResolver resolver = (lookup, type) -> type == URI.class
+        ? Optional.of(Converter.blocking(value -> URI.create(sleepAndEcho((String) value))))
+        : Optional.empty();
+    var splitter = Splitter.of(lookup(), Command.class, resolver.or(ConverterResolver.defaultResolver()).unwrap());
+    var start = System.nanoTime();
+    var command = splitter.split("key", "a", "b");
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+    assertAll(
+        () -> assertEquals(Optional.of(URI.create("a")), command.key()),
+        () -> assertArrayEquals(new URI[] { URI.create("b") }, command.keys()),
+        () -> assertTrue(elapsed.toMillis() < 400, "elapsed " + elapsed)
+    );
+  }
+
+  @Test
+  void splitterSessionPreconditions() {
+    var session = Splitter.of(Option.flag("-f")).session();
+    assertThrows(NullPointerException.class, () -> session.accept(null));
+  }
+
+  @Test
+  void splitterSplitAll() {
+    record Data(Optional<Integer> count, String name) {}
+    var splitter = Splitter.of(lookup(), Data.class);
+    var commandLines = List.of(
+        new String[] { "count", "1", "foo" },
+        new String[] { "count", "bar" },
+        new String[] { "baz" },
+        new String[0]);
+
+    var batch = splitter.splitAll(commandLines);
+    assertAll(
+        () -> assertEquals(4, batch.size()),
+        () -> assertEquals(Arrays.asList(new Data(Optional.of(1), "foo"), null, new Data(Optional.empty(), "baz"), null), batch.values()),
+        () -> assertEquals(List.of(1, 3), List.copyOf(batch.errors().keySet())),
+        () -> assertEquals(new Data(Optional.of(1), "foo"), batch.value(0)),
+        () -> assertThrows(SplittingException.class, () -> batch.value(1)),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> batch.value(4)),
+        () -> assertEquals("Batch[size=4, errors=[1, 3]]", batch.toString())
+    );
+  }
+
+  @Test
+  void splitterSplitAllExecutions() {
+    var count = Option.single("--count").convert(Integer::parseInt);
+    var name = Option.required("name");
+    var splitter = Splitter.of(count, name);
+    var commandLines = IntStream.range(0, 10_000)
+        .mapToObj(i -> i % 100 == 0 ? new String[] { "--count", "x" + i, "foo" } : new String[] { "--count", "" + i, "foo" })
+        .toList();
+
+    for (var execution : Splitter.Execution.values()) {
+      var batch = splitter.splitAll(commandLines, execution);
+      assertAll(
+          () -> assertEquals(10_000, batch.size()),
+          () -> assertEquals(IntStream.range(0, 100).map(i -> i * 100).boxed().toList(), List.copyOf(batch.errors().keySet())),
+          () -> assertEquals(Optional.of(4_242), batch.value(4_242).argument(count)),
+          () -> assertEquals("foo", batch.value(9_999).argument(name))
+      );
+    }
+  }
+
+  @Test
+  void splitterSplitAllPreconditions() {
+    var splitter = Splitter.of(Option.required("foo"));
+    var commandLines = Arrays.asList(new String[] { "foo" }, null);
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> splitter.splitAll(null)),
+        () -> assertThrows(NullPointerException.class, () -> splitter.splitAll(List.of(), null)),
+        () -> assertThrows(NullPointerException.class, () -> splitter.splitAll(commandLines)),
+        () -> assertThrows(NullPointerException.class, () -> splitter.splitAll(List.<String[]>of(new String[] { null }), Splitter.Execution.PARALLEL)),
+        () -> assertThrows(NullPointerException.class, () -> splitter.splitAll(List.<String[]>of(new String[] { null }), Splitter.Execution.VIRTUAL_THREADS))
+    );
+  }
+
   @Test
   void splitterOfOptionMapConversions() {
     var flag = Option.flag("-flag").convert(b -> !b);
@@ -503,7 +1014,121 @@ public class SplitterOptionTests {
     assertAll(
         () -> assertThrows(NullPointerException.class, () -> splitter.split((List<String>) null)),
         () -> assertThrows(NullPointerException.class, () -> splitter.split((String[]) null)),
+        () -> assertThrows(NullPointerException.class, () -> splitter.split(null, 0, 0)),
+        () -> assertThrows(NullPointerException.class, () -> splitter.split("foo", null)),
         () -> assertThrows(NullPointerException.class, () -> splitter.split((Stream<String>) null))
     );
   }
+
+  @Test
+  void splittingExceptionStructuredData() {
+    var flag = Option.flag("-f");
+    var required = Option.required("name");
+    var single = Option.single("--single").convert(Integer::parseInt);
+    var splitter = Splitter.of(flag, required, single);
+    var unhandled = assertThrows(SplittingException.class, () -> splitter.split("-f", "foo", "bar", "baz"));
+    var missingValue = assertThrows(SplittingException.class, () -> splitter.split("foo", "--single"));
+    var missingRequired = assertThrows(SplittingException.class, () -> splitter.split("-f"));
+    var converter = assertThrows(SplittingException.class, () -> splitter.split("foo", "--single", "one"));
+    assertAll(
+        () -> assertEquals(SplittingException.Kind.UNHANDLED_ARGUMENTS, unhandled.kind()),
+        () -> assertEquals(2, unhandled.index()),
+        () -> assertEquals("Unhandled arguments: [bar, baz]", unhandled.getMessage()),
+        () -> assertEquals(SplittingException.Kind.MISSING_VALUE, missingValue.kind()),
+        () -> assertEquals(single, missingValue.option()),
+        () -> assertEquals(SplittingException.Kind.MISSING_REQUIRED, missingRequired.kind()),
+        () -> assertEquals(required, missingRequired.option()),
+        () -> assertEquals("Required option(s) missing: [REQUIRED[name]]", missingRequired.getMessage()),
+        () -> assertEquals(SplittingException.Kind.CONVERTER_FAILURE, converter.kind()),
+        () -> assertEquals(single, converter.option()),
+        () -> assertTrue(converter.getCause() instanceof NumberFormatException)
+    );
+  }
+
+  @Test
+  void splittingExceptionTruncatedMessage() {
+    var flag = Option.flag("-f");
+    var splitter = Splitter.of(flag);
+    var args = Stream.concat(Stream.of("x".repeat(100)), IntStream.range(0, 1_000).mapToObj(i -> "arg" + i))
+        .toArray(String[]::new);
+    var e = assertThrows(SplittingException.class, () -> splitter.split(args));
+    assertAll(
+        () -> assertEquals(0, e.index()),
+        () -> assertEquals("Unhandled arguments: [" + "x".repeat(80) + "..., arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, ... (991 more)]",
+            e.getMessage())
+    );
+  }
+
+  @Test
+  void splitterWithLightweightErrors() {
+    var flag = Option.flag("-f");
+    var required = Option.required("name");
+    var splitter = Splitter.of(flag, required).withLightweightErrors();
+    var unhandled = assertThrows(SplittingException.class, () -> splitter.split("foo", "bar"));
+    var missingRequired = assertThrows(SplittingException.class, () -> splitter.split("-f"));
+    var session = splitter.session();
+    session.accept("-f");
+    session.accept("foo");
+    var sessionError = assertThrows(SplittingException.class, () -> session.accept("bar"));
+    assertAll(
+        () -> assertEquals(0, unhandled.getStackTrace().length),
+        () -> assertEquals(1, unhandled.index()),
+        () -> assertEquals("Unhandled arguments: [bar]", unhandled.getMessage()),
+        () -> assertEquals(0, missingRequired.getStackTrace().length),
+        () -> assertEquals(0, sessionError.getStackTrace().length),
+        () -> assertEquals(2, sessionError.index()),
+        () -> assertTrue(Splitter.of(flag).split("-f").argument(flag)),
+        () -> assertTrue(assertThrows(SplittingException.class, () -> Splitter.of(flag).split("foo")).getStackTrace().length != 0)
+    );
+  }
+
+  @Test
+  void splitterWithLightweightErrorsConverter() {
+    var required = Option.required("name").convert(Integer::parseInt);
+    var schema = Splitter.of(required).schema();
+    var lightweight = Splitter.of(schema).withLightweightErrors();
+    assertAll(
+        () -> assertEquals(0, assertThrows(SplittingException.class, () -> lightweight.split("foo")).getStackTrace().length),
+        () -> assertTrue(assertThrows(SplittingException.class, () -> Splitter.of(schema).split("foo")).getStackTrace().length != 0)
+    );
+  }
+
+  @Test
+  void splitterRecordsFlightRecorderEvents() throws IOException {
+    record Command(boolean verbose, Optional<Integer> level) {}
+    var file = Files.createTempFile("split", ".jfr");
+    try {
+      try (var recording = new Recording()) {
+        recording.enable("main.SchemaBuild");
+        recording.enable("main.Split");
+        recording.enable("main.Conversion");
+        recording.start();
+        var splitter = Splitter.of(lookup(), Command.class);
+        splitter.split("verbose", "level", "3");
+        assertThrows(SplittingException.class, () -> splitter.split("level", "foo"));
+        var session = splitter.session();
+        session.accept("verbose");
+        session.finish();
+        assertThrows(SplittingException.class, () -> splitter.session().accept("foo"));
+        recording.stop();
+        recording.dump(file);
+      }
+      var events = RecordingFile.readAllEvents(file);
+      var outcomes = events.stream()
+          .filter(event -> event.getEventType().getName().equals("main.Split"))
+          .map(event -> event.getString("outcome"))
+          .toList();
+      assertAll(
+          () -> assertEquals(1L, count(events, "main.SchemaBuild")),
+          () -> assertEquals(List.of("ACCEPTED", "CONVERTER_FAILURE", "ACCEPTED", "UNHANDLED_ARGUMENTS"), outcomes),
+          () -> assertTrue(count(events, "main.Conversion") >= 4)
+      );
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static long count(List<RecordedEvent> events, String name) {
+    return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+  }
 }